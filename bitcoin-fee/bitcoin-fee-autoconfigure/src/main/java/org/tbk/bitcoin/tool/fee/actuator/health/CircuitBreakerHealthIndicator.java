@@ -0,0 +1,49 @@
+package org.tbk.bitcoin.tool.fee.actuator.health;
+
+import com.google.common.collect.ImmutableMap;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthContributor;
+import org.tbk.bitcoin.tool.fee.circuitbreaker.CircuitBreaker;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reports the state of the circuit breakers of all fee providers.
+ * The indicator is only "down" if every provider is excluded - a single open breaker
+ * is reported in the details, as the remaining providers still serve requests.
+ */
+public class CircuitBreakerHealthIndicator extends AbstractHealthIndicator implements HealthContributor {
+    private final Supplier<List<CircuitBreaker>> circuitBreakers;
+
+    public CircuitBreakerHealthIndicator(Supplier<List<CircuitBreaker>> circuitBreakers) {
+        this.circuitBreakers = requireNonNull(circuitBreakers);
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        List<CircuitBreaker> breakers = circuitBreakers.get();
+
+        boolean allOpen = !breakers.isEmpty() && breakers.stream()
+                .allMatch(it -> it.getState() == CircuitBreaker.State.OPEN);
+
+        if (allOpen) {
+            builder.down();
+        } else {
+            builder.up();
+        }
+
+        for (CircuitBreaker breaker : breakers) {
+            builder.withDetail(breaker.getName(), ImmutableMap.<String, Object>builder()
+                    .put("state", breaker.getState())
+                    .put("failureRate", breaker.getFailureRate())
+                    .put("slowCallRate", breaker.getSlowCallRate())
+                    .put("notPermittedCount", breaker.getNotPermittedCount())
+                    .put("openedCount", breaker.getOpenedCount())
+                    .build());
+        }
+    }
+}
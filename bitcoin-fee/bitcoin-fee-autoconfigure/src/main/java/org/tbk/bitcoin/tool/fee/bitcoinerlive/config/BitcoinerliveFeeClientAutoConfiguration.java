@@ -9,6 +9,10 @@ import org.springframework.context.annotation.Configuration;
 import org.tbk.bitcoin.tool.fee.bitcoinerlive.BitcoinerliveFeeApiClient;
 import org.tbk.bitcoin.tool.fee.bitcoinerlive.BitcoinerliveFeeApiClientImpl;
 import org.tbk.bitcoin.tool.fee.bitcoinerlive.BitcoinerliveFeeProvider;
+import org.tbk.bitcoin.tool.fee.config.FeeApiClientCaching;
+import org.tbk.bitcoin.tool.fee.http.FeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.JdkFeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.SingleFlightFeeApiHttpClient;
 
 import static java.util.Objects.requireNonNull;
 
@@ -33,7 +37,13 @@ public class BitcoinerliveFeeClientAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean(BitcoinerliveFeeApiClient.class)
     BitcoinerliveFeeApiClient bitcoinerliveFeeApiClient() {
-        return new BitcoinerliveFeeApiClientImpl(properties.getBaseUrl(), properties.getToken().orElse(null));
+        FeeApiHttpClient httpClient = SingleFlightFeeApiHttpClient.of(JdkFeeApiHttpClient.builder()
+                .requestTimeout(properties.getRequestTimeout().orElse(null))
+                .build());
+
+        BitcoinerliveFeeApiClient client = new BitcoinerliveFeeApiClientImpl(properties.getBaseUrl(), properties.getToken().orElse(null), httpClient);
+
+        return FeeApiClientCaching.withCache(BitcoinerliveFeeApiClient.class, client, "bitcoinerlive", properties);
     }
 
     @Bean
@@ -9,6 +9,10 @@ import org.springframework.context.annotation.Configuration;
 import org.tbk.bitcoin.tool.fee.bitcore.BitcoreFeeApiClient;
 import org.tbk.bitcoin.tool.fee.bitcore.BitcoreFeeApiClientImpl;
 import org.tbk.bitcoin.tool.fee.bitcore.BitcoreFeeProvider;
+import org.tbk.bitcoin.tool.fee.config.FeeApiClientCaching;
+import org.tbk.bitcoin.tool.fee.http.FeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.JdkFeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.SingleFlightFeeApiHttpClient;
 
 import static java.util.Objects.requireNonNull;
 
@@ -33,7 +37,13 @@ public class BitcoreFeeClientAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean(BitcoreFeeApiClient.class)
     BitcoreFeeApiClient bitcoreFeeApiClient() {
-        return new BitcoreFeeApiClientImpl(properties.getBaseUrl(), properties.getToken().orElse(null));
+        FeeApiHttpClient httpClient = SingleFlightFeeApiHttpClient.of(JdkFeeApiHttpClient.builder()
+                .requestTimeout(properties.getRequestTimeout().orElse(null))
+                .build());
+
+        BitcoreFeeApiClient client = new BitcoreFeeApiClientImpl(properties.getBaseUrl(), properties.getToken().orElse(null), httpClient);
+
+        return FeeApiClientCaching.withCache(BitcoreFeeApiClient.class, client, "bitcore", properties);
     }
 
     @Bean
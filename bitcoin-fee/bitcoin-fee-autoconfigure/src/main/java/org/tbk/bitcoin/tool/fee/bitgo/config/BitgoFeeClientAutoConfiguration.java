@@ -1,7 +1,5 @@
 package org.tbk.bitcoin.tool.fee.bitgo.config;
 
-import com.google.common.cache.CacheBuilderSpec;
-import com.google.common.collect.ImmutableMap;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -11,8 +9,10 @@ import org.springframework.context.annotation.Configuration;
 import org.tbk.bitcoin.tool.fee.bitgo.BitgoFeeApiClient;
 import org.tbk.bitcoin.tool.fee.bitgo.BitgoFeeApiClientImpl;
 import org.tbk.bitcoin.tool.fee.bitgo.BitgoFeeProvider;
-import org.tbk.bitcoin.tool.fee.bitgo.CachingBitgoFeeApiClient;
-import org.tbk.bitcoin.tool.fee.util.MoreCacheBuilder;
+import org.tbk.bitcoin.tool.fee.config.FeeApiClientCaching;
+import org.tbk.bitcoin.tool.fee.http.FeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.JdkFeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.SingleFlightFeeApiHttpClient;
 
 import static java.util.Objects.requireNonNull;
 
@@ -37,12 +37,13 @@ public class BitgoFeeClientAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean(BitgoFeeApiClient.class)
     BitgoFeeApiClient bitgoFeeApiClient() {
-        BitgoFeeApiClientImpl bitgoFeeApiClient = new BitgoFeeApiClientImpl(properties.getBaseUrl(), properties.getToken().orElse(null));
+        FeeApiHttpClient httpClient = SingleFlightFeeApiHttpClient.of(JdkFeeApiHttpClient.builder()
+                .requestTimeout(properties.getRequestTimeout().orElse(null))
+                .build());
+
+        BitgoFeeApiClient client = new BitgoFeeApiClientImpl(properties.getBaseUrl(), properties.getToken().orElse(null), httpClient);
 
-        return CachingBitgoFeeApiClient.builder()
-                .delegate(bitgoFeeApiClient)
-                .responseCacheBuilderSpec(defaultResponseCacheBuilderSpec())
-                .build();
+        return FeeApiClientCaching.withCache(BitgoFeeApiClient.class, client, "bitgo", properties);
     }
 
     @Bean
@@ -50,12 +51,4 @@ public class BitgoFeeClientAutoConfiguration {
     BitgoFeeProvider bitgoFeeProvider(BitgoFeeApiClient bitgoFeeApiClient) {
         return new BitgoFeeProvider(bitgoFeeApiClient);
     }
-
-    private CacheBuilderSpec defaultResponseCacheBuilderSpec() {
-        return MoreCacheBuilder.toCacheBuilderSpec(ImmutableMap.<String, String>builder()
-                .put("initialCapacity", Long.toString(1))
-                .put("maximumSize", Long.toString(1))
-                .put("expireAfterWrite", "30s")
-                .build());
-    }
 }
@@ -9,6 +9,10 @@ import org.springframework.context.annotation.Configuration;
 import org.tbk.bitcoin.tool.fee.blockchaininfo.BlockchainInfoFeeApiClient;
 import org.tbk.bitcoin.tool.fee.blockchaininfo.BlockchainInfoFeeApiClientImpl;
 import org.tbk.bitcoin.tool.fee.blockchaininfo.BlockchainInfoFeeProvider;
+import org.tbk.bitcoin.tool.fee.config.FeeApiClientCaching;
+import org.tbk.bitcoin.tool.fee.http.FeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.JdkFeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.SingleFlightFeeApiHttpClient;
 
 import static java.util.Objects.requireNonNull;
 
@@ -33,7 +37,13 @@ public class BlockchainInfoFeeClientAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean(BlockchainInfoFeeApiClient.class)
     BlockchainInfoFeeApiClient blockchainInfoFeeApiClient() {
-        return new BlockchainInfoFeeApiClientImpl(properties.getBaseUrl(), properties.getToken().orElse(null));
+        FeeApiHttpClient httpClient = SingleFlightFeeApiHttpClient.of(JdkFeeApiHttpClient.builder()
+                .requestTimeout(properties.getRequestTimeout().orElse(null))
+                .build());
+
+        BlockchainInfoFeeApiClient client = new BlockchainInfoFeeApiClientImpl(properties.getBaseUrl(), properties.getToken().orElse(null), httpClient);
+
+        return FeeApiClientCaching.withCache(BlockchainInfoFeeApiClient.class, client, "blockchaininfo", properties);
     }
 
     @Bean
@@ -9,6 +9,10 @@ import org.springframework.context.annotation.Configuration;
 import org.tbk.bitcoin.tool.fee.blockchair.BlockchairFeeApiClient;
 import org.tbk.bitcoin.tool.fee.blockchair.BlockchairFeeApiClientImpl;
 import org.tbk.bitcoin.tool.fee.blockchair.BlockchairFeeProvider;
+import org.tbk.bitcoin.tool.fee.config.FeeApiClientCaching;
+import org.tbk.bitcoin.tool.fee.http.FeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.JdkFeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.SingleFlightFeeApiHttpClient;
 
 import static java.util.Objects.requireNonNull;
 
@@ -33,7 +37,13 @@ public class BlockchairFeeClientAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean(BlockchairFeeApiClient.class)
     BlockchairFeeApiClient blockchairFeeApiClient() {
-        return new BlockchairFeeApiClientImpl(properties.getBaseUrl(), properties.getToken().orElse(null));
+        FeeApiHttpClient httpClient = SingleFlightFeeApiHttpClient.of(JdkFeeApiHttpClient.builder()
+                .requestTimeout(properties.getRequestTimeout().orElse(null))
+                .build());
+
+        BlockchairFeeApiClient client = new BlockchairFeeApiClientImpl(properties.getBaseUrl(), properties.getToken().orElse(null), httpClient);
+
+        return FeeApiClientCaching.withCache(BlockchairFeeApiClient.class, client, "blockchair", properties);
     }
 
     @Bean
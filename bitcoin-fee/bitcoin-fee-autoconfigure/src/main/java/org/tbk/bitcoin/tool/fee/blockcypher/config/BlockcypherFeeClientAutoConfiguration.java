@@ -9,6 +9,10 @@ import org.springframework.context.annotation.Configuration;
 import org.tbk.bitcoin.tool.fee.blockcypher.BlockcypherFeeApiClient;
 import org.tbk.bitcoin.tool.fee.blockcypher.BlockcypherFeeApiClientImpl;
 import org.tbk.bitcoin.tool.fee.blockcypher.BlockcypherFeeProvider;
+import org.tbk.bitcoin.tool.fee.config.FeeApiClientCaching;
+import org.tbk.bitcoin.tool.fee.http.FeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.JdkFeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.SingleFlightFeeApiHttpClient;
 
 import static java.util.Objects.requireNonNull;
 
@@ -33,7 +37,13 @@ public class BlockcypherFeeClientAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean(BlockcypherFeeApiClient.class)
     BlockcypherFeeApiClient blockcypherFeeApiClient() {
-        return new BlockcypherFeeApiClientImpl(properties.getBaseUrl(), properties.getToken().orElse(null));
+        FeeApiHttpClient httpClient = SingleFlightFeeApiHttpClient.of(JdkFeeApiHttpClient.builder()
+                .requestTimeout(properties.getRequestTimeout().orElse(null))
+                .build());
+
+        BlockcypherFeeApiClient client = new BlockcypherFeeApiClientImpl(properties.getBaseUrl(), properties.getToken().orElse(null), httpClient);
+
+        return FeeApiClientCaching.withCache(BlockcypherFeeApiClient.class, client, "blockcypher", properties);
     }
 
     @Bean
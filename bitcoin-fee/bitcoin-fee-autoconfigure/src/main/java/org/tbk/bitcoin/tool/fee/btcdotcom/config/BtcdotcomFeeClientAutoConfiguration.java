@@ -9,6 +9,10 @@ import org.springframework.context.annotation.Configuration;
 import org.tbk.bitcoin.tool.fee.btcdotcom.BtcdotcomFeeApiClient;
 import org.tbk.bitcoin.tool.fee.btcdotcom.BtcdotcomFeeApiClientImpl;
 import org.tbk.bitcoin.tool.fee.btcdotcom.BtcdotcomFeeProvider;
+import org.tbk.bitcoin.tool.fee.config.FeeApiClientCaching;
+import org.tbk.bitcoin.tool.fee.http.FeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.JdkFeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.SingleFlightFeeApiHttpClient;
 
 import static java.util.Objects.requireNonNull;
 
@@ -33,7 +37,13 @@ public class BtcdotcomFeeClientAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean(BtcdotcomFeeApiClient.class)
     BtcdotcomFeeApiClient btcdotcomFeeApiClient() {
-        return new BtcdotcomFeeApiClientImpl(properties.getBaseUrl(), properties.getToken().orElse(null));
+        FeeApiHttpClient httpClient = SingleFlightFeeApiHttpClient.of(JdkFeeApiHttpClient.builder()
+                .requestTimeout(properties.getRequestTimeout().orElse(null))
+                .build());
+
+        BtcdotcomFeeApiClient client = new BtcdotcomFeeApiClientImpl(properties.getBaseUrl(), properties.getToken().orElse(null), httpClient);
+
+        return FeeApiClientCaching.withCache(BtcdotcomFeeApiClient.class, client, "btcdotcom", properties);
     }
 
     @Bean
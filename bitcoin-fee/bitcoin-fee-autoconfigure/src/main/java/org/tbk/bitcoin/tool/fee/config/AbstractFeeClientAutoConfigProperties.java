@@ -5,6 +5,7 @@ import lombok.Data;
 import org.springframework.validation.Errors;
 import org.springframework.validation.Validator;
 
+import java.time.Duration;
 import java.util.Optional;
 
 @Data
@@ -16,6 +17,13 @@ public abstract class AbstractFeeClientAutoConfigProperties implements Validator
 
     private String token;
 
+    /**
+     * Maximum duration a single http request to the api may take. Defaults to 10 seconds if not set.
+     */
+    private Duration requestTimeout;
+
+    private CacheProperties cache = new CacheProperties();
+
     protected abstract String getDefaultBaseUrl();
 
     public String getBaseUrl() {
@@ -27,6 +35,10 @@ public abstract class AbstractFeeClientAutoConfigProperties implements Validator
         return Optional.ofNullable(token);
     }
 
+    public Optional<Duration> getRequestTimeout() {
+        return Optional.ofNullable(requestTimeout);
+    }
+
     @Override
     public boolean supports(Class<?> clazz) {
         return AbstractFeeClientAutoConfigProperties.class.isAssignableFrom(clazz);
@@ -47,5 +59,77 @@ public abstract class AbstractFeeClientAutoConfigProperties implements Validator
                 errors.rejectValue("baseUrl", "baseUrl.invalid", errorMessage);
             }
         }
+
+        Duration requestTimeout = properties.getRequestTimeout().orElse(null);
+        if (requestTimeout != null) {
+            boolean isPositive = !requestTimeout.isNegative() && !requestTimeout.isZero();
+            if (!isPositive) {
+                String errorMessage = String.format("'requestTimeout' must be positive - invalid value: %s", requestTimeout);
+                errors.rejectValue("requestTimeout", "requestTimeout.invalid", errorMessage);
+            }
+        }
+
+        CacheProperties cache = properties.getCache();
+        if (cache.isEnabled()) {
+            Duration expireAfterWrite = cache.getExpireAfterWrite();
+            if (expireAfterWrite == null || expireAfterWrite.isNegative() || expireAfterWrite.isZero()) {
+                String errorMessage = String.format("'cache.expireAfterWrite' must be positive - invalid value: %s", expireAfterWrite);
+                errors.rejectValue("cache.expireAfterWrite", "cache.expireAfterWrite.invalid", errorMessage);
+            } else {
+                Duration refreshAfterWrite = cache.getRefreshAfterWrite().orElse(null);
+                if (refreshAfterWrite != null && (refreshAfterWrite.isNegative() || refreshAfterWrite.isZero() || refreshAfterWrite.compareTo(expireAfterWrite) >= 0)) {
+                    String errorMessage = String.format("'cache.refreshAfterWrite' must be positive and less than 'cache.expireAfterWrite' - invalid value: %s", refreshAfterWrite);
+                    errors.rejectValue("cache.refreshAfterWrite", "cache.refreshAfterWrite.invalid", errorMessage);
+                }
+
+                Duration maxStaleness = cache.getMaxStaleness().orElse(null);
+                if (maxStaleness != null && maxStaleness.compareTo(expireAfterWrite) < 0) {
+                    String errorMessage = String.format("'cache.maxStaleness' must be greater or equal to 'cache.expireAfterWrite' - invalid value: %s", maxStaleness);
+                    errors.rejectValue("cache.maxStaleness", "cache.maxStaleness.invalid", errorMessage);
+                }
+            }
+
+            if (cache.getMaximumSize() <= 0) {
+                String errorMessage = String.format("'cache.maximumSize' must be positive - invalid value: %d", cache.getMaximumSize());
+                errors.rejectValue("cache.maximumSize", "cache.maximumSize.invalid", errorMessage);
+            }
+        }
+    }
+
+    @Data
+    public static class CacheProperties {
+
+        /**
+         * Whether to cache api responses.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Duration for which a cached response is served without contacting the api.
+         */
+        private Duration expireAfterWrite = Duration.ofSeconds(30);
+
+        /**
+         * Duration after which a cached response is refreshed in the background. Must be less than 'expireAfterWrite'.
+         */
+        private Duration refreshAfterWrite;
+
+        /**
+         * Duration for which an expired response is served if fetching a fresh one fails.
+         */
+        private Duration maxStaleness;
+
+        /**
+         * Maximum number of cached responses.
+         */
+        private long maximumSize = 100;
+
+        public Optional<Duration> getRefreshAfterWrite() {
+            return Optional.ofNullable(refreshAfterWrite);
+        }
+
+        public Optional<Duration> getMaxStaleness() {
+            return Optional.ofNullable(maxStaleness);
+        }
     }
 }
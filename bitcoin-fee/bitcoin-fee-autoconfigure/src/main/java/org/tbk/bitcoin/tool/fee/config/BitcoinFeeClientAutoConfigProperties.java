@@ -2,6 +2,12 @@ package org.tbk.bitcoin.tool.fee.config;
 
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
 
 @Data
 @ConfigurationProperties(
@@ -10,8 +16,220 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
         // this enables sub-keys for every client, e.g. "org.tbk.bitcoin.tool.fee.mempoolspace.enabled"
         ignoreUnknownFields = true
 )
-public class BitcoinFeeClientAutoConfigProperties {
+public class BitcoinFeeClientAutoConfigProperties implements Validator {
 
     private boolean enabled;
 
+    private CompositeProperties composite = new CompositeProperties();
+
+    private SnapshotProperties snapshot = new SnapshotProperties();
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return clazz == BitcoinFeeClientAutoConfigProperties.class;
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        BitcoinFeeClientAutoConfigProperties properties = (BitcoinFeeClientAutoConfigProperties) target;
+
+        Duration deadline = properties.getComposite().getDeadline().orElse(null);
+        if (deadline != null && (deadline.isNegative() || deadline.isZero())) {
+            String errorMessage = String.format("'composite.deadline' must be positive - invalid value: %s", deadline);
+            errors.rejectValue("composite.deadline", "composite.deadline.invalid", errorMessage);
+        }
+
+        Integer quorum = properties.getComposite().getQuorum().orElse(null);
+        if (quorum != null && quorum <= 0) {
+            String errorMessage = String.format("'composite.quorum' must be positive - invalid value: %d", quorum);
+            errors.rejectValue("composite.quorum", "composite.quorum.invalid", errorMessage);
+        }
+
+        double trimFraction = properties.getComposite().getTrimFraction();
+        if (trimFraction < 0d || trimFraction >= 0.5d) {
+            String errorMessage = String.format("'composite.trimFraction' must be in range [0, 0.5) - invalid value: %s", trimFraction);
+            errors.rejectValue("composite.trimFraction", "composite.trimFraction.invalid", errorMessage);
+        }
+
+        CircuitBreakerProperties circuitBreaker = properties.getComposite().getCircuitBreaker();
+        if (circuitBreaker.isEnabled()) {
+            validateCircuitBreaker(circuitBreaker, errors);
+        }
+
+        SnapshotProperties snapshotProperties = properties.getSnapshot();
+        Duration refreshInterval = snapshotProperties.getRefreshInterval();
+        if (refreshInterval == null || refreshInterval.isNegative() || refreshInterval.isZero()) {
+            String errorMessage = String.format("'snapshot.refreshInterval' must be positive - invalid value: %s", refreshInterval);
+            errors.rejectValue("snapshot.refreshInterval", "snapshot.refreshInterval.invalid", errorMessage);
+        } else if (snapshotProperties.getMaxStaleness() == null || snapshotProperties.getMaxStaleness().compareTo(refreshInterval) < 0) {
+            String errorMessage = String.format("'snapshot.maxStaleness' must be greater or equal to 'snapshot.refreshInterval' - invalid value: %s", snapshotProperties.getMaxStaleness());
+            errors.rejectValue("snapshot.maxStaleness", "snapshot.maxStaleness.invalid", errorMessage);
+        }
+
+        List<Long> blockTargets = snapshotProperties.getBlockTargets();
+        if (blockTargets == null || blockTargets.isEmpty() || blockTargets.stream().anyMatch(it -> it == null || it <= 0)) {
+            String errorMessage = String.format("'snapshot.blockTargets' must contain positive values only - invalid value: %s", blockTargets);
+            errors.rejectValue("snapshot.blockTargets", "snapshot.blockTargets.invalid", errorMessage);
+        }
+    }
+
+    private static void validateCircuitBreaker(CircuitBreakerProperties circuitBreaker, Errors errors) {
+        double failureRateThreshold = circuitBreaker.getFailureRateThreshold();
+        if (failureRateThreshold <= 0d || failureRateThreshold > 1d) {
+            String errorMessage = String.format("'composite.circuitBreaker.failureRateThreshold' must be in range (0, 1] - invalid value: %s", failureRateThreshold);
+            errors.rejectValue("composite.circuitBreaker.failureRateThreshold", "composite.circuitBreaker.failureRateThreshold.invalid", errorMessage);
+        }
+
+        double slowCallRateThreshold = circuitBreaker.getSlowCallRateThreshold();
+        if (slowCallRateThreshold <= 0d || slowCallRateThreshold > 1d) {
+            String errorMessage = String.format("'composite.circuitBreaker.slowCallRateThreshold' must be in range (0, 1] - invalid value: %s", slowCallRateThreshold);
+            errors.rejectValue("composite.circuitBreaker.slowCallRateThreshold", "composite.circuitBreaker.slowCallRateThreshold.invalid", errorMessage);
+        }
+
+        Duration slowCallDurationThreshold = circuitBreaker.getSlowCallDurationThreshold();
+        if (slowCallDurationThreshold == null || slowCallDurationThreshold.isNegative() || slowCallDurationThreshold.isZero()) {
+            String errorMessage = String.format("'composite.circuitBreaker.slowCallDurationThreshold' must be positive - invalid value: %s", slowCallDurationThreshold);
+            errors.rejectValue("composite.circuitBreaker.slowCallDurationThreshold", "composite.circuitBreaker.slowCallDurationThreshold.invalid", errorMessage);
+        }
+
+        int slidingWindowSize = circuitBreaker.getSlidingWindowSize();
+        if (slidingWindowSize <= 0) {
+            String errorMessage = String.format("'composite.circuitBreaker.slidingWindowSize' must be positive - invalid value: %d", slidingWindowSize);
+            errors.rejectValue("composite.circuitBreaker.slidingWindowSize", "composite.circuitBreaker.slidingWindowSize.invalid", errorMessage);
+        }
+
+        int minimumNumberOfCalls = circuitBreaker.getMinimumNumberOfCalls();
+        if (minimumNumberOfCalls <= 0 || minimumNumberOfCalls > slidingWindowSize) {
+            String errorMessage = String.format("'composite.circuitBreaker.minimumNumberOfCalls' must be positive and must not exceed 'slidingWindowSize' - invalid value: %d", minimumNumberOfCalls);
+            errors.rejectValue("composite.circuitBreaker.minimumNumberOfCalls", "composite.circuitBreaker.minimumNumberOfCalls.invalid", errorMessage);
+        }
+
+        Duration waitDurationInOpenState = circuitBreaker.getWaitDurationInOpenState();
+        if (waitDurationInOpenState == null || waitDurationInOpenState.isNegative()) {
+            String errorMessage = String.format("'composite.circuitBreaker.waitDurationInOpenState' must not be negative - invalid value: %s", waitDurationInOpenState);
+            errors.rejectValue("composite.circuitBreaker.waitDurationInOpenState", "composite.circuitBreaker.waitDurationInOpenState.invalid", errorMessage);
+        }
+
+        int permittedCallsInHalfOpenState = circuitBreaker.getPermittedCallsInHalfOpenState();
+        if (permittedCallsInHalfOpenState <= 0) {
+            String errorMessage = String.format("'composite.circuitBreaker.permittedCallsInHalfOpenState' must be positive - invalid value: %d", permittedCallsInHalfOpenState);
+            errors.rejectValue("composite.circuitBreaker.permittedCallsInHalfOpenState", "composite.circuitBreaker.permittedCallsInHalfOpenState.invalid", errorMessage);
+        }
+    }
+
+    @Data
+    public static class CompositeProperties {
+
+        /**
+         * Maximum duration to wait for responses of fee providers.
+         * Responses of providers that did not answer in time are discarded.
+         */
+        private Duration deadline;
+
+        /**
+         * Number of responses after which a request completes.
+         * Remaining provider requests are cancelled.
+         */
+        private Integer quorum;
+
+        /**
+         * How the responses of all fee providers are consolidated.
+         * By default, every response is emitted as is.
+         */
+        private Aggregation aggregation = Aggregation.NONE;
+
+        /**
+         * Share of the lowest and highest values discarded at each end with aggregation {@code trimmed-mean}.
+         */
+        private double trimFraction = 0.2d;
+
+        private CircuitBreakerProperties circuitBreaker = new CircuitBreakerProperties();
+
+        public Optional<Duration> getDeadline() {
+            return Optional.ofNullable(deadline);
+        }
+
+        public Optional<Integer> getQuorum() {
+            return Optional.ofNullable(quorum);
+        }
+    }
+
+    public enum Aggregation {
+        NONE,
+        MEDIAN,
+        TRIMMED_MEAN,
+        /**
+         * Mean weighted by the share of successful requests of each provider.
+         */
+        RELIABILITY_WEIGHTED
+    }
+
+    @Data
+    public static class CircuitBreakerProperties {
+
+        /**
+         * Whether to exclude providers that fail or respond slowly from requests of the composite.
+         */
+        private boolean enabled;
+
+        /**
+         * Share of failed requests at which a provider is excluded.
+         */
+        private double failureRateThreshold = 0.5d;
+
+        /**
+         * Share of slow requests at which a provider is excluded.
+         */
+        private double slowCallRateThreshold = 0.8d;
+
+        /**
+         * Requests taking longer than this duration count as slow.
+         * Requests that missed the deadline of the composite always count as slow.
+         */
+        private Duration slowCallDurationThreshold = Duration.ofSeconds(5);
+
+        /**
+         * Number of most recent requests of a provider the rates are computed from.
+         */
+        private int slidingWindowSize = 20;
+
+        /**
+         * Number of requests that must be recorded before a provider can be excluded.
+         */
+        private int minimumNumberOfCalls = 10;
+
+        /**
+         * Duration a provider is excluded before probe requests are sent.
+         */
+        private Duration waitDurationInOpenState = Duration.ofMinutes(1);
+
+        /**
+         * Number of probe requests deciding whether a provider is included again.
+         */
+        private int permittedCallsInHalfOpenState = 3;
+    }
+
+    @Data
+    public static class SnapshotProperties {
+
+        /**
+         * Whether to poll all fee providers in the background and serve recommendations from memory.
+         */
+        private boolean enabled;
+
+        /**
+         * Interval in which all fee providers are polled.
+         */
+        private Duration refreshInterval = Duration.ofSeconds(30);
+
+        /**
+         * Maximum age of a snapshot. Older snapshots are not served.
+         */
+        private Duration maxStaleness = Duration.ofMinutes(5);
+
+        /**
+         * Block targets requested from every fee provider.
+         */
+        private List<Long> blockTargets = List.of(1L, 2L, 3L, 6L, 12L, 24L, 48L, 144L);
+    }
 }
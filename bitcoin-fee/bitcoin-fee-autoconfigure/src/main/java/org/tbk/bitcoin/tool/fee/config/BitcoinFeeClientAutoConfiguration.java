@@ -1,5 +1,6 @@
 package org.tbk.bitcoin.tool.fee.config;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -9,8 +10,16 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.tbk.bitcoin.tool.fee.CompositeFeeProvider;
 import org.tbk.bitcoin.tool.fee.FeeProvider;
+import org.tbk.bitcoin.tool.fee.circuitbreaker.CircuitBreakerConfig;
+import org.tbk.bitcoin.tool.fee.config.BitcoinFeeClientAutoConfigProperties.CircuitBreakerProperties;
+import org.tbk.bitcoin.tool.fee.reduce.MedianFeeReducer;
+import org.tbk.bitcoin.tool.fee.reduce.TrimmedMeanFeeReducer;
+import org.tbk.bitcoin.tool.fee.reduce.WeightedMeanFeeReducer;
+import org.tbk.bitcoin.tool.fee.snapshot.FeeSnapshotService;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static java.util.Objects.requireNonNull;
 
@@ -20,15 +29,82 @@ import static java.util.Objects.requireNonNull;
 @ConditionalOnClass(CompositeFeeProvider.class)
 public class BitcoinFeeClientAutoConfiguration {
 
+    private final BitcoinFeeClientAutoConfigProperties properties;
+
     public BitcoinFeeClientAutoConfiguration(BitcoinFeeClientAutoConfigProperties properties) {
-        requireNonNull(properties);
+        this.properties = requireNonNull(properties);
     }
 
     @Primary
     @Bean
     @ConditionalOnMissingBean(CompositeFeeProvider.class)
-    FeeProvider compositeFeeProvider(List<FeeProvider> feeProviders) {
-        return new CompositeFeeProvider(feeProviders);
+    FeeProvider compositeFeeProvider(List<FeeProvider> feeProviders,
+                                     ObjectProvider<FeeProviderDecorator> feeProviderDecorators) {
+        CompositeFeeProvider compositeFeeProvider = CompositeFeeProvider.builder()
+                .feeProviders(decorate(feeProviders, feeProviderDecorators))
+                .deadline(properties.getComposite().getDeadline().orElse(null))
+                .quorum(properties.getComposite().getQuorum().orElse(null))
+                .circuitBreakerConfig(createCircuitBreakerConfig().orElse(null))
+                .build();
+
+        return switch (properties.getComposite().getAggregation()) {
+            case NONE -> compositeFeeProvider;
+            case MEDIAN -> compositeFeeProvider.withReducer(new MedianFeeReducer());
+            case TRIMMED_MEAN -> compositeFeeProvider.withReducer(new TrimmedMeanFeeReducer(properties.getComposite().getTrimFraction()));
+            case RELIABILITY_WEIGHTED -> compositeFeeProvider.withReducer(new WeightedMeanFeeReducer(compositeFeeProvider::getReliability));
+        };
+    }
+
+    private static List<FeeProvider> decorate(List<FeeProvider> feeProviders, ObjectProvider<FeeProviderDecorator> decorators) {
+        List<FeeProviderDecorator> orderedDecorators = decorators.orderedStream().toList();
+
+        return feeProviders.stream()
+                .map(feeProvider -> {
+                    FeeProvider decorated = feeProvider;
+                    for (FeeProviderDecorator decorator : orderedDecorators) {
+                        decorated = decorator.decorate(decorated);
+                    }
+                    return decorated;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private Optional<CircuitBreakerConfig> createCircuitBreakerConfig() {
+        CircuitBreakerProperties circuitBreaker = properties.getComposite().getCircuitBreaker();
+        if (!circuitBreaker.isEnabled()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(CircuitBreakerConfig.builder()
+                .failureRateThreshold(circuitBreaker.getFailureRateThreshold())
+                .slowCallRateThreshold(circuitBreaker.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(circuitBreaker.getSlowCallDurationThreshold())
+                .slidingWindowSize(circuitBreaker.getSlidingWindowSize())
+                .minimumNumberOfCalls(circuitBreaker.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(circuitBreaker.getWaitDurationInOpenState())
+                .permittedCallsInHalfOpenState(circuitBreaker.getPermittedCallsInHalfOpenState())
+                .build());
     }
 
+    @Bean(destroyMethod = "stopAsync")
+    @ConditionalOnMissingBean(FeeSnapshotService.class)
+    @ConditionalOnProperty(value = "org.tbk.bitcoin.tool.fee.snapshot.enabled", havingValue = "true")
+    FeeSnapshotService feeSnapshotService(List<FeeProvider> feeProviders,
+                                          ObjectProvider<FeeProviderDecorator> feeProviderDecorators) {
+        // poll every provider only once - composites would request their delegates again
+        List<FeeProvider> providersWithoutComposites = feeProviders.stream()
+                .filter(provider -> !(provider instanceof CompositeFeeProvider))
+                .collect(Collectors.toList());
+
+        FeeSnapshotService feeSnapshotService = FeeSnapshotService.builder()
+                .feeProviders(decorate(providersWithoutComposites, feeProviderDecorators))
+                .refreshInterval(properties.getSnapshot().getRefreshInterval())
+                .maxStaleness(properties.getSnapshot().getMaxStaleness())
+                .blockTargets(properties.getSnapshot().getBlockTargets())
+                .build();
+
+        feeSnapshotService.startAsync();
+
+        return feeSnapshotService;
+    }
 }
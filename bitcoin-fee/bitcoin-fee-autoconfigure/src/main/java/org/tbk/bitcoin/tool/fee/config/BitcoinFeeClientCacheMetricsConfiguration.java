@@ -0,0 +1,44 @@
+package org.tbk.bitcoin.tool.fee.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.tbk.bitcoin.tool.fee.cache.FeeApiClientCache;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(value = "org.tbk.bitcoin.tool.fee.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnClass({
+        MeterBinder.class,
+        FeeApiClientCache.class
+})
+@AutoConfigureAfter(BitcoinFeeClientAutoConfiguration.class)
+public class BitcoinFeeClientCacheMetricsConfiguration {
+
+    @Bean
+    MeterBinder bitcoinFeeClientCacheMetrics(ObjectProvider<FeeApiClientCache> caches) {
+        // caching clients are registered under their client interface - they are resolved on binding,
+        // which happens after all singletons have been instantiated.
+        return (registry) -> caches.orderedStream().forEach(cache -> {
+            Tags tags = Tags.of("cache", cache.getCacheName());
+
+            GuavaCacheMetrics.monitor(registry, cache.getCache(), "fee-api-client." + cache.getCacheName());
+
+            FunctionCounter.builder("bitcoin.fee.client.cache.stale", cache, FeeApiClientCache::getStaleResponseCount)
+                    .description("Number of stale responses served because fetching a fresh response failed")
+                    .tags(tags)
+                    .register(registry);
+
+            FunctionCounter.builder("bitcoin.fee.client.cache.refresh", cache, FeeApiClientCache::getRefreshCount)
+                    .description("Number of successful background refreshes")
+                    .tags(tags)
+                    .register(registry);
+        });
+    }
+}
@@ -0,0 +1,61 @@
+package org.tbk.bitcoin.tool.fee.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.tbk.bitcoin.tool.fee.CompositeFeeProvider;
+import org.tbk.bitcoin.tool.fee.circuitbreaker.CircuitBreaker;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(value = "org.tbk.bitcoin.tool.fee.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnClass({
+        MeterBinder.class,
+        CircuitBreaker.class
+})
+@AutoConfigureAfter(BitcoinFeeClientAutoConfiguration.class)
+public class BitcoinFeeClientCircuitBreakerMetricsConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(value = "org.tbk.bitcoin.tool.fee.composite.circuit-breaker.enabled", havingValue = "true")
+    MeterBinder bitcoinFeeClientCircuitBreakerMetrics(ObjectProvider<CompositeFeeProvider> compositeFeeProviders) {
+        return (registry) -> compositeFeeProviders.orderedStream()
+                .flatMap(composite -> composite.getCircuitBreakers().stream())
+                .forEach(circuitBreaker -> {
+                    Tags tags = Tags.of("provider", circuitBreaker.getName());
+
+                    for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+                        Gauge.builder("bitcoin.fee.provider.circuit.breaker.state", circuitBreaker, it -> it.getState() == state ? 1 : 0)
+                                .description("Whether the circuit breaker of the provider is in the given state (1) or not (0)")
+                                .tags(tags.and("state", state.name().toLowerCase()))
+                                .register(registry);
+                    }
+
+                    Gauge.builder("bitcoin.fee.provider.circuit.breaker.failure.rate", circuitBreaker, CircuitBreaker::getFailureRate)
+                            .description("Share of failed requests in the sliding window of the circuit breaker")
+                            .tags(tags)
+                            .register(registry);
+
+                    Gauge.builder("bitcoin.fee.provider.circuit.breaker.slow.call.rate", circuitBreaker, CircuitBreaker::getSlowCallRate)
+                            .description("Share of slow requests in the sliding window of the circuit breaker")
+                            .tags(tags)
+                            .register(registry);
+
+                    FunctionCounter.builder("bitcoin.fee.provider.circuit.breaker.not.permitted", circuitBreaker, CircuitBreaker::getNotPermittedCount)
+                            .description("Number of requests the provider has been excluded from")
+                            .tags(tags)
+                            .register(registry);
+
+                    FunctionCounter.builder("bitcoin.fee.provider.circuit.breaker.opened", circuitBreaker, CircuitBreaker::getOpenedCount)
+                            .description("Number of times the circuit breaker has been opened")
+                            .tags(tags)
+                            .register(registry);
+                });
+    }
+}
@@ -0,0 +1,35 @@
+package org.tbk.bitcoin.tool.fee.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.health.ConditionalOnEnabledHealthIndicator;
+import org.springframework.boot.actuate.health.HealthContributor;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.tbk.bitcoin.tool.fee.CompositeFeeProvider;
+import org.tbk.bitcoin.tool.fee.actuator.health.CircuitBreakerHealthIndicator;
+import org.tbk.bitcoin.tool.fee.circuitbreaker.CircuitBreaker;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(value = "org.tbk.bitcoin.tool.fee.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnClass({
+        HealthContributor.class,
+        CircuitBreaker.class
+})
+@AutoConfigureAfter(BitcoinFeeClientAutoConfiguration.class)
+public class BitcoinFeeClientHealthContributorAutoConfiguration {
+
+    @Bean
+    @ConditionalOnEnabledHealthIndicator("bitcoinFeeCircuitBreaker")
+    @ConditionalOnProperty(value = "org.tbk.bitcoin.tool.fee.composite.circuit-breaker.enabled", havingValue = "true")
+    @ConditionalOnMissingBean(name = "bitcoinFeeCircuitBreakerHealthContributor")
+    HealthContributor bitcoinFeeCircuitBreakerHealthContributor(ObjectProvider<CompositeFeeProvider> compositeFeeProviders) {
+        // the composite is registered as plain fee provider - it is resolved on every health check
+        return new CircuitBreakerHealthIndicator(() -> compositeFeeProviders.orderedStream()
+                .flatMap(composite -> composite.getCircuitBreakers().stream())
+                .toList());
+    }
+}
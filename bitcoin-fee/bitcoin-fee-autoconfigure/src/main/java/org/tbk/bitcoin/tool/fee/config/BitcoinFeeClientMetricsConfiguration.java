@@ -0,0 +1,34 @@
+package org.tbk.bitcoin.tool.fee.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.tbk.bitcoin.tool.fee.metrics.MeteredFeeProvider;
+
+/**
+ * Records metrics of all fee providers if a meter registry is available - see {@link FeeProviderMetricsBinder}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(value = "org.tbk.bitcoin.tool.fee.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnClass({
+        MeterRegistry.class,
+        MeteredFeeProvider.class
+})
+public class BitcoinFeeClientMetricsConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    static FeeProviderMetricsBinder bitcoinFeeProviderMetricsBinder(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new FeeProviderMetricsBinder(meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "bitcoinFeeProviderMetricsDecorator")
+    FeeProviderDecorator bitcoinFeeProviderMetricsDecorator(FeeProviderMetricsBinder bitcoinFeeProviderMetricsBinder) {
+        return bitcoinFeeProviderMetricsBinder::bind;
+    }
+}
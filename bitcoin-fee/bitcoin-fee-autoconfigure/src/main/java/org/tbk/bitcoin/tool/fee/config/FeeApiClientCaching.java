@@ -0,0 +1,35 @@
+package org.tbk.bitcoin.tool.fee.config;
+
+import org.tbk.bitcoin.tool.fee.cache.CachingFeeApiClient;
+
+public final class FeeApiClientCaching {
+
+    private FeeApiClientCaching() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Decorates the given client with a cache configured by the given properties.
+     * Returns the client unchanged if caching is disabled.
+     */
+    public static <T> T withCache(Class<T> clientInterface,
+                                  T client,
+                                  String cacheName,
+                                  AbstractFeeClientAutoConfigProperties properties) {
+        AbstractFeeClientAutoConfigProperties.CacheProperties cacheProperties = properties.getCache();
+        if (!cacheProperties.isEnabled()) {
+            return client;
+        }
+
+        return CachingFeeApiClient.<T>builder()
+                .clientInterface(clientInterface)
+                .delegate(client)
+                .cacheName(cacheName)
+                .expireAfterWrite(cacheProperties.getExpireAfterWrite())
+                .refreshAfterWrite(cacheProperties.getRefreshAfterWrite().orElse(null))
+                .maxStaleness(cacheProperties.getMaxStaleness().orElse(null))
+                .maximumSize(cacheProperties.getMaximumSize())
+                .build()
+                .getClient();
+    }
+}
@@ -0,0 +1,14 @@
+package org.tbk.bitcoin.tool.fee.config;
+
+import org.tbk.bitcoin.tool.fee.FeeProvider;
+
+/**
+ * Decorates the fee providers that are requested by the auto-configured composite and snapshot service,
+ * e.g. to add instrumentation. The provider beans themselves are not replaced, so they can still be
+ * looked up by their concrete type.
+ */
+@FunctionalInterface
+public interface FeeProviderDecorator {
+
+    FeeProvider decorate(FeeProvider feeProvider);
+}
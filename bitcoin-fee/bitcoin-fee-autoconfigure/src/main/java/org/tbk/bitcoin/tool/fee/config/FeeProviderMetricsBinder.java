@@ -0,0 +1,89 @@
+package org.tbk.bitcoin.tool.fee.config;
+
+import com.google.common.collect.MapMaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.tbk.bitcoin.tool.fee.AbstractFeeProvider;
+import org.tbk.bitcoin.tool.fee.FeeProvider;
+import org.tbk.bitcoin.tool.fee.ProviderInfo;
+import org.tbk.bitcoin.tool.fee.metrics.FeeProviderMeters;
+import org.tbk.bitcoin.tool.fee.metrics.MeteredFeeProvider;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Binds the meters of {@link FeeProviderMeters} to fee providers.
+ *
+ * <p>Provider beans extending {@link AbstractFeeProvider} are instrumented in place - callers using a provider
+ * bean directly are covered, and the bean can still be looked up by its concrete type. Other providers are
+ * decorated with a {@link MeteredFeeProvider} once they are requested by the composite or snapshot service.
+ *
+ * <p>Every provider is bound only once, as gauges can only be bound to a single object. The {@code provider}
+ * tag is the name of the provider - providers sharing a name are told apart by a suffix, e.g. "name-2".
+ */
+public class FeeProviderMetricsBinder implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    // guarded by "this" - maps providers to the provider recording their metrics
+    private final Map<FeeProvider, FeeProvider> bound = new MapMaker().weakKeys().makeMap();
+
+    // guarded by "this"
+    private final Map<String, Integer> countByName = new HashMap<>();
+
+    public FeeProviderMetricsBinder(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = requireNonNull(meterRegistry);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof AbstractFeeProvider feeProvider) {
+            bind(feeProvider);
+        }
+        return bean;
+    }
+
+    /**
+     * Returns the provider recording the metrics of the given provider - the provider itself, if it could
+     * be instrumented in place.
+     */
+    public synchronized FeeProvider bind(FeeProvider feeProvider) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null || feeProvider instanceof MeteredFeeProvider) {
+            return feeProvider;
+        }
+
+        FeeProvider existing = bound.get(feeProvider);
+        if (existing != null) {
+            return existing;
+        }
+
+        Tags tags = Tags.of("provider", nextProviderTag(feeProvider));
+
+        FeeProvider metered;
+        if (feeProvider instanceof AbstractFeeProvider abstractFeeProvider) {
+            abstractFeeProvider.addInstrumentation(new FeeProviderMeters(registry, tags));
+            metered = feeProvider;
+        } else {
+            metered = new MeteredFeeProvider(feeProvider, registry, tags);
+        }
+
+        bound.put(feeProvider, metered);
+        return metered;
+    }
+
+    private String nextProviderTag(FeeProvider feeProvider) {
+        String name = Optional.ofNullable(feeProvider.info())
+                .map(ProviderInfo::getName)
+                .orElseGet(() -> feeProvider.getClass().getSimpleName());
+
+        int count = countByName.merge(name, 1, Integer::sum);
+        return count == 1 ? name : name + "-" + count;
+    }
+}
@@ -1,20 +1,20 @@
 package org.tbk.bitcoin.tool.fee.earndotcom.config;
 
-import com.google.common.cache.CacheBuilderSpec;
-import com.google.common.collect.ImmutableMap;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.tbk.bitcoin.tool.fee.earndotcom.client.CachingEarndotcomApiClient;
+import org.tbk.bitcoin.tool.fee.config.FeeApiClientCaching;
 import org.tbk.bitcoin.tool.fee.earndotcom.client.EarndotcomApiClient;
 import org.tbk.bitcoin.tool.fee.earndotcom.client.EarndotcomApiClientImpl;
 import org.tbk.bitcoin.tool.fee.earndotcom.provider.EarndotcomFeeProvider;
 import org.tbk.bitcoin.tool.fee.earndotcom.provider.FeeSelectionStrategy;
 import org.tbk.bitcoin.tool.fee.earndotcom.provider.SimpleFeeSelectionStrategy;
-import org.tbk.bitcoin.tool.fee.util.MoreCacheBuilder;
+import org.tbk.bitcoin.tool.fee.http.FeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.JdkFeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.SingleFlightFeeApiHttpClient;
 
 import static java.util.Objects.requireNonNull;
 
@@ -40,13 +40,13 @@ public class EarndotcomFeeClientAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean(EarndotcomApiClient.class)
     EarndotcomApiClient earndotcomApiClient() {
-        EarndotcomApiClientImpl client = new EarndotcomApiClientImpl(properties.getBaseUrl(), properties.getToken().orElse(null));
+        FeeApiHttpClient httpClient = SingleFlightFeeApiHttpClient.of(JdkFeeApiHttpClient.builder()
+                .requestTimeout(properties.getRequestTimeout().orElse(null))
+                .build());
+
+        EarndotcomApiClient client = new EarndotcomApiClientImpl(properties.getBaseUrl(), properties.getToken().orElse(null), httpClient);
 
-        return CachingEarndotcomApiClient.builder()
-                .delegate(client)
-                .feesListCacheBuilderSpec(defaultFeesListCacheBuilderSpec())
-                .feesRecommendedCacheBuilderSpec(defaultFeesRecommendedCacheBuilderSpec())
-                .build();
+        return FeeApiClientCaching.withCache(EarndotcomApiClient.class, client, "earndotcom", properties);
     }
 
     @Bean
@@ -61,20 +61,4 @@ public class EarndotcomFeeClientAutoConfiguration {
                                                 FeeSelectionStrategy earndotcomFeeSelectionStrategy) {
         return new EarndotcomFeeProvider(earndotcomApiClient, earndotcomFeeSelectionStrategy);
     }
-
-    private CacheBuilderSpec defaultFeesListCacheBuilderSpec() {
-        return MoreCacheBuilder.toCacheBuilderSpec(ImmutableMap.<String, String>builder()
-                .put("initialCapacity", Long.toString(1))
-                .put("maximumSize", Long.toString(1))
-                .put("expireAfterWrite", "30s")
-                .build());
-    }
-
-    private CacheBuilderSpec defaultFeesRecommendedCacheBuilderSpec() {
-        return MoreCacheBuilder.toCacheBuilderSpec(ImmutableMap.<String, String>builder()
-                .put("initialCapacity", Long.toString(1))
-                .put("maximumSize", Long.toString(1))
-                .put("expireAfterWrite", "30s")
-                .build());
-    }
 }
@@ -0,0 +1,45 @@
+package org.tbk.bitcoin.tool.fee.jsonrpc.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Data
+@ConfigurationProperties(
+        prefix = "org.tbk.bitcoin.tool.fee.bitcoin-jsonrpc",
+        ignoreUnknownFields = false
+)
+public class BitcoinJsonRpcFeeClientAutoConfigProperties implements Validator {
+
+    private boolean enabled;
+
+    /**
+     * Maximum duration estimates are kept in memory if no new block arrives.
+     * Defaults to 10 minutes if block notifications are available, otherwise to 1 minute.
+     */
+    private Duration maxAge;
+
+    public Optional<Duration> getMaxAge() {
+        return Optional.ofNullable(maxAge);
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return clazz == BitcoinJsonRpcFeeClientAutoConfigProperties.class;
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        BitcoinJsonRpcFeeClientAutoConfigProperties properties = (BitcoinJsonRpcFeeClientAutoConfigProperties) target;
+
+        Duration maxAge = properties.getMaxAge().orElse(null);
+        if (maxAge != null && (maxAge.isNegative() || maxAge.isZero())) {
+            String errorMessage = String.format("'maxAge' must be positive - invalid value: %s", maxAge);
+            errors.rejectValue("maxAge", "maxAge.invalid", errorMessage);
+        }
+    }
+}
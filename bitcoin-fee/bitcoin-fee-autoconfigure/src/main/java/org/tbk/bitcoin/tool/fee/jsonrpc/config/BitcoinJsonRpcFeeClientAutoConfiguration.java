@@ -0,0 +1,108 @@
+package org.tbk.bitcoin.tool.fee.jsonrpc.config;
+
+import org.bitcoinj.core.Block;
+import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.tbk.bitcoin.jsonrpc.BitcoinJsonRpcBatchClient;
+import org.tbk.bitcoin.tool.fee.jsonrpc.BitcoinJsonRpcFeeApiClient;
+import org.tbk.bitcoin.tool.fee.jsonrpc.BitcoinJsonRpcFeeApiClientImpl;
+import org.tbk.bitcoin.tool.fee.jsonrpc.BitcoinJsonRpcFeeProvider;
+import org.tbk.bitcoin.zeromq.client.MessagePublishService;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(BitcoinJsonRpcFeeClientAutoConfigProperties.class)
+@ConditionalOnClass({
+        BitcoinJsonRpcFeeApiClient.class,
+        BitcoinJsonRpcFeeProvider.class,
+        BitcoinClient.class
+})
+@ConditionalOnProperty(name = {
+        "org.tbk.bitcoin.tool.fee.enabled",
+        "org.tbk.bitcoin.tool.fee.bitcoin-jsonrpc.enabled"
+}, havingValue = "true", matchIfMissing = true)
+@ConditionalOnBean(BitcoinClient.class)
+@AutoConfigureAfter(name = {
+        "org.tbk.bitcoin.jsonrpc.config.BitcoinJsonRpcClientAutoConfiguration",
+        "org.tbk.bitcoin.zeromq.config.BitcoinjZeroMqClientAutoConfiguration"
+})
+public class BitcoinJsonRpcFeeClientAutoConfiguration {
+
+    /**
+     * Uses the shared batch client if available. Otherwise, every estimate is a separate round-trip -
+     * see {@link #feeProvider} for the confirmation targets fetched in that case.
+     */
+    @Bean
+    @ConditionalOnMissingBean(BitcoinJsonRpcFeeApiClient.class)
+    BitcoinJsonRpcFeeApiClient bitcoinJsonRpcFeeApiClient(BitcoinClient bitcoinJsonRpcClient,
+                                                          ObjectProvider<BitcoinJsonRpcBatchClient> bitcoinJsonRpcBatchClient) {
+        BitcoinJsonRpcBatchClient batchClient = bitcoinJsonRpcBatchClient.getIfUnique();
+        if (batchClient == null) {
+            return new BitcoinJsonRpcFeeApiClientImpl(bitcoinJsonRpcClient);
+        }
+        return new BitcoinJsonRpcFeeApiClientImpl(bitcoinJsonRpcClient, batchClient);
+    }
+
+    /**
+     * Fetches estimates for all confirmation targets if they can be sent within a single batch.
+     * Without a batch client, only {@link BitcoinJsonRpcFeeProvider#SPARSE_CONF_TARGETS} are fetched instead of
+     * sending {@link BitcoinJsonRpcFeeProvider#MAX_CONF_TARGET} sequential requests on every new block.
+     */
+    private static BitcoinJsonRpcFeeProvider feeProvider(BitcoinJsonRpcFeeClientAutoConfigProperties properties,
+                                                         BitcoinJsonRpcFeeApiClient bitcoinJsonRpcFeeApiClient,
+                                                         ObjectProvider<BitcoinJsonRpcBatchClient> bitcoinJsonRpcBatchClient,
+                                                         Publisher<?> blockNotifications) {
+        boolean batching = bitcoinJsonRpcBatchClient.getIfUnique() != null;
+
+        return BitcoinJsonRpcFeeProvider.builder()
+                .client(bitcoinJsonRpcFeeApiClient)
+                .confTargets(batching ? null : BitcoinJsonRpcFeeProvider.SPARSE_CONF_TARGETS)
+                .blockNotifications(blockNotifications)
+                .maxAge(properties.getMaxAge().orElse(null))
+                .build();
+    }
+
+    /**
+     * Invalidates cached estimates on every new block if a zeromq block publisher is available.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.tbk.bitcoin.zeromq.client.MessagePublishService")
+    static class BlockNotificationConfiguration {
+
+        @Bean(destroyMethod = "close")
+        @ConditionalOnMissingBean(BitcoinJsonRpcFeeProvider.class)
+        BitcoinJsonRpcFeeProvider bitcoinJsonRpcFeeProvider(BitcoinJsonRpcFeeClientAutoConfigProperties properties,
+                                                            BitcoinJsonRpcFeeApiClient bitcoinJsonRpcFeeApiClient,
+                                                            ObjectProvider<BitcoinJsonRpcBatchClient> bitcoinJsonRpcBatchClient,
+                                                            ObjectProvider<MessagePublishService<Block>> bitcoinjBlockPublishService) {
+            return feeProvider(properties, bitcoinJsonRpcFeeApiClient, bitcoinJsonRpcBatchClient,
+                    bitcoinjBlockPublishService.getIfUnique());
+        }
+    }
+
+    /**
+     * Only refetches estimates after {@code maxAge} as block notifications cannot be present
+     * without the zeromq client on the classpath.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnMissingClass("org.tbk.bitcoin.zeromq.client.MessagePublishService")
+    static class NoBlockNotificationConfiguration {
+
+        @Bean(destroyMethod = "close")
+        @ConditionalOnMissingBean(BitcoinJsonRpcFeeProvider.class)
+        BitcoinJsonRpcFeeProvider bitcoinJsonRpcFeeProvider(BitcoinJsonRpcFeeClientAutoConfigProperties properties,
+                                                            BitcoinJsonRpcFeeApiClient bitcoinJsonRpcFeeApiClient,
+                                                            ObjectProvider<BitcoinJsonRpcBatchClient> bitcoinJsonRpcBatchClient) {
+            return feeProvider(properties, bitcoinJsonRpcFeeApiClient, bitcoinJsonRpcBatchClient, null);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.tbk.bitcoin.tool.fee.localmempool.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(
+        prefix = "org.tbk.bitcoin.tool.fee.local-mempool",
+        ignoreUnknownFields = false
+)
+public class LocalMempoolFeeClientAutoConfigProperties implements Validator {
+
+    /**
+     * Whether to estimate fees from the mempool of the own node.
+     * Disabled by default, as seeding the histogram fetches the whole mempool of the node.
+     */
+    private boolean enabled;
+
+    /**
+     * Interval in which the whole mempool is fetched to correct evicted or replaced transactions.
+     */
+    private Duration resyncInterval = Duration.ofMinutes(10);
+
+    /**
+     * Maximum amount of blocks projected from the mempool.
+     */
+    private int maxProjectedBlocks = 8;
+
+    /**
+     * Maximum amount of new transactions looked up in a single batch request.
+     */
+    private int lookupBatchSize = 500;
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return clazz == LocalMempoolFeeClientAutoConfigProperties.class;
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        LocalMempoolFeeClientAutoConfigProperties properties = (LocalMempoolFeeClientAutoConfigProperties) target;
+
+        Duration resyncInterval = properties.getResyncInterval();
+        if (resyncInterval == null || resyncInterval.isNegative() || resyncInterval.isZero()) {
+            String errorMessage = String.format("'resyncInterval' must be positive - invalid value: %s", resyncInterval);
+            errors.rejectValue("resyncInterval", "resyncInterval.invalid", errorMessage);
+        }
+
+        if (properties.getMaxProjectedBlocks() <= 0) {
+            String errorMessage = String.format("'maxProjectedBlocks' must be positive - invalid value: %d", properties.getMaxProjectedBlocks());
+            errors.rejectValue("maxProjectedBlocks", "maxProjectedBlocks.invalid", errorMessage);
+        }
+
+        if (properties.getLookupBatchSize() <= 0) {
+            String errorMessage = String.format("'lookupBatchSize' must be positive - invalid value: %d", properties.getLookupBatchSize());
+            errors.rejectValue("lookupBatchSize", "lookupBatchSize.invalid", errorMessage);
+        }
+    }
+}
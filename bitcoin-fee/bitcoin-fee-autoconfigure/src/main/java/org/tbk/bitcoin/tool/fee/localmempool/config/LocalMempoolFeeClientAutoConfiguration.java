@@ -0,0 +1,90 @@
+package org.tbk.bitcoin.tool.fee.localmempool.config;
+
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.Transaction;
+import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
+import org.consensusj.bitcoin.jsonrpc.RpcConfig;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.tbk.bitcoin.jsonrpc.BitcoinJsonRpcBatchClient;
+import org.tbk.bitcoin.tool.fee.localmempool.LocalMempoolApiClient;
+import org.tbk.bitcoin.tool.fee.localmempool.LocalMempoolApiClientImpl;
+import org.tbk.bitcoin.tool.fee.localmempool.LocalMempoolFeeProvider;
+import org.tbk.bitcoin.tool.fee.localmempool.LocalMempoolHistogramService;
+
+import static java.util.Objects.requireNonNull;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(LocalMempoolFeeClientAutoConfigProperties.class)
+@ConditionalOnClass({
+        LocalMempoolApiClient.class,
+        LocalMempoolFeeProvider.class,
+        BitcoinClient.class
+})
+@ConditionalOnProperty(value = "org.tbk.bitcoin.tool.fee.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnBean(BitcoinClient.class)
+@AutoConfigureAfter(name = {
+        "org.tbk.bitcoin.jsonrpc.config.BitcoinJsonRpcClientAutoConfiguration",
+        "org.tbk.bitcoin.zeromq.config.BitcoinjZeroMqClientAutoConfiguration"
+})
+public class LocalMempoolFeeClientAutoConfiguration {
+
+    private final LocalMempoolFeeClientAutoConfigProperties properties;
+
+    public LocalMempoolFeeClientAutoConfiguration(LocalMempoolFeeClientAutoConfigProperties properties) {
+        this.properties = requireNonNull(properties);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(LocalMempoolApiClient.class)
+    @ConditionalOnProperty(value = "org.tbk.bitcoin.tool.fee.local-mempool.enabled", havingValue = "true")
+    LocalMempoolApiClient localMempoolApiClient(BitcoinClient bitcoinJsonRpcClient,
+                                                ObjectProvider<RpcConfig> bitcoinJsonRpcConfig) {
+        RpcConfig rpcConfig = bitcoinJsonRpcConfig.getIfUnique();
+        if (rpcConfig == null) {
+            return new LocalMempoolApiClientImpl(bitcoinJsonRpcClient);
+        }
+
+        return new LocalMempoolApiClientImpl(bitcoinJsonRpcClient, BitcoinJsonRpcBatchClient.builder()
+                .rpcConfig(rpcConfig)
+                .build());
+    }
+
+    /**
+     * Transaction and block publishers are optional (e.g. zeromq publishers of bitcoin-zeromq-client).
+     * Without them, the histogram is only updated every {@code resyncInterval}.
+     */
+    @Bean(destroyMethod = "stopAsync")
+    @ConditionalOnMissingBean(LocalMempoolHistogramService.class)
+    @ConditionalOnProperty(value = "org.tbk.bitcoin.tool.fee.local-mempool.enabled", havingValue = "true")
+    LocalMempoolHistogramService localMempoolHistogramService(LocalMempoolApiClient localMempoolApiClient,
+                                                              ObjectProvider<Publisher<Transaction>> transactionPublisher,
+                                                              ObjectProvider<Publisher<Block>> blockPublisher) {
+        LocalMempoolHistogramService histogramService = LocalMempoolHistogramService.builder()
+                .client(localMempoolApiClient)
+                .transactions(transactionPublisher.getIfUnique())
+                .blocks(blockPublisher.getIfUnique())
+                .resyncInterval(properties.getResyncInterval())
+                .lookupBatchSize(properties.getLookupBatchSize())
+                .build();
+
+        histogramService.startAsync();
+
+        return histogramService;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(LocalMempoolFeeProvider.class)
+    @ConditionalOnProperty(value = "org.tbk.bitcoin.tool.fee.local-mempool.enabled", havingValue = "true")
+    LocalMempoolFeeProvider localMempoolFeeProvider(LocalMempoolHistogramService localMempoolHistogramService) {
+        return new LocalMempoolFeeProvider(localMempoolHistogramService, properties.getMaxProjectedBlocks());
+    }
+}
@@ -0,0 +1,52 @@
+package org.tbk.bitcoin.tool.fee.actuator.health;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.tbk.bitcoin.tool.fee.circuitbreaker.CircuitBreaker;
+import org.tbk.bitcoin.tool.fee.circuitbreaker.CircuitBreakerConfig;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class CircuitBreakerHealthIndicatorTest {
+
+    private static final CircuitBreakerConfig config = CircuitBreakerConfig.builder()
+            .slidingWindowSize(1)
+            .minimumNumberOfCalls(1)
+            .waitDurationInOpenState(Duration.ofHours(1))
+            .build();
+
+    @Test
+    void itShouldBeDownIfEveryCircuitBreakerIsOpen() {
+        CircuitBreaker breaker = openBreaker("open");
+
+        Health health = new CircuitBreakerHealthIndicator(() -> List.of(breaker)).health();
+
+        assertThat(health.getStatus(), is(Status.DOWN));
+        assertThat(((Map<?, ?>) health.getDetails().get("open")).get("state"), is(CircuitBreaker.State.OPEN));
+    }
+
+    @Test
+    void itShouldBeUpIfAnyCircuitBreakerIsNotOpen() {
+        CircuitBreaker open = openBreaker("open");
+        CircuitBreaker closed = new CircuitBreaker("closed", config);
+
+        Health health = new CircuitBreakerHealthIndicator(() -> List.of(open, closed)).health();
+
+        assertThat(health.getStatus(), is(Status.UP));
+        assertThat(((Map<?, ?>) health.getDetails().get("open")).get("state"), is(CircuitBreaker.State.OPEN));
+        assertThat(((Map<?, ?>) health.getDetails().get("closed")).get("state"), is(CircuitBreaker.State.CLOSED));
+    }
+
+    private static CircuitBreaker openBreaker(String name) {
+        CircuitBreaker breaker = new CircuitBreaker(name, config);
+        breaker.tryAcquirePermission().orElseThrow().onError(0L);
+        assertThat(breaker.getState(), is(CircuitBreaker.State.OPEN));
+        return breaker;
+    }
+}
@@ -4,8 +4,14 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 import org.tbk.bitcoin.tool.fee.CompositeFeeProvider;
+import org.tbk.bitcoin.tool.fee.reduce.TrimmedMeanFeeReducer;
+
+import java.time.Duration;
+import java.util.Optional;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -26,6 +32,98 @@ class BitcoinFeeClientAutoConfigurationTest {
                 });
     }
 
+    @Test
+    void hedgedCompositeIsCreated() {
+        this.contextRunner.withUserConfiguration(BitcoinFeeClientAutoConfiguration.class)
+                .withPropertyValues(
+                        "org.tbk.bitcoin.tool.fee.enabled=true",
+                        "org.tbk.bitcoin.tool.fee.composite.deadline=2s",
+                        "org.tbk.bitcoin.tool.fee.composite.quorum=3"
+                )
+                .run(context -> {
+                    CompositeFeeProvider compositeFeeProvider = context.getBean(CompositeFeeProvider.class);
+                    assertThat(compositeFeeProvider.isHedged(), is(true));
+                    assertThat(compositeFeeProvider.getDeadline(), is(Optional.of(Duration.ofSeconds(2))));
+                    assertThat(compositeFeeProvider.getQuorum(), is(Optional.of(3)));
+                });
+    }
+
+    @Test
+    void aggregatingCompositeIsCreated() {
+        this.contextRunner.withUserConfiguration(BitcoinFeeClientAutoConfiguration.class)
+                .withPropertyValues(
+                        "org.tbk.bitcoin.tool.fee.enabled=true",
+                        "org.tbk.bitcoin.tool.fee.composite.aggregation=trimmed-mean"
+                )
+                .run(context -> {
+                    CompositeFeeProvider compositeFeeProvider = context.getBean(CompositeFeeProvider.class);
+                    assertThat(compositeFeeProvider.getReducer().orElseThrow(), is(instanceOf(TrimmedMeanFeeReducer.class)));
+                });
+    }
+
+    @Test
+    void circuitBreakerHealthContributorIsCreated() {
+        this.contextRunner.withUserConfiguration(
+                        BitcoinFeeClientAutoConfiguration.class,
+                        BitcoinFeeClientHealthContributorAutoConfiguration.class
+                )
+                .withPropertyValues(
+                        "org.tbk.bitcoin.tool.fee.enabled=true",
+                        "org.tbk.bitcoin.tool.fee.composite.circuit-breaker.enabled=true"
+                )
+                .run(context -> {
+                    assertThat(context.containsBean("bitcoinFeeCircuitBreakerHealthContributor"), is(true));
+                    assertThat(context.getBean(CompositeFeeProvider.class).getCircuitBreakers(), is(empty()));
+                });
+    }
+
+    @Test
+    void circuitBreakerMetricsAreCreatedWithoutExplicitlyEnablingTheModule() {
+        this.contextRunner.withUserConfiguration(
+                        BitcoinFeeClientAutoConfiguration.class,
+                        BitcoinFeeClientCircuitBreakerMetricsConfiguration.class
+                )
+                .withPropertyValues(
+                        "org.tbk.bitcoin.tool.fee.composite.circuit-breaker.enabled=true"
+                )
+                .run(context -> {
+                    assertThat(context.containsBean("compositeFeeProvider"), is(true));
+                    assertThat(context.containsBean("bitcoinFeeClientCircuitBreakerMetrics"), is(true));
+                });
+    }
+
+    @Test
+    void circuitBreakerMetricsAreNotCreatedIfTheCircuitBreakerIsDisabled() {
+        this.contextRunner.withUserConfiguration(
+                        BitcoinFeeClientAutoConfiguration.class,
+                        BitcoinFeeClientCircuitBreakerMetricsConfiguration.class
+                )
+                .run(context -> {
+                    assertThat(context.containsBean("compositeFeeProvider"), is(true));
+                    assertThat(context.containsBean("bitcoinFeeClientCircuitBreakerMetrics"), is(false));
+                });
+    }
+
+    @Test
+    void itShouldFailOnInvalidCircuitBreakerThreshold() {
+        this.contextRunner.withUserConfiguration(BitcoinFeeClientAutoConfiguration.class)
+                .withPropertyValues(
+                        "org.tbk.bitcoin.tool.fee.enabled=true",
+                        "org.tbk.bitcoin.tool.fee.composite.circuit-breaker.enabled=true",
+                        "org.tbk.bitcoin.tool.fee.composite.circuit-breaker.failure-rate-threshold=1.5"
+                )
+                .run(context -> assertThat(context.getStartupFailure(), is(notNullValue())));
+    }
+
+    @Test
+    void itShouldFailOnInvalidQuorum() {
+        this.contextRunner.withUserConfiguration(BitcoinFeeClientAutoConfiguration.class)
+                .withPropertyValues(
+                        "org.tbk.bitcoin.tool.fee.enabled=true",
+                        "org.tbk.bitcoin.tool.fee.composite.quorum=0"
+                )
+                .run(context -> assertThat(context.getStartupFailure(), is(notNullValue())));
+    }
 
     @Test
     void noBeansAreCreated() {
@@ -0,0 +1,51 @@
+package org.tbk.bitcoin.tool.fee.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.tbk.bitcoin.tool.fee.cache.FeeApiClientCache;
+import org.tbk.bitcoin.tool.fee.mempoolspace.MempoolspaceFeeApiClient;
+import org.tbk.bitcoin.tool.fee.mempoolspace.config.MempoolspaceFeeClientAutoConfiguration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+
+class FeeApiClientCachingTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner();
+
+    @Test
+    void itShouldCacheClientByDefault() {
+        this.contextRunner.withUserConfiguration(MempoolspaceFeeClientAutoConfiguration.class)
+                .run(context -> {
+                    MempoolspaceFeeApiClient client = context.getBean(MempoolspaceFeeApiClient.class);
+                    assertThat(client, is(instanceOf(FeeApiClientCache.class)));
+                    assertThat(((FeeApiClientCache) client).getCacheName(), is("mempoolspace"));
+                });
+    }
+
+    @Test
+    void itShouldNotCacheClientIfDisabled() {
+        this.contextRunner.withUserConfiguration(MempoolspaceFeeClientAutoConfiguration.class)
+                .withPropertyValues(
+                        "org.tbk.bitcoin.tool.fee.mempoolspace.cache.enabled=false"
+                )
+                .run(context -> {
+                    MempoolspaceFeeApiClient client = context.getBean(MempoolspaceFeeApiClient.class);
+                    assertThat(client, is(notNullValue()));
+                    assertThat(client, is(not(instanceOf(FeeApiClientCache.class))));
+                });
+    }
+
+    @Test
+    void itShouldFailOnInvalidCacheProperties() {
+        this.contextRunner.withUserConfiguration(MempoolspaceFeeClientAutoConfiguration.class)
+                .withPropertyValues(
+                        "org.tbk.bitcoin.tool.fee.mempoolspace.cache.expire-after-write=10s",
+                        "org.tbk.bitcoin.tool.fee.mempoolspace.cache.refresh-after-write=20s"
+                )
+                .run(context -> assertThat(context.getStartupFailure(), is(notNullValue())));
+    }
+}
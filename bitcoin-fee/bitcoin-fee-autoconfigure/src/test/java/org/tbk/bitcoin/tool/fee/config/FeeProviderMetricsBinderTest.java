@@ -0,0 +1,136 @@
+package org.tbk.bitcoin.tool.fee.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.tbk.bitcoin.tool.fee.AbstractFeeProvider;
+import org.tbk.bitcoin.tool.fee.FeeProvider;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationRequest;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationRequestImpl;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponse;
+import org.tbk.bitcoin.tool.fee.ProviderInfo;
+import org.tbk.bitcoin.tool.fee.metrics.MeteredFeeProvider;
+import org.tbk.bitcoin.tool.fee.util.MoreBitcoin;
+import reactor.core.publisher.Flux;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+class FeeProviderMetricsBinderTest {
+
+    private static final FeeRecommendationRequest request = FeeRecommendationRequestImpl.builder()
+            .durationTarget(MoreBitcoin.averageBlockDuration())
+            .build();
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(BitcoinFeeClientMetricsConfiguration.class, FeeProviderConfiguration.class);
+
+    @Test
+    void itShouldInstrumentProviderBeansInPlace() {
+        this.contextRunner.run(context -> {
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+            TestFeeProvider first = context.getBean("firstFeeProvider", TestFeeProvider.class);
+            first.request(request).blockLast();
+
+            assertThat(registry.get("bitcoin.fee.provider.request")
+                    .tags("provider", "test", "outcome", "success")
+                    .timer().count(), is(1L));
+
+            // already instrumented - must not be decorated again
+            FeeProviderDecorator decorator = context.getBean("bitcoinFeeProviderMetricsDecorator", FeeProviderDecorator.class);
+            assertThat(decorator.decorate(first), is(sameInstance(first)));
+        });
+    }
+
+    @Test
+    void itShouldTellProvidersWithTheSameNameApart() {
+        this.contextRunner.run(context -> {
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+            context.getBean("secondFeeProvider", TestFeeProvider.class).request(request).blockLast();
+
+            assertThat(registry.get("bitcoin.fee.provider.request")
+                    .tags("provider", "test-2", "outcome", "success")
+                    .timer().count(), is(1L));
+            assertThat(registry.get("bitcoin.fee.provider.request")
+                    .tags("provider", "test", "outcome", "success")
+                    .timer().count(), is(0L));
+        });
+    }
+
+    @Test
+    void itShouldDecorateOtherProvidersOnce() {
+        this.contextRunner.run(context -> {
+            FeeProviderDecorator decorator = context.getBean("bitcoinFeeProviderMetricsDecorator", FeeProviderDecorator.class);
+
+            FeeProvider provider = new FeeProvider() {
+                @Override
+                public ProviderInfo info() {
+                    return ProviderInfo.SimpleProviderInfo.builder()
+                            .name("custom")
+                            .description("")
+                            .build();
+                }
+
+                @Override
+                public boolean supports(FeeRecommendationRequest request) {
+                    return true;
+                }
+
+                @Override
+                public Flux<FeeRecommendationResponse> request(FeeRecommendationRequest request) {
+                    return Flux.empty();
+                }
+            };
+
+            FeeProvider decorated = decorator.decorate(provider);
+            assertThat(decorated, is(instanceOf(MeteredFeeProvider.class)));
+            assertThat(decorator.decorate(provider), is(sameInstance(decorated)));
+        });
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class FeeProviderConfiguration {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        TestFeeProvider firstFeeProvider() {
+            return new TestFeeProvider();
+        }
+
+        @Bean
+        TestFeeProvider secondFeeProvider() {
+            return new TestFeeProvider();
+        }
+    }
+
+    static final class TestFeeProvider extends AbstractFeeProvider {
+
+        TestFeeProvider() {
+            super(ProviderInfo.SimpleProviderInfo.builder()
+                    .name("test")
+                    .description("")
+                    .build());
+        }
+
+        @Override
+        public boolean supports(FeeRecommendationRequest request) {
+            return true;
+        }
+
+        @Override
+        protected Flux<FeeRecommendationResponse> requestHook(FeeRecommendationRequest request) {
+            return Flux.empty();
+        }
+    }
+}
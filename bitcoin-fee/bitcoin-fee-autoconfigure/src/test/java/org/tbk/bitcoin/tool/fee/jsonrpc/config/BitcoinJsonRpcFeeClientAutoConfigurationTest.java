@@ -0,0 +1,88 @@
+package org.tbk.bitcoin.tool.fee.jsonrpc.config;
+
+import org.bitcoinj.params.RegTestParams;
+import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
+import org.consensusj.bitcoin.jsonrpc.RpcConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.tbk.bitcoin.jsonrpc.BitcoinJsonRpcBatchClient;
+import org.tbk.bitcoin.tool.fee.jsonrpc.BitcoinJsonRpcFeeApiClient;
+import org.tbk.bitcoin.tool.fee.jsonrpc.BitcoinJsonRpcFeeProvider;
+
+import java.net.URI;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+class BitcoinJsonRpcFeeClientAutoConfigurationTest {
+
+    private static final RpcConfig rpcConfig = new RpcConfig(RegTestParams.get(),
+            URI.create("http://localhost:18443"), "myrpcuser", "correcthorsebatterystaple");
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner();
+
+    @Test
+    void beansAreCreated() {
+        this.contextRunner.withUserConfiguration(BitcoinJsonRpcFeeClientAutoConfiguration.class)
+                .withBean(RpcConfig.class, () -> rpcConfig)
+                .withBean(BitcoinClient.class, () -> new BitcoinClient(rpcConfig))
+                .run(context -> {
+                    assertThat(context.getBean(BitcoinJsonRpcFeeApiClient.class), is(notNullValue()));
+                    assertThat(context.getBean(BitcoinJsonRpcFeeProvider.class), is(notNullValue()));
+                });
+    }
+
+    @Test
+    void itShouldFetchAllConfTargetsWithSharedBatchClient() {
+        this.contextRunner.withUserConfiguration(BitcoinJsonRpcFeeClientAutoConfiguration.class)
+                .withBean(BitcoinClient.class, () -> new BitcoinClient(rpcConfig))
+                .withBean(BitcoinJsonRpcBatchClient.class, () -> BitcoinJsonRpcBatchClient.builder()
+                        .rpcConfig(rpcConfig)
+                        .build())
+                .run(context -> {
+                    BitcoinJsonRpcFeeProvider provider = context.getBean(BitcoinJsonRpcFeeProvider.class);
+                    assertThat(provider.getConfTargets(), hasSize(BitcoinJsonRpcFeeProvider.MAX_CONF_TARGET));
+                });
+    }
+
+    @Test
+    void itShouldFetchSparseConfTargetsWithoutBatchClient() {
+        this.contextRunner.withUserConfiguration(BitcoinJsonRpcFeeClientAutoConfiguration.class)
+                .withBean(BitcoinClient.class, () -> new BitcoinClient(rpcConfig))
+                .run(context -> {
+                    BitcoinJsonRpcFeeProvider provider = context.getBean(BitcoinJsonRpcFeeProvider.class);
+                    assertThat(provider.getConfTargets(), is(BitcoinJsonRpcFeeProvider.SPARSE_CONF_TARGETS));
+                });
+    }
+
+    @Test
+    void noBeansAreCreatedWithoutBitcoinClient() {
+        this.contextRunner.withUserConfiguration(BitcoinJsonRpcFeeClientAutoConfiguration.class)
+                .run(context -> {
+                    assertThat(context.containsBean("bitcoinJsonRpcFeeApiClient"), is(false));
+                    assertThat(context.containsBean("bitcoinJsonRpcFeeProvider"), is(false));
+                });
+    }
+
+    @Test
+    void noBeansAreCreatedIfDisabled() {
+        this.contextRunner.withUserConfiguration(BitcoinJsonRpcFeeClientAutoConfiguration.class)
+                .withBean(BitcoinClient.class, () -> new BitcoinClient(rpcConfig))
+                .withPropertyValues(
+                        "org.tbk.bitcoin.tool.fee.bitcoin-jsonrpc.enabled=false"
+                )
+                .run(context -> assertThat(context.containsBean("bitcoinJsonRpcFeeProvider"), is(false)));
+    }
+
+    @Test
+    void itShouldFailOnInvalidMaxAge() {
+        this.contextRunner.withUserConfiguration(BitcoinJsonRpcFeeClientAutoConfiguration.class)
+                .withBean(BitcoinClient.class, () -> new BitcoinClient(rpcConfig))
+                .withPropertyValues(
+                        "org.tbk.bitcoin.tool.fee.bitcoin-jsonrpc.max-age=0s"
+                )
+                .run(context -> assertThat(context.getStartupFailure(), is(notNullValue())));
+    }
+}
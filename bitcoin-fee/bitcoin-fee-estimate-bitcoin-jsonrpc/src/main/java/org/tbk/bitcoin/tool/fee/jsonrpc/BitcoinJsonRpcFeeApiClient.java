@@ -1,5 +1,7 @@
 package org.tbk.bitcoin.tool.fee.jsonrpc;
 
+import java.util.List;
+
 public interface BitcoinJsonRpcFeeApiClient {
     /**
      * estimatesmartfee
@@ -33,4 +35,19 @@ public interface BitcoinJsonRpcFeeApiClient {
      * @return the fee estimation response
      */
     EstimateSmartFeeResponse estimatesmartfee(EstimateSmartFeeRequest request);
+
+    /**
+     * Estimates the fee for multiple confirmation targets at once.
+     *
+     * <p>The default implementation calls {@link #estimatesmartfee(EstimateSmartFeeRequest)} for every request.
+     * Implementations are encouraged to send all requests within a single round-trip.
+     *
+     * @param requests the fee estimation requests
+     * @return the fee estimation responses in the same order as the given requests
+     */
+    default List<EstimateSmartFeeResponse> estimatesmartfee(List<EstimateSmartFeeRequest> requests) {
+        return requests.stream()
+                .map(this::estimatesmartfee)
+                .toList();
+    }
 }
@@ -2,6 +2,7 @@ package org.tbk.bitcoin.tool.fee.jsonrpc;
 
 import com.google.common.collect.ImmutableList;
 import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
+import org.tbk.bitcoin.jsonrpc.BitcoinJsonRpcBatchClient;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -14,8 +15,16 @@ import static java.util.Objects.requireNonNull;
 public class BitcoinJsonRpcFeeApiClientImpl implements BitcoinJsonRpcFeeApiClient {
     private final BitcoinClient client;
 
+    private final BitcoinJsonRpcBatchClient batchClient;
+
     public BitcoinJsonRpcFeeApiClientImpl(BitcoinClient client) {
         this.client = requireNonNull(client);
+        this.batchClient = null;
+    }
+
+    public BitcoinJsonRpcFeeApiClientImpl(BitcoinClient client, BitcoinJsonRpcBatchClient batchClient) {
+        this.client = requireNonNull(client);
+        this.batchClient = requireNonNull(batchClient);
     }
 
     @Override
@@ -25,19 +34,55 @@ public class BitcoinJsonRpcFeeApiClientImpl implements BitcoinJsonRpcFeeApiClien
                     .add(request.getConfTarget())
                     .build());
 
-            // "errors", when present, can be safely casted to List<String>
-            @SuppressWarnings("unchecked")
-            List<String> errors = Optional.ofNullable(estimatesmartfee.get("errors"))
-                    .map(val -> (List<String>) val)
-                    .orElseGet(Collections::emptyList);
-
-            return EstimateSmartFeeResponse.newBuilder()
-                    .setBlocks(Optional.ofNullable((Integer) estimatesmartfee.get("blocks")).orElse(0))
-                    .setFeerate(Optional.ofNullable((Double) estimatesmartfee.get("feerate")).orElse(0d))
-                    .addAllError(errors)
-                    .build();
+            return toResponse(estimatesmartfee);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Sends all requests within a single jsonrpc batch if a {@link BitcoinJsonRpcBatchClient} is available.
+     * An error of a single request is reported in the {@code errors} field of its response.
+     */
+    @Override
+    public List<EstimateSmartFeeResponse> estimatesmartfee(List<EstimateSmartFeeRequest> requests) {
+        if (batchClient == null) {
+            return BitcoinJsonRpcFeeApiClient.super.estimatesmartfee(requests);
+        }
+
+        List<BitcoinJsonRpcBatchClient.Request> batch = requests.stream()
+                .map(it -> BitcoinJsonRpcBatchClient.Request.of("estimatesmartfee", it.getConfTarget()))
+                .toList();
+
+        try {
+            return batchClient.send(batch).stream()
+                    .map(BitcoinJsonRpcFeeApiClientImpl::toResponse)
+                    .toList();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static EstimateSmartFeeResponse toResponse(BitcoinJsonRpcBatchClient.Response response) {
+        return response.getError()
+                .map(error -> EstimateSmartFeeResponse.newBuilder()
+                        .addError(error.getMessage())
+                        .build())
+                .orElseGet(() -> toResponse((Map<String, Object>) response.getResult()));
+    }
+
+    private static EstimateSmartFeeResponse toResponse(Map<String, Object> estimatesmartfee) {
+        // "errors", when present, can be safely casted to List<String>
+        @SuppressWarnings("unchecked")
+        List<String> errors = Optional.ofNullable(estimatesmartfee.get("errors"))
+                .map(val -> (List<String>) val)
+                .orElseGet(Collections::emptyList);
+
+        return EstimateSmartFeeResponse.newBuilder()
+                .setBlocks(Optional.ofNullable((Number) estimatesmartfee.get("blocks")).map(Number::intValue).orElse(0))
+                .setFeerate(Optional.ofNullable((Number) estimatesmartfee.get("feerate")).map(Number::doubleValue).orElse(0d))
+                .addAllError(errors)
+                .build();
+    }
 }
@@ -1,30 +1,233 @@
 package org.tbk.bitcoin.tool.fee.jsonrpc;
 
-import org.tbk.bitcoin.tool.fee.AbstractFeeProvider;
-import org.tbk.bitcoin.tool.fee.FeeRecommendationRequest;
-import org.tbk.bitcoin.tool.fee.FeeRecommendationResponse;
-import org.tbk.bitcoin.tool.fee.ProviderInfo;
+import com.google.common.annotations.VisibleForTesting;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.tbk.bitcoin.tool.fee.*;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponseImpl.SatPerVbyteImpl;
+import org.tbk.bitcoin.tool.fee.util.MoreSatPerVbyte;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
 
-public class BitcoinJsonRpcFeeProvider extends AbstractFeeProvider {
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A fee provider backed by {@code estimatesmartfee} of a bitcoin core node.
+ *
+ * <p>Estimates for all confirmation targets (1 - 1008) are fetched at once and kept in memory
+ * till a new block arrives, as the estimates of bitcoin core only change with new blocks.
+ * If the client cannot batch requests, a subset of targets should be fetched instead (e.g.
+ * {@link #SPARSE_CONF_TARGETS}) - requests for other targets are served with the estimate of the next
+ * lower fetched target, which is a conservative (higher) fee rate.
+ * If a block notification publisher (e.g. backed by zeromq) is provided, every notification invalidates
+ * the cached estimates. In any case, estimates are refetched after {@code maxAge} to not serve outdated
+ * values if notifications are missing or unavailable.
+ */
+@Slf4j
+public class BitcoinJsonRpcFeeProvider extends AbstractFeeProvider implements AutoCloseable {
+
+    /**
+     * The maximum confirmation target supported by {@code estimatesmartfee}.
+     */
+    public static final int MAX_CONF_TARGET = 1008;
+
+    private static final Duration DEFAULT_MAX_AGE = Duration.ofMinutes(1);
+
+    private static final Duration DEFAULT_MAX_AGE_WITH_BLOCK_NOTIFICATIONS = Duration.ofMinutes(10);
+
+    /**
+     * A small set of confirmation targets suited for clients sending every request in a separate round-trip.
+     */
+    public static final List<Integer> SPARSE_CONF_TARGETS = List.of(1, 2, 3, 4, 5, 6, 8, 10, 12, 18, 24, 36, 48, 72,
+            144, 288, 504, MAX_CONF_TARGET);
+
+    private static final List<Integer> ALL_CONF_TARGETS = IntStream.rangeClosed(1, MAX_CONF_TARGET)
+            .boxed()
+            .toList();
 
     private static final ProviderInfo providerInfo = ProviderInfo.SimpleProviderInfo.builder()
             .name("bitcoin-jsonrpc-estimatesmartfee")
             .description("")
             .build();
 
-    protected BitcoinJsonRpcFeeProvider() {
+    private final BitcoinJsonRpcFeeApiClient client;
+
+    private final List<Integer> confTargets;
+
+    private final List<EstimateSmartFeeRequest> confTargetRequests;
+
+    private final Duration maxAge;
+
+    private final Scheduler scheduler;
+
+    private final AtomicReference<Mono<EstimateTable>> estimates = new AtomicReference<>();
+
+    private final Disposable blockNotificationSubscription;
+
+    public BitcoinJsonRpcFeeProvider(BitcoinJsonRpcFeeApiClient client) {
+        this(client, null, null, null, null);
+    }
+
+    @Builder
+    private BitcoinJsonRpcFeeProvider(BitcoinJsonRpcFeeApiClient client,
+                                      List<Integer> confTargets,
+                                      Publisher<?> blockNotifications,
+                                      Duration maxAge,
+                                      Scheduler scheduler) {
         super(providerInfo);
+        checkArgument(maxAge == null || (!maxAge.isNegative() && !maxAge.isZero()), "'maxAge' must be positive");
+        checkArgument(confTargets == null || !confTargets.isEmpty(), "'confTargets' must not be empty");
+        checkArgument(confTargets == null || confTargets.stream().allMatch(it -> it >= 1 && it <= MAX_CONF_TARGET),
+                "'confTargets' must be within 1 and " + MAX_CONF_TARGET);
+
+        this.client = requireNonNull(client);
+        this.confTargets = Optional.ofNullable(confTargets)
+                .map(it -> it.stream().distinct().sorted().toList())
+                .orElse(ALL_CONF_TARGETS);
+        this.confTargetRequests = this.confTargets.stream()
+                .map(confTarget -> EstimateSmartFeeRequest.newBuilder()
+                        .setConfTarget(confTarget)
+                        .build())
+                .toList();
+        this.maxAge = Optional.ofNullable(maxAge)
+                .orElse(blockNotifications == null ? DEFAULT_MAX_AGE : DEFAULT_MAX_AGE_WITH_BLOCK_NOTIFICATIONS);
+        this.scheduler = Optional.ofNullable(scheduler).orElseGet(Schedulers::boundedElastic);
+        this.estimates.set(fetchEstimates());
+
+        this.blockNotificationSubscription = blockNotifications == null ? null : Flux.from(blockNotifications)
+                .subscribe(notification -> invalidate(), e -> log.warn("Block notifications terminated with error - "
+                        + "estimates are refetched every {} only", this.maxAge, e));
     }
 
     @Override
     public boolean supports(FeeRecommendationRequest request) {
-        return request.getDesiredConfidence().isEmpty();
+        return request.getDesiredConfidence().isEmpty()
+                && request.getBlockTarget() <= MAX_CONF_TARGET;
     }
 
     @Override
     protected Flux<FeeRecommendationResponse> requestHook(FeeRecommendationRequest request) {
-        return null;
+        int confTarget = (int) request.getBlockTarget();
+
+        return estimates.get()
+                .flatMap(table -> Mono.justOrEmpty(table.get(confTarget)))
+                .flux();
+    }
+
+    /**
+     * Discards all cached estimates. The next request will fetch estimates from the node.
+     */
+    public void invalidate() {
+        log.trace("Invalidating cached estimates");
+        estimates.set(fetchEstimates());
+    }
+
+    @Override
+    public void close() {
+        if (blockNotificationSubscription != null) {
+            blockNotificationSubscription.dispose();
+        }
+    }
+
+    @VisibleForTesting
+    Duration getMaxAge() {
+        return maxAge;
+    }
+
+    /**
+     * Returns the confirmation targets fetched from the node in ascending order.
+     */
+    public List<Integer> getConfTargets() {
+        return confTargets;
+    }
+
+    private Mono<EstimateTable> fetchEstimates() {
+        // nothing is fetched till the first subscription - concurrent subscribers share a single batch request
+        return Mono.fromCallable(() -> new EstimateTable(confTargets, client.estimatesmartfee(confTargetRequests)))
+                .subscribeOn(scheduler)
+                .cache(table -> maxAge, e -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    /**
+     * Fee recommendations indexed by confirmation target. Responses are built once per fetch -
+     * subsequent confirmation targets with an identical feerate share the same instance.
+     * Targets in between fetched ones get the response of the next lower fetched target. Targets without
+     * a valid estimate are treated alike - the ones in front of the first valid estimate get its response.
+     * Nothing is served beyond the highest valid estimate.
+     */
+    private static final class EstimateTable {
+        private final FeeRecommendationResponse[] responses = new FeeRecommendationResponse[MAX_CONF_TARGET];
+
+        EstimateTable(List<Integer> confTargets, List<EstimateSmartFeeResponse> estimates) {
+            FeeRecommendationResponse previousResponse = null;
+            double previousFeerate = 0d;
+
+            // first confirmation target of the invalid estimates since the last valid one
+            int gapFromConfTarget = -1;
+
+            for (int i = 0; i < Math.min(estimates.size(), confTargets.size()); i++) {
+                EstimateSmartFeeResponse estimate = estimates.get(i);
+                int fromConfTarget = confTargets.get(i);
+
+                boolean isValidEstimate = estimate.getErrorCount() == 0 && estimate.getFeerate() > 0d;
+                if (!isValidEstimate) {
+                    if (gapFromConfTarget < 0) {
+                        gapFromConfTarget = fromConfTarget;
+                    }
+                    continue;
+                }
+
+                FeeRecommendationResponse gapResponse = previousResponse;
+                if (previousResponse == null || Double.compare(previousFeerate, estimate.getFeerate()) != 0) {
+                    previousResponse = toResponse(estimate.getFeerate());
+                    previousFeerate = estimate.getFeerate();
+                }
+
+                if (gapFromConfTarget >= 0) {
+                    fill(gapFromConfTarget, fromConfTarget - 1, gapResponse != null ? gapResponse : previousResponse);
+                    gapFromConfTarget = -1;
+                }
+
+                int toConfTarget = i + 1 < confTargets.size() ? confTargets.get(i + 1) - 1 : fromConfTarget;
+                fill(fromConfTarget, toConfTarget, previousResponse);
+            }
+        }
+
+        private void fill(int fromConfTarget, int toConfTarget, FeeRecommendationResponse response) {
+            for (int confTarget = fromConfTarget; confTarget <= toConfTarget; confTarget++) {
+                responses[confTarget - 1] = response;
+            }
+        }
+
+        Optional<FeeRecommendationResponse> get(int confTarget) {
+            if (confTarget < 1 || confTarget > MAX_CONF_TARGET) {
+                return Optional.empty();
+            }
+            return Optional.ofNullable(responses[confTarget - 1]);
+        }
+
+        private static FeeRecommendationResponse toResponse(double btcPerKVbyte) {
+            SatPerVbyteImpl satPerVbyte = SatPerVbyteImpl.builder()
+                    .satPerVbyteValue(MoreSatPerVbyte.fromBtcPerKVbyte(BigDecimal.valueOf(btcPerKVbyte)))
+                    .build();
+
+            return FeeRecommendationResponseImpl.builder()
+                    .addFeeRecommendation(FeeRecommendationResponseImpl.FeeRecommendationImpl.builder()
+                            .feeUnit(satPerVbyte)
+                            .build())
+                    .build();
+        }
     }
 }
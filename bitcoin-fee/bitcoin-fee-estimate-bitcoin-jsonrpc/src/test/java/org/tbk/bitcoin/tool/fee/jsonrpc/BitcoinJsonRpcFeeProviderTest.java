@@ -0,0 +1,190 @@
+package org.tbk.bitcoin.tool.fee.jsonrpc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationRequest;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationRequestImpl;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponse;
+import org.tbk.bitcoin.tool.fee.util.MoreBitcoin;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.comparesEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+class BitcoinJsonRpcFeeProviderTest {
+
+    private final CountingApiClient client = new CountingApiClient();
+
+    private final Sinks.Many<String> blockNotifications = Sinks.many().multicast().directBestEffort();
+
+    private final BitcoinJsonRpcFeeProvider sut = BitcoinJsonRpcFeeProvider.builder()
+            .client(client)
+            .blockNotifications(blockNotifications.asFlux())
+            .scheduler(Schedulers.immediate())
+            .build();
+
+    @AfterEach
+    void tearDown() {
+        sut.close();
+    }
+
+    @Test
+    void itShouldFetchEstimatesForAllConfTargetsInOneBatch() {
+        assertThat(client.batchInvocations.get(), is(0));
+
+        BigDecimal nextBlockFee = requestSatPerVbyte(1);
+        BigDecimal sixBlocksFee = requestSatPerVbyte(6);
+        BigDecimal maxBlocksFee = requestSatPerVbyte(BitcoinJsonRpcFeeProvider.MAX_CONF_TARGET - 1);
+
+        assertThat(nextBlockFee, comparesEqualTo(new BigDecimal("20")));
+        assertThat(sixBlocksFee, comparesEqualTo(new BigDecimal("10")));
+        assertThat(maxBlocksFee, comparesEqualTo(new BigDecimal("10")));
+
+        assertThat(client.batchInvocations.get(), is(1));
+        assertThat(client.lastBatchSize.get(), is(BitcoinJsonRpcFeeProvider.MAX_CONF_TARGET));
+    }
+
+    @Test
+    void itShouldServeTargetsInBetweenSparseConfTargetsConservatively() {
+        BitcoinJsonRpcFeeProvider sparse = BitcoinJsonRpcFeeProvider.builder()
+                .client(client)
+                .confTargets(List.of(6, 1, 2))
+                .scheduler(Schedulers.immediate())
+                .build();
+
+        assertThat(sparse.getConfTargets(), is(List.of(1, 2, 6)));
+
+        // targets 3 to 5 are served with the estimate of target 2
+        FeeRecommendationResponse response = sparse.request(requestForBlockTarget(5)).blockFirst();
+        assertThat(response.getFeeRecommendations().get(0).getFeeUnit().getValue(), comparesEqualTo(new BigDecimal("20")));
+
+        // nothing is known beyond the highest target
+        assertThat(sparse.request(requestForBlockTarget(7)).collectList().block(), hasSize(0));
+
+        assertThat(client.batchInvocations.get(), is(1));
+        assertThat(client.lastBatchSize.get(), is(3));
+    }
+
+    @Test
+    void itShouldServeTargetsWithInvalidEstimatesConservatively() {
+        client.invalidConfTargets.addAll(Set.of(1, 3));
+
+        BitcoinJsonRpcFeeProvider sparse = BitcoinJsonRpcFeeProvider.builder()
+                .client(client)
+                .confTargets(List.of(1, 2, 3, 6))
+                .scheduler(Schedulers.immediate())
+                .build();
+
+        // target 1 precedes any valid estimate and is served with the estimate of target 2
+        FeeRecommendationResponse nextBlockResponse = sparse.request(requestForBlockTarget(1)).blockFirst();
+        assertThat(nextBlockResponse.getFeeRecommendations().get(0).getFeeUnit().getValue(), comparesEqualTo(new BigDecimal("20")));
+
+        // targets 3 to 5 are served with the estimate of target 2
+        FeeRecommendationResponse response = sparse.request(requestForBlockTarget(4)).blockFirst();
+        assertThat(response.getFeeRecommendations().get(0).getFeeUnit().getValue(), comparesEqualTo(new BigDecimal("20")));
+
+        FeeRecommendationResponse sixBlocksResponse = sparse.request(requestForBlockTarget(6)).blockFirst();
+        assertThat(sixBlocksResponse.getFeeRecommendations().get(0).getFeeUnit().getValue(), comparesEqualTo(new BigDecimal("10")));
+
+        assertThat(client.batchInvocations.get(), is(1));
+    }
+
+    @Test
+    void itShouldNotEmitResponseForInvalidEstimates() {
+        List<FeeRecommendationResponse> responses = sut.request(requestForBlockTarget(BitcoinJsonRpcFeeProvider.MAX_CONF_TARGET))
+                .collectList()
+                .block();
+
+        assertThat(responses, hasSize(0));
+    }
+
+    @Test
+    void itShouldNotSupportConfTargetsBeyondMaximum() {
+        boolean supported = sut.supports(requestForBlockTarget(BitcoinJsonRpcFeeProvider.MAX_CONF_TARGET + 1));
+
+        assertThat(supported, is(false));
+    }
+
+    @Test
+    void itShouldRefetchEstimatesOnBlockNotification() {
+        requestSatPerVbyte(1);
+        requestSatPerVbyte(2);
+        assertThat(client.batchInvocations.get(), is(1));
+
+        blockNotifications.tryEmitNext("block");
+        assertThat("estimates are fetched lazily", client.batchInvocations.get(), is(1));
+
+        requestSatPerVbyte(1);
+        requestSatPerVbyte(2);
+        assertThat(client.batchInvocations.get(), is(2));
+    }
+
+    @Test
+    void itShouldRetryFailedFetches() {
+        client.failNextBatch.set(true);
+
+        List<FeeRecommendationResponse> failed = sut.request(requestForBlockTarget(1))
+                .onErrorResume(e -> Flux.empty())
+                .collectList()
+                .block();
+        assertThat(failed, hasSize(0));
+
+        assertThat(requestSatPerVbyte(1), comparesEqualTo(new BigDecimal("20")));
+        assertThat(client.batchInvocations.get(), is(2));
+    }
+
+    private BigDecimal requestSatPerVbyte(int blockTarget) {
+        FeeRecommendationResponse response = sut.request(requestForBlockTarget(blockTarget)).blockFirst();
+        return response.getFeeRecommendations().get(0).getFeeUnit().getValue();
+    }
+
+    private static FeeRecommendationRequest requestForBlockTarget(int blockTarget) {
+        return FeeRecommendationRequestImpl.builder()
+                .durationTarget(MoreBitcoin.averageBlockDuration().multipliedBy(blockTarget))
+                .build();
+    }
+
+    private static final class CountingApiClient implements BitcoinJsonRpcFeeApiClient {
+        private final AtomicInteger batchInvocations = new AtomicInteger();
+        private final AtomicInteger lastBatchSize = new AtomicInteger();
+        private final AtomicBoolean failNextBatch = new AtomicBoolean();
+        private final Set<Integer> invalidConfTargets = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public EstimateSmartFeeResponse estimatesmartfee(EstimateSmartFeeRequest request) {
+            if (request.getConfTarget() >= BitcoinJsonRpcFeeProvider.MAX_CONF_TARGET
+                    || invalidConfTargets.contains(request.getConfTarget())) {
+                return EstimateSmartFeeResponse.newBuilder()
+                        .addError("Insufficient data or no feerate found")
+                        .build();
+            }
+
+            return EstimateSmartFeeResponse.newBuilder()
+                    .setBlocks(Math.max(2, request.getConfTarget()))
+                    .setFeerate(request.getConfTarget() <= 2 ? 0.0002d : 0.0001d)
+                    .build();
+        }
+
+        @Override
+        public List<EstimateSmartFeeResponse> estimatesmartfee(List<EstimateSmartFeeRequest> requests) {
+            batchInvocations.incrementAndGet();
+            lastBatchSize.set(requests.size());
+
+            if (failNextBatch.getAndSet(false)) {
+                throw new IllegalStateException("Test failure");
+            }
+            return BitcoinJsonRpcFeeApiClient.super.estimatesmartfee(requests);
+        }
+    }
+}
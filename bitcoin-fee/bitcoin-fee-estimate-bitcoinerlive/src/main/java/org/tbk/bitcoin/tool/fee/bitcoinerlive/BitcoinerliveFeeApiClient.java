@@ -1,5 +1,13 @@
 package org.tbk.bitcoin.tool.fee.bitcoinerlive;
 
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
 public interface BitcoinerliveFeeApiClient {
     FeeEstimatesLatestResponse feeEstimatesLatest(FeeEstimatesLatestRequest request);
+
+    default Mono<FeeEstimatesLatestResponse> feeEstimatesLatestAsync(FeeEstimatesLatestRequest request) {
+        return Mono.fromCallable(() -> feeEstimatesLatest(request))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
 }
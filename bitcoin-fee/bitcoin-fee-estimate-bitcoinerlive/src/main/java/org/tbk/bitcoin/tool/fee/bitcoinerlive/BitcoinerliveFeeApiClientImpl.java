@@ -3,13 +3,13 @@ package org.tbk.bitcoin.tool.fee.bitcoinerlive;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.net.HttpHeaders;
 import lombok.SneakyThrows;
-import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.tbk.bitcoin.tool.fee.util.MoreHttpClient;
+import org.tbk.bitcoin.tool.fee.http.FeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.JdkFeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.SingleFlightFeeApiHttpClient;
 import org.tbk.bitcoin.tool.fee.util.MoreJsonFormat;
 import org.tbk.bitcoin.tool.fee.util.MoreQueryString;
+import reactor.core.publisher.Mono;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -26,7 +26,11 @@ public class BitcoinerliveFeeApiClientImpl implements BitcoinerliveFeeApiClient
 
     private static final String DEFAULT_USERAGENT = "tbk-bitcoinerlive-client/" + DEFAULT_VERSION;
 
-    private final CloseableHttpClient client = HttpClients.createDefault();
+    private static final Map<String, String> DEFAULT_HEADERS = ImmutableMap.<String, String>builder()
+            .put(HttpHeaders.USER_AGENT, DEFAULT_USERAGENT)
+            .build();
+
+    private final FeeApiHttpClient client;
 
     private final String baseUrl;
     private final String apiToken;
@@ -38,23 +42,31 @@ public class BitcoinerliveFeeApiClientImpl implements BitcoinerliveFeeApiClient
     }
 
     public BitcoinerliveFeeApiClientImpl(String baseUrl, String apiToken) {
+        this(baseUrl, apiToken, SingleFlightFeeApiHttpClient.of(JdkFeeApiHttpClient.builder().build()));
+    }
+
+    public BitcoinerliveFeeApiClientImpl(String baseUrl, String apiToken, FeeApiHttpClient client) {
         this.baseUrl = requireNonNull(baseUrl);
         this.apiToken = apiToken;
+        this.client = requireNonNull(client);
     }
 
     @Override
-    @SneakyThrows(URISyntaxException.class)
     public FeeEstimatesLatestResponse feeEstimatesLatest(FeeEstimatesLatestRequest request) {
+        return feeEstimatesLatestAsync(request).block();
+    }
+
+    @Override
+    @SneakyThrows(URISyntaxException.class)
+    public Mono<FeeEstimatesLatestResponse> feeEstimatesLatestAsync(FeeEstimatesLatestRequest request) {
         // https://bitcoiner.live/api/fees/estimates/latest
         URI url = new URIBuilder(baseUrl)
                 .setPath("api/fees/estimates/latest")
                 .addParameters(MoreQueryString.toParams(createDefaultParams(request)))
                 .build();
 
-        HttpGet httpRequest = new HttpGet(url);
-        httpRequest.addHeader(HttpHeaders.USER_AGENT, DEFAULT_USERAGENT);
-        String json = MoreHttpClient.executeToJson(client, httpRequest);
-        return MoreJsonFormat.jsonToProto(json, FeeEstimatesLatestResponse.newBuilder()).build();
+        return client.getJson(url, DEFAULT_HEADERS)
+                .map(json -> MoreJsonFormat.jsonToProto(json, FeeEstimatesLatestResponse.newBuilder()).build());
     }
 
     private static String toConfidenceValue(FeeEstimatesLatestRequest request) {
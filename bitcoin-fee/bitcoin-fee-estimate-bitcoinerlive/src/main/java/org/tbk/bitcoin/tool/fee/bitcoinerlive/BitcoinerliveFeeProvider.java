@@ -52,8 +52,13 @@ public class BitcoinerliveFeeProvider extends AbstractFeeProvider {
     @Override
     public Flux<FeeRecommendationResponse> requestHook(FeeRecommendationRequest feeRecommendationRequest) {
         FeeEstimatesLatestRequest request = toApiRequest(feeRecommendationRequest);
-        FeeEstimatesLatestResponse response = client.feeEstimatesLatest(request);
 
+        return client.feeEstimatesLatestAsync(request)
+                .flatMapMany(response -> toResponse(feeRecommendationRequest, response));
+    }
+
+    private Flux<FeeRecommendationResponse> toResponse(FeeRecommendationRequest feeRecommendationRequest,
+                                                       FeeEstimatesLatestResponse response) {
         log.debug("data: {}", response);
 
         Map<String, Estimate> estimateMap = response.getEstimateMap();
@@ -1,6 +1,13 @@
 package org.tbk.bitcoin.tool.fee.bitcore;
 
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 public interface BitcoreFeeApiClient {
     FeeEstimationResponse bitcoinMainnetFee(FeeEstimationRequest request);
+
+    default Mono<FeeEstimationResponse> bitcoinMainnetFeeAsync(FeeEstimationRequest request) {
+        return Mono.fromCallable(() -> bitcoinMainnetFee(request))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
 }
@@ -3,13 +3,13 @@ package org.tbk.bitcoin.tool.fee.bitcore;
 import com.google.common.collect.ImmutableList;
 import lombok.SneakyThrows;
 import org.apache.http.NameValuePair;
-import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.message.BasicNameValuePair;
-import org.tbk.bitcoin.tool.fee.util.MoreHttpClient;
+import org.tbk.bitcoin.tool.fee.http.FeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.JdkFeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.SingleFlightFeeApiHttpClient;
 import org.tbk.bitcoin.tool.fee.util.MoreJsonFormat;
+import reactor.core.publisher.Mono;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -21,14 +21,20 @@ import static java.util.Objects.requireNonNull;
 
 public class BitcoreFeeApiClientImpl implements BitcoreFeeApiClient {
     private static final String TOKEN_PARAM_NAME = "token";
-    private final CloseableHttpClient client = HttpClients.createDefault();
+
+    private final FeeApiHttpClient client;
 
     private final String baseUrl;
     private final String apiToken;
 
     public BitcoreFeeApiClientImpl(String baseUrl, String apiToken) {
+        this(baseUrl, apiToken, SingleFlightFeeApiHttpClient.of(JdkFeeApiHttpClient.builder().build()));
+    }
+
+    public BitcoreFeeApiClientImpl(String baseUrl, String apiToken, FeeApiHttpClient client) {
         this.baseUrl = requireNonNull(baseUrl);
         this.apiToken = apiToken;
+        this.client = requireNonNull(client);
     }
 
     private Optional<String> getApiToken() {
@@ -44,8 +50,13 @@ public class BitcoreFeeApiClientImpl implements BitcoreFeeApiClient {
     }
 
     @Override
-    @SneakyThrows(URISyntaxException.class)
     public FeeEstimationResponse bitcoinMainnetFee(FeeEstimationRequest feeEstimationRequest) {
+        return bitcoinMainnetFeeAsync(feeEstimationRequest).block();
+    }
+
+    @Override
+    @SneakyThrows(URISyntaxException.class)
+    public Mono<FeeEstimationResponse> bitcoinMainnetFeeAsync(FeeEstimationRequest feeEstimationRequest) {
         checkArgument(feeEstimationRequest.getBlocks() > 0L, "'blocks' must be between 1 and 100");
         checkArgument(feeEstimationRequest.getBlocks() <= 100L, "'blocks' must be between 1 and 100");
 
@@ -55,8 +66,7 @@ public class BitcoreFeeApiClientImpl implements BitcoreFeeApiClient {
                 .addParameters(createDefaultParams())
                 .build();
 
-        HttpGet request = new HttpGet(url);
-        String json = MoreHttpClient.executeToJson(client, request);
-        return MoreJsonFormat.jsonToProto(json, FeeEstimationResponse.newBuilder()).build();
+        return client.getJson(url)
+                .map(json -> MoreJsonFormat.jsonToProto(json, FeeEstimationResponse.newBuilder()).build());
     }
 }
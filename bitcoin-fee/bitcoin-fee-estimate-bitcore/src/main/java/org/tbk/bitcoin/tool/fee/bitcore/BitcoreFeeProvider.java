@@ -36,8 +36,11 @@ public class BitcoreFeeProvider extends AbstractFeeProvider {
 
     @Override
     protected Flux<FeeRecommendationResponse> requestHook(FeeRecommendationRequest request) {
-        FeeEstimationResponse feeEstimationResponse = client.bitcoinMainnetFee(buildApiRequest(request));
+        return client.bitcoinMainnetFeeAsync(buildApiRequest(request))
+                .flatMapMany(this::toResponse);
+    }
 
+    private Flux<FeeRecommendationResponse> toResponse(FeeEstimationResponse feeEstimationResponse) {
         double btcPerKB = feeEstimationResponse.getFeerate();
 
         SatPerVbyteImpl satPerVbyte = SatPerVbyteImpl.builder()
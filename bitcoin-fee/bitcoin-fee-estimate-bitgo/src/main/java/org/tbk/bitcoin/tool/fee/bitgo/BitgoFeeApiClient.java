@@ -1,5 +1,13 @@
 package org.tbk.bitcoin.tool.fee.bitgo;
 
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
 public interface BitgoFeeApiClient {
     BtcTxFeeResponse btcTxFee(BtcTxFeeRequest request);
+
+    default Mono<BtcTxFeeResponse> btcTxFeeAsync(BtcTxFeeRequest request) {
+        return Mono.fromCallable(() -> btcTxFee(request))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
 }
@@ -2,13 +2,13 @@ package org.tbk.bitcoin.tool.fee.bitgo;
 
 import com.google.common.collect.ImmutableMap;
 import lombok.SneakyThrows;
-import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.tbk.bitcoin.tool.fee.util.MoreHttpClient;
+import org.tbk.bitcoin.tool.fee.http.FeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.JdkFeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.SingleFlightFeeApiHttpClient;
 import org.tbk.bitcoin.tool.fee.util.MoreJsonFormat;
 import org.tbk.bitcoin.tool.fee.util.MoreQueryString;
+import reactor.core.publisher.Mono;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -21,28 +21,37 @@ public class BitgoFeeApiClientImpl implements BitgoFeeApiClient {
     // api errors when "num blocks" param is lower than this value
     private static final int MIN_NUM_BLOCKS_PARAM_VAL = 2;
 
-    private final CloseableHttpClient client = HttpClients.createDefault();
+    private final FeeApiHttpClient client;
 
     private final String baseUrl;
     private final String apiToken;
 
     public BitgoFeeApiClientImpl(String baseUrl, String apiToken) {
+        this(baseUrl, apiToken, SingleFlightFeeApiHttpClient.of(JdkFeeApiHttpClient.builder().build()));
+    }
+
+    public BitgoFeeApiClientImpl(String baseUrl, String apiToken, FeeApiHttpClient client) {
         this.baseUrl = requireNonNull(baseUrl);
         this.apiToken = apiToken;
+        this.client = requireNonNull(client);
     }
 
     @Override
-    @SneakyThrows(URISyntaxException.class)
     public BtcTxFeeResponse btcTxFee(BtcTxFeeRequest request) {
+        return btcTxFeeAsync(request).block();
+    }
+
+    @Override
+    @SneakyThrows(URISyntaxException.class)
+    public Mono<BtcTxFeeResponse> btcTxFeeAsync(BtcTxFeeRequest request) {
         // https://www.bitgo.com/api/v2/btc/tx/fee
         URI url = new URIBuilder(baseUrl)
                 .setPath("api/v2/btc/tx/fee")
                 .addParameters(MoreQueryString.toParams(createDefaultParams(request)))
                 .build();
 
-        HttpGet httpRequest = new HttpGet(url);
-        String json = MoreHttpClient.executeToJson(client, httpRequest);
-        return MoreJsonFormat.jsonToProto(json, BtcTxFeeResponse.newBuilder()).build();
+        return client.getJson(url)
+                .map(json -> MoreJsonFormat.jsonToProto(json, BtcTxFeeResponse.newBuilder()).build());
     }
 
     private Map<String, String> createDefaultParams(BtcTxFeeRequest request) {
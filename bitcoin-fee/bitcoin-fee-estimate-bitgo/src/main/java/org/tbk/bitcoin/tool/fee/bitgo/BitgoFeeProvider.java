@@ -44,8 +44,12 @@ public class BitgoFeeProvider extends AbstractFeeProvider {
     @Override
     protected Flux<FeeRecommendationResponse> requestHook(FeeRecommendationRequest request) {
         BtcTxFeeRequest apiRequest = buildApiRequest(request);
-        BtcTxFeeResponse response = client.btcTxFee(apiRequest);
 
+        return client.btcTxFeeAsync(apiRequest)
+                .flatMapMany(this::toResponse);
+    }
+
+    private Flux<FeeRecommendationResponse> toResponse(BtcTxFeeResponse response) {
         log.debug("data: {}", response);
 
         long satPerKilobyte = response.getFeePerKb();
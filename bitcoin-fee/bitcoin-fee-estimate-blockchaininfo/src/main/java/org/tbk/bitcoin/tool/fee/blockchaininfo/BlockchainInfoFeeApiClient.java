@@ -1,7 +1,15 @@
 package org.tbk.bitcoin.tool.fee.blockchaininfo;
 
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
 public interface BlockchainInfoFeeApiClient {
 
     // https://api.blockchain.info/mempool/fees
     MempoolFees mempoolFees();
+
+    default Mono<MempoolFees> mempoolFeesAsync() {
+        return Mono.fromCallable(this::mempoolFees)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
 }
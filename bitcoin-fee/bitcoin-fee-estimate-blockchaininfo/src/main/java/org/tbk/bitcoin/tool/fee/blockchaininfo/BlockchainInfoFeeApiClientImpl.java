@@ -1,12 +1,12 @@
 package org.tbk.bitcoin.tool.fee.blockchaininfo;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.tbk.bitcoin.tool.fee.util.MoreHttpClient;
+import org.tbk.bitcoin.tool.fee.http.FeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.JdkFeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.SingleFlightFeeApiHttpClient;
 import org.tbk.bitcoin.tool.fee.util.MoreJsonFormat;
+import reactor.core.publisher.Mono;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -14,7 +14,7 @@ import java.net.URISyntaxException;
 import static java.util.Objects.requireNonNull;
 
 public class BlockchainInfoFeeApiClientImpl implements BlockchainInfoFeeApiClient {
-    private final CloseableHttpClient client = HttpClients.createDefault();
+    private final FeeApiHttpClient client;
 
     private final URI url;
 
@@ -22,16 +22,25 @@ public class BlockchainInfoFeeApiClientImpl implements BlockchainInfoFeeApiClien
     private final String apiToken;
 
     public BlockchainInfoFeeApiClientImpl(String baseUrl, String apiToken) {
+        this(baseUrl, apiToken, SingleFlightFeeApiHttpClient.of(JdkFeeApiHttpClient.builder().build()));
+    }
+
+    public BlockchainInfoFeeApiClientImpl(String baseUrl, String apiToken, FeeApiHttpClient client) {
         requireNonNull(baseUrl);
         this.url = toUri(baseUrl);
         this.apiToken = apiToken;
+        this.client = requireNonNull(client);
     }
 
     @Override
     public MempoolFees mempoolFees() {
-        HttpGet request = new HttpGet(url);
-        String json = MoreHttpClient.executeToJson(client, request);
-        return MoreJsonFormat.jsonToProto(json, MempoolFees.newBuilder()).build();
+        return mempoolFeesAsync().block();
+    }
+
+    @Override
+    public Mono<MempoolFees> mempoolFeesAsync() {
+        return client.getJson(url)
+                .map(json -> MoreJsonFormat.jsonToProto(json, MempoolFees.newBuilder()).build());
     }
 
     private static URI toUri(String baseUrl) {
@@ -36,8 +36,11 @@ public class BlockchainInfoFeeProvider extends AbstractFeeProvider {
 
     @Override
     public Flux<FeeRecommendationResponse> requestHook(FeeRecommendationRequest request) {
-        MempoolFees mempoolFees = client.mempoolFees();
+        return client.mempoolFeesAsync()
+                .flatMapMany(mempoolFees -> toResponse(request, mempoolFees));
+    }
 
+    private Flux<FeeRecommendationResponse> toResponse(FeeRecommendationRequest request, MempoolFees mempoolFees) {
         log.debug("data: {}", mempoolFees);
 
         boolean isLessOrEqualToSixHours = Duration.ofMinutes(60 * 6).compareTo(request.getDurationTarget()) >= 0;
@@ -1,5 +1,13 @@
 package org.tbk.bitcoin.tool.fee.blockchair;
 
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
 public interface BlockchairFeeApiClient {
     BitcoinStatsFeesOnly bitcoinStatsFeesOnly();
+
+    default Mono<BitcoinStatsFeesOnly> bitcoinStatsFeesOnlyAsync() {
+        return Mono.fromCallable(this::bitcoinStatsFeesOnly)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
 }
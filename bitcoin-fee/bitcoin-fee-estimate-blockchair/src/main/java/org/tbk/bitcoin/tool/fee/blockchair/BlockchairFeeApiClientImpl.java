@@ -2,13 +2,13 @@ package org.tbk.bitcoin.tool.fee.blockchair;
 
 import com.google.common.collect.ImmutableMap;
 import lombok.SneakyThrows;
-import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.tbk.bitcoin.tool.fee.util.MoreHttpClient;
+import org.tbk.bitcoin.tool.fee.http.FeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.JdkFeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.SingleFlightFeeApiHttpClient;
 import org.tbk.bitcoin.tool.fee.util.MoreJsonFormat;
 import org.tbk.bitcoin.tool.fee.util.MoreQueryString;
+import reactor.core.publisher.Mono;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -19,14 +19,20 @@ import static java.util.Objects.requireNonNull;
 
 public class BlockchairFeeApiClientImpl implements BlockchairFeeApiClient {
     private static final String TOKEN_PARAM_NAME = "key";
-    private final CloseableHttpClient client = HttpClients.createDefault();
+
+    private final FeeApiHttpClient client;
 
     private final String baseUrl;
     private final String apiToken;
 
     public BlockchairFeeApiClientImpl(String baseUrl, String apiToken) {
+        this(baseUrl, apiToken, SingleFlightFeeApiHttpClient.of(JdkFeeApiHttpClient.builder().build()));
+    }
+
+    public BlockchairFeeApiClientImpl(String baseUrl, String apiToken, FeeApiHttpClient client) {
         this.baseUrl = requireNonNull(baseUrl);
         this.apiToken = apiToken;
+        this.client = requireNonNull(client);
     }
 
     private Optional<String> getApiToken() {
@@ -34,17 +40,21 @@ public class BlockchairFeeApiClientImpl implements BlockchairFeeApiClient {
     }
 
     @Override
-    @SneakyThrows(URISyntaxException.class)
     public BitcoinStatsFeesOnly bitcoinStatsFeesOnly() {
+        return bitcoinStatsFeesOnlyAsync().block();
+    }
+
+    @Override
+    @SneakyThrows(URISyntaxException.class)
+    public Mono<BitcoinStatsFeesOnly> bitcoinStatsFeesOnlyAsync() {
         // https://api.blockchair.com/bitcoin/stats
         URI url = new URIBuilder(baseUrl)
                 .setPath("bitcoin/stats")
                 .addParameters(MoreQueryString.toParams(createDefaultParams()))
                 .build();
 
-        HttpGet request = new HttpGet(url);
-        String json = MoreHttpClient.executeToJson(client, request);
-        return MoreJsonFormat.jsonToProto(json, BitcoinStatsFeesOnly.newBuilder()).build();
+        return client.getJson(url)
+                .map(json -> MoreJsonFormat.jsonToProto(json, BitcoinStatsFeesOnly.newBuilder()).build());
     }
 
     private Map<String, String> createDefaultParams() {
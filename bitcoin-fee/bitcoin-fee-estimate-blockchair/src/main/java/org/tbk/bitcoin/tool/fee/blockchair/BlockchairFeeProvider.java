@@ -39,8 +39,11 @@ public class BlockchairFeeProvider extends AbstractFeeProvider {
 
     @Override
     protected Flux<FeeRecommendationResponse> requestHook(FeeRecommendationRequest request) {
-        BitcoinStatsFeesOnly bitcoinStatsFeesOnly = this.client.bitcoinStatsFeesOnly();
+        return this.client.bitcoinStatsFeesOnlyAsync()
+                .flatMapMany(this::toResponse);
+    }
 
+    private Flux<FeeRecommendationResponse> toResponse(BitcoinStatsFeesOnly bitcoinStatsFeesOnly) {
         FeeRecommendationResponseImpl.SatPerVbyteImpl satPerVbyte = FeeRecommendationResponseImpl.SatPerVbyteImpl.builder()
                 .satPerVbyteValue(BigDecimal.valueOf(bitcoinStatsFeesOnly.getData().getSuggestedTransactionFeePerByteSat()))
                 .build();
@@ -1,8 +1,20 @@
 package org.tbk.bitcoin.tool.fee.blockcypher;
 
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 public interface BlockcypherFeeApiClient {
     ChainInfo btcMain();
 
     ChainInfo btcTestnet3();
+
+    default Mono<ChainInfo> btcMainAsync() {
+        return Mono.fromCallable(this::btcMain)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    default Mono<ChainInfo> btcTestnet3Async() {
+        return Mono.fromCallable(this::btcTestnet3)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
 }
@@ -2,13 +2,13 @@ package org.tbk.bitcoin.tool.fee.blockcypher;
 
 import com.google.common.collect.ImmutableMap;
 import lombok.SneakyThrows;
-import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.tbk.bitcoin.tool.fee.util.MoreHttpClient;
+import org.tbk.bitcoin.tool.fee.http.FeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.JdkFeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.SingleFlightFeeApiHttpClient;
 import org.tbk.bitcoin.tool.fee.util.MoreJsonFormat;
 import org.tbk.bitcoin.tool.fee.util.MoreQueryString;
+import reactor.core.publisher.Mono;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -19,14 +19,20 @@ import static java.util.Objects.requireNonNull;
 
 public class BlockcypherFeeApiClientImpl implements BlockcypherFeeApiClient {
     private static final String TOKEN_PARAM_NAME = "token";
-    private final CloseableHttpClient client = HttpClients.createDefault();
+
+    private final FeeApiHttpClient client;
 
     private final String baseUrl;
     private final String apiToken;
 
     public BlockcypherFeeApiClientImpl(String baseUrl, String apiToken) {
+        this(baseUrl, apiToken, SingleFlightFeeApiHttpClient.of(JdkFeeApiHttpClient.builder().build()));
+    }
+
+    public BlockcypherFeeApiClientImpl(String baseUrl, String apiToken, FeeApiHttpClient client) {
         this.baseUrl = requireNonNull(baseUrl);
         this.apiToken = apiToken;
+        this.client = requireNonNull(client);
     }
 
     private Optional<String> getApiToken() {
@@ -40,30 +46,38 @@ public class BlockcypherFeeApiClientImpl implements BlockcypherFeeApiClient {
     }
 
     @Override
-    @SneakyThrows(URISyntaxException.class)
     public ChainInfo btcMain() {
+        return btcMainAsync().block();
+    }
+
+    @Override
+    public ChainInfo btcTestnet3() {
+        return btcTestnet3Async().block();
+    }
+
+    @Override
+    @SneakyThrows(URISyntaxException.class)
+    public Mono<ChainInfo> btcMainAsync() {
         // https://api.blockcypher.com/v1/btc/main
         URI url = new URIBuilder(baseUrl)
                 .setPath("v1/btc/main")
                 .addParameters(MoreQueryString.toParams(createDefaultParams()))
                 .build();
 
-        HttpGet request = new HttpGet(url);
-        String json = MoreHttpClient.executeToJson(client, request);
-        return MoreJsonFormat.jsonToProto(json, ChainInfo.newBuilder()).build();
+        return client.getJson(url)
+                .map(json -> MoreJsonFormat.jsonToProto(json, ChainInfo.newBuilder()).build());
     }
 
     @Override
     @SneakyThrows(URISyntaxException.class)
-    public ChainInfo btcTestnet3() {
+    public Mono<ChainInfo> btcTestnet3Async() {
         // https://api.blockcypher.com/v1/btc/test3
         URI url = new URIBuilder(baseUrl)
                 .setPath("v1/btc/test3")
                 .addParameters(MoreQueryString.toParams(createDefaultParams()))
                 .build();
 
-        HttpGet request = new HttpGet(url);
-        String json = MoreHttpClient.executeToJson(client, request);
-        return MoreJsonFormat.jsonToProto(json, ChainInfo.newBuilder()).build();
+        return client.getJson(url)
+                .map(json -> MoreJsonFormat.jsonToProto(json, ChainInfo.newBuilder()).build());
     }
 }
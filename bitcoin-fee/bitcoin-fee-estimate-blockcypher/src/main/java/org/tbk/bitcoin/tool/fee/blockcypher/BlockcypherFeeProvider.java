@@ -41,8 +41,11 @@ public class BlockcypherFeeProvider extends AbstractFeeProvider {
 
     @Override
     protected Flux<FeeRecommendationResponse> requestHook(FeeRecommendationRequest request) {
-        ChainInfo chainInfo = this.client.btcMain();
+        return this.client.btcMainAsync()
+                .flatMapMany(chainInfo -> toResponse(request, chainInfo));
+    }
 
+    private Flux<FeeRecommendationResponse> toResponse(FeeRecommendationRequest request, ChainInfo chainInfo) {
         BigDecimal satPerKByte = BigDecimal.valueOf(getSatBerKByte(request, chainInfo));
         BigDecimal satPerVbyte = MoreSatPerVbyte.fromSatPerKVbyte(satPerKByte);
 
@@ -1,5 +1,13 @@
 package org.tbk.bitcoin.tool.fee.blockstreaminfo;
 
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
 public interface BlockstreamInfoFeeApiClient {
     FeeEstimates feeEstimates();
+
+    default Mono<FeeEstimates> feeEstimatesAsync() {
+        return Mono.fromCallable(this::feeEstimates)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
 }
@@ -3,12 +3,12 @@ package org.tbk.bitcoin.tool.fee.blockstreaminfo;
 import com.google.protobuf.Struct;
 import com.google.protobuf.Value;
 import lombok.SneakyThrows;
-import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.tbk.bitcoin.tool.fee.util.MoreHttpClient;
+import org.tbk.bitcoin.tool.fee.http.FeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.JdkFeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.SingleFlightFeeApiHttpClient;
 import org.tbk.bitcoin.tool.fee.util.MoreJsonFormat;
+import reactor.core.publisher.Mono;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -18,26 +18,39 @@ import java.util.List;
 import static java.util.Objects.requireNonNull;
 
 public class BlockstreamInfoFeeApiClientImpl implements BlockstreamInfoFeeApiClient {
-    private final CloseableHttpClient client = HttpClients.createDefault();
+    private final FeeApiHttpClient client;
 
     private final String baseUrl;
     private final String apiToken;
 
     public BlockstreamInfoFeeApiClientImpl(String baseUrl, String apiToken) {
+        this(baseUrl, apiToken, SingleFlightFeeApiHttpClient.of(JdkFeeApiHttpClient.builder().build()));
+    }
+
+    public BlockstreamInfoFeeApiClientImpl(String baseUrl, String apiToken, FeeApiHttpClient client) {
         this.baseUrl = requireNonNull(baseUrl);
         this.apiToken = apiToken;
+        this.client = requireNonNull(client);
     }
 
     @Override
-    @SneakyThrows(URISyntaxException.class)
     public FeeEstimates feeEstimates() {
+        return feeEstimatesAsync().block();
+    }
+
+    @Override
+    @SneakyThrows(URISyntaxException.class)
+    public Mono<FeeEstimates> feeEstimatesAsync() {
         // https://blockstream.info/api/fee-estimates
         URI url = new URIBuilder(baseUrl)
                 .setPath("api/fee-estimates")
                 .build();
 
-        HttpGet request = new HttpGet(url);
-        String json = MoreHttpClient.executeToJson(client, request);
+        return client.getJson(url)
+                .map(BlockstreamInfoFeeApiClientImpl::toFeeEstimates);
+    }
+
+    private static FeeEstimates toFeeEstimates(String json) {
         Struct messageAsStruct = MoreJsonFormat.jsonToProto(json, Struct.newBuilder()).build();
 
         List<FeeEstimates.Entry> entries = messageAsStruct.getFieldsMap().entrySet().stream()
@@ -33,8 +33,11 @@ public class BlockstreamInfoFeeProvider extends AbstractFeeProvider {
     }
 
     protected Flux<FeeRecommendationResponse> requestHook(FeeRecommendationRequest request) {
-        FeeEstimates feeEstimates = client.feeEstimates();
+        return client.feeEstimatesAsync()
+                .flatMapMany(feeEstimates -> toResponse(request, feeEstimates));
+    }
 
+    private Flux<FeeRecommendationResponse> toResponse(FeeRecommendationRequest request, FeeEstimates feeEstimates) {
         Optional<FeeEstimates.Entry> feeEstimateOrEmpty = feeEstimates.getEntryList().stream()
                 .filter(val -> val.getNumberOfBlocks() <= request.getBlockTarget())
                 .max(Comparator.comparingLong(FeeEstimates.Entry::getNumberOfBlocks));
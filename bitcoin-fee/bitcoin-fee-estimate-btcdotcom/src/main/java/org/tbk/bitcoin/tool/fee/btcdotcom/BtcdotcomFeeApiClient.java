@@ -1,6 +1,13 @@
 package org.tbk.bitcoin.tool.fee.btcdotcom;
 
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 public interface BtcdotcomFeeApiClient {
     FeeDistribution feeDistribution();
+
+    default Mono<FeeDistribution> feeDistributionAsync() {
+        return Mono.fromCallable(this::feeDistribution)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
 }
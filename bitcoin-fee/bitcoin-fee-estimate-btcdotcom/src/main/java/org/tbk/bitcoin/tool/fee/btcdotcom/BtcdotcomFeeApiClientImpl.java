@@ -3,13 +3,13 @@ package org.tbk.bitcoin.tool.fee.btcdotcom;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.net.HttpHeaders;
 import lombok.SneakyThrows;
-import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.tbk.bitcoin.tool.fee.util.MoreHttpClient;
+import org.tbk.bitcoin.tool.fee.http.FeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.JdkFeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.SingleFlightFeeApiHttpClient;
 import org.tbk.bitcoin.tool.fee.util.MoreJsonFormat;
 import org.tbk.bitcoin.tool.fee.util.MoreQueryString;
+import reactor.core.publisher.Mono;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -26,15 +26,25 @@ public class BtcdotcomFeeApiClientImpl implements BtcdotcomFeeApiClient {
 
     private static final String DEFAULT_USERAGENT = "tbk-btcdotcom-client/" + DEFAULT_VERSION;
 
+    private static final Map<String, String> DEFAULT_HEADERS = ImmutableMap.<String, String>builder()
+            .put(HttpHeaders.USER_AGENT, DEFAULT_USERAGENT)
+            .build();
+
     private static final String TOKEN_PARAM_NAME = "token";
-    private final CloseableHttpClient client = HttpClients.createDefault();
+
+    private final FeeApiHttpClient client;
 
     private final String baseUrl;
     private final String apiToken;
 
     public BtcdotcomFeeApiClientImpl(String baseUrl, String apiToken) {
+        this(baseUrl, apiToken, SingleFlightFeeApiHttpClient.of(JdkFeeApiHttpClient.builder().build()));
+    }
+
+    public BtcdotcomFeeApiClientImpl(String baseUrl, String apiToken, FeeApiHttpClient client) {
         this.baseUrl = requireNonNull(baseUrl);
         this.apiToken = apiToken;
+        this.client = requireNonNull(client);
     }
 
     private Optional<String> getApiToken() {
@@ -48,17 +58,20 @@ public class BtcdotcomFeeApiClientImpl implements BtcdotcomFeeApiClient {
     }
 
     @Override
-    @SneakyThrows(URISyntaxException.class)
     public FeeDistribution feeDistribution() {
+        return feeDistributionAsync().block();
+    }
+
+    @Override
+    @SneakyThrows(URISyntaxException.class)
+    public Mono<FeeDistribution> feeDistributionAsync() {
         // https://btc.com/service/fees/distribution
         URI url = new URIBuilder(baseUrl)
                 .setPath("service/fees/distribution")
                 .addParameters(MoreQueryString.toParams(createDefaultParams()))
                 .build();
 
-        HttpGet request = new HttpGet(url);
-        request.addHeader(HttpHeaders.USER_AGENT, DEFAULT_USERAGENT);
-        String json = MoreHttpClient.executeToJson(client, request);
-        return MoreJsonFormat.jsonToProto(json, FeeDistribution.newBuilder()).build();
+        return client.getJson(url, DEFAULT_HEADERS)
+                .map(json -> MoreJsonFormat.jsonToProto(json, FeeDistribution.newBuilder()).build());
     }
 }
@@ -33,8 +33,11 @@ public class BtcdotcomFeeProvider extends AbstractFeeProvider {
 
     @Override
     protected Flux<FeeRecommendationResponse> requestHook(FeeRecommendationRequest request) {
-        FeeDistribution feeDistribution = this.client.feeDistribution();
+        return this.client.feeDistributionAsync()
+                .flatMapMany(this::toResponse);
+    }
 
+    private Flux<FeeRecommendationResponse> toResponse(FeeDistribution feeDistribution) {
         BigDecimal satPerVbyteValue = BigDecimal.valueOf(feeDistribution.getFeesRecommended().getOneBlockFee());
         FeeRecommendationResponseImpl.SatPerVbyteImpl satPerVbyte = FeeRecommendationResponseImpl.SatPerVbyteImpl.builder()
                 .satPerVbyteValue(satPerVbyteValue)
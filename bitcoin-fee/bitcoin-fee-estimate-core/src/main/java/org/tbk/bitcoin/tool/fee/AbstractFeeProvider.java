@@ -2,7 +2,9 @@ package org.tbk.bitcoin.tool.fee;
 
 import reactor.core.publisher.Flux;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static java.util.Objects.requireNonNull;
 
@@ -10,6 +12,8 @@ public abstract class AbstractFeeProvider implements FeeProvider {
 
     private final ProviderInfo providerInfo;
 
+    private final List<FeeRequestInstrumentation> instrumentations = new CopyOnWriteArrayList<>();
+
     protected AbstractFeeProvider() {
         this.providerInfo = null;
     }
@@ -35,7 +39,19 @@ public abstract class AbstractFeeProvider implements FeeProvider {
                         .build()
                 );
 
-        return reduceHook(result);
+        Flux<FeeRecommendationResponse> reduced = reduceHook(result);
+        for (FeeRequestInstrumentation instrumentation : instrumentations) {
+            reduced = instrumentation.instrument(feeRecommendationRequest, reduced);
+        }
+        return reduced;
+    }
+
+    /**
+     * Applies the given instrumentation to all subsequent requests, including requests of callers
+     * that hold a reference to this provider already.
+     */
+    public final void addInstrumentation(FeeRequestInstrumentation instrumentation) {
+        instrumentations.add(requireNonNull(instrumentation));
     }
 
     protected ProviderInfo infoHook() {
@@ -2,49 +2,159 @@ package org.tbk.bitcoin.tool.fee;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.tbk.bitcoin.tool.fee.circuitbreaker.CircuitBreaker;
+import org.tbk.bitcoin.tool.fee.circuitbreaker.CircuitBreakerConfig;
+import org.tbk.bitcoin.tool.fee.reduce.FeeRecommendationReducer;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 
+/**
+ * A fee provider that requests all its supporting providers concurrently and emits their responses.
+ *
+ * <p>By default, the composite waits for every supporting provider - the slowest provider determines
+ * the latency of a request. In "hedged" mode (a {@code deadline} and/or a {@code quorum} is configured),
+ * the composite emits only the responses that arrived before the deadline or until the quorum is reached,
+ * cancels all stragglers and ignores errors of single providers.
+ *
+ * <p>Per-provider latency, error and missed-deadline counts are recorded in both modes
+ * and can be obtained via {@link #getProviderStatistics()}.
+ *
+ * <p>If a {@link CircuitBreakerConfig} is given, every provider is guarded by its own {@link CircuitBreaker}:
+ * providers that fail or exceed their latency budget too often are excluded from requests till
+ * a few probe requests succeed again.
+ *
+ * <p>If a {@link FeeRecommendationReducer} is configured, the responses are consolidated into a single response
+ * carrying the provider info of the composite instead of being emitted one by one.
+ */
+@Slf4j
 public final class CompositeFeeProvider extends AbstractFeeProvider {
 
-    private final List<FeeProvider> feeProviders;
+    private final List<ProviderEntry> providerEntries;
 
     private final ProviderInfo providerInfo;
 
     private final Scheduler scheduler;
 
+    private final Duration deadline;
+
+    private final Integer quorum;
+
+    private final FeeRecommendationReducer reducer;
+
+    public static final class CompositeFeeProviderBuilder {
+        private Scheduler scheduler = Schedulers.parallel();
+    }
+
     public CompositeFeeProvider(List<FeeProvider> feeProviders) {
         this(feeProviders, Schedulers.parallel());
     }
 
     public CompositeFeeProvider(List<FeeProvider> feeProviders, Scheduler scheduler) {
-        this.feeProviders = ImmutableList.copyOf(requireNonNull(feeProviders));
+        this(feeProviders, scheduler, null, null, null, null);
+    }
+
+    @Builder
+    private CompositeFeeProvider(List<FeeProvider> feeProviders,
+                                 Scheduler scheduler,
+                                 Duration deadline,
+                                 Integer quorum,
+                                 FeeRecommendationReducer reducer,
+                                 CircuitBreakerConfig circuitBreakerConfig) {
+        checkArgument(deadline == null || (!deadline.isNegative() && !deadline.isZero()), "'deadline' must be positive");
+        checkArgument(quorum == null || quorum > 0, "'quorum' must be positive");
+
+        List<FeeProvider> providers = ImmutableList.copyOf(requireNonNull(feeProviders));
+
+        this.providerEntries = providers.stream()
+                .map(provider -> new ProviderEntry(provider, circuitBreakerConfig == null ? null
+                        : new CircuitBreaker(provider.info().getName(), circuitBreakerConfig)))
+                .collect(ImmutableList.toImmutableList());
         this.scheduler = requireNonNull(scheduler);
+        this.deadline = deadline;
+        this.quorum = quorum;
+        this.reducer = reducer;
         this.providerInfo = ProviderInfo.SimpleProviderInfo.builder()
                 .name("composite")
-                .description(toDescription(this.feeProviders))
+                .description(toDescription(providers))
                 .build();
     }
 
+    private CompositeFeeProvider(CompositeFeeProvider other, FeeRecommendationReducer reducer) {
+        this.providerEntries = other.providerEntries;
+        this.scheduler = other.scheduler;
+        this.deadline = other.deadline;
+        this.quorum = other.quorum;
+        this.providerInfo = other.providerInfo;
+        this.reducer = reducer;
+    }
+
+    /**
+     * Returns a composite with the given reducer that shares providers and statistics with this instance.
+     * This makes it possible to create a reducer depending on the statistics of the composite, e.g.
+     * {@code composite.withReducer(new WeightedMeanFeeReducer(composite::getReliability))}.
+     *
+     * @param reducer the reducer to consolidate the responses with or {@code null} to emit every response
+     * @return a composite provider using the given reducer
+     */
+    public CompositeFeeProvider withReducer(FeeRecommendationReducer reducer) {
+        return new CompositeFeeProvider(this, reducer);
+    }
+
     @Override
     public boolean supports(FeeRecommendationRequest request) {
-        return this.feeProviders.stream().anyMatch(provider -> provider.supports(request));
+        return this.providerEntries.stream().anyMatch(entry -> entry.getProvider().supports(request));
     }
 
     @Override
     protected Flux<FeeRecommendationResponse> requestHook(FeeRecommendationRequest request) {
-        return Flux.fromIterable(feeProviders)
-                .filter(provider -> provider.supports(request))
-                .parallel().runOn(this.scheduler)
-                .flatMap(provider -> provider.request(request))
-                .sequential();
+        return Flux.defer(() -> {
+            // set before the stragglers are cancelled - tells a missed deadline apart from other cancellations
+            AtomicBoolean deadlineReached = new AtomicBoolean();
+
+            Flux<FeeRecommendationResponse> responses = Flux.fromIterable(providerEntries)
+                    .filter(entry -> entry.getProvider().supports(request))
+                    .flatMap(entry -> requestFromProvider(entry, request, deadlineReached));
+
+            Flux<FeeRecommendationResponse> responsesWithinQuorum = quorum == null ? responses : responses.take(quorum);
+
+            if (deadline == null) {
+                return responsesWithinQuorum;
+            }
+
+            // upstream subscriptions are cancelled when the deadline is reached
+            return responsesWithinQuorum.takeUntilOther(Mono.delay(deadline)
+                    .doOnNext(it -> deadlineReached.set(true)));
+        });
+    }
+
+    @Override
+    protected Flux<FeeRecommendationResponse> reduceHook(Flux<FeeRecommendationResponse> responses) {
+        if (reducer == null) {
+            return responses;
+        }
+
+        return reducer.reduce(responses)
+                .<FeeRecommendationResponse>map(val -> FeeRecommendationResponseImpl.builder()
+                        .feeRecommendations(val.getFeeRecommendations())
+                        .providerInfo(providerInfo)
+                        .build())
+                .flux();
     }
 
     @Override
@@ -52,9 +162,99 @@ public final class CompositeFeeProvider extends AbstractFeeProvider {
         return providerInfo;
     }
 
+    public boolean isHedged() {
+        return deadline != null || quorum != null;
+    }
+
+    public Optional<Duration> getDeadline() {
+        return Optional.ofNullable(deadline);
+    }
+
+    public Optional<Integer> getQuorum() {
+        return Optional.ofNullable(quorum);
+    }
+
+    public Optional<FeeRecommendationReducer> getReducer() {
+        return Optional.ofNullable(reducer);
+    }
+
+    /**
+     * Returns the share of successful requests of the given provider - requests that failed or missed
+     * the deadline count as unsuccessful. The share is smoothed (one success and one failure are assumed
+     * upfront), so that a provider without any requests yet has a reliability of 0.5 instead of zero.
+     *
+     * @param providerInfo the info of a provider of this composite
+     * @return the reliability in range (0, 1) or 0 if the provider is not part of this composite
+     */
+    public double getReliability(ProviderInfo providerInfo) {
+        if (providerInfo == null) {
+            return 0d;
+        }
+
+        for (ProviderEntry entry : providerEntries) {
+            if (providerInfo.getName().equals(entry.getProvider().info().getName())) {
+                return entry.reliability();
+            }
+        }
+        return 0d;
+    }
+
+    /**
+     * Returns the circuit breakers of all providers in the order they have been registered.
+     *
+     * @return the circuit breakers or an empty list if no circuit breakers are configured
+     */
+    public List<CircuitBreaker> getCircuitBreakers() {
+        return providerEntries.stream()
+                .map(ProviderEntry::getCircuitBreaker)
+                .flatMap(Optional::stream)
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    /**
+     * Returns a snapshot of the statistics of all providers in the order they have been registered.
+     *
+     * @return the statistics of every provider
+     */
+    public List<ProviderStatistics> getProviderStatistics() {
+        return providerEntries.stream()
+                .map(ProviderEntry::toStatistics)
+                .collect(ImmutableList.toImmutableList());
+    }
+
     @VisibleForTesting
     int getProviderCount() {
-        return feeProviders.size();
+        return providerEntries.size();
+    }
+
+    private Flux<FeeRecommendationResponse> requestFromProvider(ProviderEntry entry,
+                                                                FeeRecommendationRequest request,
+                                                                AtomicBoolean deadlineReached) {
+        return Flux.defer(() -> {
+            Optional<ProviderEntry.Call> permittedCall = entry.tryStartCall();
+            if (permittedCall.isEmpty()) {
+                log.trace("Skipping provider '{}' as its circuit breaker is open", entry.getProvider().info().getName());
+                return Flux.empty();
+            }
+
+            ProviderEntry.Call call = permittedCall.get();
+
+            Flux<FeeRecommendationResponse> responses = entry.getProvider().request(request)
+                    .subscribeOn(this.scheduler)
+                    .doOnComplete(call::onComplete)
+                    .doOnError(e -> call.onError())
+                    .doOnCancel(() -> call.onCancel(deadlineReached.get()));
+
+            if (!isHedged()) {
+                return responses;
+            }
+
+            return responses.onErrorResume(e -> {
+                log.warn("Error while requesting fee recommendation from provider '{}': {}",
+                        entry.getProvider().info().getName(), e.getMessage());
+                return Flux.empty();
+            });
+        });
     }
 
     private static String toDescription(List<FeeProvider> feeProviders) {
@@ -69,4 +269,151 @@ public final class CompositeFeeProvider extends AbstractFeeProvider {
 
         return "A composite fee provider backed by %d providers: %s".formatted(feeProviders.size(), commaSeparatedProviderNames);
     }
+
+    @Value
+    @Builder
+    public static class ProviderStatistics {
+        ProviderInfo providerInfo;
+
+        long successCount;
+
+        long errorCount;
+
+        /**
+         * Number of requests cancelled before they completed, e.g. because a quorum has been reached.
+         * This count includes requests that missed the deadline.
+         */
+        long cancelCount;
+
+        long missedDeadlineCount;
+
+        /**
+         * State of the circuit breaker of the provider or {@code null} if no circuit breakers are configured.
+         */
+        CircuitBreaker.State circuitBreakerState;
+
+        /**
+         * Number of requests the provider has been excluded from because its circuit breaker was open.
+         */
+        long notPermittedCount;
+
+        /**
+         * Latency of the most recent request that completed, failed or has been cancelled.
+         */
+        Duration lastLatency;
+
+        /**
+         * Mean latency of all requests that completed successfully.
+         */
+        Duration meanSuccessLatency;
+    }
+
+    private static final class ProviderEntry {
+        private final FeeProvider provider;
+
+        private final CircuitBreaker circuitBreaker;
+
+        private final LongAdder successCount = new LongAdder();
+        private final LongAdder successLatencyNanos = new LongAdder();
+        private final LongAdder errorCount = new LongAdder();
+        private final LongAdder cancelCount = new LongAdder();
+        private final LongAdder missedDeadlineCount = new LongAdder();
+        private final AtomicLong lastLatencyNanos = new AtomicLong();
+
+        ProviderEntry(FeeProvider provider, CircuitBreaker circuitBreaker) {
+            this.provider = requireNonNull(provider);
+            this.circuitBreaker = circuitBreaker;
+        }
+
+        FeeProvider getProvider() {
+            return provider;
+        }
+
+        Optional<CircuitBreaker> getCircuitBreaker() {
+            return Optional.ofNullable(circuitBreaker);
+        }
+
+        /**
+         * Returns a call if the provider may be requested - empty if its circuit breaker is open.
+         */
+        Optional<Call> tryStartCall() {
+            if (circuitBreaker == null) {
+                return Optional.of(new Call(null));
+            }
+            return circuitBreaker.tryAcquirePermission().map(Call::new);
+        }
+
+        double reliability() {
+            long successes = successCount.sum();
+            long failures = errorCount.sum() + missedDeadlineCount.sum();
+            return (successes + 1d) / (successes + failures + 2d);
+        }
+
+        final class Call {
+            private final CircuitBreaker.Permit permit;
+
+            private final long startNanos = System.nanoTime();
+
+            private Call(CircuitBreaker.Permit permit) {
+                this.permit = permit;
+            }
+
+            void onComplete() {
+                long latencyNanos = System.nanoTime() - startNanos;
+                successCount.increment();
+                successLatencyNanos.add(latencyNanos);
+                lastLatencyNanos.set(latencyNanos);
+
+                if (permit != null) {
+                    permit.onSuccess(latencyNanos);
+                }
+            }
+
+            void onError() {
+                long latencyNanos = System.nanoTime() - startNanos;
+                errorCount.increment();
+                lastLatencyNanos.set(latencyNanos);
+
+                if (permit != null) {
+                    permit.onError(latencyNanos);
+                }
+            }
+
+            void onCancel(boolean missedDeadline) {
+                long latencyNanos = System.nanoTime() - startNanos;
+                cancelCount.increment();
+                lastLatencyNanos.set(latencyNanos);
+
+                if (missedDeadline) {
+                    missedDeadlineCount.increment();
+                }
+
+                if (permit != null) {
+                    if (missedDeadline) {
+                        permit.onTimeout(latencyNanos);
+                    } else {
+                        // e.g. the quorum has been reached - says nothing about the health of the provider
+                        permit.onIgnored();
+                    }
+                }
+            }
+        }
+
+        ProviderStatistics toStatistics() {
+            long successes = successCount.sum();
+            long meanSuccessLatencyNanos = successes == 0 ? 0L : successLatencyNanos.sum() / successes;
+
+            return ProviderStatistics.builder()
+                    .providerInfo(provider.info())
+                    .successCount(successes)
+                    .errorCount(errorCount.sum())
+                    .cancelCount(cancelCount.sum())
+                    .missedDeadlineCount(missedDeadlineCount.sum())
+                    .circuitBreakerState(circuitBreaker == null ? null : circuitBreaker.getState())
+                    .notPermittedCount(circuitBreaker == null ? 0L : circuitBreaker.getNotPermittedCount())
+                    .lastLatency(Duration.ofNanos(lastLatencyNanos.get()))
+                    .meanSuccessLatency(Duration.ofNanos(meanSuccessLatencyNanos))
+                    .build();
+        }
+    }
 }
@@ -0,0 +1,18 @@
+package org.tbk.bitcoin.tool.fee;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Observes the requests of a fee provider, e.g. to record metrics.
+ * Registered via {@link AbstractFeeProvider#addInstrumentation(FeeRequestInstrumentation)}.
+ */
+@FunctionalInterface
+public interface FeeRequestInstrumentation {
+
+    /**
+     * @param request   the request
+     * @param responses the responses of the provider - not subscribed yet
+     * @return the responses, with any observing operators applied
+     */
+    Flux<FeeRecommendationResponse> instrument(FeeRecommendationRequest request, Flux<FeeRecommendationResponse> responses);
+}
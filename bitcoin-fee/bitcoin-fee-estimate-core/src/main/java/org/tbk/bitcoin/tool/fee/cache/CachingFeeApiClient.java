@@ -0,0 +1,251 @@
+package org.tbk.bitcoin.tool.fee.cache;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static com.google.common.base.MoreObjects.firstNonNull;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A caching decorator for any fee api client interface.
+ *
+ * <p>Responses are cached per method and arguments. The synchronous and the asynchronous variant
+ * of a method (e.g. {@code feesRecommended()} and {@code feesRecommendedAsync()}) share the same entries.
+ *
+ * <ul>
+ *     <li>{@code expireAfterWrite}: entries younger than this are served without contacting the api</li>
+ *     <li>{@code refreshAfterWrite}: entries older than this are still served, but refreshed in the background</li>
+ *     <li>{@code maxStaleness}: expired entries younger than this are served if fetching a fresh response fails</li>
+ * </ul>
+ *
+ * <p>Concurrent loads of the same entry are not coalesced here - clients are expected to share in-flight
+ * requests at the http layer (see {@code SingleFlightFeeApiHttpClient}). Only one background refresh per entry
+ * is triggered at a time.
+ *
+ * @param <T> the type of the client interface
+ */
+@Slf4j
+public final class CachingFeeApiClient<T> implements InvocationHandler, FeeApiClientCache {
+    private static final String ASYNC_METHOD_SUFFIX = "Async";
+    private static final Duration DEFAULT_EXPIRE_AFTER_WRITE = Duration.ofSeconds(30);
+    private static final long DEFAULT_MAXIMUM_SIZE = 100L;
+
+    private final String cacheName;
+
+    private final T delegate;
+
+    private final T client;
+
+    private final Ticker ticker;
+
+    private final long expireAfterWriteNanos;
+
+    private final Long refreshAfterWriteNanos;
+
+    private final Cache<CacheKey, CacheEntry> cache;
+
+    private final Set<CacheKey> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder staleResponseCount = new LongAdder();
+
+    private final LongAdder refreshCount = new LongAdder();
+
+    @Builder
+    private CachingFeeApiClient(Class<T> clientInterface,
+                                T delegate,
+                                String cacheName,
+                                Duration expireAfterWrite,
+                                Duration refreshAfterWrite,
+                                Duration maxStaleness,
+                                Long maximumSize,
+                                Ticker ticker) {
+        requireNonNull(clientInterface);
+        checkArgument(clientInterface.isInterface(), "'clientInterface' must be an interface");
+
+        Duration expireAfterWriteOrDefault = firstNonNull(expireAfterWrite, DEFAULT_EXPIRE_AFTER_WRITE);
+        Duration maxStalenessOrDefault = firstNonNull(maxStaleness, expireAfterWriteOrDefault);
+        long maximumSizeOrDefault = firstNonNull(maximumSize, DEFAULT_MAXIMUM_SIZE);
+
+        checkArgument(!expireAfterWriteOrDefault.isNegative() && !expireAfterWriteOrDefault.isZero(), "'expireAfterWrite' must be positive");
+        checkArgument(refreshAfterWrite == null || (!refreshAfterWrite.isNegative() && !refreshAfterWrite.isZero()), "'refreshAfterWrite' must be positive");
+        checkArgument(refreshAfterWrite == null || refreshAfterWrite.compareTo(expireAfterWriteOrDefault) < 0, "'refreshAfterWrite' must be less than 'expireAfterWrite'");
+        checkArgument(maxStalenessOrDefault.compareTo(expireAfterWriteOrDefault) >= 0, "'maxStaleness' must be greater or equal to 'expireAfterWrite'");
+        checkArgument(maximumSizeOrDefault > 0, "'maximumSize' must be positive");
+
+        this.delegate = requireNonNull(delegate);
+        this.cacheName = firstNonNull(cacheName, clientInterface.getSimpleName());
+        this.ticker = firstNonNull(ticker, Ticker.systemTicker());
+        this.expireAfterWriteNanos = expireAfterWriteOrDefault.toNanos();
+        this.refreshAfterWriteNanos = refreshAfterWrite == null ? null : refreshAfterWrite.toNanos();
+
+        // entries are retained till they exceed max staleness - freshness is checked on access
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSizeOrDefault)
+                .expireAfterWrite(maxStalenessOrDefault)
+                .ticker(this.ticker)
+                .recordStats()
+                .build();
+
+        this.client = clientInterface.cast(Proxy.newProxyInstance(clientInterface.getClassLoader(),
+                new Class<?>[]{clientInterface, FeeApiClientCache.class}, this));
+    }
+
+    /**
+     * Returns the caching client. The returned object additionally implements {@link FeeApiClientCache}.
+     *
+     * @return the caching client
+     */
+    public T getClient() {
+        return client;
+    }
+
+    @Override
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    @Override
+    public Cache<?, ?> getCache() {
+        return cache;
+    }
+
+    @Override
+    public long getStaleResponseCount() {
+        return staleResponseCount.sum();
+    }
+
+    @Override
+    public long getRefreshCount() {
+        return refreshCount.sum();
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return invokeObjectMethod(proxy, method, args);
+        }
+        if (method.getDeclaringClass() == FeeApiClientCache.class) {
+            return method.invoke(this, args);
+        }
+
+        CacheKey key = new CacheKey(toOperationName(method), args == null ? ImmutableList.of() : Arrays.asList(args));
+
+        boolean isAsync = Mono.class.isAssignableFrom(method.getReturnType());
+        if (isAsync) {
+            return get(key, () -> invokeDelegateAsync(method, args));
+        }
+
+        return get(key, () -> Mono.fromCallable(() -> invokeDelegate(method, args))).block();
+    }
+
+    private Mono<Object> get(CacheKey key, Supplier<Mono<Object>> loader) {
+        return Mono.defer(() -> {
+            CacheEntry entry = cache.getIfPresent(key);
+
+            if (entry != null) {
+                long ageNanos = ticker.read() - entry.getCreatedAtNanos();
+
+                if (ageNanos < expireAfterWriteNanos) {
+                    if (refreshAfterWriteNanos != null && ageNanos >= refreshAfterWriteNanos) {
+                        refreshInBackground(key, loader);
+                    }
+                    return Mono.just(entry.getValue());
+                }
+            }
+
+            return load(key, loader).onErrorResume(e -> {
+                if (entry == null) {
+                    return Mono.error(e);
+                }
+
+                log.warn("Serving stale response from cache '{}' after error: {}", cacheName, e.getMessage());
+                staleResponseCount.increment();
+                return Mono.just(entry.getValue());
+            });
+        });
+    }
+
+    private Mono<Object> load(CacheKey key, Supplier<Mono<Object>> loader) {
+        return loader.get()
+                .doOnNext(value -> cache.put(key, new CacheEntry(value, ticker.read())));
+    }
+
+    private void refreshInBackground(CacheKey key, Supplier<Mono<Object>> loader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+
+        load(key, loader).doFinally(signal -> refreshing.remove(key)).subscribe(
+                value -> refreshCount.increment(),
+                e -> log.warn("Error while refreshing entry of cache '{}': {}", cacheName, e.getMessage())
+        );
+    }
+
+    private Object invokeDelegate(Method method, Object[] args) throws Exception {
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Mono<Object> invokeDelegateAsync(Method method, Object[] args) {
+        try {
+            return (Mono<Object>) invokeDelegate(method, args);
+        } catch (Exception e) {
+            return Mono.error(e);
+        }
+    }
+
+    private Object invokeObjectMethod(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> "CachingFeeApiClient[" + cacheName + "]";
+        };
+    }
+
+    private static String toOperationName(Method method) {
+        String name = method.getName();
+        boolean isAsyncVariant = name.endsWith(ASYNC_METHOD_SUFFIX) && name.length() > ASYNC_METHOD_SUFFIX.length();
+        return isAsyncVariant ? name.substring(0, name.length() - ASYNC_METHOD_SUFFIX.length()) : name;
+    }
+
+    @Value
+    private static class CacheKey {
+        String operationName;
+
+        List<Object> arguments;
+    }
+
+    @Value
+    private static class CacheEntry {
+        Object value;
+
+        long createdAtNanos;
+    }
+}
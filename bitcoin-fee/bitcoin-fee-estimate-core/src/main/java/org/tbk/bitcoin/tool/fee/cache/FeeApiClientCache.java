@@ -0,0 +1,24 @@
+package org.tbk.bitcoin.tool.fee.cache;
+
+import com.google.common.cache.Cache;
+
+/**
+ * Information about the cache of a client created with {@link CachingFeeApiClient}.
+ * Every caching client proxy implements this interface in addition to the client interface.
+ */
+public interface FeeApiClientCache {
+
+    String getCacheName();
+
+    Cache<?, ?> getCache();
+
+    /**
+     * @return number of stale responses served because fetching a fresh one failed
+     */
+    long getStaleResponseCount();
+
+    /**
+     * @return number of successful background refreshes
+     */
+    long getRefreshCount();
+}
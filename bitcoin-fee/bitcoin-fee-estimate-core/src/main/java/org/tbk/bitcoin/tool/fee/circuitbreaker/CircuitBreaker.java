@@ -0,0 +1,234 @@
+package org.tbk.bitcoin.tool.fee.circuitbreaker;
+
+import com.google.common.base.Ticker;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A count-based circuit breaker guarding calls to a single fee provider.
+ *
+ * <p>Outcomes of the most recent calls are kept in a ring buffer. The breaker opens if either the share of
+ * failed calls or the share of slow calls (exceeding the latency budget) reaches its threshold. An open breaker
+ * rejects all calls till {@code waitDurationInOpenState} has passed, then lets a few probe calls pass (half-open).
+ * The probes decide whether the breaker closes again or re-opens.
+ *
+ * <p>Every permitted call must be followed by exactly one of {@link Permit#onSuccess(long)}, {@link Permit#onError(long)},
+ * {@link Permit#onTimeout(long)} or {@link Permit#onIgnored()}. Outcomes are only recorded if the breaker is still
+ * in the state that granted the permit - e.g. a call permitted while closed that completes after the breaker
+ * went to half-open state is not counted as probe.
+ *
+ * <p>This class is thread-safe.
+ */
+@Slf4j
+public final class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private static final byte OUTCOME_FAILED = 0b01;
+    private static final byte OUTCOME_SLOW = 0b10;
+
+    private final String name;
+
+    private final CircuitBreakerConfig config;
+
+    private final Ticker ticker;
+
+    private final long slowCallDurationThresholdNanos;
+
+    private final LongAdder notPermittedCount = new LongAdder();
+
+    private final LongAdder openedCount = new LongAdder();
+
+    private State state = State.CLOSED;
+
+    private long openedAtNanos;
+
+    // ring buffer of outcome flags - in half-open state only the probes are recorded
+    private final byte[] outcomes;
+
+    private int outcomeIndex;
+
+    private int recordedCount;
+
+    private int failedCount;
+
+    private int slowCount;
+
+    private int halfOpenPermitsInFlight;
+
+    // incremented on every state transition - identifies the state that granted a permit
+    private long stateGeneration;
+
+    public CircuitBreaker(String name, CircuitBreakerConfig config) {
+        this(name, config, Ticker.systemTicker());
+    }
+
+    public CircuitBreaker(String name, CircuitBreakerConfig config, Ticker ticker) {
+        this.name = requireNonNull(name);
+        this.config = requireNonNull(config);
+        this.ticker = requireNonNull(ticker);
+        this.slowCallDurationThresholdNanos = config.getSlowCallDurationThreshold().toNanos();
+        this.outcomes = new byte[Math.max(config.getSlidingWindowSize(), config.getPermittedCallsInHalfOpenState())];
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns a permit if a call may be executed. Moves an open breaker to half-open state
+     * once {@code waitDurationInOpenState} has passed.
+     *
+     * @return a permit the outcome of the call must be reported to or empty if the call is not permitted
+     */
+    public synchronized Optional<Permit> tryAcquirePermission() {
+        if (state == State.OPEN) {
+            long openNanos = ticker.read() - openedAtNanos;
+            if (openNanos < config.getWaitDurationInOpenState().toNanos()) {
+                notPermittedCount.increment();
+                return Optional.empty();
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+
+        if (state == State.HALF_OPEN) {
+            boolean hasRemainingProbes = halfOpenPermitsInFlight + recordedCount < config.getPermittedCallsInHalfOpenState();
+            if (!hasRemainingProbes) {
+                notPermittedCount.increment();
+                return Optional.empty();
+            }
+            halfOpenPermitsInFlight++;
+        }
+
+        return Optional.of(new Permit(stateGeneration));
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized double getFailureRate() {
+        return recordedCount == 0 ? 0d : (double) failedCount / recordedCount;
+    }
+
+    public synchronized double getSlowCallRate() {
+        return recordedCount == 0 ? 0d : (double) slowCount / recordedCount;
+    }
+
+    public synchronized int getRecordedCount() {
+        return recordedCount;
+    }
+
+    public long getNotPermittedCount() {
+        return notPermittedCount.sum();
+    }
+
+    public long getOpenedCount() {
+        return openedCount.sum();
+    }
+
+    private synchronized void record(Permit permit, byte outcome) {
+        if (permit.stateGeneration != stateGeneration) {
+            // a call permitted in a previous state - its outcome is not relevant anymore
+            return;
+        }
+
+        int windowSize = state == State.HALF_OPEN ? config.getPermittedCallsInHalfOpenState() : config.getSlidingWindowSize();
+
+        if (state == State.HALF_OPEN && halfOpenPermitsInFlight > 0) {
+            halfOpenPermitsInFlight--;
+        }
+
+        if (recordedCount == windowSize) {
+            byte evicted = outcomes[outcomeIndex];
+            failedCount -= (evicted & OUTCOME_FAILED) != 0 ? 1 : 0;
+            slowCount -= (evicted & OUTCOME_SLOW) != 0 ? 1 : 0;
+        } else {
+            recordedCount++;
+        }
+        outcomes[outcomeIndex] = outcome;
+        outcomeIndex = (outcomeIndex + 1) % windowSize;
+        failedCount += (outcome & OUTCOME_FAILED) != 0 ? 1 : 0;
+        slowCount += (outcome & OUTCOME_SLOW) != 0 ? 1 : 0;
+
+        if (state == State.HALF_OPEN) {
+            if (recordedCount >= windowSize) {
+                transitionTo(exceedsThresholds() ? State.OPEN : State.CLOSED);
+            }
+        } else if (recordedCount >= config.getMinimumNumberOfCalls() && exceedsThresholds()) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private boolean exceedsThresholds() {
+        return getFailureRate() >= config.getFailureRateThreshold()
+                || getSlowCallRate() >= config.getSlowCallRateThreshold();
+    }
+
+    private synchronized void release(Permit permit) {
+        if (permit.stateGeneration == stateGeneration && state == State.HALF_OPEN && halfOpenPermitsInFlight > 0) {
+            halfOpenPermitsInFlight--;
+        }
+    }
+
+    private void transitionTo(State newState) {
+        log.debug("Circuit breaker of '{}' changes state from {} to {} (failure rate: {}, slow call rate: {})",
+                name, state, newState, getFailureRate(), getSlowCallRate());
+
+        if (newState == State.OPEN) {
+            openedAtNanos = ticker.read();
+            openedCount.increment();
+        }
+
+        state = newState;
+        stateGeneration++;
+        outcomeIndex = 0;
+        recordedCount = 0;
+        failedCount = 0;
+        slowCount = 0;
+        halfOpenPermitsInFlight = 0;
+    }
+
+    /**
+     * The permission to execute a single call, granted by {@link #tryAcquirePermission()}.
+     */
+    public final class Permit {
+        private final long stateGeneration;
+
+        private Permit(long stateGeneration) {
+            this.stateGeneration = stateGeneration;
+        }
+
+        public void onSuccess(long durationNanos) {
+            record(this, durationNanos >= slowCallDurationThresholdNanos ? OUTCOME_SLOW : 0);
+        }
+
+        public void onError(long durationNanos) {
+            record(this, (byte) (OUTCOME_FAILED | (durationNanos >= slowCallDurationThresholdNanos ? OUTCOME_SLOW : 0)));
+        }
+
+        /**
+         * Records a call that has been aborted because it exceeded a deadline - it counts as slow call
+         * regardless of the configured latency budget.
+         */
+        public void onTimeout(long durationNanos) {
+            record(this, OUTCOME_SLOW);
+        }
+
+        /**
+         * Releases the permit without recording an outcome, e.g. if the call has been cancelled
+         * because its result was not needed anymore.
+         */
+        public void onIgnored() {
+            release(this);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.tbk.bitcoin.tool.fee.circuitbreaker;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+import static com.google.common.base.MoreObjects.firstNonNull;
+import static com.google.common.base.Preconditions.checkArgument;
+
+@Value
+public class CircuitBreakerConfig {
+    private static final double DEFAULT_FAILURE_RATE_THRESHOLD = 0.5d;
+    private static final double DEFAULT_SLOW_CALL_RATE_THRESHOLD = 0.8d;
+    private static final Duration DEFAULT_SLOW_CALL_DURATION_THRESHOLD = Duration.ofSeconds(5);
+    private static final int DEFAULT_SLIDING_WINDOW_SIZE = 20;
+    private static final int DEFAULT_MINIMUM_NUMBER_OF_CALLS = 10;
+    private static final Duration DEFAULT_WAIT_DURATION_IN_OPEN_STATE = Duration.ofMinutes(1);
+    private static final int DEFAULT_PERMITTED_CALLS_IN_HALF_OPEN_STATE = 3;
+
+    public static CircuitBreakerConfig ofDefaults() {
+        return CircuitBreakerConfig.builder().build();
+    }
+
+    /**
+     * Share of failed calls in the sliding window at which the breaker opens.
+     */
+    double failureRateThreshold;
+
+    /**
+     * Share of slow calls in the sliding window at which the breaker opens.
+     */
+    double slowCallRateThreshold;
+
+    /**
+     * Calls taking longer than this duration (the latency budget) count as slow.
+     */
+    Duration slowCallDurationThreshold;
+
+    /**
+     * Number of most recent calls the rates are computed from.
+     */
+    int slidingWindowSize;
+
+    /**
+     * Number of calls that must be recorded before the breaker may open.
+     */
+    int minimumNumberOfCalls;
+
+    /**
+     * Duration an open breaker rejects all calls before it lets probe calls pass.
+     */
+    Duration waitDurationInOpenState;
+
+    /**
+     * Number of probe calls in half-open state that decide whether the breaker closes or opens again.
+     */
+    int permittedCallsInHalfOpenState;
+
+    @Builder
+    private CircuitBreakerConfig(Double failureRateThreshold,
+                                 Double slowCallRateThreshold,
+                                 Duration slowCallDurationThreshold,
+                                 Integer slidingWindowSize,
+                                 Integer minimumNumberOfCalls,
+                                 Duration waitDurationInOpenState,
+                                 Integer permittedCallsInHalfOpenState) {
+        this.failureRateThreshold = firstNonNull(failureRateThreshold, DEFAULT_FAILURE_RATE_THRESHOLD);
+        this.slowCallRateThreshold = firstNonNull(slowCallRateThreshold, DEFAULT_SLOW_CALL_RATE_THRESHOLD);
+        this.slowCallDurationThreshold = firstNonNull(slowCallDurationThreshold, DEFAULT_SLOW_CALL_DURATION_THRESHOLD);
+        this.slidingWindowSize = firstNonNull(slidingWindowSize, DEFAULT_SLIDING_WINDOW_SIZE);
+        this.minimumNumberOfCalls = firstNonNull(minimumNumberOfCalls, Math.min(DEFAULT_MINIMUM_NUMBER_OF_CALLS, this.slidingWindowSize));
+        this.waitDurationInOpenState = firstNonNull(waitDurationInOpenState, DEFAULT_WAIT_DURATION_IN_OPEN_STATE);
+        this.permittedCallsInHalfOpenState = firstNonNull(permittedCallsInHalfOpenState, DEFAULT_PERMITTED_CALLS_IN_HALF_OPEN_STATE);
+
+        checkArgument(this.failureRateThreshold > 0d && this.failureRateThreshold <= 1d, "'failureRateThreshold' must be in range (0, 1]");
+        checkArgument(this.slowCallRateThreshold > 0d && this.slowCallRateThreshold <= 1d, "'slowCallRateThreshold' must be in range (0, 1]");
+        checkArgument(!this.slowCallDurationThreshold.isNegative() && !this.slowCallDurationThreshold.isZero(), "'slowCallDurationThreshold' must be positive");
+        checkArgument(this.slidingWindowSize > 0, "'slidingWindowSize' must be positive");
+        checkArgument(this.minimumNumberOfCalls > 0 && this.minimumNumberOfCalls <= this.slidingWindowSize,
+                "'minimumNumberOfCalls' must be positive and must not exceed 'slidingWindowSize'");
+        checkArgument(!this.waitDurationInOpenState.isNegative(), "'waitDurationInOpenState' must not be negative");
+        checkArgument(this.permittedCallsInHalfOpenState > 0, "'permittedCallsInHalfOpenState' must be positive");
+    }
+}
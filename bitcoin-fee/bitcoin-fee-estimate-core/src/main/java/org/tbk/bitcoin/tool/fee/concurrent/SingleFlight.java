@@ -0,0 +1,49 @@
+package org.tbk.bitcoin.tool.fee.concurrent;
+
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Coalesces concurrent executions of identical calls: While a call for a given key is in flight,
+ * every other caller with the same key subscribes to the very same execution instead of starting its own.
+ *
+ * <p>Results are not cached - as soon as the in-flight call terminates (or all subscribers cancelled),
+ * the next caller triggers a new execution.
+ *
+ * @param <K> the type of the key identifying identical calls
+ */
+public final class SingleFlight<K> {
+
+    private final ConcurrentMap<K, Mono<?>> inFlight = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public <V> Mono<V> execute(K key, Supplier<Mono<V>> call) {
+        requireNonNull(key);
+        requireNonNull(call);
+
+        return Mono.defer(() -> (Mono<V>) inFlight.computeIfAbsent(key, k -> newFlight(k, call)));
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private <V> Mono<V> newFlight(K key, Supplier<Mono<V>> call) {
+        AtomicReference<Mono<V>> flightRef = new AtomicReference<>();
+
+        Mono<V> flight = Mono.defer(call)
+                // only remove this very flight - a newer one might already be registered for the same key
+                .doFinally(signal -> inFlight.remove(key, flightRef.get()))
+                .share();
+
+        flightRef.set(flight);
+
+        return flight;
+    }
+}
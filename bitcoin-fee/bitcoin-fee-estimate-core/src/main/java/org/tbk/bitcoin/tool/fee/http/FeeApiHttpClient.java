@@ -0,0 +1,22 @@
+package org.tbk.bitcoin.tool.fee.http;
+
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A non-blocking http transport the fee api clients can plug into.
+ *
+ * <p>Implementations must not block the subscribing thread. Cancelling the returned {@link Mono}
+ * should abort the underlying request.
+ */
+public interface FeeApiHttpClient {
+
+    Mono<String> getJson(URI uri, Map<String, String> headers);
+
+    default Mono<String> getJson(URI uri) {
+        return getJson(uri, Collections.emptyMap());
+    }
+}
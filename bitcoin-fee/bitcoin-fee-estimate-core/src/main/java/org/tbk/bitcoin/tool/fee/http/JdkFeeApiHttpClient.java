@@ -0,0 +1,82 @@
+package org.tbk.bitcoin.tool.fee.http;
+
+import lombok.Builder;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import static com.google.common.base.MoreObjects.firstNonNull;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link FeeApiHttpClient} backed by the non-blocking {@link HttpClient} of the jdk.
+ *
+ * <p>All instances share a single {@link HttpClient} (and therefore a single connection pool) by default.
+ * The request timeout can be configured per instance, e.g. per fee provider.
+ */
+public final class JdkFeeApiHttpClient implements FeeApiHttpClient {
+    private static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final HttpClient sharedHttpClient = HttpClient.newBuilder()
+            .connectTimeout(DEFAULT_CONNECT_TIMEOUT)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    public static HttpClient sharedHttpClient() {
+        return sharedHttpClient;
+    }
+
+    private final HttpClient httpClient;
+
+    private final Duration requestTimeout;
+
+    @Builder
+    private JdkFeeApiHttpClient(HttpClient httpClient, Duration requestTimeout) {
+        this.httpClient = firstNonNull(httpClient, sharedHttpClient);
+        this.requestTimeout = firstNonNull(requestTimeout, DEFAULT_REQUEST_TIMEOUT);
+
+        checkArgument(!this.requestTimeout.isNegative() && !this.requestTimeout.isZero(),
+                "'requestTimeout' must be positive");
+    }
+
+    @Override
+    public Mono<String> getJson(URI uri, Map<String, String> headers) {
+        requireNonNull(uri);
+        requireNonNull(headers);
+
+        return Mono.fromFuture(() -> httpClient.sendAsync(buildRequest(uri, headers), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8)))
+                .<String>handle((response, sink) -> {
+                    boolean isSuccessful = response.statusCode() >= 200 && response.statusCode() < 300;
+                    if (isSuccessful) {
+                        sink.next(response.body());
+                    } else {
+                        String errorMessage = String.format("Unexpected status %d while executing request to %s",
+                                response.statusCode(), uri.getHost());
+                        sink.error(new IllegalStateException(errorMessage));
+                    }
+                })
+                .onErrorMap(IOException.class, e -> {
+                    String errorMessage = String.format("Error while executing request to %s", uri.getHost());
+                    return new RuntimeException(errorMessage, e);
+                });
+    }
+
+    private HttpRequest buildRequest(URI uri, Map<String, String> headers) {
+        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(uri)
+                .GET()
+                .timeout(requestTimeout);
+
+        headers.forEach(requestBuilder::header);
+
+        return requestBuilder.build();
+    }
+}
@@ -0,0 +1,46 @@
+package org.tbk.bitcoin.tool.fee.http;
+
+import com.google.common.collect.ImmutableMap;
+import lombok.Value;
+import org.tbk.bitcoin.tool.fee.concurrent.SingleFlight;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link FeeApiHttpClient} that shares a single in-flight request among all concurrent callers
+ * requesting the same uri with the same headers.
+ */
+public final class SingleFlightFeeApiHttpClient implements FeeApiHttpClient {
+
+    public static FeeApiHttpClient of(FeeApiHttpClient delegate) {
+        if (delegate instanceof SingleFlightFeeApiHttpClient) {
+            return delegate;
+        }
+        return new SingleFlightFeeApiHttpClient(delegate);
+    }
+
+    private final FeeApiHttpClient delegate;
+
+    private final SingleFlight<RequestKey> singleFlight = new SingleFlight<>();
+
+    public SingleFlightFeeApiHttpClient(FeeApiHttpClient delegate) {
+        this.delegate = requireNonNull(delegate);
+    }
+
+    @Override
+    public Mono<String> getJson(URI uri, Map<String, String> headers) {
+        RequestKey key = new RequestKey(uri, ImmutableMap.copyOf(headers));
+        return singleFlight.execute(key, () -> delegate.getJson(uri, headers));
+    }
+
+    @Value
+    private static class RequestKey {
+        URI uri;
+
+        ImmutableMap<String, String> headers;
+    }
+}
@@ -0,0 +1,149 @@
+package org.tbk.bitcoin.tool.fee.metrics;
+
+import com.google.common.util.concurrent.AtomicDouble;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationRequest;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponse;
+import org.tbk.bitcoin.tool.fee.FeeRequestInstrumentation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Records micrometer metrics of the requests of a single fee provider:
+ * <ul>
+ *     <li>{@code bitcoin.fee.provider.request} - timer of all requests, tagged by {@code outcome}:
+ *     {@code success}, {@code error} or {@code cancelled} (e.g. at the deadline of a composite)</li>
+ *     <li>{@code bitcoin.fee.provider.request.error} - counter of failed requests</li>
+ *     <li>{@code bitcoin.fee.provider.request.empty} - counter of requests completed without any recommendation</li>
+ *     <li>{@code bitcoin.fee.provider.recommendation} - gauge of the most recent fee rate, tagged by {@code target}</li>
+ * </ul>
+ *
+ * <p>Meters of providers with the same tags are shared by the registry - hence, every provider must be
+ * given distinct tags (e.g. a unique {@code provider} tag), otherwise gauges only report one of them.
+ */
+@Slf4j
+public final class FeeProviderMeters implements FeeRequestInstrumentation {
+
+    /**
+     * Upper bound of the number of block targets a gauge is registered for -
+     * prevents unbounded tag cardinality in case callers request arbitrary durations.
+     */
+    private static final int MAX_TARGET_GAUGES = 64;
+
+    private final MeterRegistry registry;
+
+    private final Tags tags;
+
+    private final Timer successTimer;
+
+    private final Timer errorTimer;
+
+    private final Timer cancelledTimer;
+
+    private final Counter errorCounter;
+
+    private final Counter emptyCounter;
+
+    private final ConcurrentMap<Long, AtomicDouble> lastFeeRates = new ConcurrentHashMap<>();
+
+    public FeeProviderMeters(MeterRegistry registry, Tags tags) {
+        this.registry = requireNonNull(registry);
+        this.tags = requireNonNull(tags);
+
+        this.successTimer = requestTimer("success");
+        this.errorTimer = requestTimer("error");
+        this.cancelledTimer = requestTimer("cancelled");
+        this.errorCounter = Counter.builder("bitcoin.fee.provider.request.error")
+                .description("Number of fee recommendation requests that failed")
+                .tags(tags)
+                .register(registry);
+        this.emptyCounter = Counter.builder("bitcoin.fee.provider.request.empty")
+                .description("Number of fee recommendation requests that completed without any recommendation")
+                .tags(tags)
+                .register(registry);
+    }
+
+    public Tags getTags() {
+        return tags;
+    }
+
+    @Override
+    public Flux<FeeRecommendationResponse> instrument(FeeRecommendationRequest request, Flux<FeeRecommendationResponse> responses) {
+        return Flux.defer(() -> {
+            long startNanos = System.nanoTime();
+            AtomicBoolean hasResponse = new AtomicBoolean(false);
+
+            return responses
+                    .doOnNext(response -> {
+                        hasResponse.set(true);
+                        recordFeeRate(request.getBlockTarget(), response);
+                    })
+                    .doFinally(signal -> {
+                        long durationNanos = System.nanoTime() - startNanos;
+                        if (signal == SignalType.ON_COMPLETE) {
+                            successTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+                            if (!hasResponse.get()) {
+                                emptyCounter.increment();
+                            }
+                        } else if (signal == SignalType.ON_ERROR) {
+                            errorTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+                            errorCounter.increment();
+                        } else {
+                            // the slowest requests are usually the ones cancelled - they must not be left out
+                            cancelledTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+                        }
+                    });
+        });
+    }
+
+    private Timer requestTimer(String outcome) {
+        return Timer.builder("bitcoin.fee.provider.request")
+                .description("Duration of fee recommendation requests")
+                .tags(tags)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private void recordFeeRate(long blockTarget, FeeRecommendationResponse response) {
+        List<FeeRecommendationResponse.FeeRecommendation> recommendations = response.getFeeRecommendations();
+        if (recommendations.isEmpty()) {
+            return;
+        }
+
+        AtomicDouble lastFeeRate = lastFeeRates.get(blockTarget);
+        if (lastFeeRate == null) {
+            if (lastFeeRates.size() >= MAX_TARGET_GAUGES) {
+                log.trace("Not recording fee rate with tags {} for block target {}: gauge limit reached", tags, blockTarget);
+                return;
+            }
+            lastFeeRate = lastFeeRates.computeIfAbsent(blockTarget, this::registerFeeRateGauge);
+        }
+
+        lastFeeRate.set(recommendations.get(0).getFeeUnit().getValue().doubleValue());
+    }
+
+    private AtomicDouble registerFeeRateGauge(long blockTarget) {
+        AtomicDouble feeRate = new AtomicDouble(Double.NaN);
+
+        Gauge.builder("bitcoin.fee.provider.recommendation", feeRate, AtomicDouble::get)
+                .description("Most recently recommended fee rate in sat/vB")
+                .baseUnit("sat/vB")
+                .tags(tags.and("target", Long.toString(blockTarget)))
+                .register(registry);
+
+        return feeRate;
+    }
+}
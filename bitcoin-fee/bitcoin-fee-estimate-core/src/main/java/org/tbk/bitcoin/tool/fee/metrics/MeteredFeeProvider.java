@@ -0,0 +1,51 @@
+package org.tbk.bitcoin.tool.fee.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.tbk.bitcoin.tool.fee.FeeProvider;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationRequest;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponse;
+import org.tbk.bitcoin.tool.fee.ProviderInfo;
+import reactor.core.publisher.Flux;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A fee provider decorator recording the metrics described in {@link FeeProviderMeters}, by default tagged
+ * with the name of the provider. Providers extending {@link org.tbk.bitcoin.tool.fee.AbstractFeeProvider}
+ * can be instrumented in place with {@link org.tbk.bitcoin.tool.fee.AbstractFeeProvider#addInstrumentation}.
+ */
+public final class MeteredFeeProvider implements FeeProvider {
+
+    private final FeeProvider delegate;
+
+    private final FeeProviderMeters meters;
+
+    public MeteredFeeProvider(FeeProvider delegate, MeterRegistry registry) {
+        this(delegate, registry, Tags.of("provider", delegate.info().getName()));
+    }
+
+    public MeteredFeeProvider(FeeProvider delegate, MeterRegistry registry, Tags tags) {
+        this.delegate = requireNonNull(delegate);
+        this.meters = new FeeProviderMeters(registry, tags);
+    }
+
+    public FeeProvider getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public ProviderInfo info() {
+        return delegate.info();
+    }
+
+    @Override
+    public boolean supports(FeeRecommendationRequest request) {
+        return delegate.supports(request);
+    }
+
+    @Override
+    public Flux<FeeRecommendationResponse> request(FeeRecommendationRequest request) {
+        return meters.instrument(request, delegate.request(request));
+    }
+}
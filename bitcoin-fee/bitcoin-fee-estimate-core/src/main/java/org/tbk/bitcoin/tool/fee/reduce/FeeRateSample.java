@@ -0,0 +1,66 @@
+package org.tbk.bitcoin.tool.fee.reduce;
+
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponse;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponseImpl;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponseImpl.FeeRecommendationImpl;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponseImpl.SatPerVbyteImpl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A growable array of primitive fee rates - a composite rarely has more than a dozen providers,
+ * so the initial capacity is sufficient in most cases and no boxing takes place.
+ */
+final class FeeRateSample {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final int RESULT_SCALE = 3;
+
+    private double[] values = new double[INITIAL_CAPACITY];
+
+    private int size;
+
+    void addAll(FeeRecommendationResponse response) {
+        List<FeeRecommendationResponse.FeeRecommendation> recommendations = response.getFeeRecommendations();
+        for (int i = 0; i < recommendations.size(); i++) {
+            add(recommendations.get(i).getFeeUnit().getValue().doubleValue());
+        }
+    }
+
+    void add(double value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Sorts the collected values in place and returns the backing array.
+     * Only the first {@link #size()} elements are valid.
+     */
+    double[] sorted() {
+        Arrays.sort(values, 0, size);
+        return values;
+    }
+
+    static FeeRecommendationResponse toResponse(double satPerVbyte) {
+        return FeeRecommendationResponseImpl.builder()
+                .addFeeRecommendation(FeeRecommendationImpl.builder()
+                        .feeUnit(SatPerVbyteImpl.builder()
+                                .satPerVbyteValue(BigDecimal.valueOf(satPerVbyte).setScale(RESULT_SCALE, RoundingMode.HALF_UP))
+                                .build())
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,24 @@
+package org.tbk.bitcoin.tool.fee.reduce;
+
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Consolidates the responses of multiple fee providers into a single response.
+ * Meant to be plugged into {@link org.tbk.bitcoin.tool.fee.AbstractFeeProvider#reduceHook(Flux)},
+ * e.g. as {@code reducer} of a {@link org.tbk.bitcoin.tool.fee.CompositeFeeProvider}.
+ *
+ * <p>Implementations consume the responses as they arrive and must not buffer the response objects themselves.
+ */
+public interface FeeRecommendationReducer {
+
+    /**
+     * Reduces all given responses to a single response with one fee recommendation in sat/vB.
+     * The returned response does not carry any provider info.
+     *
+     * @param responses the responses of the individual providers
+     * @return the consolidated response or an empty mono if no response contained a fee recommendation
+     */
+    Mono<FeeRecommendationResponse> reduce(Flux<FeeRecommendationResponse> responses);
+}
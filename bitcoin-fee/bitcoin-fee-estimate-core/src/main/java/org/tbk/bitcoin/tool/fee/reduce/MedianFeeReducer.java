@@ -0,0 +1,27 @@
+package org.tbk.bitcoin.tool.fee.reduce;
+
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reduces all responses to the median of their fee rates.
+ * With an even number of values, the mean of the two middle values is used.
+ */
+public final class MedianFeeReducer implements FeeRecommendationReducer {
+
+    @Override
+    public Mono<FeeRecommendationResponse> reduce(Flux<FeeRecommendationResponse> responses) {
+        return responses.collect(FeeRateSample::new, FeeRateSample::addAll)
+                .filter(sample -> !sample.isEmpty())
+                .map(sample -> FeeRateSample.toResponse(median(sample)));
+    }
+
+    private static double median(FeeRateSample sample) {
+        double[] values = sample.sorted();
+        int size = sample.size();
+        int middle = size / 2;
+
+        return size % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2d;
+    }
+}
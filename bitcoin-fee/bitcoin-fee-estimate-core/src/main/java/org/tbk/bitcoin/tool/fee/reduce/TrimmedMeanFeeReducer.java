@@ -0,0 +1,50 @@
+package org.tbk.bitcoin.tool.fee.reduce;
+
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Reduces all responses to the mean of their fee rates after discarding the given share
+ * of the lowest and the highest values - single outliers do not distort the result.
+ * A trim fraction of zero results in the arithmetic mean.
+ */
+public final class TrimmedMeanFeeReducer implements FeeRecommendationReducer {
+    private static final double DEFAULT_TRIM_FRACTION = 0.2d;
+
+    private final double trimFraction;
+
+    public TrimmedMeanFeeReducer() {
+        this(DEFAULT_TRIM_FRACTION);
+    }
+
+    /**
+     * @param trimFraction the share of values to discard at each end, must be in range [0, 0.5)
+     */
+    public TrimmedMeanFeeReducer(double trimFraction) {
+        checkArgument(trimFraction >= 0d && trimFraction < 0.5d, "'trimFraction' must be in range [0, 0.5)");
+        this.trimFraction = trimFraction;
+    }
+
+    @Override
+    public Mono<FeeRecommendationResponse> reduce(Flux<FeeRecommendationResponse> responses) {
+        return responses.collect(FeeRateSample::new, FeeRateSample::addAll)
+                .filter(sample -> !sample.isEmpty())
+                .map(sample -> FeeRateSample.toResponse(trimmedMean(sample)));
+    }
+
+    private double trimmedMean(FeeRateSample sample) {
+        int size = sample.size();
+        // at least one value always remains as trimFraction is below 0.5
+        int trimmed = (int) Math.floor(size * trimFraction);
+
+        double[] values = sample.sorted();
+        double sum = 0d;
+        for (int i = trimmed; i < size - trimmed; i++) {
+            sum += values[i];
+        }
+        return sum / (size - 2 * trimmed);
+    }
+}
@@ -0,0 +1,56 @@
+package org.tbk.bitcoin.tool.fee.reduce;
+
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponse;
+import org.tbk.bitcoin.tool.fee.ProviderInfo;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reduces all responses to the mean of their fee rates weighted by the provider that has given them,
+ * e.g. by its reliability - see {@link org.tbk.bitcoin.tool.fee.CompositeFeeProvider#getReliability(ProviderInfo)}.
+ * Responses of providers with a weight of zero (or less) are ignored.
+ *
+ * <p>Only two running sums are kept - no values are collected.
+ */
+public final class WeightedMeanFeeReducer implements FeeRecommendationReducer {
+
+    private final ToDoubleFunction<ProviderInfo> weights;
+
+    /**
+     * @param weights a function returning the weight of a provider - it is invoked with {@code null}
+     *                for responses without provider info
+     */
+    public WeightedMeanFeeReducer(ToDoubleFunction<ProviderInfo> weights) {
+        this.weights = requireNonNull(weights);
+    }
+
+    @Override
+    public Mono<FeeRecommendationResponse> reduce(Flux<FeeRecommendationResponse> responses) {
+        return responses.collect(WeightedSum::new, this::accumulate)
+                .filter(sum -> sum.weightSum > 0d)
+                .map(sum -> FeeRateSample.toResponse(sum.weightedValueSum / sum.weightSum));
+    }
+
+    private void accumulate(WeightedSum sum, FeeRecommendationResponse response) {
+        double weight = weights.applyAsDouble(response.getProviderInfo());
+        if (!(weight > 0d)) {
+            return;
+        }
+
+        List<FeeRecommendationResponse.FeeRecommendation> recommendations = response.getFeeRecommendations();
+        for (int i = 0; i < recommendations.size(); i++) {
+            sum.weightedValueSum += weight * recommendations.get(i).getFeeUnit().getValue().doubleValue();
+            sum.weightSum += weight;
+        }
+    }
+
+    private static final class WeightedSum {
+        private double weightedValueSum;
+        private double weightSum;
+    }
+}
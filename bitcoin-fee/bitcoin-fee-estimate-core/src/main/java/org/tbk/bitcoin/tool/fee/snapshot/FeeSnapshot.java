@@ -0,0 +1,50 @@
+package org.tbk.bitcoin.tool.fee.snapshot;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import lombok.NonNull;
+import lombok.Value;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable point-in-time view of fee recommendations of all providers, keyed by block target.
+ */
+@Value
+public class FeeSnapshot {
+
+    @NonNull
+    Instant createdAt;
+
+    @NonNull
+    ImmutableSortedMap<Long, ImmutableList<FeeRecommendationResponse>> responsesByBlockTarget;
+
+    public Duration getAge(Instant now) {
+        return Duration.between(createdAt, now);
+    }
+
+    public boolean isEmpty() {
+        return responsesByBlockTarget.values().stream().allMatch(List::isEmpty);
+    }
+
+    /**
+     * Returns the responses for the largest block target lower or equal to the given one.
+     * If no such target exists, the responses of the lowest available block target are returned.
+     *
+     * @param blockTarget the requested block target
+     * @return the best matching responses or an empty list
+     */
+    public List<FeeRecommendationResponse> getResponses(long blockTarget) {
+        Map.Entry<Long, ImmutableList<FeeRecommendationResponse>> entry = responsesByBlockTarget.floorEntry(blockTarget);
+        if (entry != null) {
+            return entry.getValue();
+        }
+
+        Map.Entry<Long, ImmutableList<FeeRecommendationResponse>> firstEntry = responsesByBlockTarget.firstEntry();
+        return firstEntry == null ? ImmutableList.of() : firstEntry.getValue();
+    }
+}
@@ -0,0 +1,190 @@
+package org.tbk.bitcoin.tool.fee.snapshot;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.util.concurrent.AbstractScheduledService;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.tbk.bitcoin.tool.fee.FeeProvider;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationRequest;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationRequestImpl;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponse;
+import org.tbk.bitcoin.tool.fee.util.MoreBitcoin;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.MoreObjects.firstNonNull;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Periodically polls all fee providers for a fixed set of block targets and keeps the results
+ * in an immutable in-memory {@link FeeSnapshot}.
+ *
+ * <p>Requests are answered from the current snapshot only - they never wait for a network call.
+ * Refreshing is left to the scheduled poll: only if it has fallen behind, i.e. the snapshot is older than the
+ * refresh interval plus the refresh timeout, a request triggers a refresh in the background while the snapshot
+ * is still served (stale-while-revalidate). Snapshots older than {@code maxStaleness} are not served at all.
+ *
+ * <p>Note: The desired confidence of a request is not taken into account, as the snapshot is created
+ * with requests that only specify a duration target.
+ */
+@Slf4j
+public final class FeeSnapshotService extends AbstractScheduledService {
+    private static final List<Long> DEFAULT_BLOCK_TARGETS = ImmutableList.of(1L, 2L, 3L, 6L, 12L, 24L, 48L, 144L);
+    private static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofSeconds(30);
+    private static final Duration DEFAULT_MAX_STALENESS = Duration.ofMinutes(5);
+    private static final Duration DEFAULT_REFRESH_TIMEOUT = Duration.ofSeconds(20);
+
+    private final List<FeeProvider> feeProviders;
+
+    private final List<Long> blockTargets;
+
+    private final Duration refreshInterval;
+
+    private final Duration maxStaleness;
+
+    private final Duration refreshTimeout;
+
+    private final Clock clock;
+
+    private final AtomicReference<FeeSnapshot> snapshot = new AtomicReference<>();
+
+    private final AtomicBoolean refreshInProgress = new AtomicBoolean(false);
+
+    @Builder
+    private FeeSnapshotService(List<FeeProvider> feeProviders,
+                               List<Long> blockTargets,
+                               Duration refreshInterval,
+                               Duration maxStaleness,
+                               Duration refreshTimeout,
+                               Clock clock) {
+        this.feeProviders = ImmutableList.copyOf(requireNonNull(feeProviders));
+        this.blockTargets = ImmutableList.copyOf(firstNonNull(blockTargets, DEFAULT_BLOCK_TARGETS));
+        this.refreshInterval = firstNonNull(refreshInterval, DEFAULT_REFRESH_INTERVAL);
+        this.maxStaleness = firstNonNull(maxStaleness, DEFAULT_MAX_STALENESS);
+        this.refreshTimeout = firstNonNull(refreshTimeout, DEFAULT_REFRESH_TIMEOUT);
+        this.clock = firstNonNull(clock, Clock.systemUTC());
+
+        checkArgument(!this.blockTargets.isEmpty(), "'blockTargets' must not be empty");
+        checkArgument(this.blockTargets.stream().allMatch(it -> it > 0), "'blockTargets' must be positive");
+        checkArgument(!this.refreshInterval.isNegative() && !this.refreshInterval.isZero(), "'refreshInterval' must be positive");
+        checkArgument(!this.refreshTimeout.isNegative() && !this.refreshTimeout.isZero(), "'refreshTimeout' must be positive");
+        checkArgument(this.maxStaleness.compareTo(this.refreshInterval) >= 0, "'maxStaleness' must be greater or equal to 'refreshInterval'");
+    }
+
+    @Override
+    protected void runOneIteration() {
+        try {
+            refresh().block(refreshTimeout.plusSeconds(1));
+        } catch (Exception e) {
+            // do not let the service fail - the next iteration will try again
+            log.warn("Error while refreshing fee snapshot: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    protected Scheduler scheduler() {
+        return Scheduler.newFixedDelaySchedule(Duration.ZERO, refreshInterval);
+    }
+
+    public Optional<FeeSnapshot> getSnapshot() {
+        return Optional.ofNullable(snapshot.get());
+    }
+
+    /**
+     * Answers the request from the current snapshot without waiting for a network request.
+     * Triggers a refresh in the background if the scheduled poll has fallen behind.
+     *
+     * @param request the fee recommendation request
+     * @return the responses of all providers for the best matching block target,
+     *         or an empty stream if no sufficiently fresh snapshot is available.
+     */
+    public Flux<FeeRecommendationResponse> request(FeeRecommendationRequest request) {
+        FeeSnapshot currentSnapshot = snapshot.get();
+        if (currentSnapshot == null) {
+            return Flux.empty();
+        }
+
+        Duration age = currentSnapshot.getAge(clock.instant());
+        // a snapshot is replaced by the scheduled poll within this time - revalidating earlier would race the poll
+        if (age.compareTo(refreshInterval.plus(refreshTimeout)) > 0) {
+            revalidate();
+        }
+
+        if (age.compareTo(maxStaleness) > 0) {
+            log.debug("Will not serve fee snapshot from {} as it exceeds max staleness of {}",
+                    currentSnapshot.getCreatedAt(), maxStaleness);
+            return Flux.empty();
+        }
+
+        return Flux.fromIterable(currentSnapshot.getResponses(request.getBlockTarget()));
+    }
+
+    /**
+     * Fetches fresh recommendations from all providers and replaces the current snapshot.
+     * Completes empty without fetching anything if a refresh is already in progress.
+     *
+     * @return the new snapshot
+     */
+    public Mono<FeeSnapshot> refresh() {
+        return Mono.defer(() -> {
+            if (!refreshInProgress.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+
+            return fetchSnapshot()
+                    .doOnNext(this::updateSnapshot)
+                    .doFinally(signal -> refreshInProgress.set(false));
+        });
+    }
+
+    private void revalidate() {
+        refresh().subscribe(it -> {
+        }, e -> log.warn("Error while revalidating fee snapshot: {}", e.getMessage()));
+    }
+
+    private void updateSnapshot(FeeSnapshot newSnapshot) {
+        if (newSnapshot.isEmpty()) {
+            // keep serving the previous snapshot till it exceeds max staleness
+            log.warn("Fee snapshot refresh did not yield any recommendation - keeping previous snapshot");
+        } else {
+            snapshot.set(newSnapshot);
+        }
+    }
+
+    private Mono<FeeSnapshot> fetchSnapshot() {
+        Instant now = clock.instant();
+
+        return Flux.fromIterable(blockTargets)
+                .flatMap(blockTarget -> {
+                    FeeRecommendationRequest request = FeeRecommendationRequestImpl.builder()
+                            .durationTarget(MoreBitcoin.averageBlockDuration(blockTarget))
+                            .build();
+
+                    return Flux.fromIterable(feeProviders)
+                            .filter(provider -> provider.supports(request))
+                            .flatMap(provider -> provider.request(request)
+                                    .onErrorResume(e -> {
+                                        log.warn("Error while fetching fee recommendation from provider '{}': {}",
+                                                provider.info().getName(), e.getMessage());
+                                        return Flux.empty();
+                                    }))
+                            .map(response -> Tuples.of(blockTarget, response));
+                })
+                .take(refreshTimeout)
+                .collect(Collectors.groupingBy(Tuple2::getT1, Collectors.mapping(Tuple2::getT2, ImmutableList.toImmutableList())))
+                .map(responsesByBlockTarget -> new FeeSnapshot(now, ImmutableSortedMap.copyOf(responsesByBlockTarget)));
+    }
+}
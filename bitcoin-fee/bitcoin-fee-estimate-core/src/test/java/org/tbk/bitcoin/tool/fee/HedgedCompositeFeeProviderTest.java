@@ -0,0 +1,194 @@
+package org.tbk.bitcoin.tool.fee;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+import org.tbk.bitcoin.tool.fee.CompositeFeeProvider.ProviderStatistics;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponseImpl.FeeRecommendationImpl;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponseImpl.SatPerVbyteImpl;
+import org.tbk.bitcoin.tool.fee.circuitbreaker.CircuitBreaker;
+import org.tbk.bitcoin.tool.fee.circuitbreaker.CircuitBreakerConfig;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+class HedgedCompositeFeeProviderTest {
+
+    private static final FeeRecommendationRequest anyRequest = FeeRecommendationRequestImpl.builder()
+            .durationTarget(Duration.ofMinutes(30))
+            .build();
+
+    @Test
+    void itShouldReturnResponsesWithinDeadline() {
+        CompositeFeeProvider sut = CompositeFeeProvider.builder()
+                .feeProviders(ImmutableList.of(
+                        new TestFeeProvider("fast", Flux.just(response(1))),
+                        new TestFeeProvider("slow", Flux.just(response(2)).delayElements(Duration.ofSeconds(10)))
+                ))
+                .deadline(Duration.ofMillis(200))
+                .build();
+
+        List<FeeRecommendationResponse> responses = sut.request(anyRequest).collectList().block(Duration.ofSeconds(5));
+
+        assertThat(responses, hasSize(1));
+        assertThat(responses.get(0).getProviderInfo().getName(), is("fast"));
+
+        List<ProviderStatistics> statistics = sut.getProviderStatistics();
+        assertThat(statistics.get(0).getSuccessCount(), is(1L));
+        assertThat(statistics.get(0).getMissedDeadlineCount(), is(0L));
+        assertThat(statistics.get(1).getSuccessCount(), is(0L));
+        assertThat(statistics.get(1).getMissedDeadlineCount(), is(1L));
+    }
+
+    @Test
+    void itShouldCountEveryMissedDeadline() {
+        CompositeFeeProvider sut = CompositeFeeProvider.builder()
+                .feeProviders(ImmutableList.of(
+                        new TestFeeProvider("fast", Flux.just(response(1))),
+                        new TestFeeProvider("never", Flux.never())
+                ))
+                .deadline(Duration.ofMillis(50))
+                .build();
+
+        for (int i = 0; i < 3; i++) {
+            List<FeeRecommendationResponse> responses = sut.request(anyRequest).collectList().block(Duration.ofSeconds(5));
+            assertThat(responses, hasSize(1));
+        }
+
+        ProviderStatistics neverStatistics = sut.getProviderStatistics().get(1);
+        assertThat(neverStatistics.getCancelCount(), is(3L));
+        assertThat(neverStatistics.getMissedDeadlineCount(), is(3L));
+    }
+
+    @Test
+    void itShouldCompleteWhenQuorumIsReached() {
+        CompositeFeeProvider sut = CompositeFeeProvider.builder()
+                .feeProviders(ImmutableList.of(
+                        new TestFeeProvider("fast", Flux.just(response(1))),
+                        new TestFeeProvider("never", Flux.never())
+                ))
+                .quorum(1)
+                .build();
+
+        List<FeeRecommendationResponse> responses = sut.request(anyRequest).collectList().block(Duration.ofSeconds(5));
+
+        assertThat(responses, hasSize(1));
+
+        ProviderStatistics neverStatistics = sut.getProviderStatistics().get(1);
+        assertThat(neverStatistics.getCancelCount(), is(1L));
+        assertThat(neverStatistics.getMissedDeadlineCount(), is(0L));
+    }
+
+    @Test
+    void itShouldIgnoreErrorsOfSingleProvidersInHedgedMode() {
+        CompositeFeeProvider sut = CompositeFeeProvider.builder()
+                .feeProviders(ImmutableList.of(
+                        new TestFeeProvider("fast", Flux.just(response(1))),
+                        new TestFeeProvider("failing", Flux.error(new IllegalStateException("test")))
+                ))
+                .deadline(Duration.ofSeconds(1))
+                .build();
+
+        List<FeeRecommendationResponse> responses = sut.request(anyRequest).collectList().block(Duration.ofSeconds(5));
+
+        assertThat(responses, hasSize(1));
+        assertThat(sut.getProviderStatistics().get(1).getErrorCount(), is(1L));
+    }
+
+    @Test
+    void itShouldExcludeProvidersWithOpenCircuitBreaker() {
+        AtomicInteger failingInvocations = new AtomicInteger();
+
+        CompositeFeeProvider sut = CompositeFeeProvider.builder()
+                .feeProviders(ImmutableList.of(
+                        new TestFeeProvider("working", Flux.just(response(1))),
+                        new TestFeeProvider("failing", Flux.defer(() -> {
+                            failingInvocations.incrementAndGet();
+                            return Flux.error(new IllegalStateException("test"));
+                        }))
+                ))
+                .deadline(Duration.ofSeconds(1))
+                .circuitBreakerConfig(CircuitBreakerConfig.builder()
+                        .slidingWindowSize(2)
+                        .minimumNumberOfCalls(2)
+                        .waitDurationInOpenState(Duration.ofHours(1))
+                        .build())
+                .build();
+
+        for (int i = 0; i < 5; i++) {
+            List<FeeRecommendationResponse> responses = sut.request(anyRequest).collectList().block(Duration.ofSeconds(5));
+            assertThat(responses, hasSize(1));
+        }
+
+        assertThat(failingInvocations.get(), is(2));
+
+        ProviderStatistics failingStatistics = sut.getProviderStatistics().get(1);
+        assertThat(failingStatistics.getCircuitBreakerState(), is(CircuitBreaker.State.OPEN));
+        assertThat(failingStatistics.getNotPermittedCount(), is(3L));
+        assertThat(sut.getProviderStatistics().get(0).getCircuitBreakerState(), is(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    void itShouldOpenCircuitBreakerOfProvidersMissingTheDeadline() {
+        CompositeFeeProvider sut = CompositeFeeProvider.builder()
+                .feeProviders(ImmutableList.of(
+                        new TestFeeProvider("fast", Flux.just(response(1))),
+                        new TestFeeProvider("never", Flux.never())
+                ))
+                .deadline(Duration.ofMillis(50))
+                .circuitBreakerConfig(CircuitBreakerConfig.builder()
+                        .slidingWindowSize(2)
+                        .minimumNumberOfCalls(2)
+                        .waitDurationInOpenState(Duration.ofHours(1))
+                        .build())
+                .build();
+
+        for (int i = 0; i < 3; i++) {
+            List<FeeRecommendationResponse> responses = sut.request(anyRequest).collectList().block(Duration.ofSeconds(5));
+            assertThat(responses, hasSize(1));
+        }
+
+        ProviderStatistics neverStatistics = sut.getProviderStatistics().get(1);
+        assertThat(neverStatistics.getMissedDeadlineCount(), is(2L));
+        assertThat(neverStatistics.getCircuitBreakerState(), is(CircuitBreaker.State.OPEN));
+        assertThat(neverStatistics.getNotPermittedCount(), is(1L));
+    }
+
+    private static FeeRecommendationResponse response(long satPerVbyte) {
+        return FeeRecommendationResponseImpl.builder()
+                .addFeeRecommendation(FeeRecommendationImpl.builder()
+                        .feeUnit(SatPerVbyteImpl.builder()
+                                .satPerVbyteValue(BigDecimal.valueOf(satPerVbyte))
+                                .build())
+                        .build())
+                .build();
+    }
+
+    private static final class TestFeeProvider extends AbstractFeeProvider {
+        private final Flux<FeeRecommendationResponse> responses;
+
+        TestFeeProvider(String name, Flux<FeeRecommendationResponse> responses) {
+            super(ProviderInfo.SimpleProviderInfo.builder()
+                    .name(name)
+                    .description("")
+                    .build());
+            this.responses = responses;
+        }
+
+        @Override
+        public boolean supports(FeeRecommendationRequest request) {
+            return true;
+        }
+
+        @Override
+        protected Flux<FeeRecommendationResponse> requestHook(FeeRecommendationRequest request) {
+            return responses;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package org.tbk.bitcoin.tool.fee.cache;
+
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CachingFeeApiClientTest {
+
+    public interface TestApiClient {
+        String value(String key);
+
+        default Mono<String> valueAsync(String key) {
+            return Mono.fromCallable(() -> value(key));
+        }
+    }
+
+    private static final class CountingTestApiClient implements TestApiClient {
+        private final AtomicInteger invocations = new AtomicInteger();
+        private final AtomicBoolean failing = new AtomicBoolean(false);
+
+        @Override
+        public String value(String key) {
+            int invocation = invocations.incrementAndGet();
+            if (failing.get()) {
+                throw new IllegalStateException("test");
+            }
+            return key + invocation;
+        }
+    }
+
+    private static final class FakeTicker extends Ticker {
+        private final AtomicLong nanos = new AtomicLong();
+
+        void advance(Duration duration) {
+            nanos.addAndGet(duration.toNanos());
+        }
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    }
+
+    private final FakeTicker ticker = new FakeTicker();
+
+    private final CountingTestApiClient delegate = new CountingTestApiClient();
+
+    private final CachingFeeApiClient<TestApiClient> sut = CachingFeeApiClient.<TestApiClient>builder()
+            .clientInterface(TestApiClient.class)
+            .delegate(delegate)
+            .cacheName("test")
+            .expireAfterWrite(Duration.ofSeconds(30))
+            .refreshAfterWrite(Duration.ofSeconds(20))
+            .maxStaleness(Duration.ofMinutes(5))
+            .ticker(ticker)
+            .build();
+
+    @Test
+    void itShouldCacheResponses() {
+        TestApiClient client = sut.getClient();
+
+        assertThat(client.value("a"), is("a1"));
+        assertThat(client.value("a"), is("a1"));
+        assertThat(client.valueAsync("a").block(), is("a1"));
+        assertThat(client.value("b"), is("b2"));
+
+        assertThat(delegate.invocations.get(), is(2));
+    }
+
+    @Test
+    void itShouldExpireResponses() {
+        TestApiClient client = sut.getClient();
+
+        assertThat(client.value("a"), is("a1"));
+
+        ticker.advance(Duration.ofSeconds(31));
+
+        assertThat(client.value("a"), is("a2"));
+    }
+
+    @Test
+    void itShouldRefreshResponsesInBackground() {
+        TestApiClient client = sut.getClient();
+
+        assertThat(client.value("a"), is("a1"));
+
+        ticker.advance(Duration.ofSeconds(21));
+
+        // the cached value is served while the refresh is triggered
+        assertThat(client.value("a"), is("a1"));
+        assertThat(client.value("a"), is("a2"));
+        assertThat(sut.getRefreshCount(), is(1L));
+    }
+
+    @Test
+    void itShouldTriggerOnlyOneRefreshPerEntryAtATime() {
+        AtomicInteger invocations = new AtomicInteger();
+        Sinks.One<String> pendingRefresh = Sinks.one();
+
+        TestApiClient slowDelegate = new TestApiClient() {
+            @Override
+            public String value(String key) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Mono<String> valueAsync(String key) {
+                return invocations.incrementAndGet() == 1 ? Mono.just(key + 1) : pendingRefresh.asMono();
+            }
+        };
+
+        TestApiClient client = CachingFeeApiClient.<TestApiClient>builder()
+                .clientInterface(TestApiClient.class)
+                .delegate(slowDelegate)
+                .expireAfterWrite(Duration.ofSeconds(30))
+                .refreshAfterWrite(Duration.ofSeconds(20))
+                .ticker(ticker)
+                .build()
+                .getClient();
+
+        assertThat(client.valueAsync("a").block(), is("a1"));
+
+        ticker.advance(Duration.ofSeconds(21));
+
+        // the refresh is still in progress on subsequent accesses
+        assertThat(client.valueAsync("a").block(), is("a1"));
+        assertThat(client.valueAsync("a").block(), is("a1"));
+        assertThat(invocations.get(), is(2));
+
+        pendingRefresh.tryEmitValue("a2");
+        assertThat(client.valueAsync("a").block(), is("a2"));
+    }
+
+    @Test
+    void itShouldServeStaleResponseOnError() {
+        TestApiClient client = sut.getClient();
+
+        assertThat(client.value("a"), is("a1"));
+
+        delegate.failing.set(true);
+        ticker.advance(Duration.ofMinutes(1));
+
+        assertThat(client.value("a"), is("a1"));
+        assertThat(sut.getStaleResponseCount(), is(1L));
+
+        ticker.advance(Duration.ofMinutes(5));
+
+        assertThrows(IllegalStateException.class, () -> client.value("a"));
+    }
+
+    @Test
+    void itShouldExposeCacheInformation() {
+        assertThat(sut.getClient(), is(instanceOf(FeeApiClientCache.class)));
+        assertThat(((FeeApiClientCache) sut.getClient()).getCacheName(), is("test"));
+    }
+}
@@ -0,0 +1,159 @@
+package org.tbk.bitcoin.tool.fee.circuitbreaker;
+
+import com.google.common.base.Ticker;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class CircuitBreakerTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofSeconds(10).toNanos();
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+
+    private final CircuitBreaker sut = new CircuitBreaker("test", CircuitBreakerConfig.builder()
+            .failureRateThreshold(0.5d)
+            .slowCallRateThreshold(0.5d)
+            .slowCallDurationThreshold(Duration.ofSeconds(1))
+            .slidingWindowSize(4)
+            .minimumNumberOfCalls(4)
+            .waitDurationInOpenState(Duration.ofMinutes(1))
+            .permittedCallsInHalfOpenState(2)
+            .build(), ticker);
+
+    @Test
+    void itShouldOpenWhenFailureRateIsReached() {
+        call(true, FAST);
+        call(true, FAST);
+        call(false, FAST);
+        assertThat("minimum number of calls not reached", sut.getState(), is(CircuitBreaker.State.CLOSED));
+
+        call(false, FAST);
+        assertThat(sut.getState(), is(CircuitBreaker.State.OPEN));
+        assertThat(sut.tryAcquirePermission().isPresent(), is(false));
+        assertThat(sut.getNotPermittedCount(), is(1L));
+        assertThat(sut.getOpenedCount(), is(1L));
+    }
+
+    @Test
+    void itShouldOpenWhenSlowCallRateIsReached() {
+        call(true, FAST);
+        call(true, FAST);
+        call(true, SLOW);
+        call(true, SLOW);
+
+        assertThat(sut.getState(), is(CircuitBreaker.State.OPEN));
+    }
+
+    @Test
+    void itShouldOnlyConsiderMostRecentCalls() {
+        call(false, FAST);
+        call(true, FAST);
+        call(true, FAST);
+        call(true, FAST);
+        call(true, FAST);
+        call(false, FAST);
+        assertThat("first failure has been evicted", sut.getFailureRate(), is(0.25d));
+        assertThat(sut.getState(), is(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    void itShouldCloseAfterSuccessfulProbes() {
+        openBreaker();
+
+        nanos.addAndGet(Duration.ofMinutes(1).toNanos());
+        CircuitBreaker.Permit probe1 = sut.tryAcquirePermission().orElseThrow();
+        assertThat(sut.getState(), is(CircuitBreaker.State.HALF_OPEN));
+        CircuitBreaker.Permit probe2 = sut.tryAcquirePermission().orElseThrow();
+        assertThat("only two probes are permitted", sut.tryAcquirePermission().isPresent(), is(false));
+
+        probe1.onSuccess(FAST);
+        probe2.onSuccess(FAST);
+
+        assertThat(sut.getState(), is(CircuitBreaker.State.CLOSED));
+        assertThat(sut.tryAcquirePermission().isPresent(), is(true));
+    }
+
+    @Test
+    void itShouldReopenAfterFailedProbes() {
+        openBreaker();
+
+        nanos.addAndGet(Duration.ofMinutes(1).toNanos());
+        CircuitBreaker.Permit probe1 = sut.tryAcquirePermission().orElseThrow();
+        CircuitBreaker.Permit probe2 = sut.tryAcquirePermission().orElseThrow();
+
+        probe1.onSuccess(FAST);
+        probe2.onTimeout(FAST);
+
+        assertThat(sut.getState(), is(CircuitBreaker.State.OPEN));
+        assertThat(sut.getOpenedCount(), is(2L));
+    }
+
+    @Test
+    void itShouldReleaseIgnoredProbes() {
+        openBreaker();
+
+        nanos.addAndGet(Duration.ofMinutes(1).toNanos());
+        assertThat(sut.tryAcquirePermission().isPresent(), is(true));
+        CircuitBreaker.Permit probe = sut.tryAcquirePermission().orElseThrow();
+        probe.onIgnored();
+
+        assertThat(sut.tryAcquirePermission().isPresent(), is(true));
+    }
+
+    @Test
+    void itShouldNotCountCallsPermittedInPreviousStatesAsProbes() {
+        CircuitBreaker.Permit permittedWhileClosed = sut.tryAcquirePermission().orElseThrow();
+        openBreaker();
+
+        nanos.addAndGet(Duration.ofMinutes(1).toNanos());
+        CircuitBreaker.Permit probe = sut.tryAcquirePermission().orElseThrow();
+        assertThat(sut.getState(), is(CircuitBreaker.State.HALF_OPEN));
+
+        permittedWhileClosed.onSuccess(FAST);
+        assertThat(sut.getRecordedCount(), is(0));
+        assertThat("the probe is still in flight", sut.tryAcquirePermission().isPresent(), is(true));
+        assertThat(sut.tryAcquirePermission().isPresent(), is(false));
+
+        probe.onSuccess(FAST);
+        assertThat(sut.getRecordedCount(), is(1));
+        assertThat(sut.getState(), is(CircuitBreaker.State.HALF_OPEN));
+    }
+
+    @Test
+    void itShouldOpenIfEveryCallTimesOut() {
+        for (int i = 0; i < 4; i++) {
+            sut.tryAcquirePermission().orElseThrow().onTimeout(FAST);
+        }
+
+        assertThat(sut.getState(), is(CircuitBreaker.State.OPEN));
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 4; i++) {
+            call(false, FAST);
+        }
+        assertThat(sut.getState(), is(CircuitBreaker.State.OPEN));
+    }
+
+    private void call(boolean success, long durationNanos) {
+        CircuitBreaker.Permit permit = sut.tryAcquirePermission().orElseThrow();
+        if (success) {
+            permit.onSuccess(durationNanos);
+        } else {
+            permit.onError(durationNanos);
+        }
+    }
+}
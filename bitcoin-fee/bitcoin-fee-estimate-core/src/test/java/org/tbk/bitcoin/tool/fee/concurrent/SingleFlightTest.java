@@ -0,0 +1,79 @@
+package org.tbk.bitcoin.tool.fee.concurrent;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String> sut = new SingleFlight<>();
+
+    @Test
+    void itShouldShareInFlightCall() {
+        AtomicInteger invocations = new AtomicInteger();
+        Sinks.One<String> result = Sinks.one();
+
+        Mono<String> call = sut.execute("key", () -> {
+            invocations.incrementAndGet();
+            return result.asMono();
+        });
+
+        Mono<List<String>> results = Flux.merge(call, call, call).collectList().cache();
+        results.subscribe();
+
+        assertThat(sut.inFlightCount(), is(1));
+
+        result.tryEmitValue("value");
+
+        assertThat(results.block(Duration.ofSeconds(5)), contains("value", "value", "value"));
+        assertThat(invocations.get(), is(1));
+        assertThat(sut.inFlightCount(), is(0));
+    }
+
+    @Test
+    void itShouldNotShareCallsWithDifferentKeys() {
+        AtomicInteger invocations = new AtomicInteger();
+
+        List<String> results = Flux.merge(
+                sut.execute("key1", () -> Mono.fromCallable(() -> "value" + invocations.incrementAndGet())),
+                sut.execute("key2", () -> Mono.fromCallable(() -> "value" + invocations.incrementAndGet()))
+        ).collectList().block(Duration.ofSeconds(5));
+
+        assertThat(results.size(), is(2));
+        assertThat(invocations.get(), is(2));
+    }
+
+    @Test
+    void itShouldExecuteAgainAfterCompletion() {
+        AtomicInteger invocations = new AtomicInteger();
+
+        Mono<Integer> call = sut.execute("key", () -> Mono.fromCallable(invocations::incrementAndGet));
+
+        assertThat(call.block(Duration.ofSeconds(5)), is(1));
+        assertThat(call.block(Duration.ofSeconds(5)), is(2));
+    }
+
+    @Test
+    void itShouldExecuteAgainAfterError() {
+        AtomicInteger invocations = new AtomicInteger();
+
+        Mono<Integer> call = sut.execute("key", () -> Mono.fromCallable(() -> {
+            if (invocations.incrementAndGet() == 1) {
+                throw new IllegalStateException("test");
+            }
+            return invocations.get();
+        }));
+
+        assertThat(call.onErrorReturn(-1).block(Duration.ofSeconds(5)), is(-1));
+        assertThat(call.block(Duration.ofSeconds(5)), is(2));
+    }
+}
@@ -0,0 +1,52 @@
+package org.tbk.bitcoin.tool.fee.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JdkFeeApiHttpClientTest {
+
+    @Test
+    void itShouldCreateClientWithDefaults() {
+        FeeApiHttpClient client = JdkFeeApiHttpClient.builder().build();
+
+        assertThat(client, is(notNullValue()));
+    }
+
+    @Test
+    void itShouldRejectNonPositiveRequestTimeout() {
+        assertThrows(IllegalArgumentException.class, () -> JdkFeeApiHttpClient.builder()
+                .requestTimeout(Duration.ZERO)
+                .build());
+
+        assertThrows(IllegalArgumentException.class, () -> JdkFeeApiHttpClient.builder()
+                .requestTimeout(Duration.ofSeconds(-1))
+                .build());
+    }
+
+    @Test
+    void itShouldNotExecuteRequestBeforeSubscription() {
+        FeeApiHttpClient client = JdkFeeApiHttpClient.builder().build();
+
+        // nothing must happen on assembly - an unreachable host would fail on subscription only
+        assertThat(client.getJson(URI.create("http://localhost:1/")), is(notNullValue()));
+    }
+
+    @Test
+    void itShouldEmitErrorIfRequestFails() {
+        FeeApiHttpClient client = JdkFeeApiHttpClient.builder()
+                .requestTimeout(Duration.ofSeconds(1))
+                .build();
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> client.getJson(URI.create("http://localhost:1/"))
+                .block(Duration.ofSeconds(10)));
+
+        assertThat(e.getMessage(), is("Error while executing request to localhost"));
+    }
+}
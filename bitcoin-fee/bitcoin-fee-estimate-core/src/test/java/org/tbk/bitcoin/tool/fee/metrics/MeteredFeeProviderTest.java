@@ -0,0 +1,125 @@
+package org.tbk.bitcoin.tool.fee.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.tbk.bitcoin.tool.fee.*;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponseImpl.FeeRecommendationImpl;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponseImpl.SatPerVbyteImpl;
+import org.tbk.bitcoin.tool.fee.util.MoreBitcoin;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+class MeteredFeeProviderTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private final TestFeeProvider delegate = new TestFeeProvider();
+
+    private final MeteredFeeProvider sut = new MeteredFeeProvider(delegate, registry);
+
+    @Test
+    void itShouldRecordSuccessfulRequests() {
+        delegate.responses.set(Flux.just(response(42)));
+        sut.request(requestForBlockTarget(2)).blockLast();
+
+        delegate.responses.set(Flux.just(response(21)));
+        sut.request(requestForBlockTarget(2)).blockLast();
+
+        assertThat(registry.get("bitcoin.fee.provider.request").tags("provider", "test", "outcome", "success").timer().count(), is(2L));
+        assertThat(registry.get("bitcoin.fee.provider.request.error").counter().count(), is(0d));
+        assertThat(registry.get("bitcoin.fee.provider.request.empty").counter().count(), is(0d));
+        assertThat(registry.get("bitcoin.fee.provider.recommendation")
+                .tags("provider", "test", "target", "2")
+                .gauge().value(), is(21d));
+    }
+
+    @Test
+    void itShouldRecordErrorsAndEmptyResults() {
+        delegate.responses.set(Flux.error(new IllegalStateException("test")));
+        sut.request(requestForBlockTarget(1)).onErrorResume(e -> Flux.empty()).blockLast();
+
+        delegate.responses.set(Flux.empty());
+        sut.request(requestForBlockTarget(1)).blockLast();
+
+        assertThat(registry.get("bitcoin.fee.provider.request").tag("outcome", "error").timer().count(), is(1L));
+        assertThat(registry.get("bitcoin.fee.provider.request").tag("outcome", "success").timer().count(), is(1L));
+        assertThat(registry.get("bitcoin.fee.provider.request.error").counter().count(), is(1d));
+        assertThat(registry.get("bitcoin.fee.provider.request.empty").counter().count(), is(1d));
+        assertThat(registry.find("bitcoin.fee.provider.recommendation").gauge(), is(nullValue()));
+    }
+
+    @Test
+    void itShouldRecordCancelledRequests() {
+        delegate.responses.set(Flux.<FeeRecommendationResponse>never());
+        sut.request(requestForBlockTarget(1))
+                .take(Duration.ofMillis(10))
+                .blockLast(Duration.ofSeconds(10));
+
+        assertThat(registry.get("bitcoin.fee.provider.request").tag("outcome", "cancelled").timer().count(), is(1L));
+        assertThat(registry.get("bitcoin.fee.provider.request").tag("outcome", "cancelled").timer()
+                .totalTime(TimeUnit.MILLISECONDS) >= 10d, is(true));
+        assertThat(registry.get("bitcoin.fee.provider.request").tag("outcome", "success").timer().count(), is(0L));
+        assertThat(registry.get("bitcoin.fee.provider.request.empty").counter().count(), is(0d));
+    }
+
+    @Test
+    void itShouldRecordRequestsOfInstrumentedProviders() {
+        TestFeeProvider instrumented = new TestFeeProvider();
+        instrumented.addInstrumentation(new FeeProviderMeters(registry, Tags.of("provider", "instrumented")));
+
+        instrumented.responses.set(Flux.just(response(7)));
+        instrumented.request(requestForBlockTarget(3)).blockLast();
+
+        assertThat(registry.get("bitcoin.fee.provider.request").tags("provider", "instrumented", "outcome", "success").timer().count(), is(1L));
+        assertThat(registry.get("bitcoin.fee.provider.recommendation")
+                .tags("provider", "instrumented", "target", "3")
+                .gauge().value(), is(7d));
+    }
+
+    private static FeeRecommendationRequest requestForBlockTarget(int blockTarget) {
+        return FeeRecommendationRequestImpl.builder()
+                .durationTarget(MoreBitcoin.averageBlockDuration().multipliedBy(blockTarget))
+                .build();
+    }
+
+    private static FeeRecommendationResponse response(long satPerVbyte) {
+        return FeeRecommendationResponseImpl.builder()
+                .addFeeRecommendation(FeeRecommendationImpl.builder()
+                        .feeUnit(SatPerVbyteImpl.builder()
+                                .satPerVbyteValue(BigDecimal.valueOf(satPerVbyte))
+                                .build())
+                        .build())
+                .build();
+    }
+
+    private static final class TestFeeProvider extends AbstractFeeProvider {
+        private final AtomicReference<Flux<FeeRecommendationResponse>> responses = new AtomicReference<>(Flux.empty());
+
+        TestFeeProvider() {
+            super(ProviderInfo.SimpleProviderInfo.builder()
+                    .name("test")
+                    .description("")
+                    .build());
+        }
+
+        @Override
+        public boolean supports(FeeRecommendationRequest request) {
+            return true;
+        }
+
+        @Override
+        protected Flux<FeeRecommendationResponse> requestHook(FeeRecommendationRequest request) {
+            return responses.get();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package org.tbk.bitcoin.tool.fee.reduce;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+import org.tbk.bitcoin.tool.fee.*;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponseImpl.FeeRecommendationImpl;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponseImpl.SatPerVbyteImpl;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.comparesEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FeeRecommendationReducerTest {
+
+    private static final FeeRecommendationRequest anyRequest = FeeRecommendationRequestImpl.builder()
+            .durationTarget(Duration.ofMinutes(30))
+            .build();
+
+    @Test
+    void itShouldReduceToMedian() {
+        FeeRecommendationReducer sut = new MedianFeeReducer();
+
+        assertThat(reduce(sut, responses(5, 1, 100)), comparesEqualTo(new BigDecimal("5")));
+        assertThat(reduce(sut, responses(4, 1, 100, 6)), comparesEqualTo(new BigDecimal("5")));
+    }
+
+    @Test
+    void itShouldReduceToTrimmedMean() {
+        FeeRecommendationReducer sut = new TrimmedMeanFeeReducer(0.2d);
+
+        // the lowest and the highest value are discarded
+        assertThat(reduce(sut, responses(1, 10, 20, 30, 1000)), comparesEqualTo(new BigDecimal("20")));
+        // not enough values to discard any
+        assertThat(reduce(sut, responses(1, 2)), comparesEqualTo(new BigDecimal("1.5")));
+    }
+
+    @Test
+    void itShouldReduceToMeanWithoutTrimming() {
+        FeeRecommendationReducer sut = new TrimmedMeanFeeReducer(0d);
+
+        assertThat(reduce(sut, responses(1, 10, 20, 30, 1000)), comparesEqualTo(new BigDecimal("212.2")));
+    }
+
+    @Test
+    void itShouldFailOnInvalidTrimFraction() {
+        assertThrows(IllegalArgumentException.class, () -> new TrimmedMeanFeeReducer(0.5d));
+        assertThrows(IllegalArgumentException.class, () -> new TrimmedMeanFeeReducer(-0.1d));
+    }
+
+    @Test
+    void itShouldReduceToWeightedMean() {
+        FeeRecommendationReducer sut = new WeightedMeanFeeReducer(info -> switch (info.getName()) {
+            case "reliable" -> 3d;
+            case "unreliable" -> 1d;
+            default -> 0d;
+        });
+
+        Flux<FeeRecommendationResponse> responses = Flux.just(
+                response("reliable", 10),
+                response("unreliable", 30),
+                response("unknown", 1000)
+        );
+
+        assertThat(reduce(sut, responses), comparesEqualTo(new BigDecimal("15")));
+    }
+
+    @Test
+    void itShouldCompleteEmptyWithoutRecommendations() {
+        assertThat(new MedianFeeReducer().reduce(Flux.empty()).block(), is(nullValue()));
+        assertThat(new TrimmedMeanFeeReducer().reduce(Flux.empty()).block(), is(nullValue()));
+        assertThat(new WeightedMeanFeeReducer(info -> 1d).reduce(Flux.empty()).block(), is(nullValue()));
+    }
+
+    @Test
+    void itShouldEmitSingleResponseOfComposite() {
+        CompositeFeeProvider sut = CompositeFeeProvider.builder()
+                .feeProviders(ImmutableList.of(
+                        new TestFeeProvider("first", 2),
+                        new TestFeeProvider("second", 4),
+                        new TestFeeProvider("third", 42)
+                ))
+                .reducer(new MedianFeeReducer())
+                .build();
+
+        List<FeeRecommendationResponse> responses = sut.request(anyRequest).collectList().block(Duration.ofSeconds(5));
+
+        assertThat(responses, hasSize(1));
+        assertThat(responses.get(0).getProviderInfo().getName(), is("composite"));
+        assertThat(responses.get(0).getFeeRecommendations().get(0).getFeeUnit().getValue(), comparesEqualTo(new BigDecimal("4")));
+    }
+
+    @Test
+    void itShouldWeightByReliabilityOfComposite() {
+        CompositeFeeProvider composite = CompositeFeeProvider.builder()
+                .feeProviders(ImmutableList.of(
+                        new TestFeeProvider("working", 10),
+                        new TestFeeProvider("failing", Flux.error(new IllegalStateException("test")))
+                ))
+                .deadline(Duration.ofSeconds(1))
+                .build();
+
+        CompositeFeeProvider sut = composite.withReducer(new WeightedMeanFeeReducer(composite::getReliability));
+
+        FeeRecommendationResponse response = sut.request(anyRequest).blockFirst(Duration.ofSeconds(5));
+        assertThat(response.getFeeRecommendations().get(0).getFeeUnit().getValue(), comparesEqualTo(new BigDecimal("10")));
+
+        // statistics are shared between both instances
+        assertThat(composite.getReliability(composite.getProviderStatistics().get(0).getProviderInfo()), is(2d / 3d));
+        assertThat(composite.getReliability(composite.getProviderStatistics().get(1).getProviderInfo()), is(1d / 3d));
+    }
+
+    private static BigDecimal reduce(FeeRecommendationReducer reducer, Flux<FeeRecommendationResponse> responses) {
+        FeeRecommendationResponse response = reducer.reduce(responses).block();
+        return response.getFeeRecommendations().get(0).getFeeUnit().getValue();
+    }
+
+    private static Flux<FeeRecommendationResponse> responses(long... satPerVbyteValues) {
+        return Flux.fromStream(Arrays.stream(satPerVbyteValues).mapToObj(val -> response(null, val)));
+    }
+
+    private static FeeRecommendationResponse response(String providerName, long satPerVbyte) {
+        return FeeRecommendationResponseImpl.builder()
+                .addFeeRecommendation(FeeRecommendationImpl.builder()
+                        .feeUnit(SatPerVbyteImpl.builder()
+                                .satPerVbyteValue(BigDecimal.valueOf(satPerVbyte))
+                                .build())
+                        .build())
+                .providerInfo(providerName == null ? null : ProviderInfo.SimpleProviderInfo.builder()
+                        .name(providerName)
+                        .description("")
+                        .build())
+                .build();
+    }
+
+    private static final class TestFeeProvider extends AbstractFeeProvider {
+        private final Flux<FeeRecommendationResponse> responses;
+
+        TestFeeProvider(String name, long satPerVbyte) {
+            this(name, Flux.just(response(null, satPerVbyte)));
+        }
+
+        TestFeeProvider(String name, Flux<FeeRecommendationResponse> responses) {
+            super(ProviderInfo.SimpleProviderInfo.builder()
+                    .name(name)
+                    .description("")
+                    .build());
+            this.responses = responses;
+        }
+
+        @Override
+        public boolean supports(FeeRecommendationRequest request) {
+            return true;
+        }
+
+        @Override
+        protected Flux<FeeRecommendationResponse> requestHook(FeeRecommendationRequest request) {
+            return responses;
+        }
+    }
+}
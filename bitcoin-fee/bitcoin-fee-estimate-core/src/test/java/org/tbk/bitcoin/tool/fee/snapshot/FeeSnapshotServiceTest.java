@@ -0,0 +1,152 @@
+package org.tbk.bitcoin.tool.fee.snapshot;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+import org.tbk.bitcoin.tool.fee.*;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponseImpl.FeeRecommendationImpl;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponseImpl.SatPerVbyteImpl;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.comparesEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+class FeeSnapshotServiceTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2021-01-01T00:00:00Z"));
+
+    private final AtomicInteger invocations = new AtomicInteger();
+
+    private final FeeProvider blockTargetEchoingProvider = new AbstractFeeProvider(ProviderInfo.SimpleProviderInfo.builder()
+            .name("test")
+            .description("")
+            .build()) {
+        @Override
+        public boolean supports(FeeRecommendationRequest request) {
+            return true;
+        }
+
+        @Override
+        protected Flux<FeeRecommendationResponse> requestHook(FeeRecommendationRequest request) {
+            invocations.incrementAndGet();
+            return Flux.just(FeeRecommendationResponseImpl.builder()
+                    .addFeeRecommendation(FeeRecommendationImpl.builder()
+                            .feeUnit(SatPerVbyteImpl.builder()
+                                    .satPerVbyteValue(BigDecimal.valueOf(request.getBlockTarget()))
+                                    .build())
+                            .build())
+                    .build());
+        }
+    };
+
+    private final FeeSnapshotService sut = FeeSnapshotService.builder()
+            .feeProviders(ImmutableList.of(blockTargetEchoingProvider))
+            .blockTargets(ImmutableList.of(1L, 6L, 144L))
+            .refreshInterval(Duration.ofSeconds(30))
+            .maxStaleness(Duration.ofMinutes(5))
+            .clock(clock)
+            .build();
+
+    @Test
+    void itShouldReturnEmptyWithoutSnapshot() {
+        List<FeeRecommendationResponse> responses = sut.request(request(1)).collectList().block();
+
+        assertThat(responses, hasSize(0));
+    }
+
+    @Test
+    void itShouldServeRequestsFromSnapshot() {
+        sut.refresh().block(Duration.ofSeconds(5));
+        assertThat(invocations.get(), is(3));
+
+        assertThat(satPerVbyte(request(1)), comparesEqualTo(BigDecimal.valueOf(1)));
+        assertThat(satPerVbyte(request(5)), comparesEqualTo(BigDecimal.valueOf(1)));
+        assertThat(satPerVbyte(request(6)), comparesEqualTo(BigDecimal.valueOf(6)));
+        assertThat(satPerVbyte(request(1000)), comparesEqualTo(BigDecimal.valueOf(144)));
+
+        // no network call on the request path
+        assertThat(invocations.get(), is(3));
+    }
+
+    @Test
+    void itShouldNotRevalidateWithinTheScheduledPollWindow() {
+        sut.refresh().block(Duration.ofSeconds(5));
+
+        // older than the refresh interval, but the scheduled poll may still be running (refresh timeout is 20s)
+        clock.advance(Duration.ofSeconds(45));
+
+        assertThat(satPerVbyte(request(6)), comparesEqualTo(BigDecimal.valueOf(6)));
+        assertThat(invocations.get(), is(3));
+    }
+
+    @Test
+    void itShouldRevalidateStaleSnapshot() {
+        sut.refresh().block(Duration.ofSeconds(5));
+
+        clock.advance(Duration.ofMinutes(1));
+
+        // stale snapshot is still served..
+        assertThat(satPerVbyte(request(6)), comparesEqualTo(BigDecimal.valueOf(6)));
+        // ..but a refresh has been triggered
+        assertThat(invocations.get(), is(6));
+    }
+
+    @Test
+    void itShouldNotServeSnapshotExceedingMaxStaleness() {
+        sut.refresh().block(Duration.ofSeconds(5));
+
+        clock.advance(Duration.ofMinutes(10));
+
+        List<FeeRecommendationResponse> responses = sut.request(request(1)).collectList().block();
+        assertThat(responses, hasSize(0));
+    }
+
+    private BigDecimal satPerVbyte(FeeRecommendationRequest request) {
+        return sut.request(request).blockFirst()
+                .getFeeRecommendations().get(0)
+                .getFeeUnit().getValue();
+    }
+
+    private static FeeRecommendationRequest request(long blockTarget) {
+        return FeeRecommendationRequestImpl.builder()
+                .durationTarget(Duration.ofMinutes(10 * blockTarget))
+                .build();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            this.instant = this.instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
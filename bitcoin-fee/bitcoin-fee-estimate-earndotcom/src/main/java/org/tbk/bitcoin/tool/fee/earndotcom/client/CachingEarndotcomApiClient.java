@@ -9,6 +9,10 @@ import lombok.Builder;
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static java.util.Objects.requireNonNull;
 
+/**
+ * @deprecated scheduled for removal; use {@link org.tbk.bitcoin.tool.fee.cache.CachingFeeApiClient} instead
+ */
+@Deprecated
 public final class CachingEarndotcomApiClient implements EarndotcomApiClient {
     private static final String SINGLE_CACHE_KEY_VALUE = "*";
 
@@ -1,8 +1,21 @@
 package org.tbk.bitcoin.tool.fee.earndotcom.client;
 
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
 public interface EarndotcomApiClient {
 
     RecommendedTransactionFees recommendedTransactionFees();
 
     TransactionFeesSummary transactionFeesSummary();
+
+    default Mono<RecommendedTransactionFees> recommendedTransactionFeesAsync() {
+        return Mono.fromCallable(this::recommendedTransactionFees)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    default Mono<TransactionFeesSummary> transactionFeesSummaryAsync() {
+        return Mono.fromCallable(this::transactionFeesSummary)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
 }
@@ -1,12 +1,12 @@
 package org.tbk.bitcoin.tool.fee.earndotcom.client;
 
 import lombok.SneakyThrows;
-import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.tbk.bitcoin.tool.fee.util.MoreHttpClient;
+import org.tbk.bitcoin.tool.fee.http.FeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.JdkFeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.SingleFlightFeeApiHttpClient;
 import org.tbk.bitcoin.tool.fee.util.MoreJsonFormat;
+import reactor.core.publisher.Mono;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -14,39 +14,52 @@ import java.net.URISyntaxException;
 import static java.util.Objects.requireNonNull;
 
 public class EarndotcomApiClientImpl implements EarndotcomApiClient {
-    private final CloseableHttpClient client = HttpClients.createDefault();
+    private final FeeApiHttpClient client;
 
     private final String baseUrl;
     private final String apiToken;
 
     public EarndotcomApiClientImpl(String baseUrl, String apiToken) {
+        this(baseUrl, apiToken, SingleFlightFeeApiHttpClient.of(JdkFeeApiHttpClient.builder().build()));
+    }
+
+    public EarndotcomApiClientImpl(String baseUrl, String apiToken, FeeApiHttpClient client) {
         this.baseUrl = requireNonNull(baseUrl);
         this.apiToken = apiToken;
+        this.client = requireNonNull(client);
     }
 
     @Override
-    @SneakyThrows(URISyntaxException.class)
     public RecommendedTransactionFees recommendedTransactionFees() {
+        return recommendedTransactionFeesAsync().block();
+    }
+
+    @Override
+    public TransactionFeesSummary transactionFeesSummary() {
+        return transactionFeesSummaryAsync().block();
+    }
+
+    @Override
+    @SneakyThrows(URISyntaxException.class)
+    public Mono<RecommendedTransactionFees> recommendedTransactionFeesAsync() {
         // https://bitcoinfees.earn.com/api/v1/fees/recommended
         URI url = new URIBuilder(baseUrl)
                 .setPath("api/v1/fees/recommended")
                 .build();
 
-        HttpGet request = new HttpGet(url);
-        String json = MoreHttpClient.executeToJson(client, request);
-        return MoreJsonFormat.jsonToProto(json, RecommendedTransactionFees.newBuilder()).build();
+        return client.getJson(url)
+                .map(json -> MoreJsonFormat.jsonToProto(json, RecommendedTransactionFees.newBuilder()).build());
     }
 
     @Override
     @SneakyThrows(URISyntaxException.class)
-    public TransactionFeesSummary transactionFeesSummary() {
+    public Mono<TransactionFeesSummary> transactionFeesSummaryAsync() {
         // https://bitcoinfees.earn.com/api/v1/fees/list
         URI url = new URIBuilder(baseUrl)
                 .setPath("api/v1/fees/list")
                 .build();
 
-        HttpGet request = new HttpGet(url);
-        String json = MoreHttpClient.executeToJson(client, request);
-        return MoreJsonFormat.jsonToProto(json, TransactionFeesSummary.newBuilder()).build();
+        return client.getJson(url)
+                .map(json -> MoreJsonFormat.jsonToProto(json, TransactionFeesSummary.newBuilder()).build());
     }
 }
@@ -41,9 +41,12 @@ public class EarndotcomFeeProvider extends AbstractFeeProvider {
 
     @Override
     protected Flux<FeeRecommendationResponse> requestHook(FeeRecommendationRequest request) {
+        return this.client.transactionFeesSummaryAsync()
+                .flatMapMany(transactionFeesSummary -> toResponse(request, transactionFeesSummary));
+    }
 
-        TransactionFeesSummary transactionFeesSummary = this.client.transactionFeesSummary();
-
+    private Flux<FeeRecommendationResponse> toResponse(FeeRecommendationRequest request,
+                                                       TransactionFeesSummary transactionFeesSummary) {
         Optional<FeesSummaryEntry> summaryEntryOrEmpty = feeSelectionStrategy.select(request, transactionFeesSummary);
 
         if (summaryEntryOrEmpty.isEmpty()) {
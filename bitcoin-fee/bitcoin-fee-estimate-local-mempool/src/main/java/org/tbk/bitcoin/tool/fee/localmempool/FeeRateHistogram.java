@@ -0,0 +1,268 @@
+package org.tbk.bitcoin.tool.fee.localmempool;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * An incrementally updated histogram of the fee rates of mempool transactions.
+ *
+ * <p>Transactions are put into buckets with exponentially growing fee rate boundaries (5% per bucket,
+ * starting at 1 sat/vB), so that adding and removing a transaction is constant time and
+ * projecting blocks only needs a single pass over a few hundred buckets - regardless of mempool size.
+ * The lower boundary of a bucket is used as fee rate of all its transactions.
+ *
+ * <p>This class is thread-safe.
+ */
+public final class FeeRateHistogram {
+    private static final double BUCKET_SPACING = 1.05d;
+
+    private static final double MAX_FEE_RATE = 10_000d;
+
+    /**
+     * Bucket 0 collects everything below 1 sat/vB, the last bucket everything above {@link #MAX_FEE_RATE}.
+     */
+    private static final int BUCKET_COUNT = 2 + (int) Math.ceil(Math.log(MAX_FEE_RATE) / Math.log(BUCKET_SPACING));
+
+    private static final double[] bucketLowerBounds = createBucketLowerBounds();
+
+    private static final long DEFAULT_BLOCK_VSIZE = 1_000_000L;
+
+    private final long[] bucketVsize = new long[BUCKET_COUNT];
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private final long blockVsize;
+
+    private long modCount;
+
+    private ProjectedBlocks projectionCache;
+
+    private int projectionCacheMaxBlocks;
+
+    public FeeRateHistogram() {
+        this(DEFAULT_BLOCK_VSIZE);
+    }
+
+    public FeeRateHistogram(long blockVsize) {
+        checkArgument(blockVsize > 0, "'blockVsize' must be positive");
+        this.blockVsize = blockVsize;
+    }
+
+    /**
+     * Adds a transaction. Adding a transaction that is already present replaces the previous values.
+     *
+     * @param txid  the id of the transaction
+     * @param entry the fee and size of the transaction
+     */
+    public synchronized void add(String txid, MempoolEntry entry) {
+        Entry added = new Entry(bucketIndex(entry.getFeeRate()), entry.getVsize());
+        Entry previous = entries.put(txid, added);
+        if (previous != null) {
+            bucketVsize[previous.bucketIndex] -= previous.vsize;
+        }
+        bucketVsize[added.bucketIndex] += added.vsize;
+        modCount++;
+    }
+
+    /**
+     * Removes a transaction, e.g. because it has been included in a block.
+     *
+     * @param txid the id of the transaction
+     * @return true if the transaction was present
+     */
+    public synchronized boolean remove(String txid) {
+        Entry removed = entries.remove(txid);
+        if (removed == null) {
+            return false;
+        }
+        bucketVsize[removed.bucketIndex] -= removed.vsize;
+        modCount++;
+        return true;
+    }
+
+    public synchronized int removeAll(Collection<String> txids) {
+        int removed = 0;
+        for (String txid : txids) {
+            if (remove(txid)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public synchronized boolean contains(String txid) {
+        return entries.containsKey(txid);
+    }
+
+    /**
+     * Replaces the whole content of the histogram, e.g. with the result of {@code getrawmempool}.
+     *
+     * @param mempool all transactions of the mempool by txid
+     */
+    public synchronized void reset(Map<String, MempoolEntry> mempool) {
+        entries.clear();
+        Arrays.fill(bucketVsize, 0L);
+
+        mempool.forEach((txid, entry) -> {
+            Entry added = new Entry(bucketIndex(entry.getFeeRate()), entry.getVsize());
+            entries.put(txid, added);
+            bucketVsize[added.bucketIndex] += added.vsize;
+        });
+        modCount++;
+    }
+
+    public synchronized int getTxCount() {
+        return entries.size();
+    }
+
+    public synchronized long getTotalVsize() {
+        long total = 0L;
+        for (long vsize : bucketVsize) {
+            total += vsize;
+        }
+        return total;
+    }
+
+    /**
+     * Projects the next blocks by filling them with the transactions paying the highest fee rates first.
+     * The result is cached till the histogram changes.
+     *
+     * @param maxBlocks the maximum amount of blocks to project
+     * @return the projected blocks, ordered by their expected position in the chain
+     */
+    public synchronized ProjectedBlocks project(int maxBlocks) {
+        checkArgument(maxBlocks > 0, "'maxBlocks' must be positive");
+
+        boolean isCacheValid = projectionCache != null
+                && projectionCache.getModCount() == modCount
+                && projectionCacheMaxBlocks == maxBlocks;
+        if (!isCacheValid) {
+            projectionCache = computeProjection(maxBlocks);
+            projectionCacheMaxBlocks = maxBlocks;
+        }
+        return projectionCache;
+    }
+
+    private ProjectedBlocks computeProjection(int maxBlocks) {
+        ImmutableList.Builder<ProjectedBlocks.ProjectedBlock> blocks = ImmutableList.builder();
+
+        BlockBuilder current = new BlockBuilder(0);
+        int blockCount = 0;
+
+        for (int i = BUCKET_COUNT - 1; i >= 0 && blockCount < maxBlocks; i--) {
+            long remainingBucketVsize = bucketVsize[i];
+
+            while (remainingBucketVsize > 0 && blockCount < maxBlocks) {
+                long taken = Math.min(remainingBucketVsize, blockVsize - current.vsize);
+                current.add(bucketLowerBounds[i], taken);
+                remainingBucketVsize -= taken;
+
+                if (current.vsize >= blockVsize) {
+                    blocks.add(current.build());
+                    blockCount++;
+                    current = new BlockBuilder(blockCount);
+                }
+            }
+        }
+
+        if (current.vsize > 0 && blockCount < maxBlocks) {
+            blocks.add(current.build());
+        }
+
+        return new ProjectedBlocks(modCount, blocks.build());
+    }
+
+    @VisibleForTesting
+    static int bucketIndex(double feeRate) {
+        if (feeRate < 1d) {
+            return 0;
+        }
+        int index = 1 + (int) Math.floor(Math.log(feeRate) / Math.log(BUCKET_SPACING));
+        return Math.min(index, BUCKET_COUNT - 1);
+    }
+
+    @VisibleForTesting
+    static double bucketLowerBound(int bucketIndex) {
+        return bucketLowerBounds[bucketIndex];
+    }
+
+    private static double[] createBucketLowerBounds() {
+        double[] bounds = new double[BUCKET_COUNT];
+        bounds[0] = 0d;
+        for (int i = 1; i < BUCKET_COUNT; i++) {
+            bounds[i] = Math.pow(BUCKET_SPACING, i - 1);
+        }
+        return bounds;
+    }
+
+    private record Entry(int bucketIndex, long vsize) {
+    }
+
+    /**
+     * Collects the (fee rate, vsize) segments of a single projected block in descending fee rate order.
+     */
+    private static final class BlockBuilder {
+        private final int index;
+        private long vsize;
+        private double maxFeeRate = -1d;
+        private double minFeeRate;
+
+        // segments are added in descending fee rate order - the median is determined after the block is full
+        private double[] segmentFeeRates = new double[8];
+        private long[] segmentVsizes = new long[8];
+        private int segmentCount;
+
+        BlockBuilder(int index) {
+            this.index = index;
+        }
+
+        void add(double feeRate, long segmentVsize) {
+            if (maxFeeRate < 0d) {
+                maxFeeRate = feeRate;
+            }
+            minFeeRate = feeRate;
+            vsize += segmentVsize;
+
+            if (segmentCount == segmentFeeRates.length) {
+                segmentFeeRates = Arrays.copyOf(segmentFeeRates, segmentCount * 2);
+                segmentVsizes = Arrays.copyOf(segmentVsizes, segmentCount * 2);
+            }
+            segmentFeeRates[segmentCount] = feeRate;
+            segmentVsizes[segmentCount] = segmentVsize;
+            segmentCount++;
+        }
+
+        ProjectedBlocks.ProjectedBlock build() {
+            return ProjectedBlocks.ProjectedBlock.builder()
+                    .index(index)
+                    .vsize(vsize)
+                    .minFeeRate(minFeeRate)
+                    .medianFeeRate(percentile(0.5d))
+                    .maxFeeRate(maxFeeRate)
+                    .build();
+        }
+
+        /**
+         * Returns the fee rate at which the given share of the block (weighted by vsize) is reached,
+         * starting from the lowest fee rate.
+         */
+        private double percentile(double share) {
+            long threshold = (long) Math.ceil(vsize * share);
+            long cumulative = 0L;
+            for (int i = segmentCount - 1; i >= 0; i--) {
+                cumulative += segmentVsizes[i];
+                if (cumulative >= threshold) {
+                    return segmentFeeRates[i];
+                }
+            }
+            return maxFeeRate;
+        }
+    }
+}
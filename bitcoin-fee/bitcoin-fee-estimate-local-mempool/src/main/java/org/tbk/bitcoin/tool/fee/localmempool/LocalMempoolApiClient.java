@@ -0,0 +1,27 @@
+package org.tbk.bitcoin.tool.fee.localmempool;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface LocalMempoolApiClient {
+
+    /**
+     * getrawmempool (verbose)
+     *
+     * <p>Returns all transaction ids in memory pool with their fee and size.
+     *
+     * @return all mempool entries by txid
+     */
+    Map<String, MempoolEntry> getRawMempool();
+
+    /**
+     * getmempoolentry
+     *
+     * <p>Returns mempool data for the given transactions.
+     *
+     * @param txids the transaction ids
+     * @return the mempool entries in the same order as the given txids - empty if a transaction is not in the mempool
+     */
+    List<Optional<MempoolEntry>> getMempoolEntries(List<String> txids);
+}
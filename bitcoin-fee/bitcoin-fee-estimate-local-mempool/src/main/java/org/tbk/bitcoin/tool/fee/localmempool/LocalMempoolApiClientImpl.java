@@ -0,0 +1,104 @@
+package org.tbk.bitcoin.tool.fee.localmempool;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import lombok.extern.slf4j.Slf4j;
+import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
+import org.consensusj.jsonrpc.JsonRpcStatusException;
+import org.tbk.bitcoin.jsonrpc.BitcoinJsonRpcBatchClient;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+@Slf4j
+public class LocalMempoolApiClientImpl implements LocalMempoolApiClient {
+    private final BitcoinClient client;
+
+    private final BitcoinJsonRpcBatchClient batchClient;
+
+    public LocalMempoolApiClientImpl(BitcoinClient client) {
+        this.client = requireNonNull(client);
+        this.batchClient = null;
+    }
+
+    public LocalMempoolApiClientImpl(BitcoinClient client, BitcoinJsonRpcBatchClient batchClient) {
+        this.client = requireNonNull(client);
+        this.batchClient = requireNonNull(batchClient);
+    }
+
+    @Override
+    public Map<String, MempoolEntry> getRawMempool() {
+        try {
+            Map<String, Map<String, Object>> rawMempool = this.client.send("getrawmempool", ImmutableList.builder()
+                    .add(true)
+                    .build());
+
+            ImmutableMap.Builder<String, MempoolEntry> entries = ImmutableMap.builderWithExpectedSize(rawMempool.size());
+            rawMempool.forEach((txid, entry) -> entries.put(txid, toMempoolEntry(entry)));
+            return entries.build();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Sends all requests within a single jsonrpc batch if a {@link BitcoinJsonRpcBatchClient} is available.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Optional<MempoolEntry>> getMempoolEntries(List<String> txids) {
+        if (batchClient == null) {
+            return txids.stream()
+                    .map(this::getMempoolEntry)
+                    .toList();
+        }
+
+        List<BitcoinJsonRpcBatchClient.Request> batch = txids.stream()
+                .map(txid -> BitcoinJsonRpcBatchClient.Request.of("getmempoolentry", txid))
+                .toList();
+
+        try {
+            // an error is returned for transactions not (or no longer) in the mempool
+            return batchClient.send(batch).stream()
+                    .map(response -> response.isError()
+                            ? Optional.<MempoolEntry>empty()
+                            : Optional.of(toMempoolEntry((Map<String, Object>) response.getResult())))
+                    .toList();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Optional<MempoolEntry> getMempoolEntry(String txid) {
+        try {
+            Map<String, Object> entry = this.client.send("getmempoolentry", ImmutableList.builder()
+                    .add(txid)
+                    .build());
+            return Optional.of(toMempoolEntry(entry));
+        } catch (JsonRpcStatusException e) {
+            log.trace("Transaction {} is not in mempool: {}", txid, e.getMessage());
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MempoolEntry toMempoolEntry(Map<String, Object> entry) {
+        // "fees.base" is available since bitcoin core v0.21 - "fee" has been removed in v23
+        Number feeInBtc = Optional.ofNullable(entry.get("fees"))
+                .map(val -> (Map<String, Object>) val)
+                .map(val -> (Number) val.get("base"))
+                .orElseGet(() -> (Number) entry.get("fee"));
+
+        return MempoolEntry.builder()
+                .vsize(((Number) requireNonNull(entry.get("vsize"), "'vsize' must not be null")).longValue())
+                .fee(new BigDecimal(requireNonNull(feeInBtc, "'fee' must not be null").toString()).movePointRight(8).longValue())
+                .build();
+    }
+}
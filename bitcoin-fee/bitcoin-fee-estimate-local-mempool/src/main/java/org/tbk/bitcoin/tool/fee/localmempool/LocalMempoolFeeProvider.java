@@ -0,0 +1,101 @@
+package org.tbk.bitcoin.tool.fee.localmempool;
+
+import org.tbk.bitcoin.tool.fee.*;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponseImpl.FeeRecommendationImpl;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponseImpl.SatPerVbyteImpl;
+import org.tbk.bitcoin.tool.fee.ProviderInfo.SimpleProviderInfo;
+import org.tbk.bitcoin.tool.fee.localmempool.ProjectedBlocks.ProjectedBlock;
+import org.tbk.bitcoin.tool.fee.util.MoreBitcoin;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A fee provider projecting the next blocks from the mempool of the own node.
+ * All requests are answered from memory - see {@link LocalMempoolHistogramService}.
+ */
+public class LocalMempoolFeeProvider extends AbstractFeeProvider {
+
+    private static final ProviderInfo providerInfo = SimpleProviderInfo.builder()
+            .name("local-mempool")
+            .description("Fee recommendation using projected blocks of the mempool of the own node")
+            .build();
+
+    private static final int DEFAULT_MAX_PROJECTED_BLOCKS = 8;
+
+    private static final double THIRTYTHREE_PERCENT_MULTIPLIER = 1.33d;
+
+    /**
+     * Fee rate recommended if the mempool does not fill the requested amount of blocks.
+     */
+    private static final BigDecimal MIN_RELAY_FEE_RATE = BigDecimal.ONE;
+
+    private final LocalMempoolHistogramService histogramService;
+
+    private final int maxProjectedBlocks;
+
+    private final Duration maxDuration;
+
+    public LocalMempoolFeeProvider(LocalMempoolHistogramService histogramService) {
+        this(histogramService, DEFAULT_MAX_PROJECTED_BLOCKS);
+    }
+
+    public LocalMempoolFeeProvider(LocalMempoolHistogramService histogramService, int maxProjectedBlocks) {
+        super(providerInfo);
+        checkArgument(maxProjectedBlocks > 0, "'maxProjectedBlocks' must be positive");
+
+        this.histogramService = requireNonNull(histogramService);
+        this.maxProjectedBlocks = maxProjectedBlocks;
+        this.maxDuration = MoreBitcoin.averageBlockDuration(maxProjectedBlocks);
+    }
+
+    @Override
+    public boolean supports(FeeRecommendationRequest request) {
+        return request.getDesiredConfidence().isEmpty()
+                && request.getDurationTarget().compareTo(maxDuration) <= 0;
+    }
+
+    @Override
+    protected Flux<FeeRecommendationResponse> requestHook(FeeRecommendationRequest request) {
+        return Flux.defer(() -> {
+            if (!histogramService.isInitialized()) {
+                return Flux.empty();
+            }
+
+            BigDecimal feeRate = histogramService.project(maxProjectedBlocks)
+                    .getBlock(request.getBlockTarget())
+                    .map(block -> toFeeRate(request, block))
+                    .orElse(MIN_RELAY_FEE_RATE);
+
+            return Flux.just(FeeRecommendationResponseImpl.builder()
+                    .addFeeRecommendation(FeeRecommendationImpl.builder()
+                            .feeUnit(SatPerVbyteImpl.builder()
+                                    .satPerVbyteValue(feeRate)
+                                    .build())
+                            .build())
+                    .build());
+        });
+    }
+
+    /**
+     * Recommends the median fee rate of the projected block. For "super important" transactions
+     * (target duration of zero or less), a value slightly above the median is used (max +33% of the median).
+     */
+    private static BigDecimal toFeeRate(FeeRecommendationRequest request, ProjectedBlock block) {
+        double medianFeeRate = block.getMedianFeeRate();
+
+        double feeRate = medianFeeRate;
+        if (request.isTargetDurationZeroOrLess()) {
+            double medianDifferenceToHighestFee = Math.max(0, block.getMaxFeeRate() - medianFeeRate);
+            feeRate = Math.min(medianFeeRate * THIRTYTHREE_PERCENT_MULTIPLIER, medianFeeRate + (medianDifferenceToHighestFee / 2));
+        }
+
+        return BigDecimal.valueOf(Math.max(feeRate, MIN_RELAY_FEE_RATE.doubleValue()))
+                .setScale(3, RoundingMode.HALF_UP);
+    }
+}
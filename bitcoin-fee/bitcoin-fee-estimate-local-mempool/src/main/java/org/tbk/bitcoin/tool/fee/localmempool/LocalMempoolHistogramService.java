@@ -0,0 +1,186 @@
+package org.tbk.bitcoin.tool.fee.localmempool;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.AbstractScheduledService;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.Transaction;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.google.common.base.MoreObjects.firstNonNull;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Keeps a {@link FeeRateHistogram} of the mempool of a bitcoin core node up-to-date.
+ *
+ * <p>The histogram is seeded from {@code getrawmempool} and then updated incrementally:
+ * new transactions (e.g. from zeromq {@code rawtx}) are looked up in batches via {@code getmempoolentry}
+ * to obtain their fee, transactions of new blocks (e.g. from zeromq {@code rawblock}) are removed.
+ * Evicted, expired or replaced transactions are not announced by the node - the histogram is therefore
+ * re-seeded every {@code resyncInterval}. Without notifications, the histogram is only updated on re-seeding.
+ */
+@Slf4j
+public final class LocalMempoolHistogramService extends AbstractScheduledService {
+    private static final Duration DEFAULT_RESYNC_INTERVAL = Duration.ofMinutes(10);
+    private static final int DEFAULT_LOOKUP_BATCH_SIZE = 500;
+    private static final Duration DEFAULT_LOOKUP_BATCH_TIMEOUT = Duration.ofMillis(500);
+
+    private final LocalMempoolApiClient client;
+
+    private final Publisher<Transaction> transactions;
+
+    private final Publisher<Block> blocks;
+
+    private final FeeRateHistogram histogram;
+
+    private final Duration resyncInterval;
+
+    private final int lookupBatchSize;
+
+    private final Duration lookupBatchTimeout;
+
+    private final AtomicBoolean initialized = new AtomicBoolean(false);
+
+    private final Disposable.Composite subscriptions = Disposables.composite();
+
+    @Builder
+    private LocalMempoolHistogramService(LocalMempoolApiClient client,
+                                         Publisher<Transaction> transactions,
+                                         Publisher<Block> blocks,
+                                         FeeRateHistogram histogram,
+                                         Duration resyncInterval,
+                                         Integer lookupBatchSize,
+                                         Duration lookupBatchTimeout) {
+        this.client = requireNonNull(client);
+        this.transactions = transactions;
+        this.blocks = blocks;
+        this.histogram = Optional.ofNullable(histogram).orElseGet(FeeRateHistogram::new);
+        this.resyncInterval = firstNonNull(resyncInterval, DEFAULT_RESYNC_INTERVAL);
+        this.lookupBatchSize = firstNonNull(lookupBatchSize, DEFAULT_LOOKUP_BATCH_SIZE);
+        this.lookupBatchTimeout = firstNonNull(lookupBatchTimeout, DEFAULT_LOOKUP_BATCH_TIMEOUT);
+
+        checkArgument(!this.resyncInterval.isNegative() && !this.resyncInterval.isZero(), "'resyncInterval' must be positive");
+        checkArgument(this.lookupBatchSize > 0, "'lookupBatchSize' must be positive");
+        checkArgument(!this.lookupBatchTimeout.isNegative() && !this.lookupBatchTimeout.isZero(), "'lookupBatchTimeout' must be positive");
+    }
+
+    @Override
+    protected void startUp() {
+        // subscribe before seeding to reduce the window of missed updates - it is closed by the next resync
+        if (blocks != null) {
+            subscriptions.add(Flux.from(blocks)
+                    .subscribe(block -> {
+                        try {
+                            onBlock(block);
+                        } catch (Exception e) {
+                            log.warn("Error while removing transactions of block from mempool histogram: {}", e.getMessage());
+                        }
+                    }, e -> log.warn("Block notifications terminated with error", e)));
+        }
+
+        if (transactions != null) {
+            subscriptions.add(Flux.from(transactions)
+                    .map(tx -> tx.getTxId().toString())
+                    .bufferTimeout(lookupBatchSize, lookupBatchTimeout)
+                    .concatMap(txids -> Mono.fromRunnable(() -> onTransactions(txids))
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .onErrorResume(e -> {
+                                log.warn("Error while looking up {} mempool entries: {}", txids.size(), e.getMessage());
+                                return Mono.empty();
+                            }))
+                    .subscribe(it -> {
+                    }, e -> log.warn("Transaction notifications terminated with error", e)));
+        }
+    }
+
+    @Override
+    protected void runOneIteration() {
+        try {
+            resync();
+        } catch (Exception e) {
+            // do not let the service fail - the next iteration will try again
+            log.warn("Error while syncing mempool histogram: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    protected void shutDown() {
+        subscriptions.dispose();
+    }
+
+    @Override
+    protected Scheduler scheduler() {
+        return Scheduler.newFixedDelaySchedule(Duration.ZERO, resyncInterval);
+    }
+
+    /**
+     * Returns whether the histogram has been seeded at least once.
+     *
+     * @return true if the histogram reflects the mempool of the node
+     */
+    public boolean isInitialized() {
+        return initialized.get();
+    }
+
+    public FeeRateHistogram getHistogram() {
+        return histogram;
+    }
+
+    public ProjectedBlocks project(int maxBlocks) {
+        return histogram.project(maxBlocks);
+    }
+
+    @VisibleForTesting
+    void resync() {
+        Map<String, MempoolEntry> mempool = client.getRawMempool();
+        histogram.reset(mempool);
+        initialized.set(true);
+
+        log.debug("Synced mempool histogram with {} transactions", mempool.size());
+    }
+
+    @VisibleForTesting
+    void onTransactions(List<String> txids) {
+        List<String> unknownTxids = txids.stream()
+                .filter(txid -> !histogram.contains(txid))
+                .toList();
+
+        if (unknownTxids.isEmpty()) {
+            return;
+        }
+
+        List<Optional<MempoolEntry>> entries = client.getMempoolEntries(unknownTxids);
+        for (int i = 0; i < unknownTxids.size(); i++) {
+            String txid = unknownTxids.get(i);
+            entries.get(i).ifPresent(entry -> histogram.add(txid, entry));
+        }
+    }
+
+    @VisibleForTesting
+    void onBlock(Block block) {
+        List<Transaction> blockTransactions = block.getTransactions();
+        if (blockTransactions == null) {
+            return;
+        }
+
+        List<String> txids = blockTransactions.stream()
+                .map(tx -> tx.getTxId().toString())
+                .toList();
+
+        int removed = histogram.removeAll(txids);
+        log.debug("Removed {} of {} transactions of block {} from mempool histogram", removed, txids.size(), block.getHash());
+    }
+}
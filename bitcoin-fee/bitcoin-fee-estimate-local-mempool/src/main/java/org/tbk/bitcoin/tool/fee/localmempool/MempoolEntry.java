@@ -0,0 +1,40 @@
+package org.tbk.bitcoin.tool.fee.localmempool;
+
+import lombok.Builder;
+import lombok.Value;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The fee relevant parts of a mempool entry as returned by {@code getrawmempool true} or {@code getmempoolentry}.
+ */
+@Value
+public class MempoolEntry {
+    /**
+     * Virtual transaction size as defined in BIP 141.
+     */
+    long vsize;
+
+    /**
+     * Transaction fee in satoshis (without fees of ancestors or descendants).
+     */
+    long fee;
+
+    @Builder
+    private MempoolEntry(long vsize, long fee) {
+        checkArgument(vsize > 0, "'vsize' must be positive");
+        checkArgument(fee >= 0, "'fee' must not be negative");
+
+        this.vsize = vsize;
+        this.fee = fee;
+    }
+
+    /**
+     * Returns the fee rate in sat/vB.
+     *
+     * @return the fee rate in sat/vB
+     */
+    public double getFeeRate() {
+        return fee / (double) vsize;
+    }
+}
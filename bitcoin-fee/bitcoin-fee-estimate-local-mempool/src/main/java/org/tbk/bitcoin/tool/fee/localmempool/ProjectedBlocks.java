@@ -0,0 +1,51 @@
+package org.tbk.bitcoin.tool.fee.localmempool;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The next blocks as they would be mined from the current mempool, ordered by their expected position in the chain.
+ * All fee rates are in sat/vB.
+ */
+@Value
+public class ProjectedBlocks {
+
+    /**
+     * Internal version of the histogram the projection has been created from.
+     */
+    long modCount;
+
+    List<ProjectedBlock> blocks;
+
+    public int getBlocksCount() {
+        return blocks.size();
+    }
+
+    /**
+     * Returns the projected block for the given block target (1 being the next block).
+     *
+     * @param blockTarget the block target
+     * @return the projected block, or empty if the mempool is not large enough to fill the given amount of blocks
+     */
+    public Optional<ProjectedBlock> getBlock(long blockTarget) {
+        int index = (int) Math.max(0, blockTarget - 1);
+        return index < blocks.size() ? Optional.of(blocks.get(index)) : Optional.empty();
+    }
+
+    @Value
+    @Builder
+    public static class ProjectedBlock {
+        int index;
+
+        long vsize;
+
+        double minFeeRate;
+
+        double medianFeeRate;
+
+        double maxFeeRate;
+    }
+}
@@ -0,0 +1,97 @@
+package org.tbk.bitcoin.tool.fee.localmempool;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+import org.tbk.bitcoin.tool.fee.localmempool.ProjectedBlocks.ProjectedBlock;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+class FeeRateHistogramTest {
+
+    private static final long BLOCK_VSIZE = 1_000L;
+
+    private final FeeRateHistogram sut = new FeeRateHistogram(BLOCK_VSIZE);
+
+    private static MempoolEntry entry(long vsize, double satPerVbyte) {
+        return MempoolEntry.builder()
+                .vsize(vsize)
+                .fee((long) (vsize * satPerVbyte))
+                .build();
+    }
+
+    @Test
+    void itShouldPutFeeRatesIntoBuckets() {
+        assertThat(FeeRateHistogram.bucketIndex(0.5d), is(0));
+        assertThat(FeeRateHistogram.bucketIndex(1d), is(1));
+
+        int bucketIndex = FeeRateHistogram.bucketIndex(42d);
+        assertThat(FeeRateHistogram.bucketLowerBound(bucketIndex) <= 42d, is(true));
+        assertThat(FeeRateHistogram.bucketLowerBound(bucketIndex + 1) > 42d, is(true));
+    }
+
+    @Test
+    void itShouldAddAndRemoveTransactions() {
+        sut.add("tx1", entry(200, 10));
+        sut.add("tx2", entry(300, 20));
+        assertThat(sut.getTxCount(), is(2));
+        assertThat(sut.getTotalVsize(), is(500L));
+
+        // re-adding replaces the previous entry
+        sut.add("tx1", entry(100, 10));
+        assertThat(sut.getTotalVsize(), is(400L));
+
+        assertThat(sut.remove("tx1"), is(true));
+        assertThat(sut.remove("tx1"), is(false));
+        assertThat(sut.removeAll(ImmutableList.of("tx2", "unknown")), is(1));
+
+        assertThat(sut.getTxCount(), is(0));
+        assertThat(sut.getTotalVsize(), is(0L));
+    }
+
+    @Test
+    void itShouldProjectBlocksByDescendingFeeRate() {
+        sut.reset(ImmutableMap.of(
+                "high", entry(600, 100),
+                "medium", entry(600, 50),
+                "low", entry(300, 10)
+        ));
+
+        ProjectedBlocks projectedBlocks = sut.project(8);
+        assertThat(projectedBlocks.getBlocksCount(), is(2));
+
+        ProjectedBlock nextBlock = projectedBlocks.getBlock(1).orElseThrow();
+        assertThat(nextBlock.getVsize(), is(BLOCK_VSIZE));
+        assertThat(nextBlock.getMaxFeeRate(), is(closeTo(100d, 5d)));
+        assertThat(nextBlock.getMinFeeRate(), is(closeTo(50d, 2.5d)));
+        assertThat(nextBlock.getMedianFeeRate(), is(closeTo(100d, 5d)));
+
+        ProjectedBlock secondBlock = projectedBlocks.getBlock(2).orElseThrow();
+        assertThat(secondBlock.getVsize(), is(500L));
+        assertThat(secondBlock.getMaxFeeRate(), is(closeTo(50d, 2.5d)));
+        assertThat(secondBlock.getMinFeeRate(), is(closeTo(10d, 0.5d)));
+
+        assertThat(projectedBlocks.getBlock(3).isPresent(), is(false));
+    }
+
+    @Test
+    void itShouldLimitProjectedBlocks() {
+        sut.add("tx1", entry(5_000, 10));
+
+        assertThat(sut.project(3).getBlocksCount(), is(3));
+    }
+
+    @Test
+    void itShouldCacheProjectionTillModified() {
+        sut.add("tx1", entry(200, 10));
+
+        ProjectedBlocks projectedBlocks = sut.project(8);
+        assertThat(sut.project(8), is(sameInstance(projectedBlocks)));
+
+        sut.add("tx2", entry(200, 10));
+        assertThat(sut.project(8).getBlock(1).orElseThrow().getVsize(), is(400L));
+    }
+}
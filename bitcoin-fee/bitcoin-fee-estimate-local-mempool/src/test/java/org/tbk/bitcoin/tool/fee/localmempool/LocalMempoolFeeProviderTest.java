@@ -0,0 +1,103 @@
+package org.tbk.bitcoin.tool.fee.localmempool;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationRequest;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationRequestImpl;
+import org.tbk.bitcoin.tool.fee.FeeRecommendationResponse;
+import org.tbk.bitcoin.tool.fee.util.MoreBitcoin;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+class LocalMempoolFeeProviderTest {
+
+    private final FakeApiClient client = new FakeApiClient();
+
+    private final LocalMempoolHistogramService histogramService = LocalMempoolHistogramService.builder()
+            .client(client)
+            .histogram(new FeeRateHistogram(1_000L))
+            .build();
+
+    private final LocalMempoolFeeProvider sut = new LocalMempoolFeeProvider(histogramService);
+
+    @Test
+    void itShouldNotEmitResponsesBeforeInitialization() {
+        List<FeeRecommendationResponse> responses = sut.request(requestForBlockTarget(1)).collectList().block();
+
+        assertThat(responses, hasSize(0));
+    }
+
+    @Test
+    void itShouldRecommendMedianFeeRateOfProjectedBlock() {
+        client.mempool.put("high", entry(600, 100));
+        client.mempool.put("low", entry(600, 20));
+        histogramService.resync();
+
+        assertThat(requestSatPerVbyte(1).doubleValue(), is(closeTo(100d, 5d)));
+        assertThat(requestSatPerVbyte(2).doubleValue(), is(closeTo(20d, 1d)));
+    }
+
+    @Test
+    void itShouldRecommendMinimumFeeRateIfMempoolIsNotLargeEnough() {
+        client.mempool.put("tx", entry(100, 100));
+        histogramService.resync();
+
+        assertThat(requestSatPerVbyte(2), is(BigDecimal.ONE));
+    }
+
+    @Test
+    void itShouldUpdateHistogramIncrementally() {
+        histogramService.resync();
+        assertThat(requestSatPerVbyte(1), is(BigDecimal.ONE));
+
+        client.mempool.put("new", entry(500, 50));
+        histogramService.onTransactions(ImmutableList.of("new", "confirmed-in-the-meantime"));
+
+        assertThat(histogramService.getHistogram().getTxCount(), is(1));
+        assertThat(requestSatPerVbyte(1).doubleValue(), is(closeTo(50d, 2.5d)));
+    }
+
+    private BigDecimal requestSatPerVbyte(int blockTarget) {
+        FeeRecommendationResponse response = sut.request(requestForBlockTarget(blockTarget)).blockFirst();
+        return response.getFeeRecommendations().get(0).getFeeUnit().getValue();
+    }
+
+    private static FeeRecommendationRequest requestForBlockTarget(int blockTarget) {
+        return FeeRecommendationRequestImpl.builder()
+                .durationTarget(MoreBitcoin.averageBlockDuration(blockTarget))
+                .build();
+    }
+
+    private static MempoolEntry entry(long vsize, double satPerVbyte) {
+        return MempoolEntry.builder()
+                .vsize(vsize)
+                .fee((long) (vsize * satPerVbyte))
+                .build();
+    }
+
+    private static final class FakeApiClient implements LocalMempoolApiClient {
+        private final Map<String, MempoolEntry> mempool = new HashMap<>();
+
+        @Override
+        public Map<String, MempoolEntry> getRawMempool() {
+            return ImmutableMap.copyOf(mempool);
+        }
+
+        @Override
+        public List<Optional<MempoolEntry>> getMempoolEntries(List<String> txids) {
+            return txids.stream()
+                    .map(txid -> Optional.ofNullable(mempool.get(txid)))
+                    .toList();
+        }
+    }
+}
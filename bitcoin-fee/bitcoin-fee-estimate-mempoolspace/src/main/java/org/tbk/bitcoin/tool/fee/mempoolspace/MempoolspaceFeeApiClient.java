@@ -1,7 +1,20 @@
 package org.tbk.bitcoin.tool.fee.mempoolspace;
 
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
 public interface MempoolspaceFeeApiClient {
     FeesRecommended feesRecommended();
 
     ProjectedMempoolBlocks projectedBlocks();
+
+    default Mono<FeesRecommended> feesRecommendedAsync() {
+        return Mono.fromCallable(this::feesRecommended)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    default Mono<ProjectedMempoolBlocks> projectedBlocksAsync() {
+        return Mono.fromCallable(this::projectedBlocks)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
 }
@@ -5,14 +5,14 @@ import com.google.common.net.HttpHeaders;
 import com.google.protobuf.ListValue;
 import com.google.protobuf.Value;
 import lombok.SneakyThrows;
-import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
+import org.tbk.bitcoin.tool.fee.http.FeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.JdkFeeApiHttpClient;
+import org.tbk.bitcoin.tool.fee.http.SingleFlightFeeApiHttpClient;
 import org.tbk.bitcoin.tool.fee.mempoolspace.ProjectedMempoolBlocks.ProjectedBlock;
-import org.tbk.bitcoin.tool.fee.util.MoreHttpClient;
 import org.tbk.bitcoin.tool.fee.util.MoreJsonFormat;
 import org.tbk.bitcoin.tool.fee.util.MoreQueryString;
+import reactor.core.publisher.Mono;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -30,45 +30,64 @@ public class MempoolspaceFeeApiClientImpl implements MempoolspaceFeeApiClient {
 
     private static final String DEFAULT_USERAGENT = "tbk-mempoolspace-client/" + DEFAULT_VERSION;
 
+    private static final Map<String, String> DEFAULT_HEADERS = ImmutableMap.<String, String>builder()
+            .put(HttpHeaders.USER_AGENT, DEFAULT_USERAGENT)
+            .build();
+
     private static final String TOKEN_PARAM_NAME = "token";
-    private final CloseableHttpClient client = HttpClients.createDefault();
+
+    private final FeeApiHttpClient client;
 
     private final String baseUrl;
     private final String apiToken;
 
     public MempoolspaceFeeApiClientImpl(String baseUrl, String apiToken) {
+        this(baseUrl, apiToken, SingleFlightFeeApiHttpClient.of(JdkFeeApiHttpClient.builder().build()));
+    }
+
+    public MempoolspaceFeeApiClientImpl(String baseUrl, String apiToken, FeeApiHttpClient client) {
         this.baseUrl = requireNonNull(baseUrl);
         this.apiToken = apiToken;
+        this.client = requireNonNull(client);
     }
 
     @Override
-    @SneakyThrows(URISyntaxException.class)
     public FeesRecommended feesRecommended() {
+        return feesRecommendedAsync().block();
+    }
+
+    @Override
+    public ProjectedMempoolBlocks projectedBlocks() {
+        return projectedBlocksAsync().block();
+    }
+
+    @Override
+    @SneakyThrows(URISyntaxException.class)
+    public Mono<FeesRecommended> feesRecommendedAsync() {
         // https://mempool.space/api/v1/fees/recommended
         URI url = new URIBuilder(baseUrl)
                 .setPath("api/v1/fees/recommended")
                 .addParameters(MoreQueryString.toParams(createDefaultParamMap()))
                 .build();
 
-        HttpGet request = new HttpGet(url);
-        request.addHeader(HttpHeaders.USER_AGENT, DEFAULT_USERAGENT);
-        String json = MoreHttpClient.executeToJson(client, request);
-        return MoreJsonFormat.jsonToProto(json, FeesRecommended.newBuilder()).build();
+        return client.getJson(url, DEFAULT_HEADERS)
+                .map(json -> MoreJsonFormat.jsonToProto(json, FeesRecommended.newBuilder()).build());
     }
 
     @Override
     @SneakyThrows(URISyntaxException.class)
-    public ProjectedMempoolBlocks projectedBlocks() {
+    public Mono<ProjectedMempoolBlocks> projectedBlocksAsync() {
         // https://mempool.space/api/v1/fees/mempool-blocks
         URI url = new URIBuilder(baseUrl)
                 .setPath("api/v1/fees/mempool-blocks")
                 .addParameters(MoreQueryString.toParams(createDefaultParamMap()))
                 .build();
 
-        HttpGet request = new HttpGet(url);
-        request.addHeader(HttpHeaders.USER_AGENT, DEFAULT_USERAGENT);
-        String json = MoreHttpClient.executeToJson(client, request);
+        return client.getJson(url, DEFAULT_HEADERS)
+                .map(MempoolspaceFeeApiClientImpl::toProjectedMempoolBlocks);
+    }
 
+    private static ProjectedMempoolBlocks toProjectedMempoolBlocks(String json) {
         ListValue messageAsListValue = MoreJsonFormat.jsonToProto(json, ListValue.newBuilder()).build();
 
         List<ProjectedBlock> projectedBlocks = messageAsListValue.getValuesList().stream()
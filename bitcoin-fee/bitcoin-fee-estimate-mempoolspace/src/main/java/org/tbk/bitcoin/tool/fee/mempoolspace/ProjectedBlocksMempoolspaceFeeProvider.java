@@ -1,7 +1,6 @@
 package org.tbk.bitcoin.tool.fee.mempoolspace;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Suppliers;
 import lombok.extern.slf4j.Slf4j;
 import org.tbk.bitcoin.tool.fee.*;
 import org.tbk.bitcoin.tool.fee.FeeRecommendationResponse.FeeUnit;
@@ -11,12 +10,11 @@ import org.tbk.bitcoin.tool.fee.ProviderInfo.SimpleProviderInfo;
 import org.tbk.bitcoin.tool.fee.mempoolspace.ProjectedMempoolBlocks.ProjectedBlock;
 import org.tbk.bitcoin.tool.fee.util.MoreBitcoin;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
-import java.util.function.Supplier;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
@@ -39,7 +37,7 @@ public class ProjectedBlocksMempoolspaceFeeProvider extends AbstractFeeProvider
     private static final Duration DEFAULT_CACHE_TIMEOUT = Duration.ofSeconds(3);
     private static final FeesFromProjectedBlockStrategy DEFAULT_STRATEGY = new DefaultFeesFromProjectedBlockStrategy();
 
-    private final Supplier<ProjectedMempoolBlocks> projectedMempoolBlocksSupplier;
+    private final Mono<ProjectedMempoolBlocks> projectedMempoolBlocks;
     private final FeesFromProjectedBlockStrategy feesFromProjectedBlockSupplier;
 
     public ProjectedBlocksMempoolspaceFeeProvider(MempoolspaceFeeApiClient client) {
@@ -77,7 +75,9 @@ public class ProjectedBlocksMempoolspaceFeeProvider extends AbstractFeeProvider
         checkArgument(!cacheDuration.isNegative(), "'cacheDuration' must not be negative");
 
         this.feesFromProjectedBlockSupplier = requireNonNull(feesFromProjectedBlockSupplier);
-        this.projectedMempoolBlocksSupplier = Suppliers.memoizeWithExpiration(client::projectedBlocks, cacheDuration.toSeconds(), TimeUnit.SECONDS);
+        // successful responses are shared for `cacheDuration` - errors and empty results are not cached
+        this.projectedMempoolBlocks = client.projectedBlocksAsync()
+                .cache(it -> cacheDuration, e -> Duration.ZERO, () -> Duration.ZERO);
     }
 
     @Override
@@ -88,8 +88,11 @@ public class ProjectedBlocksMempoolspaceFeeProvider extends AbstractFeeProvider
 
     @Override
     protected Flux<FeeRecommendationResponse> requestHook(FeeRecommendationRequest request) {
-        ProjectedMempoolBlocks projectedBlocks = this.projectedMempoolBlocksSupplier.get();
+        return this.projectedMempoolBlocks
+                .flatMapMany(projectedBlocks -> toResponse(request, projectedBlocks));
+    }
 
+    private Flux<FeeRecommendationResponse> toResponse(FeeRecommendationRequest request, ProjectedMempoolBlocks projectedBlocks) {
         boolean isBlockInRange = request.getBlockTarget() <= projectedBlocks.getBlocksCount();
         if (!isBlockInRange) {
             return Flux.empty();
@@ -44,8 +44,11 @@ public class SimpleMempoolspaceFeeProvider extends AbstractFeeProvider {
 
     @Override
     protected Flux<FeeRecommendationResponse> requestHook(FeeRecommendationRequest request) {
-        FeesRecommended feesRecommended = this.client.feesRecommended();
+        return this.client.feesRecommendedAsync()
+                .flatMapMany(feesRecommended -> toResponse(request, feesRecommended));
+    }
 
+    private Flux<FeeRecommendationResponse> toResponse(FeeRecommendationRequest request, FeesRecommended feesRecommended) {
         SatPerVbyteImplBuilder feeBuilder = SatPerVbyteImpl.builder();
         if (request.isNextBlockTarget()) {
             feeBuilder.satPerVbyteValue(BigDecimal.valueOf(feesRecommended.getFastestFee()));
@@ -22,6 +22,9 @@ import org.tbk.bitcoin.tool.fee.FeeProvider;
 import org.tbk.bitcoin.tool.fee.FeeRecommendationRequest;
 import org.tbk.bitcoin.tool.fee.FeeRecommendationRequestImpl;
 import org.tbk.bitcoin.tool.fee.FeeRecommendationResponse;
+import org.tbk.bitcoin.tool.fee.reduce.FeeRecommendationReducer;
+import org.tbk.bitcoin.tool.fee.reduce.TrimmedMeanFeeReducer;
+import reactor.core.publisher.Flux;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -44,6 +47,8 @@ public class FeeTableCtrl {
     @NonNull
     private final JsonFormat.Printer jsonPrinter;
 
+    private final FeeRecommendationReducer trimmedMeanReducer = new TrimmedMeanFeeReducer();
+
     private final LoadingCache<String, FeeTableResponse> tableResponseCache = CacheBuilder.newBuilder()
             .refreshAfterWrite(60, TimeUnit.SECONDS)
             .build(new CacheLoader<>() {
@@ -112,38 +117,32 @@ public class FeeTableCtrl {
                         .orElseGet(Collections::emptyList)));
 
 
-        Map<Duration, BigDecimal> averageValues = durationToFeeRecommendations.entrySet().stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, entry -> {
-                    DoubleSummaryStatistics feeSummaryStatistics = entry.getValue().stream()
-                            .map(FeeRecommendationResponse::getFeeRecommendations)
-                            .flatMap(Collection::stream)
-                            .map(FeeRecommendationResponse.FeeRecommendation::getFeeUnit)
-                            .mapToDouble(d -> d.getValue().doubleValue())
-                            .summaryStatistics();
-
-                    return BigDecimal.valueOf(feeSummaryStatistics.getAverage());
-                }));
+        Map<Duration, BigDecimal> trimmedMeanValues = durationToFeeRecommendations.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> trimmedMeanReducer.reduce(Flux.fromIterable(entry.getValue()))
+                        .map(val -> val.getFeeRecommendations().get(0).getFeeUnit().getValue())
+                        .blockOptional()
+                        .orElse(BigDecimal.ZERO)));
 
-        // as not all providers will return results for every duration, the average values per duration
+        // as not all providers will return results for every duration, the trimmed mean values per duration
         // might container higher values for longer durations - this should be prevented
-        ImmutableMap.Builder<Duration, BigDecimal> rectifiedAverageValuesBuilder = ImmutableMap.builder();
-        BigDecimal lastValue = averageValues.get(Duration.ZERO);
+        ImmutableMap.Builder<Duration, BigDecimal> rectifiedTrimmedMeanValuesBuilder = ImmutableMap.builder();
+        BigDecimal lastValue = trimmedMeanValues.get(Duration.ZERO);
         for (Duration duration : durations) {
-            BigDecimal currentValue = averageValues.get(duration);
+            BigDecimal currentValue = trimmedMeanValues.get(duration);
             if (currentValue.compareTo(lastValue) > 0) {
-                rectifiedAverageValuesBuilder.put(duration, lastValue);
+                rectifiedTrimmedMeanValuesBuilder.put(duration, lastValue);
             } else {
-                rectifiedAverageValuesBuilder.put(duration, currentValue);
+                rectifiedTrimmedMeanValuesBuilder.put(duration, currentValue);
                 lastValue = currentValue;
             }
         }
-        Map<Duration, BigDecimal> rectifiedAverageValues = rectifiedAverageValuesBuilder.build();
+        Map<Duration, BigDecimal> rectifiedTrimmedMeanValues = rectifiedTrimmedMeanValuesBuilder.build();
 
         return FeeTableResponse.newBuilder()
                 .addColumn(FeeTableResponse.Column.newBuilder()
                         .setText("(without conf value)")
                         .build())
-                .addAllRow(rectifiedAverageValues.entrySet().stream()
+                .addAllRow(rectifiedTrimmedMeanValues.entrySet().stream()
                         .sorted(Comparator.comparingLong(val -> val.getKey().toMillis()))
                         .map(val -> FeeTableResponse.Row.newBuilder()
                                 .setHeader(FeeTableResponse.Row.RowHeader.newBuilder()
@@ -90,5 +90,9 @@ class BitcoinJsonRpcCacheAutoConfigurationIntegrationTest {
 
         assertThat(context.containsBean("bitcoinJsonRpcCacheFacade"), is(true));
         assertThat(context.getBean(CacheFacade.class), is(notNullValue()));
+
+        // without a block publisher, the index cannot follow reorgs
+        assertThat(context.containsBean("bitcoinJsonRpcBlockHeightIndex"), is(false));
+        assertThat(context.containsBean("bitcoinJsonRpcCachedBlockSource"), is(false));
     }
 }
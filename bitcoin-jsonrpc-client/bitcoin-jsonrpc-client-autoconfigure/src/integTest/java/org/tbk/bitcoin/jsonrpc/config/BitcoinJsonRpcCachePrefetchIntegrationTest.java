@@ -0,0 +1,123 @@
+package org.tbk.bitcoin.jsonrpc.config;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.params.RegTestParams;
+import org.bitcoinj.script.ScriptBuilder;
+import org.bitcoinj.script.ScriptOpCodes;
+import org.consensusj.bitcoin.json.pojo.BlockInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.tbk.bitcoin.jsonrpc.BlockchainScanner;
+import org.tbk.bitcoin.jsonrpc.cache.BlockCache;
+import org.tbk.bitcoin.jsonrpc.cache.BlockInfoCache;
+import org.tbk.bitcoin.jsonrpc.cache.BlockPrefetcher;
+import org.tbk.bitcoin.jsonrpc.test.BitcoinNodeStub;
+import org.tbk.bitcoin.zeromq.client.MessagePublishService;
+import org.tbk.bitcoin.zeromq.client.MessagePublisherFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+class BitcoinJsonRpcCachePrefetchIntegrationTest {
+    private static final NetworkParameters params = RegTestParams.get();
+
+    private static final int TIP_HEIGHT = 1000;
+
+    private BitcoinNodeStub node;
+
+    private ApplicationContextRunner contextRunner;
+
+    @BeforeEach
+    void setUp() {
+        node = BitcoinNodeStub.builder()
+                .rpcHandler(request -> "getblockcount".equals(request.method())
+                        ? TIP_HEIGHT
+                        : hashOfHeight(request.intParam(0)).toString())
+                .start();
+
+        // blocks are built from their hash - block infos are not needed as no block is ever published
+        contextRunner = new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(
+                        BitcoinJsonRpcClientAutoConfiguration.class,
+                        BitcoinJsonRpcCacheAutoConfiguration.class
+                ))
+                .withBean(BlockCache.class, () -> new BlockCache(CacheBuilder.newBuilder()
+                        .build(CacheLoader.from(BitcoinJsonRpcCachePrefetchIntegrationTest::block))))
+                .withBean(BlockInfoCache.class, () -> new BlockInfoCache(CacheBuilder.newBuilder()
+                        .build(CacheLoader.<Sha256Hash, BlockInfo>from(hash -> {
+                            throw new IllegalStateException("block infos must not be loaded");
+                        }))))
+                .withBean("bitcoinjBlockPublishService", MessagePublishService.class, () -> new MessagePublishService<>(new MessagePublisherFactory<Block>() {
+                    @Override
+                    public String getTopicName() {
+                        return "rawblock";
+                    }
+
+                    @Override
+                    public Flux<Block> create() {
+                        return Flux.never();
+                    }
+                }), definition -> {
+                    definition.setInitMethodName("startAsync");
+                    definition.setDestroyMethodName("stopAsync");
+                })
+                .withPropertyValues(
+                        "org.tbk.bitcoin.jsonrpc.network=regtest",
+                        "org.tbk.bitcoin.jsonrpc.rpchost=http://localhost",
+                        "org.tbk.bitcoin.jsonrpc.rpcport=" + node.getUri().getPort(),
+                        "org.tbk.bitcoin.jsonrpc.rpcuser=test",
+                        "org.tbk.bitcoin.jsonrpc.rpcpassword=test",
+                        // the scanner reads as many blocks concurrently as there are processors
+                        "org.tbk.bitcoin.jsonrpc-cache.prefetch.window-size=64"
+                );
+    }
+
+    @AfterEach
+    void tearDown() {
+        node.close();
+    }
+
+    @Test
+    void itShouldReadAheadDuringScans() {
+        contextRunner.run(context -> {
+            BlockchainScanner scanner = context.getBean(BlockchainScanner.class);
+            BlockPrefetcher prefetcher = context.getBean(BlockPrefetcher.class);
+
+            List<Block> blocks = scanner.scan(0, 199).collectList().block(Duration.ofSeconds(30));
+
+            assertThat(blocks.size(), is(200));
+            assertThat(blocks.get(199).getTransactions().get(0).getInput(0).getOutpoint().getHash(), is(hashOfHeight(199)));
+            assertThat(prefetcher.getPrefetchedCount(), is(greaterThan(0L)));
+            assertThat(prefetcher.getHitCount(), is(greaterThan(0L)));
+        });
+    }
+
+    private static Sha256Hash hashOfHeight(int height) {
+        return Sha256Hash.of(("block" + height).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // every block contains a single transaction spending an output of a transaction with the block's hash
+    private static Block block(Sha256Hash hash) {
+        Transaction tx = new Transaction(params);
+        tx.addInput(hash, 0, new ScriptBuilder().build());
+        tx.addOutput(Coin.valueOf(1), new ScriptBuilder().op(ScriptOpCodes.OP_TRUE).build());
+
+        return new Block(params, Block.BLOCK_VERSION_BIP66, Sha256Hash.ZERO_HASH, Sha256Hash.ZERO_HASH,
+                1600000000L, Block.EASIEST_DIFFICULTY_TARGET, 0, List.of(tx));
+    }
+}
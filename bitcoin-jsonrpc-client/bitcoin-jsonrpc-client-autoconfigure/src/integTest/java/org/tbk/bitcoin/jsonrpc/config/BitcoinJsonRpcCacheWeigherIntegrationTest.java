@@ -0,0 +1,66 @@
+package org.tbk.bitcoin.jsonrpc.config;
+
+import org.bitcoinj.core.Block;
+import org.bitcoinj.params.MainNetParams;
+import org.bitcoinj.params.RegTestParams;
+import org.bitcoinj.params.SigNetParams;
+import org.bitcoinj.params.TestNet3Params;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.tbk.bitcoin.jsonrpc.cache.BlockCache;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "org.tbk.bitcoin.jsonrpc.network=regtest",
+        "org.tbk.bitcoin.jsonrpc.rpchost=http://localhost",
+        "org.tbk.bitcoin.jsonrpc.rpcport=13337",
+        "org.tbk.bitcoin.jsonrpc.rpcuser=test",
+        "org.tbk.bitcoin.jsonrpc.rpcpassword=test",
+        "org.tbk.bitcoin.jsonrpc-cache.transaction.specification=maximumSize=10",
+        // the transaction spec must not be applied to the block cache.
+        // a genesis block has 285 bytes - the cache can hold at most three of them
+        "org.tbk.bitcoin.jsonrpc-cache.block.specification=concurrencyLevel=1,maximumWeight=1000",
+        "org.tbk.bitcoin.jsonrpc-cache.block.weigh-by-size=true"
+})
+class BitcoinJsonRpcCacheWeigherIntegrationTest {
+
+    @SpringBootApplication(proxyBeanMethods = false)
+    public static class BitcoinJsonRpcCacheTestApplication {
+
+        public static void main(String[] args) {
+            new SpringApplicationBuilder()
+                    .sources(BitcoinJsonRpcCacheTestApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run(args);
+        }
+    }
+
+    @Autowired
+    private BlockCache blockCache;
+
+    @Test
+    void itShouldEvictBlocksByWeight() {
+        List<Block> blocks = List.of(
+                MainNetParams.get().getGenesisBlock(),
+                TestNet3Params.get().getGenesisBlock(),
+                RegTestParams.get().getGenesisBlock(),
+                SigNetParams.get().getGenesisBlock()
+        );
+
+        blocks.forEach(block -> blockCache.put(block.getHash(), block));
+
+        assertThat(blockCache.size(), is(3L));
+    }
+}
@@ -57,6 +57,7 @@ class BitcoinJsonRpcClientMetricsIntegrationTest {
                 .add("bitcoin.blockchain.difficulty")
                 .add("bitcoin.blockchain.headers")
                 .add("bitcoin.blockchain.verification.progress")
+                .add("bitcoin.jsonrpc.metrics.refresh.age")
                 .add("bitcoin.memory.chunks.free")
                 .add("bitcoin.memory.chunks.used")
                 .add("bitcoin.memory.free")
@@ -7,7 +7,12 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.ConstructorBinding;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Objects;
 
 @ConfigurationProperties(
@@ -16,43 +21,165 @@ import java.util.Objects;
 )
 @Getter
 @AllArgsConstructor(onConstructor = @__(@ConstructorBinding))
-public class BitcoinJsonRpcCacheAutoConfigProperties {
+public class BitcoinJsonRpcCacheAutoConfigProperties implements Validator {
     private static final CacheBuilderSpec defaultTransactionCacheSpec = CacheBuilderSpec.parse("""
             recordStats,maximumSize=10000,expireAfterAccess=30m
             """);
     private static final CacheBuilderSpec defaultRawTransactionInfoCacheSpec = CacheBuilderSpec.parse("""
             recordStats,maximumSize=10000,expireAfterAccess=30m
             """);
+    // blocks vary between a few hundred bytes and ~4 MB - bound the cache by their serialized size (256 MiB)
     private static final CacheBuilderSpec defaultBlockCacheSpec = CacheBuilderSpec.parse("""
-            recordStats,maximumSize=100,expireAfterAccess=30m
+            recordStats,maximumWeight=268435456,expireAfterAccess=30m
             """);
     private static final CacheBuilderSpec defaultBlockInfoCacheSpec = CacheBuilderSpec.parse("""
             recordStats,maximumSize=1000,expireAfterAccess=30m
             """);
 
+    private static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+    // a hex encoded block takes up to ~8 MB in a batch response
+    private static final int DEFAULT_MAX_BLOCK_BATCH_SIZE = 4;
+
+    private static final int DEFAULT_LOADER_THREADS = 8;
+
     private boolean enabled = true;
 
+    /**
+     * Maximum number of calls sent within a single JSON-RPC batch request when loading multiple entries at once.
+     */
+    private Integer maxBatchSize;
+
+    /**
+     * Maximum number of blocks loaded within a single JSON-RPC batch request.
+     * Responses of block batches are kept in memory entirely - keep this small.
+     */
+    private Integer maxBlockBatchSize;
+
+    /**
+     * Implementation of the caches. "caffeine" loads entries asynchronously on a dedicated pool
+     * and requires caffeine on the classpath.
+     */
+    private CacheBackend backend;
+
+    /**
+     * Maximum number of entries loaded concurrently per cache. Only applies to the "caffeine" backend.
+     */
+    private Integer loaderThreads;
+
     private CacheBuilderSpecOption transaction;
     private CacheBuilderSpecOption rawTransactionInfo;
     private CacheBuilderSpecOption block;
     private CacheBuilderSpecOption blockInfo;
 
+    /**
+     * Settings of the persistent tier for blocks and transactions.
+     */
+    private DiskOption disk;
+
+    /**
+     * Settings of the index mapping block heights to block hashes.
+     */
+    private HeightIndexOption heightIndex;
+
+    /**
+     * Settings of the background read-ahead for sequential block scans.
+     */
+    private PrefetchOption prefetch;
+
+    /**
+     * Settings of the in-process replica of the node's mempool.
+     */
+    private MempoolOption mempool;
+
+    /**
+     * Settings of loading recent blocks into the caches on startup.
+     */
+    private WarmUpOption warmUp;
+
+    /**
+     * Settings of remembering transactions and blocks the node reported as unknown.
+     */
+    private NegativeOption negative;
+
+    public int getMaxBatchSize() {
+        return Objects.requireNonNullElse(maxBatchSize, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    public int getMaxBlockBatchSize() {
+        return Objects.requireNonNullElse(maxBlockBatchSize, DEFAULT_MAX_BLOCK_BATCH_SIZE);
+    }
+
+    public CacheBackend getBackend() {
+        return Objects.requireNonNullElse(backend, CacheBackend.GUAVA);
+    }
+
+    public int getLoaderThreads() {
+        return Objects.requireNonNullElse(loaderThreads, DEFAULT_LOADER_THREADS);
+    }
+
     public CacheBuilderSpecOption getTransaction() {
-        return Objects.requireNonNullElseGet(transaction, () -> new CacheBuilderSpecOption(true, defaultTransactionCacheSpec.toParsableString()));
+        return Objects.requireNonNullElseGet(transaction, () -> new CacheBuilderSpecOption(true, defaultTransactionCacheSpec.toParsableString(), false));
     }
 
     public CacheBuilderSpecOption getRawTransactionInfo() {
-        return Objects.requireNonNullElseGet(rawTransactionInfo, () -> new CacheBuilderSpecOption(true, defaultRawTransactionInfoCacheSpec.toParsableString()));
+        return Objects.requireNonNullElseGet(rawTransactionInfo, () -> new CacheBuilderSpecOption(true, defaultRawTransactionInfoCacheSpec.toParsableString(), false));
 
     }
 
     public CacheBuilderSpecOption getBlock() {
-        return Objects.requireNonNullElseGet(block, () -> new CacheBuilderSpecOption(true, defaultBlockCacheSpec.toParsableString()));
+        return Objects.requireNonNullElseGet(block, () -> new CacheBuilderSpecOption(true, defaultBlockCacheSpec.toParsableString(), true));
 
     }
 
     public CacheBuilderSpecOption getBlockInfo() {
-        return Objects.requireNonNullElseGet(blockInfo, () -> new CacheBuilderSpecOption(true, defaultBlockInfoCacheSpec.toParsableString()));
+        return Objects.requireNonNullElseGet(blockInfo, () -> new CacheBuilderSpecOption(true, defaultBlockInfoCacheSpec.toParsableString(), false));
+    }
+
+    public DiskOption getDisk() {
+        return Objects.requireNonNullElseGet(disk, DiskOption::new);
+    }
+
+    public HeightIndexOption getHeightIndex() {
+        return Objects.requireNonNullElseGet(heightIndex, HeightIndexOption::new);
+    }
+
+    public PrefetchOption getPrefetch() {
+        return Objects.requireNonNullElseGet(prefetch, PrefetchOption::new);
+    }
+
+    public MempoolOption getMempool() {
+        return Objects.requireNonNullElseGet(mempool, MempoolOption::new);
+    }
+
+    public WarmUpOption getWarmUp() {
+        return Objects.requireNonNullElseGet(warmUp, WarmUpOption::new);
+    }
+
+    public NegativeOption getNegative() {
+        return Objects.requireNonNullElseGet(negative, NegativeOption::new);
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return clazz == BitcoinJsonRpcCacheAutoConfigProperties.class;
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        BitcoinJsonRpcCacheAutoConfigProperties properties = (BitcoinJsonRpcCacheAutoConfigProperties) target;
+
+        DiskOption disk = properties.getDisk();
+        if (disk.isEnabled() && (disk.getDirectory() == null || disk.getDirectory().isBlank())) {
+            // a temporary directory would silently discard the store on reboot or be shared by unrelated processes
+            String errorMessage = "'disk.directory' must be set if the disk cache is enabled";
+            errors.rejectValue("disk.directory", "disk.directory.missing", errorMessage);
+        }
+    }
+
+    public enum CacheBackend {
+        GUAVA,
+        CAFFEINE
     }
 
     @Data
@@ -62,10 +189,254 @@ public class BitcoinJsonRpcCacheAutoConfigProperties {
 
         boolean enabled = true;
 
+        /**
+         * A guava cache specification, e.g. "maximumSize=1000,expireAfterAccess=30m".
+         * The "caffeine" backend accepts the same options - "concurrencyLevel" is ignored, as caffeine has no equivalent.
+         */
         String specification = "";
 
+        /**
+         * Whether entries are weighed by their (estimated) serialized size in bytes.
+         * Requires "maximumWeight" instead of "maximumSize" in the specification.
+         */
+        boolean weighBySize = false;
+
         public CacheBuilderSpec getCacheBuilderSpec() {
             return enabled && specification != null ? CacheBuilderSpec.parse(specification) : CacheBuilderSpec.disableCaching();
         }
     }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DiskOption {
+        private static final DataSize DEFAULT_SEGMENT_SIZE = DataSize.ofMegabytes(256);
+
+        /**
+         * Whether loaded blocks and transactions should be persisted to disk.
+         */
+        boolean enabled = false;
+
+        /**
+         * Directory of the persistent store - required if enabled. Each network uses its own subdirectory.
+         */
+        String directory;
+
+        /**
+         * Size of a single segment file - must be large enough to hold the largest block.
+         */
+        DataSize segmentSize;
+
+        public Path getDirectoryPath() {
+            return Path.of(Objects.requireNonNull(directory, "'directory' must not be null"));
+        }
+
+        public DataSize getSegmentSize() {
+            return Objects.requireNonNullElse(segmentSize, DEFAULT_SEGMENT_SIZE);
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class HeightIndexOption {
+        private static final int DEFAULT_MAX_SIZE = 10_000;
+        private static final int DEFAULT_MAX_REORG_DEPTH = 10;
+
+        /**
+         * Whether the height index should be enabled. The index is only created if a zeromq block publisher
+         * is available.
+         */
+        boolean enabled = true;
+
+        /**
+         * Maximum number of indexed heights - the lowest heights are removed first.
+         */
+        Integer maxSize;
+
+        /**
+         * Maximum number of blocks below a new tip that are checked for a reorg.
+         */
+        Integer maxReorgDepth;
+
+        public int getMaxSize() {
+            return Objects.requireNonNullElse(maxSize, DEFAULT_MAX_SIZE);
+        }
+
+        public int getMaxReorgDepth() {
+            return Objects.requireNonNullElse(maxReorgDepth, DEFAULT_MAX_REORG_DEPTH);
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PrefetchOption {
+        private static final int DEFAULT_WINDOW_SIZE = 16;
+        private static final int DEFAULT_SEQUENTIAL_THRESHOLD = 3;
+        private static final int DEFAULT_PARALLELISM = 2;
+        private static final DataSize DEFAULT_MAX_PREFETCHED_SIZE = DataSize.ofMegabytes(64);
+
+        /**
+         * Whether the block prefetcher should be enabled.
+         */
+        boolean enabled = true;
+
+        /**
+         * Number of blocks loaded ahead of the current position of a sequential scan.
+         */
+        Integer windowSize;
+
+        /**
+         * Number of consecutive heights that must be requested before prefetching starts.
+         */
+        Integer sequentialThreshold;
+
+        /**
+         * Number of chunks loaded in parallel.
+         */
+        Integer parallelism;
+
+        /**
+         * Maximum serialized size of all prefetched blocks that have not been requested yet.
+         */
+        DataSize maxPrefetchedSize;
+
+        public int getWindowSize() {
+            return Objects.requireNonNullElse(windowSize, DEFAULT_WINDOW_SIZE);
+        }
+
+        public int getSequentialThreshold() {
+            return Objects.requireNonNullElse(sequentialThreshold, DEFAULT_SEQUENTIAL_THRESHOLD);
+        }
+
+        public int getParallelism() {
+            return Objects.requireNonNullElse(parallelism, DEFAULT_PARALLELISM);
+        }
+
+        public DataSize getMaxPrefetchedSize() {
+            return Objects.requireNonNullElse(maxPrefetchedSize, DEFAULT_MAX_PREFETCHED_SIZE);
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MempoolOption {
+        private static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofSeconds(1);
+        private static final Duration DEFAULT_RESYNC_INTERVAL = Duration.ofMinutes(10);
+
+        /**
+         * Whether the mempool mirror should be enabled. Bootstrapping fetches the whole mempool of the node.
+         */
+        boolean enabled = false;
+
+        /**
+         * Interval in which entries of new transactions are fetched.
+         */
+        Duration refreshInterval;
+
+        /**
+         * Interval in which the mirror is compared with the node's mempool to drop evicted transactions.
+         */
+        Duration resyncInterval;
+
+        public Duration getRefreshInterval() {
+            return Objects.requireNonNullElse(refreshInterval, DEFAULT_REFRESH_INTERVAL);
+        }
+
+        public Duration getResyncInterval() {
+            return Objects.requireNonNullElse(resyncInterval, DEFAULT_RESYNC_INTERVAL);
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class WarmUpOption {
+        private static final int DEFAULT_BLOCKS = 10;
+        private static final int DEFAULT_PARALLELISM = 2;
+        private static final int DEFAULT_MAX_TRANSACTIONS = 1_000;
+        private static final Duration DEFAULT_TIMEOUT = Duration.ofMinutes(2);
+
+        /**
+         * Whether recent blocks should be loaded into the caches on startup.
+         * The application does not report readiness before the warm-up completed or timed out.
+         */
+        boolean enabled = false;
+
+        /**
+         * Number of most recent blocks to load.
+         */
+        Integer blocks;
+
+        /**
+         * Whether the transactions of the loaded blocks should be put into the transaction cache.
+         */
+        boolean transactions = false;
+
+        /**
+         * Maximum number of transactions put into the transaction cache - transactions of the most
+         * recent blocks are preferred. Keep it well below the size of the cache to not evict all of its entries.
+         */
+        Integer maxTransactions;
+
+        /**
+         * Number of chunks of blocks loaded in parallel.
+         */
+        Integer parallelism;
+
+        /**
+         * Maximum time to wait for the warm-up before the application reports readiness.
+         */
+        Duration timeout;
+
+        public int getBlocks() {
+            return Objects.requireNonNullElse(blocks, DEFAULT_BLOCKS);
+        }
+
+        public int getParallelism() {
+            return Objects.requireNonNullElse(parallelism, DEFAULT_PARALLELISM);
+        }
+
+        public int getMaxTransactions() {
+            return Objects.requireNonNullElse(maxTransactions, DEFAULT_MAX_TRANSACTIONS);
+        }
+
+        public Duration getTimeout() {
+            return Objects.requireNonNullElse(timeout, DEFAULT_TIMEOUT);
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class NegativeOption {
+        private static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofSeconds(10);
+        private static final long DEFAULT_MAX_SIZE = 10_000;
+
+        /**
+         * Whether unknown transactions and blocks should be remembered. If enabled, lookups of unknown keys
+         * fail with an "EntryNotFoundException" wrapping the error reported by the node.
+         */
+        boolean enabled = false;
+
+        /**
+         * Time an unknown key is remembered - entries are invalidated earlier if the key is announced via zeromq.
+         */
+        Duration timeToLive;
+
+        /**
+         * Maximum number of remembered keys per cache.
+         */
+        Long maxSize;
+
+        public Duration getTimeToLive() {
+            return Objects.requireNonNullElse(timeToLive, DEFAULT_TIME_TO_LIVE);
+        }
+
+        public long getMaxSize() {
+            return Objects.requireNonNullElse(maxSize, DEFAULT_MAX_SIZE);
+        }
+    }
 }
@@ -1,16 +1,23 @@
 package org.tbk.bitcoin.jsonrpc.config;
 
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheBuilderSpec;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.cache.Weigher;
 import lombok.Builder;
 import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
 import org.bitcoinj.core.Block;
+import org.bitcoinj.core.NetworkParameters;
 import org.bitcoinj.core.Sha256Hash;
 import org.bitcoinj.core.Transaction;
 import org.consensusj.bitcoin.json.pojo.BlockInfo;
 import org.consensusj.bitcoin.json.pojo.RawTransactionInfo;
 import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -19,12 +26,26 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ClassUtils;
+import org.tbk.bitcoin.jsonrpc.BitcoinJsonRpcBatchClient;
+import org.tbk.bitcoin.jsonrpc.BitcoinRestClient;
+import org.tbk.bitcoin.jsonrpc.BlockchainScanner;
 import org.tbk.bitcoin.jsonrpc.cache.*;
+import org.tbk.bitcoin.zeromq.client.MessagePublishService;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
 
+import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
 
+@Slf4j
 @Configuration(proxyBeanMethods = false)
 @EnableConfigurationProperties(BitcoinJsonRpcCacheAutoConfigProperties.class)
 @ConditionalOnClass({
@@ -32,7 +53,9 @@ import static java.util.Objects.requireNonNull;
         BitcoinClient.class
 })
 @ConditionalOnProperty(value = "org.tbk.bitcoin.jsonrpc-cache.enabled", havingValue = "true", matchIfMissing = true)
-@AutoConfigureAfter(BitcoinJsonRpcClientAutoConfiguration.class)
+@AutoConfigureAfter(value = BitcoinJsonRpcClientAutoConfiguration.class, name = {
+        "org.tbk.bitcoin.zeromq.config.BitcoinjZeroMqClientAutoConfiguration"
+})
 public class BitcoinJsonRpcCacheAutoConfiguration {
 
     private final BitcoinJsonRpcCacheAutoConfigProperties properties;
@@ -41,59 +64,117 @@ public class BitcoinJsonRpcCacheAutoConfiguration {
         this.properties = requireNonNull(properties);
     }
 
+    @Bean(destroyMethod = "close")
+    @ConditionalOnBean(BitcoinClient.class)
+    @ConditionalOnProperty(value = "org.tbk.bitcoin.jsonrpc-cache.disk.enabled", havingValue = "true")
+    SegmentStore bitcoinJsonRpcTransactionDiskStore(BitcoinClient bitcoinClient) throws IOException {
+        return openDiskStore(bitcoinClient.getNetParams(), "transactions");
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnBean(BitcoinClient.class)
+    @ConditionalOnProperty(value = "org.tbk.bitcoin.jsonrpc-cache.disk.enabled", havingValue = "true")
+    SegmentStore bitcoinJsonRpcBlockDiskStore(BitcoinClient bitcoinClient) throws IOException {
+        return openDiskStore(bitcoinClient.getNetParams(), "blocks");
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "org.tbk.bitcoin.jsonrpc-cache.negative.enabled", havingValue = "true")
+    NegativeCache bitcoinJsonRpcTransactionNegativeCache() {
+        return newNegativeCache("tx");
+    }
+
     @Bean
+    @ConditionalOnProperty(value = "org.tbk.bitcoin.jsonrpc-cache.negative.enabled", havingValue = "true")
+    NegativeCache bitcoinJsonRpcRawTransactionInfoNegativeCache() {
+        return newNegativeCache("txInfo");
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "org.tbk.bitcoin.jsonrpc-cache.negative.enabled", havingValue = "true")
+    NegativeCache bitcoinJsonRpcBlockNegativeCache() {
+        return newNegativeCache("block");
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "org.tbk.bitcoin.jsonrpc-cache.negative.enabled", havingValue = "true")
+    NegativeCache bitcoinJsonRpcBlockInfoNegativeCache() {
+        return newNegativeCache("blockInfo");
+    }
+
+    @Bean(destroyMethod = "close")
     @ConditionalOnBean(BitcoinClient.class)
     @ConditionalOnMissingBean(TransactionCache.class)
-    TransactionCache bitcoinJsonRpcTransactionCache(BitcoinClient bitcoinClient) {
-        LoadingCache<Sha256Hash, Transaction> cache = CacheBuilder.from(properties.getTransaction().getCacheBuilderSpec())
-                .build(new CacheLoader<>() {
-                    @Override
-                    public Transaction load(Sha256Hash key) throws IOException {
-                        return bitcoinClient.getRawTransaction(key);
-                    }
-                });
+    TransactionCache bitcoinJsonRpcTransactionCache(BitcoinClient bitcoinClient,
+                                                    ObjectProvider<BitcoinJsonRpcBatchClient> bitcoinJsonRpcBatchClient,
+                                                    ObjectProvider<BitcoinRestClient> bitcoinRestClient,
+                                                    @Qualifier("bitcoinJsonRpcTransactionDiskStore") ObjectProvider<SegmentStore> diskStore,
+                                                    @Qualifier("bitcoinJsonRpcTransactionNegativeCache") ObjectProvider<NegativeCache> negativeCache) {
+        CacheLoader<Sha256Hash, Transaction> loader = BatchCacheLoader.transactions(bitcoinClient, bitcoinJsonRpcBatchClient.getIfUnique(), properties.getMaxBatchSize());
+
+        BitcoinRestClient restClient = bitcoinRestClient.getIfUnique();
+        if (restClient != null) {
+            loader = RestCacheLoader.transactions(restClient, loader);
+        }
+
+        SegmentStore store = diskStore.getIfAvailable();
+        if (store != null) {
+            loader = DiskCacheLoader.transactions(loader, store, bitcoinClient.getNetParams());
+        }
+
+        LoadingCache<Sha256Hash, Transaction> cache = buildCache(properties.getTransaction(),
+                CacheWeighers.transactions(),
+                withNegativeCache(negativeCache, loader));
         return new TransactionCache(cache);
     }
 
-    @Bean
+    @Bean(destroyMethod = "close")
     @ConditionalOnBean(BitcoinClient.class)
     @ConditionalOnMissingBean(RawTransactionInfoCache.class)
-    RawTransactionInfoCache bitcoinJsonRpcRawTransactionInfoCache(BitcoinClient bitcoinClient) {
-        LoadingCache<Sha256Hash, RawTransactionInfo> cache = CacheBuilder.from(properties.getTransaction().getCacheBuilderSpec())
-                .build(new CacheLoader<>() {
-                    @Override
-                    public RawTransactionInfo load(Sha256Hash key) throws IOException {
-                        return bitcoinClient.getRawTransactionInfo(key);
-                    }
-                });
+    RawTransactionInfoCache bitcoinJsonRpcRawTransactionInfoCache(BitcoinClient bitcoinClient,
+                                                                  ObjectProvider<BitcoinJsonRpcBatchClient> bitcoinJsonRpcBatchClient,
+                                                                  @Qualifier("bitcoinJsonRpcRawTransactionInfoNegativeCache") ObjectProvider<NegativeCache> negativeCache) {
+        LoadingCache<Sha256Hash, RawTransactionInfo> cache = buildCache(properties.getRawTransactionInfo(),
+                CacheWeighers.rawTransactionInfos(),
+                withNegativeCache(negativeCache, BatchCacheLoader.rawTransactionInfos(bitcoinClient, bitcoinJsonRpcBatchClient.getIfUnique(), properties.getMaxBatchSize())));
         return new RawTransactionInfoCache(cache);
     }
 
-    @Bean
+    @Bean(destroyMethod = "close")
     @ConditionalOnBean(BitcoinClient.class)
     @ConditionalOnMissingBean(BlockCache.class)
-    BlockCache bitcoinJsonRpcBlockCache(BitcoinClient bitcoinClient) {
-        LoadingCache<Sha256Hash, Block> cache = CacheBuilder.from(properties.getTransaction().getCacheBuilderSpec())
-                .build(new CacheLoader<>() {
-                    @Override
-                    public Block load(Sha256Hash key) throws IOException {
-                        return bitcoinClient.getBlock(key);
-                    }
-                });
+    BlockCache bitcoinJsonRpcBlockCache(BitcoinClient bitcoinClient,
+                                        ObjectProvider<BitcoinJsonRpcBatchClient> bitcoinJsonRpcBatchClient,
+                                        ObjectProvider<BitcoinRestClient> bitcoinRestClient,
+                                        @Qualifier("bitcoinJsonRpcBlockDiskStore") ObjectProvider<SegmentStore> diskStore,
+                                        @Qualifier("bitcoinJsonRpcBlockNegativeCache") ObjectProvider<NegativeCache> negativeCache) {
+        CacheLoader<Sha256Hash, Block> loader = BatchCacheLoader.blocks(bitcoinClient, bitcoinJsonRpcBatchClient.getIfUnique(), properties.getMaxBlockBatchSize());
+
+        BitcoinRestClient restClient = bitcoinRestClient.getIfUnique();
+        if (restClient != null) {
+            loader = RestCacheLoader.blocks(restClient, loader);
+        }
+
+        SegmentStore store = diskStore.getIfAvailable();
+        if (store != null) {
+            loader = DiskCacheLoader.blocks(loader, store, bitcoinClient.getNetParams());
+        }
+
+        LoadingCache<Sha256Hash, Block> cache = buildCache(properties.getBlock(),
+                CacheWeighers.blocks(),
+                withNegativeCache(negativeCache, loader));
         return new BlockCache(cache);
     }
 
-    @Bean
+    @Bean(destroyMethod = "close")
     @ConditionalOnBean(BitcoinClient.class)
     @ConditionalOnMissingBean(BlockInfoCache.class)
-    BlockInfoCache bitcoinJsonRpcBlockInfoCache(BitcoinClient bitcoinClient) {
-        LoadingCache<Sha256Hash, BlockInfo> cache = CacheBuilder.from(properties.getTransaction().getCacheBuilderSpec())
-                .build(new CacheLoader<>() {
-                    @Override
-                    public BlockInfo load(Sha256Hash key) throws IOException {
-                        return bitcoinClient.getBlockInfo(key);
-                    }
-                });
+    BlockInfoCache bitcoinJsonRpcBlockInfoCache(BitcoinClient bitcoinClient,
+                                                ObjectProvider<BitcoinJsonRpcBatchClient> bitcoinJsonRpcBatchClient,
+                                                @Qualifier("bitcoinJsonRpcBlockInfoNegativeCache") ObjectProvider<NegativeCache> negativeCache) {
+        LoadingCache<Sha256Hash, BlockInfo> cache = buildCache(properties.getBlockInfo(),
+                CacheWeighers.blockInfos(),
+                withNegativeCache(negativeCache, BatchCacheLoader.blockInfos(bitcoinClient, bitcoinJsonRpcBatchClient.getIfUnique(), properties.getMaxBatchSize())));
         return new BlockInfoCache(cache);
     }
 
@@ -117,6 +198,245 @@ public class BitcoinJsonRpcCacheAutoConfiguration {
                 .build();
     }
 
+    /**
+     * The index is only kept in sync with the node by block notifications - without a block publisher,
+     * it would serve orphaned blocks near the tip after a reorg.
+     */
+    @Bean
+    @ConditionalOnBean(value = {
+            BitcoinClient.class,
+            BlockCache.class,
+            BlockInfoCache.class
+    }, name = "bitcoinjBlockPublishService")
+    @ConditionalOnMissingBean(BlockHeightIndex.class)
+    @ConditionalOnProperty(value = "org.tbk.bitcoin.jsonrpc-cache.height-index.enabled", havingValue = "true", matchIfMissing = true)
+    BlockHeightIndex bitcoinJsonRpcBlockHeightIndex(BitcoinClient bitcoinClient,
+                                                    BlockCache blockCache,
+                                                    BlockInfoCache blockInfoCache) {
+        return BlockHeightIndex.builder()
+                .client(bitcoinClient)
+                .blockCache(blockCache)
+                .blockInfoCache(blockInfoCache)
+                .maxSize(properties.getHeightIndex().getMaxSize())
+                .maxReorgDepth(properties.getHeightIndex().getMaxReorgDepth())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnBean(BlockHeightIndex.class)
+    @ConditionalOnMissingBean(BlockPrefetcher.class)
+    @ConditionalOnProperty(value = "org.tbk.bitcoin.jsonrpc-cache.prefetch.enabled", havingValue = "true", matchIfMissing = true)
+    BlockPrefetcher bitcoinJsonRpcBlockPrefetcher(BlockHeightIndex blockHeightIndex) {
+        BitcoinJsonRpcCacheAutoConfigProperties.PrefetchOption prefetch = properties.getPrefetch();
+
+        return BlockPrefetcher.builder()
+                .heightIndex(blockHeightIndex)
+                .windowSize(prefetch.getWindowSize())
+                .sequentialThreshold(prefetch.getSequentialThreshold())
+                .parallelism(prefetch.getParallelism())
+                .maxPrefetchedBytes(prefetch.getMaxPrefetchedSize().toBytes())
+                .build();
+    }
+
+    /**
+     * Scans read through the prefetcher if one is available, so sequential scans trigger read-ahead.
+     */
+    @Bean
+    @ConditionalOnBean(BlockHeightIndex.class)
+    @ConditionalOnMissingBean(BlockchainScanner.BlockSource.class)
+    BlockchainScanner.BlockSource bitcoinJsonRpcCachedBlockSource(BlockHeightIndex blockHeightIndex,
+                                                                  ObjectProvider<BlockPrefetcher> blockPrefetcher) {
+        BlockPrefetcher prefetcher = blockPrefetcher.getIfUnique();
+        return prefetcher != null ? prefetcher::getBlock : blockHeightIndex::getBlock;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnBean(BitcoinClient.class)
+    @ConditionalOnMissingBean(MempoolMirror.class)
+    @ConditionalOnProperty(value = "org.tbk.bitcoin.jsonrpc-cache.mempool.enabled", havingValue = "true")
+    MempoolMirror bitcoinJsonRpcMempoolMirror(BitcoinClient bitcoinClient,
+                                              ObjectProvider<BitcoinJsonRpcBatchClient> bitcoinJsonRpcBatchClient) {
+        BitcoinJsonRpcCacheAutoConfigProperties.MempoolOption mempool = properties.getMempool();
+
+        return MempoolMirror.builder()
+                .client(bitcoinClient)
+                .batchClient(bitcoinJsonRpcBatchClient.getIfUnique())
+                .refreshInterval(mempool.getRefreshInterval())
+                .resyncInterval(mempool.getResyncInterval())
+                .maxBatchSize(properties.getMaxBatchSize())
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnBean({
+            BitcoinClient.class,
+            BlockCache.class
+    })
+    @ConditionalOnMissingBean(CacheWarmUp.class)
+    @ConditionalOnProperty(value = "org.tbk.bitcoin.jsonrpc-cache.warm-up.enabled", havingValue = "true")
+    CacheWarmUp bitcoinJsonRpcCacheWarmUp(BitcoinClient bitcoinClient,
+                                          ObjectProvider<BitcoinJsonRpcBatchClient> bitcoinJsonRpcBatchClient,
+                                          BlockCache blockCache,
+                                          ObjectProvider<TransactionCache> transactionCache) {
+        BitcoinJsonRpcCacheAutoConfigProperties.WarmUpOption warmUp = properties.getWarmUp();
+
+        return CacheWarmUp.builder()
+                .client(bitcoinClient)
+                .batchClient(bitcoinJsonRpcBatchClient.getIfUnique())
+                .blockCache(blockCache)
+                .transactionCache(warmUp.isTransactions() ? transactionCache.getIfUnique() : null)
+                .blockCount(warmUp.getBlocks())
+                .parallelism(warmUp.getParallelism())
+                .maxTransactions(warmUp.getMaxTransactions())
+                .build();
+    }
+
+    /**
+     * Runs the warm-up before the application is marked as ready - application runners are called
+     * before readiness switches to {@code ACCEPTING_TRAFFIC}.
+     */
+    @Bean
+    @ConditionalOnBean(CacheWarmUp.class)
+    ApplicationRunner bitcoinJsonRpcCacheWarmUpRunner(CacheWarmUp cacheWarmUp) {
+        return args -> {
+            try {
+                boolean completed = cacheWarmUp.run(properties.getWarmUp().getTimeout());
+                if (!completed) {
+                    log.warn("Cache warm-up did not complete - continuing with partially filled caches");
+                }
+            } catch (IOException e) {
+                log.warn("Cache warm-up failed - continuing with empty caches: {}", e.getMessage());
+            }
+        };
+    }
+
+    /**
+     * Keeps the caches in sync with the node if zeromq publishers are available:
+     * <ul>
+     *     <li>announced transactions and blocks are forgotten by the negative caches</li>
+     *     <li>blocks update the height index</li>
+     *     <li>transactions and blocks update the mempool mirror - without a block publisher,
+     *     confirmed transactions are only removed on resync</li>
+     * </ul>
+     */
+    @Slf4j
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = {
+            "org.tbk.bitcoin.zeromq.client.MessagePublishService",
+            "org.bitcoinj.core.Block"
+    })
+    static class NotificationConfiguration {
+
+        // member classes are processed before the beans of the enclosing configuration -
+        // hence, all consumers are resolved lazily instead of being guarded by conditions.
+        // every publisher is subscribed once, so consumers see notifications in a fixed order: unknown keys
+        // are forgotten before the height index loads block infos. updating the index may ask the node -
+        // notifications are handed off the thread receiving them.
+        @Bean(destroyMethod = "dispose")
+        Disposable bitcoinJsonRpcCacheNotificationSubscription(ObjectProvider<NegativeCache> negativeCaches,
+                                                               ObjectProvider<BlockHeightIndex> blockHeightIndex,
+                                                               ObjectProvider<MempoolMirror> mempoolMirror,
+                                                               ObjectProvider<MessagePublishService<Transaction>> bitcoinjTransactionPublishService,
+                                                               ObjectProvider<MessagePublishService<Block>> bitcoinjBlockPublishService) {
+            Disposable.Composite subscriptions = Disposables.composite();
+
+            MessagePublishService<Transaction> transactionPublishService = bitcoinjTransactionPublishService.getIfUnique();
+            if (transactionPublishService != null) {
+                subscriptions.add(Flux.from(transactionPublishService)
+                        .publishOn(Schedulers.boundedElastic())
+                        .subscribe(tx -> {
+                            negativeCaches.forEach(cache -> cache.invalidate(tx.getTxId()));
+                            mempoolMirror.ifAvailable(mirror -> update("mempool mirror", tx.getTxId(), () -> mirror.onTransaction(tx)));
+                        }, e -> log.warn("Transaction notifications terminated with error - caches are no longer updated", e)));
+            }
+
+            MessagePublishService<Block> blockPublishService = bitcoinjBlockPublishService.getIfUnique();
+            if (blockPublishService != null) {
+                subscriptions.add(Flux.from(blockPublishService)
+                        .publishOn(Schedulers.boundedElastic())
+                        .subscribe(block -> {
+                            negativeCaches.forEach(cache -> {
+                                cache.invalidate(block.getHash());
+                                Optional.ofNullable(block.getTransactions()).orElse(List.of())
+                                        .forEach(tx -> cache.invalidate(tx.getTxId()));
+                            });
+                            blockHeightIndex.ifAvailable(index -> update("height index", block.getHash(), () -> index.onBlock(block)));
+                            mempoolMirror.ifAvailable(mirror -> update("mempool mirror", block.getHash(), () -> mirror.onBlock(block)));
+                        }, e -> log.warn("Block notifications terminated with error - caches are no longer updated", e)));
+            }
+
+            return subscriptions;
+        }
+
+        // an error of one consumer must neither affect the others nor terminate the subscription
+        private static void update(String consumer, Sha256Hash hash, Update update) {
+            try {
+                update.run();
+            } catch (Exception e) {
+                log.warn("Error while updating {} with {}: {}", consumer, hash, e.getMessage());
+            }
+        }
+
+        @FunctionalInterface
+        private interface Update {
+            void run() throws Exception;
+        }
+    }
+
+    private SegmentStore openDiskStore(NetworkParameters params, String name) throws IOException {
+        BitcoinJsonRpcCacheAutoConfigProperties.DiskOption disk = properties.getDisk();
+
+        Path directory = disk.getDirectoryPath()
+                .resolve(params.getId())
+                .resolve(name);
+
+        return SegmentStore.open(directory, Math.toIntExact(disk.getSegmentSize().toBytes()));
+    }
+
+    private NegativeCache newNegativeCache(String name) {
+        BitcoinJsonRpcCacheAutoConfigProperties.NegativeOption negative = properties.getNegative();
+
+        return NegativeCache.builder()
+                .name(name)
+                .timeToLive(negative.getTimeToLive())
+                .maxSize(negative.getMaxSize())
+                .build();
+    }
+
+    // unknown keys are remembered before any other tier is asked - the disk store never contains them anyway
+    private static <V> CacheLoader<Sha256Hash, V> withNegativeCache(ObjectProvider<NegativeCache> negativeCache,
+                                                                    CacheLoader<Sha256Hash, V> loader) {
+        NegativeCache cache = negativeCache.getIfAvailable();
+        return cache != null ? cache.wrap(loader) : loader;
+    }
+
+    /**
+     * Builds a cache from the given option. The weigher is only applied if the option enables weighing by size -
+     * neither guava nor caffeine allow combining a weigher with {@code maximumSize}.
+     */
+    private <V> LoadingCache<Sha256Hash, V> buildCache(BitcoinJsonRpcCacheAutoConfigProperties.CacheBuilderSpecOption option,
+                                                     Weigher<Sha256Hash, V> weigher,
+                                                     CacheLoader<Sha256Hash, V> loader) {
+        CacheBuilderSpec spec = option.getCacheBuilderSpec();
+        Weigher<Sha256Hash, V> weigherOrNull = option.isWeighBySize() ? weigher : null;
+
+        if (properties.getBackend() == BitcoinJsonRpcCacheAutoConfigProperties.CacheBackend.CAFFEINE) {
+            checkState(ClassUtils.isPresent("com.github.benmanes.caffeine.cache.Caffeine", getClass().getClassLoader()),
+                    "Cache backend 'caffeine' requires caffeine on the classpath");
+
+            return CaffeineLoadingCache.<Sha256Hash, V>builder()
+                    .specification(spec.toParsableString())
+                    .weigher(weigherOrNull)
+                    .loader(loader)
+                    .loaderThreads(properties.getLoaderThreads())
+                    .build();
+        }
+
+        CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.from(spec);
+
+        return weigherOrNull != null ? cacheBuilder.weigher(weigherOrNull).build(loader) : cacheBuilder.build(loader);
+    }
+
     @Builder
     public static class SimpleCacheFacade implements CacheFacade {
         @NonNull
@@ -2,12 +2,16 @@ package org.tbk.bitcoin.jsonrpc.config;
 
 import com.google.common.base.Strings;
 import lombok.AllArgsConstructor;
+import lombok.Data;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.ConstructorBinding;
 import org.springframework.validation.Errors;
 import org.springframework.validation.Validator;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -17,7 +21,33 @@ import java.util.Objects;
  * "rpchost": "0.0.0.0",
  * "rpcport": 7000,
  * "rpcuser": "myrpcuser",
- * "rpcpassword": "correct horse battery staple"
+ * "rpcpassword": "correct horse battery staple",
+ * "async": {
+ *   "enabled": true,
+ *   "max-concurrent-requests": 4,
+ *   "max-queue-size": 10000,
+ *   "max-queue-wait": "30s"
+ * },
+ * "rest": {
+ *   "enabled": false,
+ *   "request-timeout": "30s"
+ * },
+ * "metrics": {
+ *   "refresh-interval": "10s",
+ *   "requests": {
+ *     "enabled": true
+ *   }
+ * },
+ * "load-balancing": {
+ *   "replicas": [{
+ *     "rpchost": "http://192.168.0.3",
+ *     "rpcport": 7000
+ *   }],
+ *   "health-check-interval": "10s",
+ *   "max-tip-lag": 2,
+ *   "max-consecutive-errors": 3,
+ *   "ejection-duration": "30s"
+ * }
  * }
  */
 @ConfigurationProperties(
@@ -63,11 +93,46 @@ public class BitcoinJsonRpcClientAutoConfigProperties implements Validator {
      */
     private String rpcpassword;
 
+    /**
+     * Settings of the asynchronous client limiting the number of concurrent requests.
+     */
+    private AsyncProperties async;
+
+    /**
+     * Settings of the client fetching raw blocks and transactions via bitcoind's REST interface.
+     */
+    private RestProperties rest;
+
+    /**
+     * Settings of the metrics exposing node information.
+     */
+    private MetricsProperties metrics;
+
+    /**
+     * Settings for distributing requests over additional nodes.
+     */
+    private LoadBalancingProperties loadBalancing;
 
     public Network getNetwork() {
         return Objects.requireNonNullElse(network, Network.mainnet);
     }
 
+    public AsyncProperties getAsync() {
+        return Objects.requireNonNullElseGet(async, AsyncProperties::new);
+    }
+
+    public RestProperties getRest() {
+        return Objects.requireNonNullElseGet(rest, RestProperties::new);
+    }
+
+    public MetricsProperties getMetrics() {
+        return Objects.requireNonNullElseGet(metrics, MetricsProperties::new);
+    }
+
+    public LoadBalancingProperties getLoadBalancing() {
+        return Objects.requireNonNullElseGet(loadBalancing, LoadBalancingProperties::new);
+    }
+
     @Override
     public boolean supports(Class<?> clazz) {
         return clazz == BitcoinJsonRpcClientAutoConfigProperties.class;
@@ -93,5 +158,246 @@ public class BitcoinJsonRpcClientAutoConfigProperties implements Validator {
                 errors.rejectValue("rpchost", "rpchost.invalid", errorMessage);
             }
         }
+
+        AsyncProperties async = properties.getAsync();
+        if (async.getMaxConcurrentRequests() <= 0) {
+            String errorMessage = String.format("'async.maxConcurrentRequests' must be positive - invalid value: %d", async.getMaxConcurrentRequests());
+            errors.rejectValue("async.maxConcurrentRequests", "async.maxConcurrentRequests.invalid", errorMessage);
+        }
+        if (async.getMaxQueueSize() <= 0) {
+            String errorMessage = String.format("'async.maxQueueSize' must be positive - invalid value: %d", async.getMaxQueueSize());
+            errors.rejectValue("async.maxQueueSize", "async.maxQueueSize.invalid", errorMessage);
+        }
+        if (async.getMaxQueueWait().isNegative() || async.getMaxQueueWait().isZero()) {
+            String errorMessage = String.format("'async.maxQueueWait' must be positive - invalid value: %s", async.getMaxQueueWait());
+            errors.rejectValue("async.maxQueueWait", "async.maxQueueWait.invalid", errorMessage);
+        }
+
+        RestProperties rest = properties.getRest();
+        if (rest.getRequestTimeout().isNegative() || rest.getRequestTimeout().isZero()) {
+            String errorMessage = String.format("'rest.requestTimeout' must be positive - invalid value: %s", rest.getRequestTimeout());
+            errors.rejectValue("rest.requestTimeout", "rest.requestTimeout.invalid", errorMessage);
+        }
+
+        MetricsProperties metrics = properties.getMetrics();
+        if (metrics.getRefreshInterval().isNegative() || metrics.getRefreshInterval().isZero()) {
+            String errorMessage = String.format("'metrics.refreshInterval' must be positive - invalid value: %s", metrics.getRefreshInterval());
+            errors.rejectValue("metrics.refreshInterval", "metrics.refreshInterval.invalid", errorMessage);
+        }
+
+        LoadBalancingProperties loadBalancing = properties.getLoadBalancing();
+        for (int i = 0; i < loadBalancing.getReplicas().size(); i++) {
+            ReplicaProperties replica = loadBalancing.getReplicas().get(i);
+            String field = "loadBalancing.replicas[%d]".formatted(i);
+
+            if (Strings.isNullOrEmpty(replica.getRpchost()) || !(replica.getRpchost().startsWith("http://") || replica.getRpchost().startsWith("https://"))) {
+                String errorMessage = String.format("Host must either start with 'http://' or 'https://' - invalid value: %s", replica.getRpchost());
+                errors.rejectValue(field + ".rpchost", "rpchost.invalid", errorMessage);
+            }
+            if (replica.getRpcport() <= 0) {
+                String errorMessage = String.format("Port must be positive - invalid value: %d", replica.getRpcport());
+                errors.rejectValue(field + ".rpcport", "rpcport.invalid", errorMessage);
+            }
+        }
+        if (loadBalancing.getMaxTipLag() < 0) {
+            String errorMessage = String.format("'loadBalancing.maxTipLag' must not be negative - invalid value: %d", loadBalancing.getMaxTipLag());
+            errors.rejectValue("loadBalancing.maxTipLag", "loadBalancing.maxTipLag.invalid", errorMessage);
+        }
+        if (loadBalancing.getMaxConsecutiveErrors() <= 0) {
+            String errorMessage = String.format("'loadBalancing.maxConsecutiveErrors' must be positive - invalid value: %d", loadBalancing.getMaxConsecutiveErrors());
+            errors.rejectValue("loadBalancing.maxConsecutiveErrors", "loadBalancing.maxConsecutiveErrors.invalid", errorMessage);
+        }
+        if (loadBalancing.getHealthCheckInterval().isNegative() || loadBalancing.getHealthCheckInterval().isZero()) {
+            String errorMessage = String.format("'loadBalancing.healthCheckInterval' must be positive - invalid value: %s", loadBalancing.getHealthCheckInterval());
+            errors.rejectValue("loadBalancing.healthCheckInterval", "loadBalancing.healthCheckInterval.invalid", errorMessage);
+        }
+        if (loadBalancing.getEjectionDuration().isNegative()) {
+            String errorMessage = String.format("'loadBalancing.ejectionDuration' must not be negative - invalid value: %s", loadBalancing.getEjectionDuration());
+            errors.rejectValue("loadBalancing.ejectionDuration", "loadBalancing.ejectionDuration.invalid", errorMessage);
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AsyncProperties {
+        private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 4;
+        private static final int DEFAULT_MAX_QUEUE_SIZE = 10_000;
+        private static final Duration DEFAULT_MAX_QUEUE_WAIT = Duration.ofSeconds(30);
+
+        /**
+         * Whether the asynchronous client should be enabled.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of requests in flight at the same time.
+         * Should not exceed the value of bitcoind's `-rpcthreads` (default: 4).
+         */
+        private Integer maxConcurrentRequests;
+
+        /**
+         * Maximum number of requests waiting for a free slot - further requests are rejected immediately.
+         */
+        private Integer maxQueueSize;
+
+        /**
+         * Maximum duration a request waits for a free slot before it fails.
+         */
+        private Duration maxQueueWait;
+
+        public int getMaxConcurrentRequests() {
+            return Objects.requireNonNullElse(maxConcurrentRequests, DEFAULT_MAX_CONCURRENT_REQUESTS);
+        }
+
+        public int getMaxQueueSize() {
+            return Objects.requireNonNullElse(maxQueueSize, DEFAULT_MAX_QUEUE_SIZE);
+        }
+
+        public Duration getMaxQueueWait() {
+            return Objects.requireNonNullElse(maxQueueWait, DEFAULT_MAX_QUEUE_WAIT);
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RestProperties {
+        private static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+        /**
+         * Whether raw blocks and transactions should be fetched via bitcoind's REST interface.
+         * Requires bitcoind to run with `-rest`.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Maximum duration of a single REST request.
+         */
+        private Duration requestTimeout;
+
+        public Duration getRequestTimeout() {
+            return Objects.requireNonNullElse(requestTimeout, DEFAULT_REQUEST_TIMEOUT);
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MetricsProperties {
+        private static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofSeconds(10);
+
+        /**
+         * Interval in which node information is fetched in the background.
+         * Scraping metrics only reads the last fetched values.
+         */
+        private Duration refreshInterval;
+
+        /**
+         * Settings of the per-method request metrics.
+         */
+        private RequestMetricsProperties requests;
+
+        public Duration getRefreshInterval() {
+            return Objects.requireNonNullElse(refreshInterval, DEFAULT_REFRESH_INTERVAL);
+        }
+
+        public RequestMetricsProperties getRequests() {
+            return Objects.requireNonNullElseGet(requests, RequestMetricsProperties::new);
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RequestMetricsProperties {
+
+        /**
+         * Whether latency, errors and in-flight requests should be recorded per RPC method.
+         * Only applies if a meter registry is available.
+         */
+        private boolean enabled = true;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LoadBalancingProperties {
+        private static final Duration DEFAULT_HEALTH_CHECK_INTERVAL = Duration.ofSeconds(10);
+        private static final int DEFAULT_MAX_TIP_LAG = 2;
+        private static final int DEFAULT_MAX_CONSECUTIVE_ERRORS = 3;
+        private static final Duration DEFAULT_EJECTION_DURATION = Duration.ofSeconds(30);
+
+        /**
+         * Additional nodes serving the same chain. Wallet calls are always sent to the node
+         * configured with `rpchost` and `rpcport`.
+         */
+        private List<ReplicaProperties> replicas;
+
+        /**
+         * Interval in which the chain tips of all nodes are compared.
+         */
+        private Duration healthCheckInterval;
+
+        /**
+         * Maximum number of blocks a node may lag behind the best known tip before it is ejected.
+         */
+        private Integer maxTipLag;
+
+        /**
+         * Number of consecutive connection errors after which a node is ejected.
+         */
+        private Integer maxConsecutiveErrors;
+
+        /**
+         * Duration a node is ejected for after consecutive connection errors.
+         */
+        private Duration ejectionDuration;
+
+        public List<ReplicaProperties> getReplicas() {
+            return Objects.requireNonNullElseGet(replicas, List::of);
+        }
+
+        public Duration getHealthCheckInterval() {
+            return Objects.requireNonNullElse(healthCheckInterval, DEFAULT_HEALTH_CHECK_INTERVAL);
+        }
+
+        public int getMaxTipLag() {
+            return Objects.requireNonNullElse(maxTipLag, DEFAULT_MAX_TIP_LAG);
+        }
+
+        public int getMaxConsecutiveErrors() {
+            return Objects.requireNonNullElse(maxConsecutiveErrors, DEFAULT_MAX_CONSECUTIVE_ERRORS);
+        }
+
+        public Duration getEjectionDuration() {
+            return Objects.requireNonNullElse(ejectionDuration, DEFAULT_EJECTION_DURATION);
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ReplicaProperties {
+
+        /**
+         * IP address or hostname of the node including http:// or https://
+         */
+        private String rpchost;
+
+        /**
+         * Port where the node is listening.
+         */
+        private int rpcport;
+
+        /**
+         * RPC username - defaults to `rpcuser` of the primary node.
+         */
+        private String rpcuser;
+
+        /**
+         * RPC password - defaults to `rpcpassword` of the primary node.
+         */
+        private String rpcpassword;
     }
 }
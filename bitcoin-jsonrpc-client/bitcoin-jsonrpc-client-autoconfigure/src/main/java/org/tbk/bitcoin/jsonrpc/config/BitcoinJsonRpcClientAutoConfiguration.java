@@ -1,5 +1,6 @@
 package org.tbk.bitcoin.jsonrpc.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.bitcoinj.core.NetworkParameters;
 import org.bitcoinj.params.MainNetParams;
 import org.bitcoinj.params.RegTestParams;
@@ -7,6 +8,7 @@ import org.bitcoinj.params.TestNet3Params;
 import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
 import org.consensusj.bitcoin.jsonrpc.RpcConfig;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -14,8 +16,17 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.tbk.bitcoin.jsonrpc.BitcoinJsonRpcAsyncClient;
+import org.tbk.bitcoin.jsonrpc.BitcoinJsonRpcBatchClient;
 import org.tbk.bitcoin.jsonrpc.BitcoinJsonRpcClientFactory;
 import org.tbk.bitcoin.jsonrpc.BitcoinJsonRpcClientFactoryImpl;
+import org.tbk.bitcoin.jsonrpc.BitcoinRestClient;
+import org.tbk.bitcoin.jsonrpc.BlockchainScanner;
+import org.tbk.bitcoin.jsonrpc.LoadBalancingBitcoinClient;
+import org.tbk.bitcoin.jsonrpc.MeteredBitcoinJsonRpcClientFactory;
+
+import java.util.List;
+import java.util.Optional;
 
 import static java.util.Objects.requireNonNull;
 
@@ -26,6 +37,11 @@ import static java.util.Objects.requireNonNull;
         BitcoinClient.class
 })
 @ConditionalOnProperty(value = "org.tbk.bitcoin.jsonrpc.enabled", havingValue = "true", matchIfMissing = true)
+@AutoConfigureAfter(name = {
+        "org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration",
+        "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration",
+        "org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration"
+})
 public class BitcoinJsonRpcClientAutoConfiguration {
 
     private final BitcoinJsonRpcClientAutoConfigProperties properties;
@@ -70,7 +86,102 @@ public class BitcoinJsonRpcClientAutoConfiguration {
     @Bean(destroyMethod = "close")
     @ConditionalOnMissingBean
     @ConditionalOnBean(RpcConfig.class)
-    BitcoinClient bitcoinJsonRpcClient(BitcoinJsonRpcClientFactory bitcoinClientFactory, RpcConfig rpcConfig) {
-        return bitcoinClientFactory.create(rpcConfig);
+    BitcoinClient bitcoinJsonRpcClient(BitcoinJsonRpcClientFactory bitcoinClientFactory,
+                                       RpcConfig rpcConfig,
+                                       ObjectProvider<RpcConfigBuilderCustomizer> rpcConfigBuilderCustomizer) {
+        BitcoinJsonRpcClientAutoConfigProperties.LoadBalancingProperties loadBalancing = properties.getLoadBalancing();
+        if (loadBalancing.getReplicas().isEmpty()) {
+            return bitcoinClientFactory.create(rpcConfig);
+        }
+
+        List<RpcConfig> replicas = loadBalancing.getReplicas().stream()
+                .map(replica -> {
+                    RpcConfigBuilder rpcConfigBuilder = new RpcConfigBuilder(rpcConfig.getNetParams(), replica.getRpchost(), replica.getRpcport())
+                            .username(Optional.ofNullable(replica.getRpcuser()).orElse(rpcConfig.getUsername()))
+                            .password(Optional.ofNullable(replica.getRpcpassword()).orElse(rpcConfig.getPassword()));
+
+                    rpcConfigBuilderCustomizer.orderedStream().forEach(customizer -> customizer.customize(rpcConfigBuilder));
+
+                    return rpcConfigBuilder.build();
+                })
+                .toList();
+
+        return LoadBalancingBitcoinClient.builder()
+                .primary(rpcConfig)
+                .replicas(replicas)
+                .clientFactory(bitcoinClientFactory)
+                .healthCheckInterval(loadBalancing.getHealthCheckInterval())
+                .maxTipLag(loadBalancing.getMaxTipLag())
+                .maxConsecutiveErrors(loadBalancing.getMaxConsecutiveErrors())
+                .ejectionDuration(loadBalancing.getEjectionDuration())
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnBean(RpcConfig.class)
+    BitcoinJsonRpcBatchClient bitcoinJsonRpcBatchClient(RpcConfig rpcConfig) {
+        return BitcoinJsonRpcBatchClient.builder()
+                .rpcConfig(rpcConfig)
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnBean(RpcConfig.class)
+    @ConditionalOnProperty(value = "org.tbk.bitcoin.jsonrpc.rest.enabled", havingValue = "true")
+    BitcoinRestClient bitcoinRestClient(RpcConfig rpcConfig) {
+        return BitcoinRestClient.builder()
+                .rpcConfig(rpcConfig)
+                .requestTimeout(properties.getRest().getRequestTimeout())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnBean(BitcoinClient.class)
+    @ConditionalOnProperty(value = "org.tbk.bitcoin.jsonrpc.async.enabled", havingValue = "true", matchIfMissing = true)
+    BitcoinJsonRpcAsyncClient bitcoinJsonRpcAsyncClient(BitcoinClient bitcoinClient) {
+        BitcoinJsonRpcClientAutoConfigProperties.AsyncProperties async = properties.getAsync();
+
+        return BitcoinJsonRpcAsyncClient.builder()
+                .client(bitcoinClient)
+                .maxConcurrentRequests(async.getMaxConcurrentRequests())
+                .maxQueueSize(async.getMaxQueueSize())
+                .maxQueueWait(async.getMaxQueueWait())
+                .build();
+    }
+
+    /**
+     * Creates clients recording per-method request metrics if a meter registry is available,
+     * instead of the default factory.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    @ConditionalOnBean(MeterRegistry.class)
+    @ConditionalOnProperty(value = "org.tbk.bitcoin.jsonrpc.metrics.requests.enabled", havingValue = "true", matchIfMissing = true)
+    static class MeteredClientFactoryConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        BitcoinJsonRpcClientFactory bitcoinJsonRpcClientFactory(MeterRegistry meterRegistry) {
+            return new MeteredBitcoinJsonRpcClientFactory(meterRegistry);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "reactor.core.publisher.Flux")
+    static class BlockchainScannerConfiguration {
+
+        @Bean(destroyMethod = "close")
+        @ConditionalOnMissingBean
+        @ConditionalOnBean(BitcoinClient.class)
+        BlockchainScanner bitcoinJsonRpcBlockchainScanner(BitcoinClient bitcoinClient,
+                                                          ObjectProvider<BlockchainScanner.BlockSource> blockSource) {
+            return BlockchainScanner.builder()
+                    .client(bitcoinClient)
+                    .blockSource(blockSource.getIfUnique())
+                    .build();
+        }
     }
 }
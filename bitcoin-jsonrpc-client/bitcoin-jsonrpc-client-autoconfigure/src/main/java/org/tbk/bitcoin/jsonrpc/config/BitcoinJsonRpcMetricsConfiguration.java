@@ -1,14 +1,17 @@
 package org.tbk.bitcoin.jsonrpc.config;
 
-import com.google.common.base.Suppliers;
 import com.google.common.primitives.Doubles;
 import com.google.common.primitives.Longs;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.micrometer.common.lang.NonNullApi;
 import io.micrometer.common.lang.NonNullFields;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
 import io.micrometer.core.instrument.binder.MeterBinder;
 import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
@@ -16,26 +19,39 @@ import org.bitcoinj.core.NetworkParameters;
 import org.consensusj.bitcoin.json.pojo.BlockChainInfo;
 import org.consensusj.bitcoin.json.pojo.NetworkInfo;
 import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.tbk.bitcoin.jsonrpc.BitcoinJsonRpcAsyncClient;
 import org.tbk.bitcoin.jsonrpc.cache.CacheFacade;
+import org.tbk.bitcoin.jsonrpc.cache.CacheWarmUp;
+import org.tbk.bitcoin.jsonrpc.cache.NegativeCache;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.util.concurrent.MoreExecutors.shutdownAndAwaitTermination;
 import static java.util.Objects.requireNonNull;
 
 @Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(BitcoinJsonRpcClientAutoConfigProperties.class)
 @ConditionalOnProperty(value = "org.tbk.bitcoin.jsonrpc.enabled", havingValue = "true", matchIfMissing = true)
 @ConditionalOnClass({
         MeterBinder.class,
@@ -62,19 +78,107 @@ public class BitcoinJsonRpcMetricsConfiguration {
             };
         }
 
+        @Bean
+        @ConditionalOnBean(NegativeCache.class)
+        MeterBinder bitcoinJsonRpcNegativeCacheMetrics(ObjectProvider<NegativeCache> negativeCaches) {
+            // hits are lookups of unknown keys answered without asking the node
+            return (registry) -> negativeCaches.orderedStream().forEach(negativeCache ->
+                    GuavaCacheMetrics.monitor(registry, negativeCache.asCache(), negativeCache.getName() + ".negative", Collections.emptyList()));
+        }
+
+        @Bean
+        @ConditionalOnBean(CacheWarmUp.class)
+        MeterBinder bitcoinJsonRpcCacheWarmUpMetrics(CacheWarmUp cacheWarmUp) {
+            return (registry) -> {
+                Gauge.builder("bitcoin.jsonrpc.cache.warmup.blocks.total", cacheWarmUp, CacheWarmUp::getTotalBlocks)
+                        .description("Number of blocks to load during the cache warm-up")
+                        .register(registry);
+
+                Gauge.builder("bitcoin.jsonrpc.cache.warmup.blocks.loaded", cacheWarmUp, CacheWarmUp::getLoadedBlocks)
+                        .description("Number of blocks loaded during the cache warm-up")
+                        .register(registry);
+
+                FunctionCounter.builder("bitcoin.jsonrpc.cache.warmup.transactions.loaded", cacheWarmUp, CacheWarmUp::getLoadedTransactions)
+                        .description("Number of transactions loaded during the cache warm-up")
+                        .register(registry);
+
+                TimeGauge.builder("bitcoin.jsonrpc.cache.warmup.duration", cacheWarmUp, TimeUnit.MILLISECONDS,
+                                it -> it.getDuration().toMillis())
+                        .description("Time spent warming up the caches")
+                        .register(registry);
+
+                Gauge.builder("bitcoin.jsonrpc.cache.warmup.done", cacheWarmUp, it -> it.isDone() ? 1 : 0)
+                        .description("Whether the cache warm-up has finished")
+                        .register(registry);
+            };
+        }
+
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(BitcoinJsonRpcAsyncClient.class)
+    public static class BitcoinJsonRpcAsyncClientMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnBean(BitcoinJsonRpcAsyncClient.class)
+        MeterBinder bitcoinJsonRpcAsyncClientMetrics(BitcoinJsonRpcAsyncClient asyncClient) {
+            return (registry) -> {
+                Gauge.builder("bitcoin.jsonrpc.async.in.flight", asyncClient, BitcoinJsonRpcAsyncClient::getInFlightCount)
+                        .description("Number of requests currently in flight")
+                        .register(registry);
+
+                Gauge.builder("bitcoin.jsonrpc.async.queued", asyncClient, BitcoinJsonRpcAsyncClient::getQueuedCount)
+                        .description("Number of requests waiting for a free slot")
+                        .register(registry);
+
+                Gauge.builder("bitcoin.jsonrpc.async.max.concurrent", asyncClient, BitcoinJsonRpcAsyncClient::getMaxConcurrentRequests)
+                        .description("Maximum number of requests in flight at the same time")
+                        .register(registry);
+
+                FunctionTimer.builder("bitcoin.jsonrpc.async.queue.wait", asyncClient,
+                                BitcoinJsonRpcAsyncClient::getStartedCount,
+                                BitcoinJsonRpcAsyncClient::getTotalQueueWaitNanos,
+                                TimeUnit.NANOSECONDS)
+                        .description("Time started requests had to wait for a free slot")
+                        .register(registry);
+
+                FunctionCounter.builder("bitcoin.jsonrpc.async.failed", asyncClient, BitcoinJsonRpcAsyncClient::getFailedCount)
+                        .description("Number of started requests that failed")
+                        .register(registry);
+
+                FunctionCounter.builder("bitcoin.jsonrpc.async.rejected", asyncClient, BitcoinJsonRpcAsyncClient::getRejectedCount)
+                        .description("Number of requests rejected because the queue was full")
+                        .register(registry);
+
+                FunctionCounter.builder("bitcoin.jsonrpc.async.queue.timeout", asyncClient, BitcoinJsonRpcAsyncClient::getQueueTimeoutCount)
+                        .description("Number of requests that did not get a free slot in time")
+                        .register(registry);
+            };
+        }
     }
 
 
-    @Bean
+    @Bean(destroyMethod = "close")
     @ConditionalOnBean(BitcoinClient.class)
-    BitcoinJsonRpcClientMetrics bitcoinJsonRpcClientMetrics(BitcoinClient client) {
-        return new BitcoinJsonRpcClientMetrics(client);
+    BitcoinJsonRpcClientMetrics bitcoinJsonRpcClientMetrics(BitcoinClient client,
+                                                            BitcoinJsonRpcClientAutoConfigProperties properties) {
+        return new BitcoinJsonRpcClientMetrics(client, Tags.empty(), properties.getMetrics().getRefreshInterval());
     }
 
+    /**
+     * Exposes node information as gauges. The information is refreshed by a background poller,
+     * so gauges only read the last snapshot and scraping metrics never waits for the node.
+     * The poller is started when the metrics are bound to a registry.
+     *
+     * <p>Values of a failed refresh are kept from the previous snapshot - their staleness is exposed
+     * as {@code bitcoin.jsonrpc.metrics.refresh.age}.
+     */
     @Slf4j
     @NonNullApi
     @NonNullFields
-    public static class BitcoinJsonRpcClientMetrics implements MeterBinder {
+    public static class BitcoinJsonRpcClientMetrics implements MeterBinder, AutoCloseable {
+        private static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofSeconds(10);
+
         private static final Function<Object, Optional<String>> tryParseString = (obj) -> Optional.ofNullable(obj)
                 .map(Object::toString);
         private static final Function<Object, Optional<Double>> tryParseDouble = (obj) -> tryParseString.andThen(it -> it
@@ -87,26 +191,42 @@ public class BitcoinJsonRpcMetricsConfiguration {
         private final BitcoinClient client;
         private final Iterable<Tag> tags;
         private final String network;
+        private final Duration refreshInterval;
 
-        private final Supplier<Optional<BlockChainInfo>> blockChainInfoSupplier = Suppliers
-                .memoizeWithExpiration(this::fetchBlockChainInfo, 1, TimeUnit.SECONDS);
+        private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+        private final AtomicLong lastSuccessfulRefreshNanos = new AtomicLong();
+        private volatile boolean refreshedSuccessfully;
 
-        private final Supplier<Optional<NetworkInfo>> networkInfoSupplier = Suppliers
-                .memoizeWithExpiration(this::fetchNetworkInfo, 1, TimeUnit.SECONDS);
+        // created on first bind - guarded by "this"
+        private ScheduledExecutorService scheduler;
+        private boolean closed;
 
-        private final Supplier<Optional<Map<String, Object>>> mempoolInfoSupplier = Suppliers
-                .memoizeWithExpiration(this::fetchMempoolInfo, 1, TimeUnit.SECONDS);
+        private final Supplier<Optional<BlockChainInfo>> blockChainInfoSupplier = () -> Optional
+                .ofNullable(snapshot.get().blockChainInfo());
 
-        private final Supplier<Optional<Map<String, Object>>> memoryInfoSupplier = Suppliers
-                .memoizeWithExpiration(this::fetchMemoryInfo, 1, TimeUnit.SECONDS);
+        private final Supplier<Optional<NetworkInfo>> networkInfoSupplier = () -> Optional
+                .ofNullable(snapshot.get().networkInfo());
+
+        private final Supplier<Optional<Map<String, Object>>> mempoolInfoSupplier = () -> Optional
+                .ofNullable(snapshot.get().mempoolInfo());
+
+        private final Supplier<Optional<Map<String, Object>>> memoryInfoSupplier = () -> Optional
+                .ofNullable(snapshot.get().memoryInfo());
 
         public BitcoinJsonRpcClientMetrics(BitcoinClient client) {
             this(client, Tags.empty());
         }
 
         public BitcoinJsonRpcClientMetrics(BitcoinClient client, Iterable<Tag> tags) {
+            this(client, tags, DEFAULT_REFRESH_INTERVAL);
+        }
+
+        public BitcoinJsonRpcClientMetrics(BitcoinClient client, Iterable<Tag> tags, Duration refreshInterval) {
+            checkArgument(!refreshInterval.isNegative() && !refreshInterval.isZero(), "'refreshInterval' must be positive");
+
             this.client = requireNonNull(client);
             this.tags = requireNonNull(tags);
+            this.refreshInterval = refreshInterval;
 
             this.network = Optional.of(client.getNetParams())
                     .map(NetworkParameters::getId)
@@ -115,10 +235,86 @@ public class BitcoinJsonRpcMetricsConfiguration {
 
         @Override
         public void bindTo(MeterRegistry registry) {
+            registerMeters(registry);
+            startRefreshing();
+        }
+
+        // visible for testing
+        void registerMeters(MeterRegistry registry) {
             registerBlockchainInfo(registry);
             registerNetworkInfo(registry);
             registerMempoolInfo(registry);
             registerMemoryInfo(registry);
+            registerRefreshAge(registry);
+        }
+
+        // visible for testing
+        synchronized boolean isRefreshing() {
+            return scheduler != null;
+        }
+
+        private synchronized void startRefreshing() {
+            if (scheduler != null || closed) {
+                return;
+            }
+
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder()
+                    .setNameFormat("bitcoin-jsonrpc-metrics-%d")
+                    .setDaemon(true)
+                    .build());
+            executor.setRemoveOnCancelPolicy(true);
+            this.scheduler = executor;
+
+            // a fixed delay prevents refreshes from piling up while the node is slow to respond
+            scheduler.scheduleWithFixedDelay(this::refresh, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public synchronized void close() {
+            closed = true;
+
+            if (scheduler == null) {
+                return;
+            }
+
+            boolean executorShutdownSuccessful = shutdownAndAwaitTermination(scheduler, Duration.ofSeconds(10));
+            if (!executorShutdownSuccessful) {
+                log.warn("unclean shutdown of executor service");
+            }
+        }
+
+        /**
+         * Fetches all information from the node and replaces the current snapshot.
+         */
+        void refresh() {
+            try {
+                Optional<BlockChainInfo> blockChainInfo = fetchBlockChainInfo();
+                Optional<NetworkInfo> networkInfo = fetchNetworkInfo();
+                Optional<Map<String, Object>> mempoolInfo = fetchMempoolInfo();
+                Optional<Map<String, Object>> memoryInfo = fetchMemoryInfo();
+
+                Snapshot previous = snapshot.get();
+                snapshot.set(new Snapshot(
+                        blockChainInfo.orElse(previous.blockChainInfo()),
+                        networkInfo.orElse(previous.networkInfo()),
+                        mempoolInfo.orElse(previous.mempoolInfo()),
+                        memoryInfo.orElse(previous.memoryInfo())
+                ));
+
+                boolean successful = blockChainInfo.isPresent() && networkInfo.isPresent()
+                        && mempoolInfo.isPresent() && memoryInfo.isPresent();
+                if (successful) {
+                    lastSuccessfulRefreshNanos.set(System.nanoTime());
+                    refreshedSuccessfully = true;
+                }
+            } catch (RuntimeException e) {
+                // an exception would cancel all subsequent refreshes
+                log.warn("Error while refreshing bitcoin jsonrpc client metrics: {}", e.getMessage());
+            }
+        }
+
+        private double refreshAgeNanos() {
+            return refreshedSuccessfully ? System.nanoTime() - lastSuccessfulRefreshNanos.get() : Double.NaN;
         }
 
         private Optional<BlockChainInfo> fetchBlockChainInfo() {
@@ -182,6 +378,13 @@ public class BitcoinJsonRpcMetricsConfiguration {
             }
         }
 
+        private void registerRefreshAge(MeterRegistry registry) {
+            TimeGauge.builder("bitcoin.jsonrpc.metrics.refresh.age", this, TimeUnit.NANOSECONDS, BitcoinJsonRpcClientMetrics::refreshAgeNanos)
+                    .tags(tags).tag("network", this.network)
+                    .description("Time since node information has last been refreshed successfully")
+                    .register(registry);
+        }
+
         private void registerBlockchainInfo(MeterRegistry registry) {
             Gauge.builder("bitcoin.blockchain.blocks", client, client -> blockChainInfoSupplier.get()
                             .map(BlockChainInfo::getBlocks)
@@ -337,5 +540,12 @@ public class BitcoinJsonRpcMetricsConfiguration {
                     .description("Number of unused chunks")
                     .register(registry);
         }
+
+        private record Snapshot(BlockChainInfo blockChainInfo,
+                                NetworkInfo networkInfo,
+                                Map<String, Object> mempoolInfo,
+                                Map<String, Object> memoryInfo) {
+            private static final Snapshot EMPTY = new Snapshot(null, null, null, null);
+        }
     }
 }
@@ -4,6 +4,8 @@ import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.tbk.bitcoin.jsonrpc.BitcoinJsonRpcAsyncClient;
+import org.tbk.bitcoin.jsonrpc.BitcoinJsonRpcBatchClient;
 import org.tbk.bitcoin.jsonrpc.BitcoinJsonRpcClientFactory;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -31,6 +33,15 @@ class BitcoinJsonRpcClientAutoConfigurationTest {
 
                     assertThat(context.containsBean("bitcoinJsonRpcClient"), is(true));
                     assertThat(context.getBean(BitcoinClient.class), is(notNullValue()));
+
+                    assertThat(context.containsBean("bitcoinJsonRpcBatchClient"), is(true));
+                    assertThat(context.getBean(BitcoinJsonRpcBatchClient.class), is(notNullValue()));
+
+                    assertThat(context.containsBean("bitcoinJsonRpcAsyncClient"), is(true));
+                    assertThat(context.getBean(BitcoinJsonRpcAsyncClient.class).getMaxConcurrentRequests(), is(4));
+
+                    // must be enabled explicitly as bitcoind does not serve its rest interface by default
+                    assertThat(context.containsBean("bitcoinRestClient"), is(false));
                 });
     }
 
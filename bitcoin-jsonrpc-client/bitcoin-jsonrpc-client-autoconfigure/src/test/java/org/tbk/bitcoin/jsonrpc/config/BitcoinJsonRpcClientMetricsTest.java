@@ -0,0 +1,172 @@
+package org.tbk.bitcoin.jsonrpc.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bitcoinj.params.RegTestParams;
+import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tbk.bitcoin.jsonrpc.config.BitcoinJsonRpcMetricsConfiguration.BitcoinJsonRpcClientMetrics;
+import org.tbk.bitcoin.jsonrpc.test.BitcoinNodeStub;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notANumber;
+import static org.hamcrest.Matchers.not;
+
+class BitcoinJsonRpcClientMetricsTest {
+
+    private final AtomicInteger blocks = new AtomicInteger(100);
+
+    // if set, the node answers every request with an error
+    private volatile boolean failing;
+
+    private BitcoinNodeStub node;
+
+    private BitcoinClient client;
+
+    private MeterRegistry registry;
+
+    private BitcoinJsonRpcClientMetrics sut;
+
+    @BeforeEach
+    void setUp() {
+        node = BitcoinNodeStub.builder()
+                .rpcHandler(this::handle)
+                .start();
+
+        client = new BitcoinClient(node.rpcConfig(RegTestParams.get()));
+
+        registry = new SimpleMeterRegistry();
+
+        // not bound - refreshes are triggered manually
+        sut = new BitcoinJsonRpcClientMetrics(client, Tags.empty(), Duration.ofHours(1));
+        sut.registerMeters(registry);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        sut.close();
+        client.close();
+        node.close();
+    }
+
+    @Test
+    void itShouldStartRefreshingWhenBound() {
+        assertThat(sut.isRefreshing(), is(false));
+
+        try (BitcoinJsonRpcClientMetrics metrics = new BitcoinJsonRpcClientMetrics(client, Tags.empty(), Duration.ofHours(1))) {
+            assertThat(metrics.isRefreshing(), is(false));
+
+            metrics.bindTo(new SimpleMeterRegistry());
+            assertThat(metrics.isRefreshing(), is(true));
+        }
+    }
+
+    @Test
+    void itShouldExposeRefreshAgeAfterFirstSuccessfulRefresh() {
+        assertThat(refreshAgeNanos(), is(notANumber()));
+        assertThat(gauge("bitcoin.blockchain.blocks"), is(-1d));
+
+        setFailing(true);
+        sut.refresh();
+        assertThat(refreshAgeNanos(), is(notANumber()));
+        assertThat(gauge("bitcoin.blockchain.blocks"), is(-1d));
+
+        setFailing(false);
+        sut.refresh();
+        assertThat(refreshAgeNanos(), is(not(notANumber())));
+        assertThat(refreshAgeNanos(), is(greaterThanOrEqualTo(0d)));
+        assertThat(gauge("bitcoin.blockchain.blocks"), is(100d));
+        assertThat(gauge("bitcoin.network.connections"), is(8d));
+        assertThat(gauge("bitcoin.mempool.size"), is(42d));
+        assertThat(gauge("bitcoin.memory.used"), is(1024d));
+    }
+
+    @Test
+    void itShouldKeepPreviousValuesWhenRefreshFails() {
+        sut.refresh();
+        assertThat(gauge("bitcoin.blockchain.blocks"), is(100d));
+
+        double refreshAgeBeforeFailure = refreshAgeNanos();
+
+        setFailing(true);
+        blocks.set(101);
+        sut.refresh();
+
+        assertThat(gauge("bitcoin.blockchain.blocks"), is(100d));
+        assertThat(gauge("bitcoin.network.connections"), is(8d));
+        assertThat(gauge("bitcoin.mempool.size"), is(42d));
+        assertThat(gauge("bitcoin.memory.used"), is(1024d));
+        assertThat("age keeps growing while refreshes fail", refreshAgeNanos(), is(greaterThanOrEqualTo(refreshAgeBeforeFailure)));
+
+        setFailing(false);
+        sut.refresh();
+        assertThat(gauge("bitcoin.blockchain.blocks"), is(101d));
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).gauge().value();
+    }
+
+    private double refreshAgeNanos() {
+        return registry.get("bitcoin.jsonrpc.metrics.refresh.age").timeGauge().value(TimeUnit.NANOSECONDS);
+    }
+
+    private void setFailing(boolean failing) {
+        this.failing = failing;
+        node.setStatusCode(failing ? 500 : null);
+    }
+
+    private Object handle(BitcoinNodeStub.RpcRequest request) {
+        if (failing) {
+            throw new BitcoinNodeStub.RpcError(-28, "Loading block index...");
+        }
+
+        return switch (request.method()) {
+            case "getblockchaininfo" -> Map.of(
+                    "chain", "regtest",
+                    "blocks", blocks.get(),
+                    "headers", blocks.get(),
+                    "difficulty", 1,
+                    "verificationprogress", 1
+            );
+            case "getnetworkinfo" -> Map.of(
+                    "version", 250000,
+                    "subversion", "/Satoshi:25.0.0/",
+                    "protocolversion", 70016,
+                    "connections", 8,
+                    "timeoffset", 0,
+                    "networks", List.of(),
+                    "localaddresses", List.of(),
+                    "warnings", ""
+            );
+            case "getmempoolinfo" -> Map.of(
+                    "size", 42,
+                    "bytes", 8400,
+                    "usage", 42000,
+                    "maxmempool", 300000000
+            );
+            case "getmemoryinfo" -> Map.of(
+                    "locked", Map.of(
+                            "used", 1024,
+                            "free", 1024,
+                            "total", 2048,
+                            "locked", 2048,
+                            "chunks_used", 1,
+                            "chunks_free", 1
+                    )
+            );
+            default -> throw new IllegalArgumentException("Unexpected method: " + request.method());
+        };
+    }
+}
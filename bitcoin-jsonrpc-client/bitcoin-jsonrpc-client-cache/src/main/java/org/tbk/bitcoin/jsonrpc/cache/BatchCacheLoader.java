@@ -0,0 +1,204 @@
+package org.tbk.bitcoin.jsonrpc.cache;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.CacheLoader;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import lombok.extern.slf4j.Slf4j;
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.Utils;
+import org.consensusj.bitcoin.json.conversion.RpcClientModule;
+import org.consensusj.bitcoin.json.pojo.BlockInfo;
+import org.consensusj.bitcoin.json.pojo.RawTransactionInfo;
+import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
+import org.tbk.bitcoin.jsonrpc.BitcoinJsonRpcBatchClient;
+import org.tbk.bitcoin.jsonrpc.BitcoinJsonRpcBatchClient.Request;
+import org.tbk.bitcoin.jsonrpc.BitcoinJsonRpcBatchClient.Response;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A cache loader that loads single entries with {@link BitcoinClient} and bulk loads entries
+ * (e.g. on {@link com.google.common.cache.LoadingCache#getAll(Iterable)}) with JSON-RPC batch requests.
+ * Every batch carries at most {@code maxBatchSize} calls.
+ *
+ * <p>Without a {@link BitcoinJsonRpcBatchClient}, bulk loads fall back to loading every entry on its own.
+ * Keys unknown to the node are left out of the result of a bulk load - the cache keeps the entries that were
+ * found and reports only the missing keys. Loaders wrapped with {@link NegativeCache#wrap(CacheLoader)}
+ * remember the missing keys, so subsequent lookups fail with an {@link EntryNotFoundException}.
+ *
+ * @param <V> the type of the cached values
+ */
+@Slf4j
+public abstract class BatchCacheLoader<V> extends CacheLoader<Sha256Hash, V> {
+    // returned by bitcoind for unknown transactions and blocks
+    private static final int RPC_INVALID_ADDRESS_OR_KEY = -5;
+
+    public static BatchCacheLoader<Transaction> transactions(BitcoinClient client,
+                                                             BitcoinJsonRpcBatchClient batchClient,
+                                                             int maxBatchSize) {
+        return new BatchCacheLoader<>(client, batchClient, maxBatchSize) {
+            @Override
+            public Transaction load(Sha256Hash key) throws IOException {
+                return client.getRawTransaction(key);
+            }
+
+            @Override
+            protected Request toRequest(Sha256Hash key) {
+                return Request.of("getrawtransaction", key.toString(), false);
+            }
+
+            @Override
+            protected Transaction toValue(Object result) {
+                return new Transaction(getNetParams(), Utils.HEX.decode((String) result));
+            }
+        };
+    }
+
+    public static BatchCacheLoader<RawTransactionInfo> rawTransactionInfos(BitcoinClient client,
+                                                                           BitcoinJsonRpcBatchClient batchClient,
+                                                                           int maxBatchSize) {
+        return new BatchCacheLoader<>(client, batchClient, maxBatchSize) {
+            @Override
+            public RawTransactionInfo load(Sha256Hash key) throws IOException {
+                return client.getRawTransactionInfo(key);
+            }
+
+            @Override
+            protected Request toRequest(Sha256Hash key) {
+                return Request.of("getrawtransaction", key.toString(), true);
+            }
+
+            @Override
+            protected RawTransactionInfo toValue(Object result) {
+                return convert(result, RawTransactionInfo.class);
+            }
+        };
+    }
+
+    /**
+     * Blocks are requested hex encoded and every batch response is held in memory at once -
+     * {@code maxBatchSize} should be a lot smaller than for the other loaders.
+     */
+    public static BatchCacheLoader<Block> blocks(BitcoinClient client,
+                                                 BitcoinJsonRpcBatchClient batchClient,
+                                                 int maxBatchSize) {
+        return new BatchCacheLoader<>(client, batchClient, maxBatchSize) {
+            @Override
+            public Block load(Sha256Hash key) throws IOException {
+                return client.getBlock(key);
+            }
+
+            @Override
+            protected Request toRequest(Sha256Hash key) {
+                return Request.of("getblock", key.toString(), 0);
+            }
+
+            @Override
+            protected Block toValue(Object result) {
+                return getNetParams().getDefaultSerializer().makeBlock(Utils.HEX.decode((String) result));
+            }
+        };
+    }
+
+    public static BatchCacheLoader<BlockInfo> blockInfos(BitcoinClient client,
+                                                         BitcoinJsonRpcBatchClient batchClient,
+                                                         int maxBatchSize) {
+        return new BatchCacheLoader<>(client, batchClient, maxBatchSize) {
+            @Override
+            public BlockInfo load(Sha256Hash key) throws IOException {
+                return client.getBlockInfo(key);
+            }
+
+            @Override
+            protected Request toRequest(Sha256Hash key) {
+                return Request.of("getblock", key.toString(), 1);
+            }
+
+            @Override
+            protected BlockInfo toValue(Object result) {
+                return convert(result, BlockInfo.class);
+            }
+        };
+    }
+
+    private final BitcoinClient client;
+
+    private final BitcoinJsonRpcBatchClient batchClient;
+
+    private final int maxBatchSize;
+
+    private final ObjectMapper mapper;
+
+    protected BatchCacheLoader(BitcoinClient client, BitcoinJsonRpcBatchClient batchClient, int maxBatchSize) {
+        checkArgument(maxBatchSize > 0, "'maxBatchSize' must be positive");
+
+        this.client = requireNonNull(client);
+        this.batchClient = batchClient;
+        this.maxBatchSize = maxBatchSize;
+        this.mapper = new ObjectMapper()
+                .registerModule(new RpcClientModule(client.getNetParams()))
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    @Override
+    public Map<Sha256Hash, V> loadAll(Iterable<? extends Sha256Hash> keys) throws Exception {
+        if (batchClient == null) {
+            // makes the cache load every entry on its own
+            return super.loadAll(keys);
+        }
+
+        ImmutableMap.Builder<Sha256Hash, V> result = ImmutableMap.builder();
+
+        for (List<? extends Sha256Hash> partition : Iterables.partition(keys, maxBatchSize)) {
+            List<Request> requests = partition.stream()
+                    .map(this::toRequest)
+                    .toList();
+
+            List<Response> responses = batchClient.send(requests);
+
+            int unknownKeyCount = 0;
+            for (int i = 0; i < partition.size(); i++) {
+                Sha256Hash key = partition.get(i);
+                Response response = responses.get(i);
+                if (response.isError()) {
+                    BitcoinJsonRpcBatchClient.ResponseError error = response.getError().orElseThrow();
+                    if (error.getCode() != RPC_INVALID_ADDRESS_OR_KEY) {
+                        throw new IOException("Error while loading %s via '%s': %s (code %d)"
+                                .formatted(key, requests.get(i).getMethod(), error.getMessage(), error.getCode()));
+                    }
+                    // left out of the result - the cache reports the key as missing
+                    unknownKeyCount++;
+                } else {
+                    result.put(key, toValue(response.getResult()));
+                }
+            }
+
+            log.trace("Loaded {} entries with a single batch request ({} not found)",
+                    partition.size() - unknownKeyCount, unknownKeyCount);
+        }
+
+        return result.build();
+    }
+
+    protected abstract Request toRequest(Sha256Hash key);
+
+    protected abstract V toValue(Object result);
+
+    protected NetworkParameters getNetParams() {
+        return client.getNetParams();
+    }
+
+    protected <T> T convert(Object result, Class<T> type) {
+        return mapper.convertValue(result, type);
+    }
+}
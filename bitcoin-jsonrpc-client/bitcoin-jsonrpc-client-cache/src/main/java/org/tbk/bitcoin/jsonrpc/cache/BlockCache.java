@@ -5,8 +5,18 @@ import com.google.common.cache.LoadingCache;
 import org.bitcoinj.core.Block;
 import org.bitcoinj.core.Sha256Hash;
 
-public final class BlockCache extends SimpleForwardingLoadingCache<Sha256Hash, Block> {
+import java.io.Closeable;
+import java.io.IOException;
+
+public final class BlockCache extends SimpleForwardingLoadingCache<Sha256Hash, Block> implements Closeable {
     public BlockCache(LoadingCache<Sha256Hash, Block> delegate) {
         super(delegate);
     }
+
+    @Override
+    public void close() throws IOException {
+        if (delegate() instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
 }
@@ -0,0 +1,287 @@
+package org.tbk.bitcoin.jsonrpc.cache;
+
+import com.google.common.collect.ImmutableList;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.Sha256Hash;
+import org.consensusj.bitcoin.json.pojo.BlockInfo;
+import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Maps block heights of the active chain to block hashes, so blocks can be looked up by height
+ * from {@link BlockCache} and {@link BlockInfoCache} without an additional {@code getblockhash} call.
+ *
+ * <p>The index is filled by lookups and by new blocks passed to {@link #onBlock(Block)} or {@link #onBlockHash(Sha256Hash)},
+ * e.g. from a zeromq {@code rawblock} or {@code hashblock} subscription. On a reorg, the entries of orphaned blocks
+ * are removed from the index and evicted from both caches.
+ *
+ * <p>Hashes looked up from the node are only memoized if their block is more than {@code maxReorgDepth} blocks
+ * below the tip - blocks closer to the tip might still be orphaned, which the index only notices
+ * when it receives new blocks.
+ */
+@Slf4j
+public final class BlockHeightIndex {
+    private static final int DEFAULT_MAX_SIZE = 10_000;
+
+    private static final int DEFAULT_MAX_REORG_DEPTH = 10;
+
+    private final BitcoinClient client;
+
+    private final BlockCache blockCache;
+
+    private final BlockInfoCache blockInfoCache;
+
+    private final int maxSize;
+
+    private final int maxReorgDepth;
+
+    private final NavigableMap<Integer, Sha256Hash> index = new ConcurrentSkipListMap<>();
+
+    // ConcurrentSkipListMap#size is not a constant-time operation - all modifications are guarded by "this"
+    private int entryCount;
+
+    // incremented whenever an entry is orphaned - modifications are guarded by "this"
+    private volatile long reorgCount;
+
+    // the greatest height of the active chain seen so far - -1 if unknown
+    private final AtomicInteger tipHeight = new AtomicInteger(-1);
+
+    @Builder
+    private BlockHeightIndex(BitcoinClient client,
+                             BlockCache blockCache,
+                             BlockInfoCache blockInfoCache,
+                             Integer maxSize,
+                             Integer maxReorgDepth) {
+        checkArgument(maxSize == null || maxSize > 0, "'maxSize' must be positive");
+        checkArgument(maxReorgDepth == null || maxReorgDepth >= 0, "'maxReorgDepth' must not be negative");
+
+        this.client = requireNonNull(client);
+        this.blockCache = requireNonNull(blockCache);
+        this.blockInfoCache = requireNonNull(blockInfoCache);
+        this.maxSize = Optional.ofNullable(maxSize).orElse(DEFAULT_MAX_SIZE);
+        this.maxReorgDepth = Optional.ofNullable(maxReorgDepth).orElse(DEFAULT_MAX_REORG_DEPTH);
+    }
+
+    public synchronized int size() {
+        return entryCount;
+    }
+
+    public Optional<Sha256Hash> findBlockHash(int height) {
+        return Optional.ofNullable(index.get(height));
+    }
+
+    public Sha256Hash getBlockHash(int height) throws IOException {
+        checkArgument(height >= 0, "'height' must not be negative");
+
+        while (true) {
+            Sha256Hash indexed = index.get(height);
+            if (indexed != null) {
+                return indexed;
+            }
+
+            long observedReorgCount = reorgCount;
+            Sha256Hash blockHash = client.getBlockHash(height);
+            if (!isBelowReorgDepth(height)) {
+                // might still be orphaned - must be looked up again next time
+                return blockHash;
+            }
+            synchronized (this) {
+                // the answer of the node might already be outdated if a reorg happened in the meantime
+                if (observedReorgCount == reorgCount) {
+                    return putIfAbsent(height, blockHash);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the hashes of all blocks from {@code fromHeight} to {@code toHeight} (both inclusive).
+     */
+    public List<Sha256Hash> getBlockHashes(int fromHeight, int toHeight) throws IOException {
+        checkArgument(fromHeight <= toHeight, "'fromHeight' must not be greater than 'toHeight'");
+
+        List<Sha256Hash> hashes = new ArrayList<>(toHeight - fromHeight + 1);
+        for (int height = fromHeight; height <= toHeight; height++) {
+            hashes.add(getBlockHash(height));
+        }
+        return hashes;
+    }
+
+    public Block getBlock(int height) throws IOException, ExecutionException {
+        return blockCache.get(getBlockHash(height));
+    }
+
+    public BlockInfo getBlockInfo(int height) throws IOException, ExecutionException {
+        return blockInfoCache.get(getBlockHash(height));
+    }
+
+    /**
+     * Returns all blocks from {@code fromHeight} to {@code toHeight} (both inclusive), loading missing
+     * entries with a single bulk load.
+     */
+    public List<Block> getBlocks(int fromHeight, int toHeight) throws IOException, ExecutionException {
+        List<Sha256Hash> hashes = getBlockHashes(fromHeight, toHeight);
+        Map<Sha256Hash, Block> blocks = blockCache.getAll(hashes);
+        return hashes.stream().map(blocks::get).collect(ImmutableList.toImmutableList());
+    }
+
+    public List<BlockInfo> getBlockInfos(int fromHeight, int toHeight) throws IOException, ExecutionException {
+        List<Sha256Hash> hashes = getBlockHashes(fromHeight, toHeight);
+        Map<Sha256Hash, BlockInfo> blockInfos = blockInfoCache.getAll(hashes);
+        return hashes.stream().map(blockInfos::get).collect(ImmutableList.toImmutableList());
+    }
+
+    /**
+     * Adds a new block to the block cache and updates the index as described in {@link #onBlockHash(Sha256Hash)}.
+     */
+    public void onBlock(Block block) throws ExecutionException {
+        blockCache.put(block.getHash(), block);
+        onBlockHash(block.getHash());
+    }
+
+    /**
+     * Adds the given block of the active chain to the index.
+     *
+     * <p>An indexed block at the same height is considered orphaned, as are indexed blocks at greater heights
+     * that do not descend from the new block anymore. Ancestors of the block that differ from the indexed ones
+     * replace them, up to {@code maxReorgDepth} blocks below the new block. Notifications of blocks that are not
+     * part of the active chain anymore (e.g. delivered late, after a reorg) are ignored.
+     *
+     * <p>Block infos are loaded before the index is locked - hence, this method should not be called on a thread
+     * that must not block, e.g. the thread receiving zeromq notifications.
+     */
+    public void onBlockHash(Sha256Hash blockHash) throws ExecutionException {
+        BlockInfo blockInfo = blockInfoCache.get(blockHash);
+        if (blockInfo.getConfirmations() < 0) {
+            log.debug("Ignoring block {} - it is not part of the active chain", blockHash);
+            return;
+        }
+        int height = blockInfo.getHeight();
+        updateTipHeight(height);
+
+        // chain.get(i) is the block at height - i; parent is the indexed block the chain connects to (if any)
+        List<Sha256Hash> chain = new ArrayList<>();
+        chain.add(blockHash);
+        Sha256Hash parent = blockInfo.getPreviousblockhash();
+        while (parent != null && chain.size() <= maxReorgDepth) {
+            int parentHeight = height - chain.size();
+            if (parent.equals(index.get(parentHeight)) || index.floorKey(parentHeight) == null) {
+                // connected - or no indexed entries that could have been orphaned
+                break;
+            }
+            chain.add(parent);
+            parent = blockInfoCache.get(parent).getPreviousblockhash();
+        }
+
+        Map<Sha256Hash, Sha256Hash> parentsOfDescendants = new HashMap<>();
+        for (Sha256Hash descendant : index.subMap(height, false, height + maxReorgDepth, true).values()) {
+            parentsOfDescendants.put(descendant, blockInfoCache.get(descendant).getPreviousblockhash());
+        }
+
+        synchronized (this) {
+            Sha256Hash parentOfLowestChange = null;
+            Set<Sha256Hash> orphaned = new HashSet<>();
+            for (int i = chain.size() - 1; i >= 0; i--) {
+                Sha256Hash indexed = index.get(height - i);
+                if (chain.get(i).equals(indexed)) {
+                    continue;
+                }
+                if (indexed != null) {
+                    orphan(height - i, indexed);
+                    orphaned.add(indexed);
+                }
+                put(height - i, chain.get(i));
+
+                if (parentOfLowestChange == null) {
+                    parentOfLowestChange = i + 1 < chain.size() ? chain.get(i + 1) : parent;
+                }
+            }
+
+            // descendants are only orphaned if their parent is not the indexed block below them anymore
+            for (Map.Entry<Integer, Sha256Hash> entry : List.copyOf(index.tailMap(height, false).entrySet())) {
+                Sha256Hash parentOfDescendant = parentsOfDescendants.get(entry.getValue());
+                if (parentOfDescendant == null) {
+                    // indexed in the meantime or beyond the reorg depth
+                    continue;
+                }
+                Sha256Hash indexedParent = index.get(entry.getKey() - 1);
+                if (orphaned.contains(parentOfDescendant) || (indexedParent != null && !indexedParent.equals(parentOfDescendant))) {
+                    orphan(entry.getKey(), entry.getValue());
+                    orphaned.add(entry.getValue());
+                }
+            }
+
+            if (parentOfLowestChange != null) {
+                // the parent now has another successor ("nextblockhash") and more confirmations
+                blockInfoCache.invalidate(parentOfLowestChange);
+            }
+
+            trimToSize();
+        }
+    }
+
+    private boolean isBelowReorgDepth(int height) throws IOException {
+        if (tipHeight.get() - height > maxReorgDepth) {
+            return true;
+        }
+        // the known tip might be outdated - ask the node before deciding
+        return updateTipHeight(client.getBlockCount()) - height > maxReorgDepth;
+    }
+
+    private int updateTipHeight(int height) {
+        return tipHeight.accumulateAndGet(height, Math::max);
+    }
+
+    private synchronized Sha256Hash putIfAbsent(int height, Sha256Hash blockHash) {
+        Sha256Hash previous = index.putIfAbsent(height, blockHash);
+        if (previous != null) {
+            return previous;
+        }
+
+        entryCount++;
+        trimToSize();
+        return blockHash;
+    }
+
+    private void put(int height, Sha256Hash blockHash) {
+        if (index.put(height, blockHash) == null) {
+            entryCount++;
+        }
+    }
+
+    private void orphan(int height, Sha256Hash blockHash) {
+        log.info("Evicting orphaned block {} at height {}", blockHash, height);
+
+        if (index.remove(height, blockHash)) {
+            entryCount--;
+        }
+        reorgCount++;
+        blockCache.invalidate(blockHash);
+        blockInfoCache.invalidate(blockHash);
+    }
+
+    // removes the entries with the lowest heights - recent blocks are the most likely to be requested
+    private void trimToSize() {
+        while (entryCount > maxSize) {
+            index.pollFirstEntry();
+            entryCount--;
+        }
+    }
+}
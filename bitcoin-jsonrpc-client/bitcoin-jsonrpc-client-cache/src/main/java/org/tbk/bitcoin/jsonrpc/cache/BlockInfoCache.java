@@ -5,8 +5,18 @@ import com.google.common.cache.LoadingCache;
 import org.bitcoinj.core.Sha256Hash;
 import org.consensusj.bitcoin.json.pojo.BlockInfo;
 
-public final class BlockInfoCache extends SimpleForwardingLoadingCache<Sha256Hash, BlockInfo> {
+import java.io.Closeable;
+import java.io.IOException;
+
+public final class BlockInfoCache extends SimpleForwardingLoadingCache<Sha256Hash, BlockInfo> implements Closeable {
     public BlockInfoCache(LoadingCache<Sha256Hash, BlockInfo> delegate) {
         super(delegate);
     }
+
+    @Override
+    public void close() throws IOException {
+        if (delegate() instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
 }
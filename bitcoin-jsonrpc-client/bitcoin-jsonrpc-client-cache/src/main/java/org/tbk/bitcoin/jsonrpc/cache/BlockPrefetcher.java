@@ -0,0 +1,288 @@
+package org.tbk.bitcoin.jsonrpc.cache;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.bitcoinj.core.Block;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.util.concurrent.MoreExecutors.shutdownAndAwaitTermination;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads blocks by height and loads upcoming blocks into the {@link BlockCache} in the background
+ * once sequential access has been detected (or a range has been requested via {@link #prefetch(int, int)}).
+ *
+ * <p>Access counts as sequential as long as every requested height is within {@code windowSize} blocks of the
+ * previous one, so scans fetching several blocks concurrently are detected as well.
+ *
+ * <p>Blocks are fetched in chunks with bulk loads, so a sequential scan is no longer bound by the latency
+ * of a single {@code getblock} call. Prefetching pauses while the serialized size of all prefetched but not
+ * yet requested blocks exceeds {@code maxPrefetchedBytes}. If a scan jumps to a height that has not been
+ * scheduled, pending loads are skipped and the blocks of loads still in progress are not accounted for.
+ */
+@Slf4j
+public final class BlockPrefetcher implements AutoCloseable {
+    private static final int DEFAULT_WINDOW_SIZE = 16;
+
+    private static final int DEFAULT_SEQUENTIAL_THRESHOLD = 3;
+
+    private static final int DEFAULT_PARALLELISM = 2;
+
+    private static final long DEFAULT_MAX_PREFETCHED_BYTES = 64L * 1024 * 1024;
+
+    private final BlockHeightIndex heightIndex;
+
+    private final int windowSize;
+
+    private final int sequentialThreshold;
+
+    private final int parallelism;
+
+    private final long maxPrefetchedBytes;
+
+    private final ExecutorService executor;
+
+    private final ConcurrentMap<Integer, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    // serialized size of prefetched blocks by height that have not been requested yet
+    private final NavigableMap<Integer, Integer> prefetchedSizes = new ConcurrentSkipListMap<>();
+
+    private final AtomicLong prefetchedBytes = new AtomicLong();
+
+    private final AtomicLong prefetchedCount = new AtomicLong();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    // incremented whenever a scan jumps - loads of previous generations are discarded; written while holding the lock
+    private volatile long generation;
+
+    // guarded by "this" - negative if no block has been requested yet
+    private int lastHeight = -1;
+
+    // guarded by "this"
+    private int sequentialCount;
+
+    // guarded by "this"
+    private int scheduledFrom = Integer.MAX_VALUE;
+
+    // guarded by "this"
+    private int scheduledUpTo = -1;
+
+    @Builder
+    private BlockPrefetcher(BlockHeightIndex heightIndex,
+                            Integer windowSize,
+                            Integer sequentialThreshold,
+                            Integer parallelism,
+                            Long maxPrefetchedBytes) {
+        checkArgument(windowSize == null || windowSize > 0, "'windowSize' must be positive");
+        checkArgument(sequentialThreshold == null || sequentialThreshold >= 0, "'sequentialThreshold' must not be negative");
+        checkArgument(parallelism == null || parallelism > 0, "'parallelism' must be positive");
+        checkArgument(maxPrefetchedBytes == null || maxPrefetchedBytes > 0, "'maxPrefetchedBytes' must be positive");
+
+        this.heightIndex = requireNonNull(heightIndex);
+        this.windowSize = Optional.ofNullable(windowSize).orElse(DEFAULT_WINDOW_SIZE);
+        this.sequentialThreshold = Optional.ofNullable(sequentialThreshold).orElse(DEFAULT_SEQUENTIAL_THRESHOLD);
+        this.parallelism = Optional.ofNullable(parallelism).orElse(DEFAULT_PARALLELISM);
+        this.maxPrefetchedBytes = Optional.ofNullable(maxPrefetchedBytes).orElse(DEFAULT_MAX_PREFETCHED_BYTES);
+
+        this.executor = Executors.newFixedThreadPool(this.parallelism, new ThreadFactoryBuilder()
+                .setNameFormat("block-prefetch-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    /**
+     * Returns the block at the given height - waits for a prefetch of this height if one is in progress.
+     */
+    public Block getBlock(int height) throws IOException, ExecutionException {
+        onAccess(height);
+
+        CompletableFuture<Void> pending = inFlight.get(height);
+        if (pending != null) {
+            try {
+                pending.join();
+            } catch (CompletionException e) {
+                log.debug("Prefetch of block at height {} failed - loading it directly: {}", height, e.getMessage());
+            }
+        }
+
+        if (prefetchedSizes.containsKey(height)) {
+            hitCount.incrementAndGet();
+        }
+        consumeUpTo(height);
+
+        return heightIndex.getBlock(height);
+    }
+
+    /**
+     * Loads all blocks from {@code fromHeight} to {@code toHeight} (both inclusive) in the background.
+     * Unlike automatic prefetching, an explicit request is not limited by the window size - chunks
+     * exceeding {@code maxPrefetchedBytes} at the time they are processed are skipped, though.
+     */
+    public synchronized void prefetch(int fromHeight, int toHeight) {
+        checkArgument(fromHeight >= 0, "'fromHeight' must not be negative");
+        checkArgument(fromHeight <= toHeight, "'fromHeight' must not be greater than 'toHeight'");
+
+        schedule(fromHeight, toHeight);
+    }
+
+    public long getPrefetchedCount() {
+        return prefetchedCount.get();
+    }
+
+    /**
+     * Returns the number of requested blocks that had been prefetched before.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getPrefetchedBytes() {
+        return prefetchedBytes.get();
+    }
+
+    @Override
+    public void close() {
+        boolean executorShutdownSuccessful = shutdownAndAwaitTermination(executor, Duration.ofSeconds(10));
+        if (!executorShutdownSuccessful) {
+            log.warn("unclean shutdown of executor service");
+        }
+    }
+
+    private synchronized void onAccess(int height) {
+        if (lastHeight >= 0 && height <= lastHeight && lastHeight - height < windowSize) {
+            // overtaken by a concurrent reader of the same scan - neither progress nor a jump
+            return;
+        }
+
+        // concurrent readers (e.g. a parallel scan) do not request blocks in exact order
+        boolean sequential = lastHeight >= 0 && height > lastHeight && height - lastHeight <= windowSize;
+        sequentialCount = sequential ? sequentialCount + 1 : 0;
+        lastHeight = height;
+
+        boolean scheduled = height >= scheduledFrom && height <= scheduledUpTo;
+        if (!sequential && !scheduled) {
+            // the scan jumped - previously scheduled blocks are not of interest anymore
+            generation++;
+            scheduledFrom = Integer.MAX_VALUE;
+            scheduledUpTo = height;
+            prefetchedSizes.clear();
+            prefetchedBytes.set(0);
+        }
+
+        // refill once half of the window has been consumed, so blocks are fetched in chunks
+        boolean refill = scheduledUpTo - height <= windowSize / 2;
+        if (sequentialCount >= sequentialThreshold && refill) {
+            schedule(Math.max(height + 1, scheduledUpTo + 1), height + windowSize);
+        }
+    }
+
+    // must be called while holding the lock
+    private void schedule(int fromHeight, int toHeight) {
+        if (fromHeight > toHeight) {
+            return;
+        }
+        if (prefetchedBytes.get() >= maxPrefetchedBytes) {
+            log.trace("Not prefetching blocks {} to {}: limit of {} bytes reached", fromHeight, toHeight, maxPrefetchedBytes);
+            return;
+        }
+
+        scheduledFrom = Math.min(scheduledFrom, fromHeight);
+        scheduledUpTo = Math.max(scheduledUpTo, toHeight);
+
+        int count = toHeight - fromHeight + 1;
+        int chunkSize = Math.min(windowSize, Math.max(1, (count + parallelism - 1) / parallelism));
+        for (int chunkStart = fromHeight; chunkStart <= toHeight; chunkStart += chunkSize) {
+            int chunkEnd = Math.min(toHeight, chunkStart + chunkSize - 1);
+            submit(chunkStart, chunkEnd);
+        }
+    }
+
+    // must be called while holding the lock
+    private void submit(int fromHeight, int toHeight) {
+        long loadGeneration = generation;
+
+        CompletableFuture<Void> future;
+        try {
+            future = CompletableFuture.runAsync(() -> load(fromHeight, toHeight, loadGeneration), executor);
+        } catch (RejectedExecutionException e) {
+            log.debug("Not prefetching blocks {} to {}: prefetcher has been closed", fromHeight, toHeight);
+            return;
+        }
+
+        for (int height = fromHeight; height <= toHeight; height++) {
+            inFlight.put(height, future);
+        }
+        future.whenComplete((result, e) -> {
+            for (int height = fromHeight; height <= toHeight; height++) {
+                inFlight.remove(height, future);
+            }
+        });
+    }
+
+    private void load(int fromHeight, int toHeight, long loadGeneration) {
+        if (loadGeneration != generation) {
+            log.trace("Skipping prefetch of blocks {} to {}: scan has moved on", fromHeight, toHeight);
+            return;
+        }
+        if (prefetchedBytes.get() >= maxPrefetchedBytes) {
+            log.trace("Skipping prefetch of blocks {} to {}: limit of {} bytes reached", fromHeight, toHeight, maxPrefetchedBytes);
+            return;
+        }
+
+        List<Block> blocks;
+        try {
+            blocks = heightIndex.getBlocks(fromHeight, toHeight);
+        } catch (IOException | ExecutionException e) {
+            // e.g. when requesting blocks beyond the chain tip
+            log.debug("Error while prefetching blocks {} to {}: {}", fromHeight, toHeight, e.getMessage());
+            throw new CompletionException(e);
+        }
+
+        synchronized (this) {
+            // the sizes have been reset when the scan jumped - counting the blocks would make the bound drift
+            if (loadGeneration != generation) {
+                log.trace("Discarding prefetch of blocks {} to {}: scan has moved on", fromHeight, toHeight);
+                return;
+            }
+
+            for (int i = 0; i < blocks.size(); i++) {
+                int size = Math.max(0, blocks.get(i).getMessageSize());
+                if (prefetchedSizes.put(fromHeight + i, size) == null) {
+                    prefetchedBytes.addAndGet(size);
+                    prefetchedCount.incrementAndGet();
+                }
+            }
+        }
+
+        log.trace("Prefetched blocks {} to {}", fromHeight, toHeight);
+    }
+
+    private synchronized void consumeUpTo(int height) {
+        Map<Integer, Integer> consumed = prefetchedSizes.headMap(height, true);
+        for (Integer key : consumed.keySet()) {
+            Integer size = prefetchedSizes.remove(key);
+            if (size != null) {
+                prefetchedBytes.addAndGet(-size);
+            }
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package org.tbk.bitcoin.jsonrpc.cache;
+
+import com.google.common.collect.Lists;
+import com.google.common.math.IntMath;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
+import org.tbk.bitcoin.jsonrpc.BitcoinJsonRpcBatchClient;
+
+import java.io.IOException;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Loads the most recent blocks into the {@link BlockCache} - and optionally their transactions into the
+ * {@link TransactionCache} - so the first requests after a start do not all miss the caches at once.
+ *
+ * <p>The blocks are split into {@code parallelism} chunks loaded concurrently. The hashes of every chunk are
+ * requested with a single batch request if a {@link BitcoinJsonRpcBatchClient} is given, and the blocks with
+ * a single {@link BlockCache#getAll(Iterable)}, so a bulk loading cache can fetch them in one round trip.
+ * Transactions are taken from the loaded blocks and do not cause any additional requests. At most
+ * {@code maxTransactions} are put into the transaction cache, so the warm-up does not evict all of its entries.
+ */
+@Slf4j
+public final class CacheWarmUp {
+    private static final int DEFAULT_BLOCK_COUNT = 10;
+
+    private static final int DEFAULT_PARALLELISM = 2;
+
+    private static final int DEFAULT_MAX_TRANSACTIONS = 1_000;
+
+    private final BitcoinClient client;
+
+    private final BitcoinJsonRpcBatchClient batchClient;
+
+    private final BlockCache blockCache;
+
+    private final TransactionCache transactionCache;
+
+    private final int blockCount;
+
+    private final int parallelism;
+
+    private final int maxTransactions;
+
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    private final AtomicInteger totalBlocks = new AtomicInteger();
+
+    private final AtomicInteger loadedBlocks = new AtomicInteger();
+
+    private final AtomicLong loadedTransactions = new AtomicLong();
+
+    private volatile long startedAtNanos;
+
+    private volatile long finishedAtNanos;
+
+    private volatile boolean done;
+
+    /**
+     * @param batchClient      if present, the block hashes of every chunk are fetched with a single batch request
+     * @param transactionCache if present, the transactions of the loaded blocks are put into this cache
+     * @param maxTransactions  maximum number of transactions put into the transaction cache
+     */
+    @Builder
+    private CacheWarmUp(BitcoinClient client,
+                        BitcoinJsonRpcBatchClient batchClient,
+                        BlockCache blockCache,
+                        TransactionCache transactionCache,
+                        Integer blockCount,
+                        Integer parallelism,
+                        Integer maxTransactions) {
+        checkArgument(blockCount == null || blockCount >= 0, "'blockCount' must not be negative");
+        checkArgument(parallelism == null || parallelism > 0, "'parallelism' must be positive");
+        checkArgument(maxTransactions == null || maxTransactions >= 0, "'maxTransactions' must not be negative");
+
+        this.client = requireNonNull(client);
+        this.batchClient = batchClient;
+        this.blockCache = requireNonNull(blockCache);
+        this.transactionCache = transactionCache;
+        this.blockCount = Optional.ofNullable(blockCount).orElse(DEFAULT_BLOCK_COUNT);
+        this.parallelism = Optional.ofNullable(parallelism).orElse(DEFAULT_PARALLELISM);
+        this.maxTransactions = Optional.ofNullable(maxTransactions).orElse(DEFAULT_MAX_TRANSACTIONS);
+    }
+
+    /**
+     * Loads the blocks and blocks until all of them are loaded or the timeout expires.
+     * Loads still running when the timeout expires are interrupted and their results are discarded.
+     * Requests already sent to the node are not bounded by the timeout and may still complete in the background.
+     *
+     * @return whether all blocks have been loaded
+     */
+    public boolean run(Duration timeout) throws IOException, InterruptedException {
+        checkArgument(!timeout.isNegative(), "'timeout' must not be negative");
+        if (!started.compareAndSet(false, true)) {
+            throw new IllegalStateException("Warm-up has already been started");
+        }
+
+        startedAtNanos = System.nanoTime();
+        try {
+            int tipHeight = client.getBlockCount();
+            int fromHeight = Math.max(0, tipHeight - blockCount + 1);
+            totalBlocks.set(tipHeight - fromHeight + 1);
+
+            log.info("Warming up caches with blocks {} to {}", fromHeight, tipHeight);
+
+            ExecutorService executor = Executors.newFixedThreadPool(parallelism, new ThreadFactoryBuilder()
+                    .setNameFormat("cache-warm-up-%d")
+                    .setDaemon(true)
+                    .build());
+
+            // most recent blocks first - they are the most likely ones to be requested
+            List<Integer> heights = IntStream.iterate(tipHeight, it -> it >= fromHeight, it -> it - 1)
+                    .boxed()
+                    .toList();
+            int chunkSize = Math.max(1, IntMath.divide(heights.size(), parallelism, RoundingMode.CEILING));
+            Lists.partition(heights, chunkSize).forEach(chunk -> executor.execute(() -> load(chunk)));
+            executor.shutdown();
+
+            boolean completed = executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (!completed) {
+                executor.shutdownNow();
+            }
+
+            log.info("Warmed up caches with {}/{} blocks and {} transactions in {}{}",
+                    loadedBlocks.get(), totalBlocks.get(), loadedTransactions.get(), getDuration(),
+                    completed ? "" : " (timeout expired)");
+
+            return completed && loadedBlocks.get() == totalBlocks.get();
+        } finally {
+            finishedAtNanos = System.nanoTime();
+            done = true;
+        }
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public int getTotalBlocks() {
+        return totalBlocks.get();
+    }
+
+    public int getLoadedBlocks() {
+        return loadedBlocks.get();
+    }
+
+    public long getLoadedTransactions() {
+        return loadedTransactions.get();
+    }
+
+    /**
+     * Returns the time spent warming up the caches - or the time elapsed so far if the warm-up is still running.
+     */
+    public Duration getDuration() {
+        if (!started.get()) {
+            return Duration.ZERO;
+        }
+        long endNanos = done ? finishedAtNanos : System.nanoTime();
+        return Duration.ofNanos(endNanos - startedAtNanos);
+    }
+
+    private void load(List<Integer> heights) {
+        try {
+            List<Sha256Hash> hashes = fetchBlockHashes(heights);
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+
+            Map<Sha256Hash, Block> blocks = blockCache.getAll(hashes);
+
+            if (transactionCache != null) {
+                // most recent blocks first - they are the most likely ones to be requested
+                for (Sha256Hash hash : hashes) {
+                    List<Transaction> transactions = Optional.ofNullable(blocks.get(hash))
+                            .map(Block::getTransactions)
+                            .orElse(List.of());
+                    for (Transaction tx : transactions) {
+                        if (loadedTransactions.incrementAndGet() > maxTransactions) {
+                            loadedTransactions.decrementAndGet();
+                            break;
+                        }
+                        transactionCache.put(tx.getTxId(), tx);
+                    }
+                }
+            }
+
+            loadedBlocks.addAndGet(blocks.size());
+        } catch (Exception e) {
+            log.warn("Error while warming up caches with blocks {} to {}: {}",
+                    heights.get(heights.size() - 1), heights.get(0), e.getMessage());
+        }
+    }
+
+    private List<Sha256Hash> fetchBlockHashes(List<Integer> heights) throws IOException {
+        if (batchClient == null) {
+            List<Sha256Hash> hashes = new ArrayList<>(heights.size());
+            for (int height : heights) {
+                if (Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+                hashes.add(client.getBlockHash(height));
+            }
+            return hashes;
+        }
+
+        List<BitcoinJsonRpcBatchClient.Request> requests = heights.stream()
+                .map(height -> BitcoinJsonRpcBatchClient.Request.of("getblockhash", height))
+                .toList();
+
+        List<BitcoinJsonRpcBatchClient.Response> responses = batchClient.send(requests);
+
+        List<Sha256Hash> hashes = new ArrayList<>(responses.size());
+        for (int i = 0; i < responses.size(); i++) {
+            BitcoinJsonRpcBatchClient.Response response = responses.get(i);
+            if (response.isError()) {
+                BitcoinJsonRpcBatchClient.ResponseError error = response.getError().orElseThrow();
+                throw new IOException("Error while fetching hash of block %d: %s (code %d)"
+                        .formatted(heights.get(i), error.getMessage(), error.getCode()));
+            }
+            hashes.add(Sha256Hash.wrap((String) response.getResult()));
+        }
+        return hashes;
+    }
+}
@@ -0,0 +1,63 @@
+package org.tbk.bitcoin.jsonrpc.cache;
+
+import com.google.common.cache.Weigher;
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.Message;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.consensusj.bitcoin.json.pojo.BlockInfo;
+import org.consensusj.bitcoin.json.pojo.RawTransactionInfo;
+
+import java.util.Optional;
+
+/**
+ * Weighers estimating the size of cached values in bytes, intended to be used with {@code maximumWeight}.
+ *
+ * <p>Bitcoin messages are weighed by their serialized size. The JSON-RPC pojos carry no serialized form,
+ * hence their weight is derived from the data they reference (raw hex, transaction ids).
+ * All weights are estimates - the actual heap usage of a deserialized value is usually a multiple of it.
+ */
+public final class CacheWeighers {
+
+    // rough size of a cached pojo without any variable length data
+    private static final int POJO_BASE_WEIGHT = 256;
+
+    // size of a Sha256Hash instance including its byte array
+    private static final int HASH_WEIGHT = 64;
+
+    private CacheWeighers() {
+        throw new UnsupportedOperationException();
+    }
+
+    public static Weigher<Sha256Hash, Transaction> transactions() {
+        return (key, value) -> messageSize(value);
+    }
+
+    public static Weigher<Sha256Hash, Block> blocks() {
+        return (key, value) -> messageSize(value);
+    }
+
+    public static Weigher<Sha256Hash, RawTransactionInfo> rawTransactionInfos() {
+        return (key, value) -> POJO_BASE_WEIGHT + Optional.ofNullable(value.getHex())
+                .map(String::length)
+                .orElse(0);
+    }
+
+    public static Weigher<Sha256Hash, BlockInfo> blockInfos() {
+        return (key, value) -> POJO_BASE_WEIGHT + Optional.ofNullable(value.getTx())
+                .map(txs -> txs.size() * HASH_WEIGHT)
+                .orElse(0);
+    }
+
+    private static int messageSize(Message message) {
+        try {
+            int size = message.getMessageSize();
+            if (size >= 0) {
+                return size;
+            }
+        } catch (RuntimeException e) {
+            // messages not created from a byte array might not know their length and refuse to tell
+        }
+        return message.bitcoinSerialize().length;
+    }
+}
@@ -0,0 +1,281 @@
+package org.tbk.bitcoin.jsonrpc.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.base.Splitter;
+import com.google.common.cache.AbstractLoadingCache;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.common.util.concurrent.Uninterruptibles;
+import lombok.Builder;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A guava {@link com.google.common.cache.LoadingCache} backed by a caffeine {@link AsyncLoadingCache}.
+ *
+ * <p>Entries are loaded on a dedicated pool, so concurrent misses do not occupy the calling threads
+ * while waiting for the node, and callers missing the same key share a single load. The pool is shut down
+ * on {@link #close()}. Bulk loads are passed to {@link CacheLoader#loadAll(Iterable)} in one call; if the loader does not support them, the keys are
+ * loaded concurrently. If the specification contains {@code refreshAfterWrite}, entries are reloaded in the
+ * background on access while the old value is still served. Eviction uses caffeine's W-TinyLFU policy,
+ * which keeps one-off entries (e.g. blocks of a single scan) from displacing frequently used ones.
+ *
+ * <p>Failures are reported like guava's own loading cache does: exceptions of the loader are wrapped in an
+ * {@link ExecutionException}, {@link UncheckedExecutionException} or {@link ExecutionError}, and loads returning
+ * {@code null} - or bulk loads missing a requested key - fail with an {@link InvalidCacheLoadException}.
+ *
+ * <p>The specification is read in guava's format, so existing guava specifications can be reused -
+ * {@code concurrencyLevel} has no equivalent in caffeine and is ignored.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached values
+ */
+public final class CaffeineLoadingCache<K, V> extends AbstractLoadingCache<K, V> implements Closeable {
+    private static final int DEFAULT_LOADER_THREADS = 8;
+
+    // options of guava specifications caffeine does not support
+    private static final Set<String> UNSUPPORTED_OPTIONS = ImmutableSet.of("concurrencyLevel");
+
+    private final AsyncLoadingCache<K, V> cache;
+
+    private final ExecutorService executor;
+
+    /**
+     * @param specification a guava specification, e.g. "maximumSize=1000,expireAfterAccess=30m"
+     * @param weigher       weighs entries if present - requires "maximumWeight" in the specification
+     * @param loaderThreads maximum number of entries loaded concurrently
+     */
+    @Builder
+    private CaffeineLoadingCache(String specification,
+                                 Weigher<K, V> weigher,
+                                 CacheLoader<K, V> loader,
+                                 Integer loaderThreads) {
+        checkArgument(loaderThreads == null || loaderThreads > 0, "'loaderThreads' must be positive");
+        requireNonNull(loader, "'loader' must not be null");
+
+        int threads = Optional.ofNullable(loaderThreads).orElse(DEFAULT_LOADER_THREADS);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new ThreadFactoryBuilder()
+                .setNameFormat("bitcoin-jsonrpc-cache-loader-%d")
+                .setDaemon(true)
+                .build());
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+
+        String spec = toCaffeineSpecification(Optional.ofNullable(specification).orElse(""));
+        Caffeine<Object, Object> caffeine = Caffeine.from(spec).executor(executor);
+
+        this.cache = weigher != null
+                ? caffeine.<K, V>weigher(weigher::weigh).buildAsync(new GuavaAsyncCacheLoader<>(loader))
+                : caffeine.buildAsync(new GuavaAsyncCacheLoader<K, V>(loader));
+    }
+
+    /**
+     * Shuts down the loader pool - loads already started are completed, subsequent misses fail.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    @Override
+    public V get(K key) throws ExecutionException {
+        V value = getUnwrapped(cache.get(key));
+        if (value == null) {
+            throw new InvalidCacheLoadException("CacheLoader returned null for key " + key + ".");
+        }
+        return value;
+    }
+
+    @Override
+    public ImmutableMap<K, V> getAll(Iterable<? extends K> keys) throws ExecutionException {
+        ImmutableSet<? extends K> uniqueKeys = ImmutableSet.copyOf(keys);
+        Map<K, V> values = getUnwrapped(cache.getAll(uniqueKeys));
+
+        ImmutableMap.Builder<K, V> result = ImmutableMap.builderWithExpectedSize(uniqueKeys.size());
+        for (K key : uniqueKeys) {
+            V value = values.get(key);
+            if (value == null) {
+                throw new InvalidCacheLoadException("loadAll failed to return a value for " + key);
+            }
+            result.put(key, value);
+        }
+        return result.build();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getIfPresent(Object key) {
+        return cache.synchronous().getIfPresent((K) key);
+    }
+
+    @Override
+    public void refresh(K key) {
+        cache.synchronous().refresh(key);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        cache.put(key, CompletableFuture.completedFuture(value));
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        cache.synchronous().putAll(m);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void invalidate(Object key) {
+        cache.synchronous().invalidate((K) key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void invalidateAll(Iterable<?> keys) {
+        cache.synchronous().invalidateAll((Iterable<? extends K>) keys);
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    @Override
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    @Override
+    public CacheStats stats() {
+        com.github.benmanes.caffeine.cache.stats.CacheStats stats = cache.synchronous().stats();
+        return new CacheStats(stats.hitCount(), stats.missCount(), stats.loadSuccessCount(),
+                stats.loadFailureCount(), stats.totalLoadTime(), stats.evictionCount());
+    }
+
+    @Override
+    public ConcurrentMap<K, V> asMap() {
+        return cache.synchronous().asMap();
+    }
+
+    @Override
+    public void cleanUp() {
+        cache.synchronous().cleanUp();
+    }
+
+    // visible for testing
+    static String toCaffeineSpecification(String guavaSpecification) {
+        return Splitter.on(',').trimResults().omitEmptyStrings().splitToStream(guavaSpecification)
+                .filter(option -> !UNSUPPORTED_OPTIONS.contains(Splitter.on('=').trimResults().split(option).iterator().next()))
+                .collect(Collectors.joining(","));
+    }
+
+    // wraps exceptions of the loader like guava's own loading cache
+    private static <T> T getUnwrapped(CompletableFuture<T> future) throws ExecutionException {
+        try {
+            return Uninterruptibles.getUninterruptibly(future);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error error) {
+                throw new ExecutionError(error);
+            } else if (cause instanceof RuntimeException runtimeException) {
+                throw new UncheckedExecutionException(runtimeException);
+            }
+            throw new ExecutionException(cause);
+        }
+    }
+
+    private static final class GuavaAsyncCacheLoader<K, V> implements AsyncCacheLoader<K, V> {
+
+        private final CacheLoader<K, V> delegate;
+
+        GuavaAsyncCacheLoader(CacheLoader<K, V> delegate) {
+            this.delegate = requireNonNull(delegate);
+        }
+
+        @Override
+        public CompletableFuture<? extends V> asyncLoad(K key, Executor executor) {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return delegate.load(key);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+        }
+
+        @Override
+        public CompletableFuture<? extends Map<? extends K, ? extends V>> asyncLoadAll(Set<? extends K> keys, Executor executor) {
+            CompletableFuture<Optional<Map<? extends K, ? extends V>>> bulkLoad = CompletableFuture.supplyAsync(() -> {
+                try {
+                    Map<? extends K, ? extends V> result = delegate.loadAll(keys);
+                    if (result == null) {
+                        throw new InvalidCacheLoadException("loadAll returned null map");
+                    }
+                    return Optional.of(result);
+                } catch (CacheLoader.UnsupportedLoadingOperationException e) {
+                    return Optional.empty();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+
+            return bulkLoad.thenCompose(result -> {
+                if (result.isPresent()) {
+                    return CompletableFuture.completedFuture(result.get());
+                }
+                return loadEach(keys, executor);
+            });
+        }
+
+        // the delegate does not support bulk loads - load the entries concurrently instead
+        private CompletableFuture<Map<? extends K, ? extends V>> loadEach(Set<? extends K> keys, Executor executor) {
+            List<? extends K> keyList = List.copyOf(keys);
+            List<CompletableFuture<? extends V>> futures = keyList.stream()
+                    .<CompletableFuture<? extends V>>map(key -> asyncLoad(key, executor))
+                    .toList();
+
+            return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(ignored -> {
+                // keys loaded as null are left out - the cache reports them as missing
+                ImmutableMap.Builder<K, V> result = ImmutableMap.builder();
+                for (int i = 0; i < keyList.size(); i++) {
+                    V value = futures.get(i).join();
+                    if (value != null) {
+                        result.put(keyList.get(i), value);
+                    }
+                }
+                return result.build();
+            });
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.tbk.bitcoin.jsonrpc.cache;
+
+import com.google.common.cache.CacheLoader;
+import lombok.extern.slf4j.Slf4j;
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.Message;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A cache loader looking up values in a {@link SegmentStore} before asking its delegate.
+ * Values loaded by the delegate are appended to the store, so they survive restarts.
+ *
+ * <p>Errors while reading or writing the store are logged and never fail a load.
+ *
+ * @param <V> the type of the cached values
+ */
+@Slf4j
+public final class DiskCacheLoader<V extends Message> extends CacheLoader<Sha256Hash, V> {
+
+    public static DiskCacheLoader<Transaction> transactions(CacheLoader<Sha256Hash, Transaction> delegate,
+                                                            SegmentStore store,
+                                                            NetworkParameters params) {
+        return new DiskCacheLoader<>(delegate, store, bytes -> new Transaction(params, bytes));
+    }
+
+    public static DiskCacheLoader<Block> blocks(CacheLoader<Sha256Hash, Block> delegate,
+                                                SegmentStore store,
+                                                NetworkParameters params) {
+        return new DiskCacheLoader<>(delegate, store, bytes -> params.getDefaultSerializer().makeBlock(bytes));
+    }
+
+    private final CacheLoader<Sha256Hash, V> delegate;
+
+    private final SegmentStore store;
+
+    private final Function<byte[], V> deserializer;
+
+    private DiskCacheLoader(CacheLoader<Sha256Hash, V> delegate, SegmentStore store, Function<byte[], V> deserializer) {
+        this.delegate = requireNonNull(delegate);
+        this.store = requireNonNull(store);
+        this.deserializer = requireNonNull(deserializer);
+    }
+
+    @Override
+    public V load(Sha256Hash key) throws Exception {
+        Optional<V> stored = loadFromStore(key);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+
+        V value = delegate.load(key);
+        persist(key, value);
+        return value;
+    }
+
+    @Override
+    public Map<Sha256Hash, V> loadAll(Iterable<? extends Sha256Hash> keys) throws Exception {
+        Map<Sha256Hash, V> result = new HashMap<>();
+        List<Sha256Hash> missing = new ArrayList<>();
+
+        for (Sha256Hash key : keys) {
+            loadFromStore(key).ifPresentOrElse(value -> result.put(key, value), () -> missing.add(key));
+        }
+
+        if (!missing.isEmpty()) {
+            // if the delegate does not support bulk loads, the cache falls back to single loads via #load
+            Map<Sha256Hash, V> loaded = delegate.loadAll(missing);
+            loaded.forEach(this::persist);
+            result.putAll(loaded);
+        }
+
+        return result;
+    }
+
+    private Optional<V> loadFromStore(Sha256Hash key) {
+        try {
+            return store.get(key).map(deserializer);
+        } catch (RuntimeException e) {
+            log.warn("Error while reading entry {} from store in {}: {}", key, store.getDirectory(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void persist(Sha256Hash key, V value) {
+        try {
+            store.put(key, value.bitcoinSerialize());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Error while writing entry {} to store in {}: {}", key, store.getDirectory(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.tbk.bitcoin.jsonrpc.cache;
+
+import com.google.common.collect.ImmutableSet;
+import org.bitcoinj.core.Sha256Hash;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Thrown by cache loaders if the node does not know the requested transaction or block.
+ * Bulk loads report every key of the failed request the node did not know.
+ */
+public class EntryNotFoundException extends IOException {
+
+    private final Set<Sha256Hash> keys;
+
+    public EntryNotFoundException(Sha256Hash key, String message, Throwable cause) {
+        this(ImmutableSet.of(key), message, cause);
+    }
+
+    public EntryNotFoundException(Collection<Sha256Hash> keys, String message, Throwable cause) {
+        super(message, cause);
+        checkArgument(!keys.isEmpty(), "'keys' must not be empty");
+        this.keys = ImmutableSet.copyOf(keys);
+    }
+
+    /**
+     * Returns the first unknown key.
+     */
+    public Sha256Hash getKey() {
+        return keys.iterator().next();
+    }
+
+    public Set<Sha256Hash> getKeys() {
+        return keys;
+    }
+}
@@ -0,0 +1,644 @@
+package org.tbk.bitcoin.jsonrpc.cache;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.TransactionInput;
+import org.bitcoinj.core.Utils;
+import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
+import org.consensusj.jsonrpc.JsonRpcStatusException;
+import org.tbk.bitcoin.jsonrpc.BitcoinJsonRpcBatchClient;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.util.concurrent.MoreExecutors.shutdownAndAwaitTermination;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An in-process replica of the node's mempool answering lookups by txid without any RPC.
+ *
+ * <p>The mirror is bootstrapped from {@code getrawmempool true} and kept in sync by passing new transactions
+ * and blocks to {@link #onTransaction(Transaction)} and {@link #onBlock(Block)}, e.g. from zeromq {@code rawtx}
+ * and {@code rawblock} subscriptions. Entries of new transactions (and of descendants of confirmed ones) are
+ * fetched with {@code getmempoolentry} in batches every {@code refreshInterval}. Evicted or expired transactions
+ * are not announced by the node - they are removed by a {@code getrawmempool} resync every {@code resyncInterval}.
+ *
+ * <p>Replacements and conflicts are detected by the outputs transactions spend. For entries not received via
+ * {@link #onTransaction(Transaction)} (e.g. from the bootstrap), the spent outputs are fetched with
+ * {@code getrawtransaction} on the next refresh.
+ */
+@Slf4j
+public final class MempoolMirror implements AutoCloseable {
+    private static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofSeconds(1);
+
+    private static final Duration DEFAULT_RESYNC_INTERVAL = Duration.ofMinutes(10);
+
+    private static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+    // returned by bitcoind for transactions not (or no longer) in the mempool
+    private static final int RPC_INVALID_ADDRESS_OR_KEY = -5;
+
+    @Value
+    public static class Entry {
+        Sha256Hash txId;
+
+        /**
+         * Transaction fee in satoshis (without fees of ancestors or descendants).
+         */
+        long fee;
+
+        /**
+         * Virtual transaction size as defined in BIP 141.
+         */
+        long vsize;
+
+        /**
+         * Time the transaction entered the mempool in seconds since epoch.
+         */
+        long time;
+
+        /**
+         * Number of in-mempool ancestors including this one.
+         */
+        int ancestorCount;
+
+        /**
+         * Virtual size of in-mempool ancestors including this one.
+         */
+        long ancestorSize;
+
+        /**
+         * Fees of in-mempool ancestors including this one in satoshis.
+         */
+        long ancestorFees;
+
+        /**
+         * Unconfirmed transactions this transaction spends outputs of.
+         */
+        Set<Sha256Hash> depends;
+
+        @Builder
+        private Entry(Sha256Hash txId, long fee, long vsize, long time, int ancestorCount, long ancestorSize, long ancestorFees, Set<Sha256Hash> depends) {
+            this.txId = requireNonNull(txId);
+            this.fee = fee;
+            this.vsize = vsize;
+            this.time = time;
+            this.ancestorCount = ancestorCount;
+            this.ancestorSize = ancestorSize;
+            this.ancestorFees = ancestorFees;
+            this.depends = ImmutableSet.copyOf(requireNonNull(depends));
+        }
+
+        /**
+         * Returns the fee rate in sat/vB.
+         */
+        public double getFeeRate() {
+            return fee / (double) vsize;
+        }
+
+        /**
+         * Returns the fee rate of this transaction and all of its in-mempool ancestors in sat/vB.
+         */
+        public double getAncestorFeeRate() {
+            return ancestorFees / (double) ancestorSize;
+        }
+    }
+
+    private final BitcoinClient client;
+
+    private final BitcoinJsonRpcBatchClient batchClient;
+
+    private final Duration refreshInterval;
+
+    private final Duration resyncInterval;
+
+    private final int maxBatchSize;
+
+    private final ScheduledExecutorService scheduler;
+
+    // the outpoints of bitcoinj keep their parent transaction reachable
+    private record OutPoint(Sha256Hash txId, long index) {
+    }
+
+    private final Map<Sha256Hash, Entry> entries = new ConcurrentHashMap<>();
+
+    // transactions known to be in the mempool whose entries have not been fetched yet
+    private final Set<Sha256Hash> pending = ConcurrentHashMap.newKeySet();
+
+    // all following fields are guarded by "this"
+    private final Map<Sha256Hash, Set<Sha256Hash>> childrenByParent = new HashMap<>();
+
+    // outpoints spent by mempool transactions - used to detect replacements and conflicts
+    private final Map<OutPoint, Sha256Hash> spentBy = new HashMap<>();
+
+    private final Map<Sha256Hash, List<OutPoint>> inputsByTx = new HashMap<>();
+
+    // entries whose spent outpoints are not known yet
+    private final Set<Sha256Hash> missingInputs = new HashSet<>();
+
+    // transactions removed while a bootstrap or resync waits for the node - null if none is running
+    private Set<Sha256Hash> removedDuringSync;
+
+    // bootstrap and resync must not run concurrently
+    private final Object syncLock = new Object();
+
+    @Builder
+    private MempoolMirror(BitcoinClient client,
+                          BitcoinJsonRpcBatchClient batchClient,
+                          Duration refreshInterval,
+                          Duration resyncInterval,
+                          Integer maxBatchSize) {
+        checkArgument(refreshInterval == null || (!refreshInterval.isNegative() && !refreshInterval.isZero()), "'refreshInterval' must be positive");
+        checkArgument(resyncInterval == null || (!resyncInterval.isNegative() && !resyncInterval.isZero()), "'resyncInterval' must be positive");
+        checkArgument(maxBatchSize == null || maxBatchSize > 0, "'maxBatchSize' must be positive");
+
+        this.client = requireNonNull(client);
+        this.batchClient = batchClient;
+        this.refreshInterval = Optional.ofNullable(refreshInterval).orElse(DEFAULT_REFRESH_INTERVAL);
+        this.resyncInterval = Optional.ofNullable(resyncInterval).orElse(DEFAULT_RESYNC_INTERVAL);
+        this.maxBatchSize = Optional.ofNullable(maxBatchSize).orElse(DEFAULT_MAX_BATCH_SIZE);
+
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder()
+                .setNameFormat("mempool-mirror-%d")
+                .setDaemon(true)
+                .build());
+        executor.setRemoveOnCancelPolicy(true);
+        this.scheduler = executor;
+    }
+
+    /**
+     * Bootstraps the mirror in the background and starts the periodic refresh and resync.
+     */
+    public void start() {
+        scheduler.execute(() -> runSafely("bootstrap", this::bootstrap));
+        scheduler.scheduleWithFixedDelay(() -> runSafely("refresh", this::refreshPending),
+                refreshInterval.toMillis(), refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(() -> runSafely("resync", this::resync),
+                resyncInterval.toMillis(), resyncInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        boolean executorShutdownSuccessful = shutdownAndAwaitTermination(scheduler, Duration.ofSeconds(10));
+        if (!executorShutdownSuccessful) {
+            log.warn("unclean shutdown of executor service");
+        }
+    }
+
+    public Optional<Entry> getEntry(Sha256Hash txId) {
+        return Optional.ofNullable(entries.get(txId));
+    }
+
+    /**
+     * Returns whether the transaction is known to be in the mempool - even if its entry has not been fetched yet.
+     */
+    public boolean contains(Sha256Hash txId) {
+        return entries.containsKey(txId) || pending.contains(txId);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Replaces all entries with the current content of the node's mempool.
+     */
+    public void bootstrap() throws IOException {
+        synchronized (syncLock) {
+            Set<Sha256Hash> known = beginSync();
+            try {
+                Map<String, Map<String, Object>> rawMempool = client.send("getrawmempool", ImmutableList.builder()
+                        .add(true)
+                        .build());
+
+                synchronized (this) {
+                    Set<Sha256Hash> current = new HashSet<>(rawMempool.size());
+                    rawMempool.forEach((txid, rawEntry) -> {
+                        Sha256Hash txId = Sha256Hash.wrap(txid);
+                        current.add(txId);
+
+                        // transactions removed in the meantime (e.g. confirmed) are outdated in the response
+                        if (!removedDuringSync.contains(txId)) {
+                            pending.remove(txId);
+                            putEntry(toEntry(txId, rawEntry));
+                        }
+                    });
+
+                    // entries added in the meantime are kept - they are younger than the response
+                    known.stream()
+                            .filter(txId -> !current.contains(txId))
+                            .forEach(this::remove);
+                }
+
+                log.info("Bootstrapped mempool mirror with {} entries", rawMempool.size());
+            } finally {
+                endSync();
+            }
+        }
+    }
+
+    /**
+     * Adds a transaction that entered the mempool. Transactions spending the same outputs are removed as replaced.
+     */
+    public synchronized void onTransaction(Transaction tx) {
+        if (tx.isCoinBase()) {
+            return;
+        }
+
+        Sha256Hash txId = tx.getTxId();
+        if (entries.containsKey(txId)) {
+            return;
+        }
+
+        List<OutPoint> outpoints = outpoints(tx);
+        for (OutPoint outpoint : outpoints) {
+            Sha256Hash conflicting = spentBy.put(outpoint, txId);
+            if (conflicting != null && !conflicting.equals(txId)) {
+                log.debug("Transaction {} replaces {}", txId, conflicting);
+                removeWithDescendants(conflicting);
+            }
+        }
+        inputsByTx.put(txId, outpoints);
+        missingInputs.remove(txId);
+
+        pending.add(txId);
+    }
+
+    /**
+     * Removes all transactions confirmed by the block and all transactions conflicting with them.
+     * Descendants of confirmed transactions are fetched again, as their ancestor values changed.
+     */
+    public synchronized void onBlock(Block block) {
+        List<Transaction> transactions = Optional.ofNullable(block.getTransactions()).orElse(List.of());
+
+        Set<Sha256Hash> confirmed = new HashSet<>();
+        for (Transaction tx : transactions) {
+            Sha256Hash txId = tx.getTxId();
+            confirmed.add(txId);
+
+            if (!tx.isCoinBase()) {
+                for (OutPoint outpoint : outpoints(tx)) {
+                    Sha256Hash spender = spentBy.get(outpoint);
+                    if (spender != null && !spender.equals(txId)) {
+                        log.debug("Transaction {} conflicts with confirmed transaction {}", spender, txId);
+                        removeWithDescendants(spender);
+                    }
+                }
+            }
+        }
+
+        Set<Sha256Hash> descendants = new LinkedHashSet<>();
+        for (Sha256Hash txId : confirmed) {
+            descendants.addAll(collectDescendants(txId));
+            remove(txId);
+        }
+
+        descendants.removeAll(confirmed);
+        pending.addAll(descendants);
+    }
+
+    /**
+     * Fetches the entries of all pending transactions and the spent outpoints of entries missing them.
+     */
+    public void refreshPending() throws IOException {
+        refreshEntries();
+        refreshInputs();
+    }
+
+    private void refreshEntries() throws IOException {
+        List<Sha256Hash> txIds = ImmutableList.copyOf(pending);
+
+        for (List<Sha256Hash> partition : Iterables.partition(txIds, maxBatchSize)) {
+            List<Optional<Map<String, Object>>> rawEntries = fetchMempoolEntries(partition);
+
+            synchronized (this) {
+                for (int i = 0; i < partition.size(); i++) {
+                    Sha256Hash txId = partition.get(i);
+                    if (!pending.remove(txId)) {
+                        // removed in the meantime
+                        continue;
+                    }
+
+                    Optional<Map<String, Object>> rawEntry = rawEntries.get(i);
+                    if (rawEntry.isPresent()) {
+                        putEntry(toEntry(txId, rawEntry.get()));
+                    } else {
+                        // not (or no longer) in the mempool
+                        remove(txId);
+                    }
+                }
+            }
+        }
+    }
+
+    private void refreshInputs() throws IOException {
+        List<Sha256Hash> txIds;
+        synchronized (this) {
+            txIds = ImmutableList.copyOf(missingInputs);
+        }
+
+        for (List<Sha256Hash> partition : Iterables.partition(txIds, maxBatchSize)) {
+            List<Optional<Transaction>> transactions = fetchTransactions(partition);
+
+            synchronized (this) {
+                for (int i = 0; i < partition.size(); i++) {
+                    Sha256Hash txId = partition.get(i);
+                    if (!missingInputs.remove(txId)) {
+                        // removed or received via #onTransaction in the meantime
+                        continue;
+                    }
+
+                    Optional<Transaction> tx = transactions.get(i);
+                    if (tx.isPresent()) {
+                        putInputs(txId, outpoints(tx.get()));
+                    } else {
+                        // not (or no longer) in the mempool
+                        remove(txId);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes entries not in the node's mempool anymore and queues missing ones.
+     */
+    public void resync() throws IOException {
+        synchronized (syncLock) {
+            Set<Sha256Hash> known = beginSync();
+            try {
+                List<String> txids = client.send("getrawmempool", ImmutableList.builder()
+                        .add(false)
+                        .build());
+
+                Set<Sha256Hash> current = new HashSet<>(txids.size());
+                txids.forEach(txid -> current.add(Sha256Hash.wrap(txid)));
+
+                synchronized (this) {
+                    // entries added in the meantime are kept - they are younger than the response
+                    int removed = 0;
+                    for (Sha256Hash txId : known) {
+                        if (!current.contains(txId)) {
+                            remove(txId);
+                            removed++;
+                        }
+                    }
+
+                    int missing = 0;
+                    for (Sha256Hash txId : current) {
+                        if (!entries.containsKey(txId) && !removedDuringSync.contains(txId) && pending.add(txId)) {
+                            missing++;
+                        }
+                    }
+
+                    log.debug("Resynced mempool mirror: removed {} and queued {} entries", removed, missing);
+                }
+            } finally {
+                endSync();
+            }
+        }
+    }
+
+    // returns the currently known transactions and starts recording removals
+    private synchronized Set<Sha256Hash> beginSync() {
+        removedDuringSync = new HashSet<>();
+
+        Set<Sha256Hash> known = new HashSet<>(entries.keySet());
+        known.addAll(pending);
+        return known;
+    }
+
+    private synchronized void endSync() {
+        removedDuringSync = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Optional<Map<String, Object>>> fetchMempoolEntries(List<Sha256Hash> txIds) throws IOException {
+        if (batchClient == null) {
+            List<Optional<Map<String, Object>>> result = new ArrayList<>(txIds.size());
+            for (Sha256Hash txId : txIds) {
+                try {
+                    Map<String, Object> rawEntry = client.send("getmempoolentry", ImmutableList.builder()
+                            .add(txId.toString())
+                            .build());
+                    result.add(Optional.of(rawEntry));
+                } catch (JsonRpcStatusException e) {
+                    if (e.jsonRpcCode != RPC_INVALID_ADDRESS_OR_KEY) {
+                        // the transactions stay pending and are fetched again on the next refresh
+                        throw e;
+                    }
+                    result.add(Optional.empty());
+                }
+            }
+            return result;
+        }
+
+        List<BitcoinJsonRpcBatchClient.Request> batch = txIds.stream()
+                .map(txId -> BitcoinJsonRpcBatchClient.Request.of("getmempoolentry", txId.toString()))
+                .toList();
+
+        List<BitcoinJsonRpcBatchClient.Response> responses = batchClient.send(batch);
+
+        List<Optional<Map<String, Object>>> result = new ArrayList<>(responses.size());
+        for (int i = 0; i < responses.size(); i++) {
+            result.add(isNotFound(txIds.get(i), responses.get(i))
+                    ? Optional.empty()
+                    : Optional.of((Map<String, Object>) responses.get(i).getResult()));
+        }
+        return result;
+    }
+
+    private List<Optional<Transaction>> fetchTransactions(List<Sha256Hash> txIds) throws IOException {
+        if (batchClient == null) {
+            List<Optional<Transaction>> result = new ArrayList<>(txIds.size());
+            for (Sha256Hash txId : txIds) {
+                try {
+                    result.add(Optional.of(client.getRawTransaction(txId)));
+                } catch (JsonRpcStatusException e) {
+                    if (e.jsonRpcCode != RPC_INVALID_ADDRESS_OR_KEY) {
+                        throw e;
+                    }
+                    result.add(Optional.empty());
+                }
+            }
+            return result;
+        }
+
+        List<BitcoinJsonRpcBatchClient.Request> batch = txIds.stream()
+                .map(txId -> BitcoinJsonRpcBatchClient.Request.of("getrawtransaction", txId.toString(), false))
+                .toList();
+
+        List<BitcoinJsonRpcBatchClient.Response> responses = batchClient.send(batch);
+
+        List<Optional<Transaction>> result = new ArrayList<>(responses.size());
+        for (int i = 0; i < responses.size(); i++) {
+            result.add(isNotFound(txIds.get(i), responses.get(i))
+                    ? Optional.empty()
+                    : Optional.of(new Transaction(client.getNetParams(), Utils.HEX.decode((String) responses.get(i).getResult()))));
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether the node reported the transaction as unknown - any other error fails the whole refresh,
+     * so no transaction is evicted just because the node could not answer.
+     */
+    private static boolean isNotFound(Sha256Hash txId, BitcoinJsonRpcBatchClient.Response response) throws IOException {
+        if (!response.isError()) {
+            return false;
+        }
+
+        BitcoinJsonRpcBatchClient.ResponseError error = response.getError().orElseThrow();
+        if (error.getCode() != RPC_INVALID_ADDRESS_OR_KEY) {
+            throw new IOException("Error while fetching %s: %s (code %d)".formatted(txId, error.getMessage(), error.getCode()));
+        }
+        return true;
+    }
+
+    // must be called while holding the lock
+    private void putEntry(Entry entry) {
+        entries.put(entry.getTxId(), entry);
+        for (Sha256Hash parent : entry.getDepends()) {
+            childrenByParent.computeIfAbsent(parent, it -> new HashSet<>()).add(entry.getTxId());
+        }
+        if (!inputsByTx.containsKey(entry.getTxId())) {
+            missingInputs.add(entry.getTxId());
+        }
+    }
+
+    // must be called while holding the lock
+    private void putInputs(Sha256Hash txId, List<OutPoint> outpoints) {
+        inputsByTx.put(txId, outpoints);
+        for (OutPoint outpoint : outpoints) {
+            Sha256Hash spender = spentBy.putIfAbsent(outpoint, txId);
+            if (spender != null && !spender.equals(txId)) {
+                // the spender received via #onTransaction is younger than the fetched entry
+                log.debug("Transaction {} has been replaced by {}", txId, spender);
+                removeWithDescendants(txId);
+                return;
+            }
+        }
+    }
+
+    // must be called while holding the lock
+    private void remove(Sha256Hash txId) {
+        pending.remove(txId);
+        missingInputs.remove(txId);
+        if (removedDuringSync != null) {
+            removedDuringSync.add(txId);
+        }
+
+        Entry entry = entries.remove(txId);
+        if (entry != null) {
+            for (Sha256Hash parent : entry.getDepends()) {
+                Set<Sha256Hash> siblings = childrenByParent.get(parent);
+                if (siblings != null) {
+                    siblings.remove(txId);
+                    if (siblings.isEmpty()) {
+                        childrenByParent.remove(parent);
+                    }
+                }
+            }
+        }
+
+        List<OutPoint> outpoints = inputsByTx.remove(txId);
+        if (outpoints != null) {
+            outpoints.forEach(outpoint -> spentBy.remove(outpoint, txId));
+        }
+    }
+
+    // must be called while holding the lock
+    private void removeWithDescendants(Sha256Hash txId) {
+        Set<Sha256Hash> descendants = collectDescendants(txId);
+        remove(txId);
+        descendants.forEach(this::remove);
+    }
+
+    // must be called while holding the lock
+    private Set<Sha256Hash> collectDescendants(Sha256Hash txId) {
+        Set<Sha256Hash> descendants = new LinkedHashSet<>();
+        Deque<Sha256Hash> queue = new ArrayDeque<>(childrenByParent.getOrDefault(txId, Set.of()));
+        while (!queue.isEmpty()) {
+            Sha256Hash descendant = queue.poll();
+            if (descendants.add(descendant)) {
+                queue.addAll(childrenByParent.getOrDefault(descendant, Set.of()));
+            }
+        }
+        return descendants;
+    }
+
+    private static List<OutPoint> outpoints(Transaction tx) {
+        return tx.getInputs().stream()
+                .map(TransactionInput::getOutpoint)
+                .map(outpoint -> new OutPoint(outpoint.getHash(), outpoint.getIndex()))
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Entry toEntry(Sha256Hash txId, Map<String, Object> rawEntry) {
+        Map<String, Object> fees = (Map<String, Object>) requireNonNull(rawEntry.get("fees"), "'fees' must not be null");
+        Collection<String> depends = (Collection<String>) Optional.ofNullable(rawEntry.get("depends")).orElse(List.of());
+
+        return Entry.builder()
+                .txId(txId)
+                .fee(toSatoshi(fees.get("base")))
+                .vsize(toLong(rawEntry.get("vsize")))
+                .time(toLong(rawEntry.get("time")))
+                .ancestorCount((int) toLong(rawEntry.get("ancestorcount")))
+                .ancestorSize(toLong(rawEntry.get("ancestorsize")))
+                .ancestorFees(toSatoshi(fees.get("ancestor")))
+                .depends(depends.stream().map(Sha256Hash::wrap).collect(ImmutableSet.toImmutableSet()))
+                .build();
+    }
+
+    private static long toLong(Object value) {
+        return ((Number) requireNonNull(value)).longValue();
+    }
+
+    private static long toSatoshi(Object btc) {
+        return new BigDecimal(requireNonNull(btc).toString()).movePointRight(8).longValueExact();
+    }
+
+    private void runSafely(String name, ThrowingRunnable runnable) {
+        try {
+            runnable.run();
+        } catch (Exception e) {
+            // an exception would cancel all subsequent executions
+            log.warn("Error during {} of mempool mirror: {}", name, e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,140 @@
+package org.tbk.bitcoin.jsonrpc.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.collect.ImmutableList;
+import lombok.Builder;
+import org.bitcoinj.core.Sha256Hash;
+import org.consensusj.jsonrpc.JsonRpcStatusException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Remembers keys the node reported as unknown for a short time, so repeated lookups of missing
+ * transactions or blocks (e.g. while polling for a payment) do not reach the node every time.
+ *
+ * <p>Loaders created with {@link #wrap(CacheLoader)} throw an {@link EntryNotFoundException} for unknown
+ * keys - the error reported by the node is its cause. Keys missing from the result of a bulk load are remembered
+ * as well. Entries should be invalidated as soon as the key becomes known, e.g. when a transaction is announced
+ * via zeromq.
+ */
+public final class NegativeCache {
+    private static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofSeconds(10);
+
+    private static final long DEFAULT_MAX_SIZE = 10_000;
+
+    // returned by bitcoind for unknown transactions and blocks
+    private static final int RPC_INVALID_ADDRESS_OR_KEY = -5;
+
+    private final String name;
+
+    private final Cache<Sha256Hash, Exception> entries;
+
+    @Builder
+    private NegativeCache(String name, Duration timeToLive, Long maxSize) {
+        checkArgument(timeToLive == null || !timeToLive.isNegative(), "'timeToLive' must not be negative");
+        checkArgument(maxSize == null || maxSize >= 0, "'maxSize' must not be negative");
+
+        this.name = requireNonNull(name, "'name' must not be null");
+        this.entries = CacheBuilder.newBuilder()
+                .expireAfterWrite(Optional.ofNullable(timeToLive).orElse(DEFAULT_TIME_TO_LIVE))
+                .maximumSize(Optional.ofNullable(maxSize).orElse(DEFAULT_MAX_SIZE))
+                .recordStats()
+                .build();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns a view of the remembered keys - hits are lookups answered without asking the node.
+     */
+    public Cache<Sha256Hash, Exception> asCache() {
+        return entries;
+    }
+
+    public void invalidate(Sha256Hash key) {
+        entries.invalidate(key);
+    }
+
+    public void invalidateAll(Iterable<Sha256Hash> keys) {
+        entries.invalidateAll(keys);
+    }
+
+    public <V> CacheLoader<Sha256Hash, V> wrap(CacheLoader<Sha256Hash, V> delegate) {
+        return new NegativeCacheLoader<>(delegate);
+    }
+
+    private static boolean isNotFound(Exception e) {
+        return e instanceof EntryNotFoundException
+                || (e instanceof JsonRpcStatusException statusException && statusException.jsonRpcCode == RPC_INVALID_ADDRESS_OR_KEY);
+    }
+
+    private final class NegativeCacheLoader<V> extends CacheLoader<Sha256Hash, V> {
+
+        private final CacheLoader<Sha256Hash, V> delegate;
+
+        private NegativeCacheLoader(CacheLoader<Sha256Hash, V> delegate) {
+            this.delegate = requireNonNull(delegate);
+        }
+
+        @Override
+        public V load(Sha256Hash key) throws Exception {
+            throwIfRemembered(key);
+
+            try {
+                return delegate.load(key);
+            } catch (Exception e) {
+                if (!isNotFound(e)) {
+                    throw e;
+                }
+                entries.put(key, e);
+                throw e instanceof EntryNotFoundException ? e : new EntryNotFoundException(key, "Entry %s not found".formatted(key), e);
+            }
+        }
+
+        @Override
+        public Map<Sha256Hash, V> loadAll(Iterable<? extends Sha256Hash> keys) throws Exception {
+            List<Sha256Hash> keyList = ImmutableList.copyOf(keys);
+            if (keyList.stream().anyMatch(entries.asMap()::containsKey)) {
+                // makes the cache load every entry on its own - known keys are still loaded,
+                // while remembered ones fail without asking the node
+                return super.loadAll(keyList);
+            }
+
+            Map<Sha256Hash, V> result;
+            try {
+                result = delegate.loadAll(keyList);
+            } catch (EntryNotFoundException e) {
+                e.getKeys().forEach(key -> entries.put(key, e));
+                throw e;
+            }
+
+            // keys left out of the result are unknown to the node - the cache reports them as missing
+            List<Sha256Hash> missingKeys = keyList.stream()
+                    .filter(key -> !result.containsKey(key))
+                    .toList();
+            if (!missingKeys.isEmpty()) {
+                EntryNotFoundException cause = new EntryNotFoundException(missingKeys,
+                        "Entries %s not found".formatted(missingKeys), null);
+                missingKeys.forEach(key -> entries.put(key, cause));
+            }
+            return result;
+        }
+
+        private void throwIfRemembered(Sha256Hash key) throws EntryNotFoundException {
+            Exception cause = entries.getIfPresent(key);
+            if (cause != null) {
+                throw new EntryNotFoundException(key, "Entry %s not found (cached)".formatted(key), cause);
+            }
+        }
+    }
+}
@@ -5,8 +5,18 @@ import com.google.common.cache.LoadingCache;
 import org.bitcoinj.core.Sha256Hash;
 import org.consensusj.bitcoin.json.pojo.RawTransactionInfo;
 
-public final class RawTransactionInfoCache extends SimpleForwardingLoadingCache<Sha256Hash, RawTransactionInfo> {
+import java.io.Closeable;
+import java.io.IOException;
+
+public final class RawTransactionInfoCache extends SimpleForwardingLoadingCache<Sha256Hash, RawTransactionInfo> implements Closeable {
     public RawTransactionInfoCache(LoadingCache<Sha256Hash, RawTransactionInfo> delegate) {
         super(delegate);
     }
+
+    @Override
+    public void close() throws IOException {
+        if (delegate() instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
 }
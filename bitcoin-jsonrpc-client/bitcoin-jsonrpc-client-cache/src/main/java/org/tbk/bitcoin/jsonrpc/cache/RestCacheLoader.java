@@ -0,0 +1,69 @@
+package org.tbk.bitcoin.jsonrpc.cache;
+
+import com.google.common.cache.CacheLoader;
+import lombok.extern.slf4j.Slf4j;
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.tbk.bitcoin.jsonrpc.BitcoinRestClient;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A cache loader fetching entries in binary format via {@link BitcoinRestClient} instead of JSON-RPC.
+ *
+ * <p>If an entry cannot be fetched via REST (e.g. the REST interface is disabled on the node),
+ * it is loaded with the delegate. Bulk loads are passed to the delegate as a whole - the REST interface
+ * has no batch requests, and a single JSON-RPC batch is cheaper than one REST request per entry.
+ *
+ * @param <V> the type of the cached values
+ */
+@Slf4j
+public final class RestCacheLoader<V> extends CacheLoader<Sha256Hash, V> {
+
+    @FunctionalInterface
+    private interface Fetcher<V> {
+        V fetch(Sha256Hash key) throws IOException;
+    }
+
+    public static RestCacheLoader<Transaction> transactions(BitcoinRestClient restClient,
+                                                            CacheLoader<Sha256Hash, Transaction> delegate) {
+        return new RestCacheLoader<>(restClient::getTransaction, delegate);
+    }
+
+    public static RestCacheLoader<Block> blocks(BitcoinRestClient restClient,
+                                                CacheLoader<Sha256Hash, Block> delegate) {
+        return new RestCacheLoader<>(restClient::getBlock, delegate);
+    }
+
+    private final Fetcher<V> fetcher;
+
+    private final CacheLoader<Sha256Hash, V> delegate;
+
+    private RestCacheLoader(Fetcher<V> fetcher, CacheLoader<Sha256Hash, V> delegate) {
+        this.fetcher = requireNonNull(fetcher);
+        this.delegate = requireNonNull(delegate);
+    }
+
+    @Override
+    public V load(Sha256Hash key) throws Exception {
+        try {
+            return fetcher.fetch(key);
+        } catch (IOException e) {
+            log.debug("Error while fetching entry {} via REST - loading it via JSON-RPC: {}", key, e.getMessage());
+            return delegate.load(key);
+        }
+    }
+
+    /**
+     * Loads all entries with the delegate. If the delegate does not support bulk loads either,
+     * the cache falls back to loading every entry on its own via {@link #load}.
+     */
+    @Override
+    public Map<Sha256Hash, V> loadAll(Iterable<? extends Sha256Hash> keys) throws Exception {
+        return delegate.loadAll(keys);
+    }
+}
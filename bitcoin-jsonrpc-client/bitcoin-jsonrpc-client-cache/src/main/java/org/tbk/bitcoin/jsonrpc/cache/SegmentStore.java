@@ -0,0 +1,284 @@
+package org.tbk.bitcoin.jsonrpc.cache;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.bitcoinj.core.Sha256Hash;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.CRC32;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An append-only store of raw values keyed by hash, persisted in memory-mapped segment files.
+ *
+ * <p>Values are appended to the current segment until it is full, then a new segment is started.
+ * The location of every value is appended to an index file, which is read into memory on {@link #open}.
+ * The index starts with a header holding the segment size - a store can only be reopened with the segment size
+ * it has been created with, as the locations of all values depend on it.
+ * Values are never updated or removed - this store is only suited for immutable data like
+ * serialized blocks and transactions.
+ *
+ * <p>Every index record carries a checksum of its value. Values that do not match their checksum
+ * (e.g. because the machine crashed before a segment had been written to disk) are treated as missing.
+ */
+@Slf4j
+public final class SegmentStore implements Closeable {
+    public static final int DEFAULT_SEGMENT_SIZE = 256 * 1024 * 1024;
+
+    private static final String INDEX_FILE_NAME = "index.dat";
+
+    // "SEGS"
+    private static final int INDEX_MAGIC = 0x53454753;
+
+    // magic, segment size
+    private static final int INDEX_HEADER_SIZE = 4 + 4;
+
+    // hash (32 bytes), segment, offset, length, checksum
+    private static final int INDEX_RECORD_SIZE = 32 + 4 + 4 + 4 + 4;
+
+    public static SegmentStore open(Path directory) throws IOException {
+        return open(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public static SegmentStore open(Path directory, int segmentSize) throws IOException {
+        checkArgument(segmentSize > 0, "'segmentSize' must be positive");
+
+        Files.createDirectories(requireNonNull(directory));
+
+        FileChannel indexChannel = FileChannel.open(directory.resolve(INDEX_FILE_NAME),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            SegmentStore store = new SegmentStore(directory, segmentSize, indexChannel);
+            store.readHeader();
+            store.readIndex();
+            return store;
+        } catch (IOException | RuntimeException e) {
+            indexChannel.close();
+            throw e;
+        }
+    }
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final FileChannel indexChannel;
+
+    private final List<MappedByteBuffer> segments = new CopyOnWriteArrayList<>();
+
+    private final ConcurrentMap<Sha256Hash, Location> index = new ConcurrentHashMap<>();
+
+    // guarded by "this"
+    private int writePosition;
+
+    private volatile boolean closed;
+
+    private SegmentStore(Path directory, int segmentSize, FileChannel indexChannel) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.indexChannel = indexChannel;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public boolean contains(Sha256Hash key) {
+        return index.containsKey(key);
+    }
+
+    public Optional<byte[]> get(Sha256Hash key) {
+        Location location = index.get(key);
+        if (location == null) {
+            return Optional.empty();
+        }
+
+        byte[] value = new byte[location.getLength()];
+        segments.get(location.getSegment()).get(location.getOffset(), value);
+
+        if (checksum(value) != location.getChecksum()) {
+            log.warn("Checksum mismatch of entry {} in segment {} of {}", key, location.getSegment(), directory);
+            return Optional.empty();
+        }
+
+        return Optional.of(value);
+    }
+
+    /**
+     * Appends the given value to the store.
+     *
+     * @return {@code true} if the value has been stored, {@code false} if the key is already present
+     * or the value does not fit into a single segment
+     */
+    public synchronized boolean put(Sha256Hash key, byte[] value) throws IOException {
+        checkState(!closed, "Store has already been closed");
+
+        if (index.containsKey(key)) {
+            return false;
+        }
+        if (value.length > segmentSize) {
+            log.debug("Not storing entry {} with {} bytes: exceeds segment size of {} bytes", key, value.length, segmentSize);
+            return false;
+        }
+
+        if (segments.isEmpty() || writePosition + value.length > segmentSize) {
+            segments.add(mapSegment(segments.size()));
+            writePosition = 0;
+        }
+
+        Location location = new Location(segments.size() - 1, writePosition, value.length, checksum(value));
+        segments.get(location.getSegment()).put(location.getOffset(), value);
+
+        ByteBuffer record = ByteBuffer.allocate(INDEX_RECORD_SIZE)
+                .put(key.getBytes())
+                .putInt(location.getSegment())
+                .putInt(location.getOffset())
+                .putInt(location.getLength())
+                .putInt(location.getChecksum())
+                .flip();
+        while (record.hasRemaining()) {
+            indexChannel.write(record);
+        }
+
+        writePosition += value.length;
+
+        // publish only after the value has been written completely
+        index.put(key, location);
+
+        return true;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        segments.forEach(MappedByteBuffer::force);
+        indexChannel.force(true);
+        indexChannel.close();
+    }
+
+    private void readHeader() throws IOException {
+        if (indexChannel.size() == 0) {
+            writeFully(ByteBuffer.allocate(INDEX_HEADER_SIZE)
+                    .putInt(INDEX_MAGIC)
+                    .putInt(segmentSize)
+                    .flip(), 0);
+            indexChannel.force(true);
+            return;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_SIZE);
+        int read;
+        do {
+            read = indexChannel.read(header, header.position());
+        } while (read > 0 && header.hasRemaining());
+        header.flip();
+
+        if (header.remaining() < INDEX_HEADER_SIZE || header.getInt() != INDEX_MAGIC) {
+            throw new IOException("Index in %s is not a valid store index".formatted(directory));
+        }
+
+        int storedSegmentSize = header.getInt();
+        checkArgument(storedSegmentSize == segmentSize, "Store in %s has been created with a segment size of %s bytes "
+                + "- cannot open it with %s bytes", directory, storedSegmentSize, segmentSize);
+    }
+
+    private void readIndex() throws IOException {
+        long recordsSize = indexChannel.size() - INDEX_HEADER_SIZE;
+        if (recordsSize % INDEX_RECORD_SIZE != 0) {
+            log.warn("Truncating incomplete record at the end of index in {}", directory);
+            indexChannel.truncate(INDEX_HEADER_SIZE + (recordsSize / INDEX_RECORD_SIZE) * INDEX_RECORD_SIZE);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(INDEX_RECORD_SIZE * 1024);
+        indexChannel.position(INDEX_HEADER_SIZE);
+
+        int lastSegment = -1;
+        int lastSegmentEnd = 0;
+        byte[] hash = new byte[32];
+
+        while (indexChannel.read(buffer) > 0 || buffer.position() > 0) {
+            buffer.flip();
+            if (buffer.remaining() < INDEX_RECORD_SIZE) {
+                break;
+            }
+            while (buffer.remaining() >= INDEX_RECORD_SIZE) {
+                buffer.get(hash);
+                Location location = new Location(buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt());
+                index.put(Sha256Hash.wrap(hash.clone()), location);
+
+                if (location.getSegment() > lastSegment) {
+                    lastSegment = location.getSegment();
+                    lastSegmentEnd = 0;
+                }
+                if (location.getSegment() == lastSegment) {
+                    lastSegmentEnd = Math.max(lastSegmentEnd, location.getOffset() + location.getLength());
+                }
+            }
+            buffer.compact();
+        }
+
+        for (int i = 0; i <= lastSegment; i++) {
+            segments.add(mapSegment(i));
+        }
+        writePosition = lastSegmentEnd;
+
+        indexChannel.position(indexChannel.size());
+
+        log.debug("Opened store in {} with {} entries in {} segments", directory, index.size(), segments.size());
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += indexChannel.write(buffer, position);
+        }
+    }
+
+    private MappedByteBuffer mapSegment(int segment) throws IOException {
+        Path file = directory.resolve("segment-%05d.dat".formatted(segment));
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // the mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private static int checksum(byte[] value) {
+        CRC32 crc = new CRC32();
+        crc.update(value);
+        return (int) crc.getValue();
+    }
+
+    @Value
+    private static class Location {
+        int segment;
+
+        int offset;
+
+        int length;
+
+        int checksum;
+    }
+}
@@ -5,8 +5,18 @@ import com.google.common.cache.LoadingCache;
 import org.bitcoinj.core.Sha256Hash;
 import org.bitcoinj.core.Transaction;
 
-public final class TransactionCache extends SimpleForwardingLoadingCache<Sha256Hash, Transaction> {
+import java.io.Closeable;
+import java.io.IOException;
+
+public final class TransactionCache extends SimpleForwardingLoadingCache<Sha256Hash, Transaction> implements Closeable {
     public TransactionCache(LoadingCache<Sha256Hash, Transaction> delegate) {
         super(delegate);
     }
+
+    @Override
+    public void close() throws IOException {
+        if (delegate() instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
 }
@@ -0,0 +1,177 @@
+package org.tbk.bitcoin.jsonrpc.cache;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.Utils;
+import org.bitcoinj.params.RegTestParams;
+import org.bitcoinj.script.ScriptBuilder;
+import org.bitcoinj.script.ScriptOpCodes;
+import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
+import org.consensusj.bitcoin.jsonrpc.RpcConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tbk.bitcoin.jsonrpc.BitcoinJsonRpcBatchClient;
+import org.tbk.bitcoin.jsonrpc.test.BitcoinNodeStub;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BatchCacheLoaderTest {
+    private static final NetworkParameters params = RegTestParams.get();
+
+    // transactions known to the stub node by txid
+    private final Map<String, Transaction> transactions = new ConcurrentHashMap<>();
+
+    // txids answered with an error other than "not found"
+    private final Map<String, Integer> errors = new ConcurrentHashMap<>();
+
+    private BitcoinNodeStub node;
+
+    private BitcoinClient client;
+
+    private BitcoinJsonRpcBatchClient batchClient;
+
+    @BeforeEach
+    void setUp() {
+        node = BitcoinNodeStub.builder()
+                .rpcHandler(this::getRawTransaction)
+                .start();
+
+        RpcConfig rpcConfig = node.rpcConfig(params);
+        client = new BitcoinClient(rpcConfig);
+        batchClient = BitcoinJsonRpcBatchClient.builder()
+                .rpcConfig(rpcConfig)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        node.close();
+    }
+
+    @Test
+    void itShouldLoadEntriesInPartitionedBatches() throws Exception {
+        List<Sha256Hash> txIds = IntStream.range(0, 5)
+                .mapToObj(this::addTransaction)
+                .toList();
+
+        BatchCacheLoader<Transaction> sut = BatchCacheLoader.transactions(client, batchClient, 2);
+
+        Map<Sha256Hash, Transaction> result = sut.loadAll(txIds);
+
+        assertThat(node.getBatchSizes(), is(List.of(2, 2, 1)));
+        assertThat(node.getSingleRequestCount(), is(0));
+        assertThat(List.copyOf(result.keySet()), is(txIds));
+        for (Sha256Hash txId : txIds) {
+            assertThat(result.get(txId).getTxId(), is(txId));
+        }
+    }
+
+    @Test
+    void itShouldLeaveUnknownEntriesOutOfTheResult() throws Exception {
+        Sha256Hash knownTxId = addTransaction(0);
+        Sha256Hash unknownTxId = Sha256Hash.of(new byte[]{42});
+        Sha256Hash otherKnownTxId = addTransaction(1);
+
+        BatchCacheLoader<Transaction> sut = BatchCacheLoader.transactions(client, batchClient, 10);
+
+        Map<Sha256Hash, Transaction> result = sut.loadAll(List.of(knownTxId, unknownTxId, otherKnownTxId));
+
+        assertThat(result.keySet(), is(Set.of(knownTxId, otherKnownTxId)));
+        assertThat(node.getBatchSizes(), is(List.of(3)));
+    }
+
+    @Test
+    void itShouldCacheKnownEntriesOfAMixedBatchAndRememberUnknownOnes() {
+        Sha256Hash knownTxId = addTransaction(0);
+        Sha256Hash unknownTxId = Sha256Hash.of(new byte[]{42});
+
+        NegativeCache negativeCache = NegativeCache.builder()
+                .name("test")
+                .build();
+
+        LoadingCache<Sha256Hash, Transaction> cache = CacheBuilder.newBuilder()
+                .build(negativeCache.wrap(BatchCacheLoader.transactions(client, batchClient, 10)));
+
+        assertThrows(CacheLoader.InvalidCacheLoadException.class, () -> cache.getAll(List.of(knownTxId, unknownTxId)));
+        assertThat(node.getBatchSizes(), is(List.of(2)));
+
+        assertThat(cache.getIfPresent(knownTxId).getTxId(), is(knownTxId));
+        assertThat(negativeCache.asCache().asMap().keySet(), is(Set.of(unknownTxId)));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> cache.get(unknownTxId));
+        assertThat(e.getCause(), is(instanceOf(EntryNotFoundException.class)));
+        assertThat("remembered keys do not reach the node", node.getSingleRequestCount(), is(0));
+    }
+
+    @Test
+    void itShouldThrowIOExceptionOnOtherErrors() {
+        Sha256Hash txId = addTransaction(0);
+        errors.put(txId.toString(), -28);
+
+        BatchCacheLoader<Transaction> sut = BatchCacheLoader.transactions(client, batchClient, 10);
+
+        IOException e = assertThrows(IOException.class, () -> sut.loadAll(List.of(txId)));
+        assertThat(e, is(not(instanceOf(EntryNotFoundException.class))));
+        assertThat(e.getMessage(), containsString("code -28"));
+    }
+
+    @Test
+    void itShouldLoadEntriesOneByOneWithoutBatchClient() throws Exception {
+        List<Sha256Hash> txIds = IntStream.range(0, 3)
+                .mapToObj(this::addTransaction)
+                .toList();
+
+        LoadingCache<Sha256Hash, Transaction> cache = CacheBuilder.newBuilder()
+                .build(BatchCacheLoader.transactions(client, null, 10));
+
+        Map<Sha256Hash, Transaction> result = cache.getAll(txIds);
+
+        assertThat(result.size(), is(3));
+        assertThat(node.getBatchSizes().isEmpty(), is(true));
+        assertThat(node.getSingleRequestCount(), is(3));
+    }
+
+    private Sha256Hash addTransaction(int index) {
+        Transaction tx = new Transaction(params);
+        tx.addInput(Sha256Hash.ZERO_HASH, index, new ScriptBuilder().build());
+        tx.addOutput(Coin.valueOf(1), new ScriptBuilder().op(ScriptOpCodes.OP_TRUE).build());
+
+        transactions.put(tx.getTxId().toString(), tx);
+        return tx.getTxId();
+    }
+
+    private String getRawTransaction(BitcoinNodeStub.RpcRequest request) {
+        String txId = request.stringParam(0);
+
+        Integer errorCode = errors.get(txId);
+        if (errorCode != null) {
+            throw new BitcoinNodeStub.RpcError(errorCode, "Loading block index...");
+        }
+
+        Transaction tx = transactions.get(txId);
+        if (tx == null) {
+            throw new BitcoinNodeStub.RpcError(-5, "No such mempool or blockchain transaction");
+        }
+        return Utils.HEX.encode(tx.bitcoinSerialize());
+    }
+}
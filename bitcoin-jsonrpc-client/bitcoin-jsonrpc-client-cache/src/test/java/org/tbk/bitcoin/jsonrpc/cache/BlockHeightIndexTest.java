@@ -0,0 +1,215 @@
+package org.tbk.bitcoin.jsonrpc.cache;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.params.RegTestParams;
+import org.consensusj.bitcoin.json.conversion.RpcClientModule;
+import org.consensusj.bitcoin.json.pojo.BlockInfo;
+import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tbk.bitcoin.jsonrpc.test.BitcoinNodeStub;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class BlockHeightIndexTest {
+    private static final NetworkParameters params = RegTestParams.get();
+
+    private static final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new RpcClientModule(params))
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final Map<Sha256Hash, BlockInfo> blockInfos = new ConcurrentHashMap<>();
+
+    // the hashes of the active chain by height, as reported by the node
+    private final Map<Integer, Sha256Hash> activeChain = new ConcurrentHashMap<>();
+
+    private BitcoinNodeStub node;
+
+    private BitcoinClient client;
+
+    private BlockInfoCache blockInfoCache;
+
+    private BlockHeightIndex sut;
+
+    @BeforeEach
+    void setUp() {
+        // the node is only asked for block hashes - all block infos are taken from "blockInfos"
+        node = BitcoinNodeStub.builder()
+                .rpcHandler(this::handle)
+                .start();
+        client = new BitcoinClient(node.rpcConfig(params));
+
+        BlockCache blockCache = new BlockCache(CacheBuilder.newBuilder().build(CacheLoader.<Sha256Hash, Block>from(hash -> {
+            throw new IllegalStateException("blocks must not be loaded");
+        })));
+        blockInfoCache = new BlockInfoCache(CacheBuilder.newBuilder().build(CacheLoader.<Sha256Hash, BlockInfo>from(blockInfos::get)));
+
+        sut = BlockHeightIndex.builder()
+                .client(client)
+                .blockCache(blockCache)
+                .blockInfoCache(blockInfoCache)
+                .maxReorgDepth(10)
+                .build();
+
+        for (int height = 0; height <= 5; height++) {
+            addBlock("a", height, height == 0 ? null : hash("a", height - 1), 0);
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        node.close();
+    }
+
+    @Test
+    void itShouldReplaceOrphanedBlocksOnReorg() throws ExecutionException {
+        indexChain("a", 5);
+
+        addBlock("b", 4, hash("a", 3), 0);
+        addBlock("b", 5, hash("b", 4), 0);
+        addBlock("b", 6, hash("b", 5), 0);
+        blockInfoCache.get(hash("a", 3));
+
+        sut.onBlockHash(hash("b", 6));
+
+        assertThat(sut.findBlockHash(3), is(Optional.of(hash("a", 3))));
+        assertThat(sut.findBlockHash(4), is(Optional.of(hash("b", 4))));
+        assertThat(sut.findBlockHash(5), is(Optional.of(hash("b", 5))));
+        assertThat(sut.findBlockHash(6), is(Optional.of(hash("b", 6))));
+        assertThat(sut.size(), is(7));
+
+        assertThat(blockInfoCache.getIfPresent(hash("a", 5)) == null, is(true));
+        // the common ancestor has another successor now
+        assertThat(blockInfoCache.getIfPresent(hash("a", 3)) == null, is(true));
+    }
+
+    @Test
+    void itShouldOrphanDescendantsOfReplacedBlocks() throws ExecutionException {
+        indexChain("a", 5);
+
+        addBlock("b", 4, hash("a", 3), 0);
+        sut.onBlockHash(hash("b", 4));
+
+        assertThat(sut.findBlockHash(4), is(Optional.of(hash("b", 4))));
+        assertThat(sut.findBlockHash(5), is(Optional.empty()));
+        assertThat(sut.size(), is(5));
+    }
+
+    @Test
+    void itShouldKeepDescendantsOnOutOfOrderNotifications() throws ExecutionException {
+        sut.onBlockHash(hash("a", 5));
+        sut.onBlockHash(hash("a", 4));
+        sut.onBlockHash(hash("a", 3));
+
+        assertThat(sut.findBlockHash(3), is(Optional.of(hash("a", 3))));
+        assertThat(sut.findBlockHash(4), is(Optional.of(hash("a", 4))));
+        assertThat(sut.findBlockHash(5), is(Optional.of(hash("a", 5))));
+        assertThat(sut.size(), is(3));
+    }
+
+    @Test
+    void itShouldIgnoreDuplicateNotifications() throws ExecutionException {
+        indexChain("a", 5);
+        blockInfoCache.get(hash("a", 4));
+
+        sut.onBlockHash(hash("a", 5));
+        assertThat(blockInfoCache.getIfPresent(hash("a", 4)) != null, is(true));
+
+        sut.onBlockHash(hash("a", 3));
+
+        assertThat(sut.findBlockHash(5), is(Optional.of(hash("a", 5))));
+        assertThat(sut.size(), is(6));
+    }
+
+    @Test
+    void itShouldIgnoreNotificationsOfBlocksNotInTheActiveChain() throws ExecutionException {
+        indexChain("a", 5);
+
+        addBlock("b", 5, hash("a", 4), -1);
+        sut.onBlockHash(hash("b", 5));
+
+        assertThat(sut.findBlockHash(5), is(Optional.of(hash("a", 5))));
+        assertThat(sut.size(), is(6));
+    }
+
+    @Test
+    void itShouldInvalidateTheParentOfANewBlock() throws ExecutionException {
+        indexChain("a", 4);
+        blockInfoCache.get(hash("a", 4));
+
+        sut.onBlockHash(hash("a", 5));
+
+        assertThat(sut.findBlockHash(5), is(Optional.of(hash("a", 5))));
+        assertThat(blockInfoCache.getIfPresent(hash("a", 4)) == null, is(true));
+    }
+
+    @Test
+    void itShouldNotMemoizeBlocksThatMightStillBeOrphaned() throws IOException {
+        for (int height = 0; height <= 20; height++) {
+            activeChain.put(height, hash("a", height));
+        }
+
+        assertThat(sut.getBlockHash(20), is(hash("a", 20)));
+        assertThat(sut.getBlockHash(5), is(hash("a", 5)));
+
+        // a reorg the index is not notified about
+        activeChain.put(19, hash("b", 19));
+        activeChain.put(20, hash("b", 20));
+
+        assertThat(sut.getBlockHash(19), is(hash("b", 19)));
+        assertThat(sut.getBlockHash(20), is(hash("b", 20)));
+
+        // only blocks deeper than "maxReorgDepth" are memoized
+        assertThat(sut.findBlockHash(5), is(Optional.of(hash("a", 5))));
+        assertThat(sut.findBlockHash(20), is(Optional.empty()));
+        assertThat(sut.size(), is(1));
+    }
+
+    private void indexChain(String chain, int tipHeight) throws ExecutionException {
+        for (int height = 0; height <= tipHeight; height++) {
+            sut.onBlockHash(hash(chain, height));
+        }
+    }
+
+    private void addBlock(String chain, int height, Sha256Hash previousBlockHash, int confirmations) {
+        Map<String, Object> json = new HashMap<>();
+        json.put("hash", hash(chain, height).toString());
+        json.put("height", height);
+        json.put("confirmations", confirmations);
+        json.put("previousblockhash", previousBlockHash == null ? null : previousBlockHash.toString());
+
+        blockInfos.put(hash(chain, height), mapper.convertValue(json, BlockInfo.class));
+    }
+
+    private Object handle(BitcoinNodeStub.RpcRequest request) {
+        if ("getblockcount".equals(request.method())) {
+            return activeChain.size() - 1;
+        }
+        Sha256Hash blockHash = activeChain.get(request.intParam(0));
+        if (blockHash == null) {
+            throw new BitcoinNodeStub.RpcError(-8, "Block height out of range");
+        }
+        return blockHash.toString();
+    }
+
+    private static Sha256Hash hash(String chain, int height) {
+        return Sha256Hash.of((chain + height).getBytes(StandardCharsets.UTF_8));
+    }
+}
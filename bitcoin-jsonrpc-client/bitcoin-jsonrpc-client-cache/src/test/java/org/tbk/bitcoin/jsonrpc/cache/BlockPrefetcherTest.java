@@ -0,0 +1,234 @@
+package org.tbk.bitcoin.jsonrpc.cache;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.params.RegTestParams;
+import org.bitcoinj.script.ScriptBuilder;
+import org.bitcoinj.script.ScriptOpCodes;
+import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tbk.bitcoin.jsonrpc.test.BitcoinNodeStub;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class BlockPrefetcherTest {
+    private static final NetworkParameters params = RegTestParams.get();
+
+    private static final int TIP_HEIGHT = 1000;
+
+    // heights of all blocks loaded into the cache
+    private final Map<Sha256Hash, Integer> heightsByHash = new ConcurrentHashMap<>();
+
+    private final Map<Integer, Integer> loadsByHeight = new ConcurrentHashMap<>();
+
+    // if set, loading the blocks at heights "blockedFromHeight" to "blockedToHeight" waits for this latch
+    private volatile CountDownLatch loadLatch;
+
+    private final CountDownLatch blockedLoadStarted = new CountDownLatch(1);
+
+    private volatile int blockedFromHeight = Integer.MAX_VALUE;
+
+    private volatile int blockedToHeight = Integer.MIN_VALUE;
+
+    private BitcoinNodeStub node;
+
+    private BitcoinClient client;
+
+    private BlockHeightIndex heightIndex;
+
+    @BeforeEach
+    void setUp() {
+        // the tip is far ahead - all looked up hashes are memoized by the index
+        node = BitcoinNodeStub.builder()
+                .rpcHandler(request -> "getblockcount".equals(request.method())
+                        ? TIP_HEIGHT
+                        : hashOfHeight(request.intParam(0)).toString())
+                .start();
+
+        client = new BitcoinClient(node.rpcConfig(params));
+
+        BlockCache blockCache = new BlockCache(CacheBuilder.newBuilder().build(CacheLoader.from(this::loadBlock)));
+        BlockInfoCache blockInfoCache = new BlockInfoCache(CacheBuilder.newBuilder().build(CacheLoader.from(hash -> {
+            throw new IllegalStateException("block infos must not be loaded");
+        })));
+
+        heightIndex = BlockHeightIndex.builder()
+                .client(client)
+                .blockCache(blockCache)
+                .blockInfoCache(blockInfoCache)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        node.close();
+    }
+
+    @Test
+    void itShouldPrefetchOnlyAfterSequentialAccess() throws IOException, ExecutionException {
+        try (BlockPrefetcher sut = BlockPrefetcher.builder()
+                .heightIndex(heightIndex)
+                .windowSize(4)
+                .sequentialThreshold(3)
+                .parallelism(1)
+                .build()) {
+
+            // the first access is not sequential - neither are two accesses in a row
+            for (int height = 0; height <= 2; height++) {
+                sut.getBlock(height);
+            }
+            assertThat(sut.getPrefetchedCount(), is(0L));
+            assertThat(loadsByHeight.keySet(), is(Set.of(0, 1, 2)));
+
+            // the third sequential access triggers prefetching of the following blocks
+            sut.getBlock(3);
+            assertThat(sut.getHitCount(), is(0L));
+
+            for (int height = 4; height <= 7; height++) {
+                sut.getBlock(height);
+            }
+            assertThat(sut.getHitCount(), is(4L));
+        }
+    }
+
+    @Test
+    void itShouldDetectSequentialAccessOfConcurrentReaders() throws IOException, ExecutionException {
+        try (BlockPrefetcher sut = BlockPrefetcher.builder()
+                .heightIndex(heightIndex)
+                .windowSize(4)
+                .sequentialThreshold(3)
+                .parallelism(1)
+                .build()) {
+
+            // a parallel scan requests blocks slightly out of order - overtaken readers are not a jump
+            for (int height : List.of(0, 2, 1, 3, 5, 4)) {
+                sut.getBlock(height);
+            }
+            assertThat(sut.getHitCount(), is(0L));
+
+            sut.getBlock(6);
+            assertThat(sut.getHitCount(), is(1L));
+            assertThat(loadsByHeight.keySet(), is(Set.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9)));
+        }
+    }
+
+    @Test
+    void itShouldRefillTheWindowOnceHalfOfItHasBeenConsumed() throws IOException, ExecutionException {
+        try (BlockPrefetcher sut = BlockPrefetcher.builder()
+                .heightIndex(heightIndex)
+                .windowSize(4)
+                .sequentialThreshold(1)
+                .parallelism(1)
+                .build()) {
+
+            for (int height = 0; height <= 20; height++) {
+                sut.getBlock(height);
+            }
+
+            // every block after the first two was prefetched - and loaded exactly once
+            assertThat(sut.getHitCount(), is(19L));
+            for (int height = 0; height <= 20; height++) {
+                assertThat(loadsByHeight.get(height), is(1));
+            }
+            // at most one window ahead of the last requested block
+            assertThat(loadsByHeight.keySet().stream().mapToInt(Integer::intValue).max().orElseThrow() <= 20 + 4, is(true));
+        }
+    }
+
+    @Test
+    void itShouldStopPrefetchingOnceTheByteLimitIsReached() {
+        BlockPrefetcher sut = BlockPrefetcher.builder()
+                .heightIndex(heightIndex)
+                .windowSize(2)
+                .parallelism(1)
+                .maxPrefetchedBytes(1L)
+                .build();
+
+        // five chunks of two blocks - the first one exceeds the limit
+        sut.prefetch(0, 9);
+        sut.close();
+
+        assertThat(sut.getPrefetchedCount(), is(2L));
+        assertThat(sut.getPrefetchedBytes(), is(2L * block(hashOfHeight(0)).getMessageSize()));
+        assertThat(loadsByHeight.size(), is(2));
+    }
+
+    @Test
+    void itShouldDiscardLoadsInProgressWhenTheScanJumps() throws Exception {
+        BlockPrefetcher sut = BlockPrefetcher.builder()
+                .heightIndex(heightIndex)
+                .windowSize(4)
+                .sequentialThreshold(0)
+                .parallelism(1)
+                .build();
+
+        blockedFromHeight = 1;
+        blockedToHeight = 4;
+        loadLatch = new CountDownLatch(1);
+
+        // prefetches blocks 1 to 4 - the load waits for the latch
+        sut.getBlock(0);
+        assertThat(blockedLoadStarted.await(10, TimeUnit.SECONDS), is(true));
+
+        // prefetches blocks 51 to 54 once the previous load has finished
+        sut.getBlock(50);
+        loadLatch.countDown();
+        sut.close();
+
+        int blockSize = block(hashOfHeight(0)).getMessageSize();
+        assertThat(sut.getPrefetchedCount(), is(4L));
+        assertThat(sut.getPrefetchedBytes(), is(4L * blockSize));
+    }
+
+    private Block loadBlock(Sha256Hash hash) {
+        int height = heightsByHash.get(hash);
+        loadsByHeight.merge(height, 1, Integer::sum);
+
+        CountDownLatch latch = loadLatch;
+        if (latch != null && height >= blockedFromHeight && height <= blockedToHeight) {
+            blockedLoadStarted.countDown();
+            try {
+                latch.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return block(hash);
+    }
+
+    private Sha256Hash hashOfHeight(int height) {
+        Sha256Hash hash = Sha256Hash.of(("block" + height).getBytes(StandardCharsets.UTF_8));
+        heightsByHash.put(hash, height);
+        return hash;
+    }
+
+    // every block contains a single transaction unique to the block - all blocks have the same size
+    private static Block block(Sha256Hash hash) {
+        Transaction tx = new Transaction(params);
+        tx.addInput(hash, 0, new ScriptBuilder().build());
+        tx.addOutput(Coin.valueOf(1), new ScriptBuilder().op(ScriptOpCodes.OP_TRUE).build());
+
+        Block block = new Block(params, Block.BLOCK_VERSION_BIP66, Sha256Hash.ZERO_HASH, Sha256Hash.ZERO_HASH,
+                1600000000L, Block.EASIEST_DIFFICULTY_TARGET, 0, List.of(tx));
+        return new Block(params, block.bitcoinSerialize());
+    }
+}
@@ -0,0 +1,180 @@
+package org.tbk.bitcoin.jsonrpc.cache;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.params.RegTestParams;
+import org.bitcoinj.script.ScriptBuilder;
+import org.bitcoinj.script.ScriptOpCodes;
+import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tbk.bitcoin.jsonrpc.BitcoinJsonRpcBatchClient;
+import org.tbk.bitcoin.jsonrpc.test.BitcoinNodeStub;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+class CacheWarmUpTest {
+    private static final NetworkParameters params = RegTestParams.get();
+
+    private static final int TIP_HEIGHT = 20;
+
+    private BitcoinNodeStub node;
+
+    private BitcoinClient client;
+
+    private BlockCache blockCache;
+
+    private TransactionCache transactionCache;
+
+    @BeforeEach
+    void setUp() {
+        node = BitcoinNodeStub.builder()
+                .rpcHandler(request -> "getblockhash".equals(request.method())
+                        ? hashOfHeight(request.intParam(0)).toString()
+                        : TIP_HEIGHT)
+                .start();
+
+        client = new BitcoinClient(node.rpcConfig(params));
+
+        blockCache = new BlockCache(CacheBuilder.newBuilder().build(CacheLoader.from(CacheWarmUpTest::block)));
+        transactionCache = new TransactionCache(CacheBuilder.newBuilder().build(CacheLoader.<Sha256Hash, Transaction>from(txId -> {
+            throw new IllegalStateException("transactions must be taken from blocks");
+        })));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        client.close();
+        node.close();
+    }
+
+    @Test
+    void itShouldLoadRecentBlocksAndTheirTransactions() throws IOException, InterruptedException {
+        CacheWarmUp sut = CacheWarmUp.builder()
+                .client(client)
+                .blockCache(blockCache)
+                .transactionCache(transactionCache)
+                .blockCount(5)
+                .parallelism(2)
+                .build();
+
+        assertThat(sut.run(Duration.ofSeconds(30)), is(true));
+
+        assertThat(sut.isDone(), is(true));
+        assertThat(sut.getTotalBlocks(), is(5));
+        assertThat(sut.getLoadedBlocks(), is(5));
+        assertThat(sut.getLoadedTransactions(), is(5L));
+
+        assertThat(blockCache.size(), is(5L));
+        assertThat(blockCache.getIfPresent(hashOfHeight(TIP_HEIGHT)) != null, is(true));
+        assertThat(blockCache.getIfPresent(hashOfHeight(TIP_HEIGHT - 5)) == null, is(true));
+        assertThat(transactionCache.size(), is(5L));
+    }
+
+    @Test
+    void itShouldLoadBlocksInBulk() throws IOException, InterruptedException {
+        List<Integer> bulkSizes = Collections.synchronizedList(new ArrayList<>());
+        BlockCache bulkLoadingBlockCache = new BlockCache(CacheBuilder.newBuilder().build(new CacheLoader<>() {
+            @Override
+            public Block load(Sha256Hash key) {
+                throw new IllegalStateException("blocks must be loaded in bulk");
+            }
+
+            @Override
+            public Map<Sha256Hash, Block> loadAll(Iterable<? extends Sha256Hash> keys) {
+                Map<Sha256Hash, Block> blocks = new HashMap<>();
+                keys.forEach(key -> blocks.put(key, block(key)));
+                bulkSizes.add(blocks.size());
+                return blocks;
+            }
+        }));
+
+        CacheWarmUp sut = CacheWarmUp.builder()
+                .client(client)
+                .blockCache(bulkLoadingBlockCache)
+                .blockCount(5)
+                .parallelism(2)
+                .build();
+
+        assertThat(sut.run(Duration.ofSeconds(30)), is(true));
+
+        assertThat(sut.getLoadedBlocks(), is(5));
+        assertThat(bulkLoadingBlockCache.size(), is(5L));
+        assertThat(bulkSizes, containsInAnyOrder(3, 2));
+    }
+
+    @Test
+    void itShouldFetchBlockHashesInBatches() throws IOException, InterruptedException {
+        BitcoinJsonRpcBatchClient batchClient = BitcoinJsonRpcBatchClient.builder()
+                .rpcConfig(node.rpcConfig(params))
+                .build();
+
+        CacheWarmUp sut = CacheWarmUp.builder()
+                .client(client)
+                .batchClient(batchClient)
+                .blockCache(blockCache)
+                .blockCount(5)
+                .parallelism(2)
+                .build();
+
+        assertThat(sut.run(Duration.ofSeconds(30)), is(true));
+
+        assertThat(sut.getLoadedBlocks(), is(5));
+        assertThat(blockCache.size(), is(5L));
+        assertThat(node.getRequestCount("getblockhash"), is(5));
+        assertThat(node.getBatchSizes(), containsInAnyOrder(3, 2));
+        assertThat("only the block count is requested on its own", node.getSingleRequestCount(), is(1));
+    }
+
+    @Test
+    void itShouldLimitTheNumberOfLoadedTransactions() throws IOException, InterruptedException {
+        CacheWarmUp sut = CacheWarmUp.builder()
+                .client(client)
+                .blockCache(blockCache)
+                .transactionCache(transactionCache)
+                .blockCount(5)
+                .parallelism(1)
+                .maxTransactions(2)
+                .build();
+
+        assertThat(sut.run(Duration.ofSeconds(30)), is(true));
+
+        assertThat(sut.getLoadedBlocks(), is(5));
+        assertThat(sut.getLoadedTransactions(), is(2L));
+        assertThat(transactionCache.size(), is(2L));
+
+        // transactions of the most recent blocks are preferred
+        Sha256Hash tipTxId = block(hashOfHeight(TIP_HEIGHT)).getTransactions().get(0).getTxId();
+        assertThat(transactionCache.getIfPresent(tipTxId) != null, is(true));
+    }
+
+    private static Sha256Hash hashOfHeight(int height) {
+        return Sha256Hash.of(new byte[]{(byte) height});
+    }
+
+    // every block contains a single transaction unique to the block
+    private static Block block(Sha256Hash hash) {
+        Transaction tx = new Transaction(params);
+        tx.addInput(hash, 0, new ScriptBuilder().build());
+        tx.addOutput(Coin.valueOf(1), new ScriptBuilder().op(ScriptOpCodes.OP_TRUE).build());
+
+        return new Block(params, Block.BLOCK_VERSION_BIP66, Sha256Hash.ZERO_HASH, Sha256Hash.ZERO_HASH,
+                1600000000L, Block.EASIEST_DIFFICULTY_TARGET, 0, List.of(tx));
+    }
+}
@@ -0,0 +1,77 @@
+package org.tbk.bitcoin.jsonrpc.cache;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.params.RegTestParams;
+import org.bitcoinj.script.ScriptBuilder;
+import org.bitcoinj.script.ScriptOpCodes;
+import org.consensusj.bitcoin.json.conversion.RpcClientModule;
+import org.consensusj.bitcoin.json.pojo.BlockInfo;
+import org.consensusj.bitcoin.json.pojo.RawTransactionInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class CacheWeighersTest {
+    private static final NetworkParameters params = RegTestParams.get();
+
+    private static final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new RpcClientModule(params))
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Test
+    void itShouldWeighTransactionsByTheirSerializedSize() {
+        Transaction tx = new Transaction(params);
+        tx.addInput(Sha256Hash.ZERO_HASH, 0, new ScriptBuilder().build());
+        tx.addOutput(Coin.valueOf(1), new ScriptBuilder().op(ScriptOpCodes.OP_TRUE).build());
+
+        int serializedSize = tx.bitcoinSerialize().length;
+
+        // built in memory and parsed from bytes
+        assertThat(CacheWeighers.transactions().weigh(tx.getTxId(), tx), is(serializedSize));
+        Transaction parsed = new Transaction(params, tx.bitcoinSerialize());
+        assertThat(CacheWeighers.transactions().weigh(parsed.getTxId(), parsed), is(serializedSize));
+    }
+
+    @Test
+    void itShouldWeighBlocksByTheirSerializedSize() {
+        Block genesis = params.getGenesisBlock();
+        int serializedSize = genesis.bitcoinSerialize().length;
+
+        assertThat(CacheWeighers.blocks().weigh(genesis.getHash(), genesis), is(serializedSize));
+
+        // a header-only copy built in memory
+        Block cloned = genesis.cloneAsHeader();
+        assertThat(CacheWeighers.blocks().weigh(cloned.getHash(), cloned), is(cloned.bitcoinSerialize().length));
+    }
+
+    @Test
+    void itShouldWeighRawTransactionInfosByTheirHex() {
+        RawTransactionInfo withHex = mapper.convertValue(Map.of("hex", "00".repeat(100)), RawTransactionInfo.class);
+        RawTransactionInfo withoutHex = mapper.convertValue(Map.of(), RawTransactionInfo.class);
+
+        int baseWeight = CacheWeighers.rawTransactionInfos().weigh(Sha256Hash.ZERO_HASH, withoutHex);
+        assertThat(baseWeight > 0, is(true));
+        assertThat(CacheWeighers.rawTransactionInfos().weigh(Sha256Hash.ZERO_HASH, withHex), is(baseWeight + 200));
+    }
+
+    @Test
+    void itShouldWeighBlockInfosByTheirTransactionIds() {
+        List<String> txIds = List.of(Sha256Hash.ZERO_HASH.toString(), Sha256Hash.of(new byte[]{1}).toString());
+        BlockInfo withTxs = mapper.convertValue(Map.of("tx", txIds), BlockInfo.class);
+        BlockInfo withoutTxs = mapper.convertValue(Map.of("tx", List.of()), BlockInfo.class);
+
+        int baseWeight = CacheWeighers.blockInfos().weigh(Sha256Hash.ZERO_HASH, withoutTxs);
+        int weight = CacheWeighers.blockInfos().weigh(Sha256Hash.ZERO_HASH, withTxs);
+        assertThat(weight > baseWeight, is(true));
+    }
+}
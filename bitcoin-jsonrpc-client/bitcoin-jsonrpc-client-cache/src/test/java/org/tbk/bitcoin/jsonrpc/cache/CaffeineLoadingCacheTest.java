@@ -0,0 +1,156 @@
+package org.tbk.bitcoin.jsonrpc.cache;
+
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CaffeineLoadingCacheTest {
+
+    @Test
+    void itShouldLoadEntriesInBulk() throws ExecutionException {
+        AtomicInteger loads = new AtomicInteger();
+        AtomicInteger bulkLoads = new AtomicInteger();
+
+        LoadingCache<Integer, String> sut = CaffeineLoadingCache.<Integer, String>builder()
+                .specification("recordStats,maximumSize=100")
+                .loader(new CacheLoader<>() {
+                    @Override
+                    public String load(Integer key) {
+                        loads.incrementAndGet();
+                        return key.toString();
+                    }
+
+                    @Override
+                    public Map<Integer, String> loadAll(Iterable<? extends Integer> keys) {
+                        bulkLoads.incrementAndGet();
+                        return StreamSupport.stream(keys.spliterator(), false)
+                                .collect(Collectors.toMap(it -> it, Object::toString));
+                    }
+                })
+                .build();
+
+        assertThat(sut.getAll(List.of(1, 2, 3)), is(Map.of(1, "1", 2, "2", 3, "3")));
+        assertThat(sut.get(2), is("2"));
+        assertThat(sut.getIfPresent(3), is("3"));
+
+        assertThat(bulkLoads.get(), is(1));
+        assertThat(loads.get(), is(0));
+        assertThat(sut.stats().hitCount(), is(2L));
+    }
+
+    @Test
+    void itShouldIgnoreGuavaOnlyOptionsOfTheSpecification() throws ExecutionException {
+        assertThat(CaffeineLoadingCache.toCaffeineSpecification("concurrencyLevel=4, maximumSize=100,recordStats"),
+                is("maximumSize=100,recordStats"));
+
+        try (CaffeineLoadingCache<Integer, String> sut = CaffeineLoadingCache.<Integer, String>builder()
+                .specification("concurrencyLevel=1,maximumSize=100")
+                .loader(CacheLoader.from(Object::toString))
+                .build()) {
+            assertThat(sut.get(1), is("1"));
+        }
+    }
+
+    @Test
+    void itShouldLoadEntriesOneByOneIfBulkLoadsAreNotSupported() throws ExecutionException {
+        AtomicInteger loads = new AtomicInteger();
+
+        LoadingCache<Integer, String> sut = CaffeineLoadingCache.<Integer, String>builder()
+                .loader(CacheLoader.from(key -> {
+                    loads.incrementAndGet();
+                    return key.toString();
+                }))
+                .build();
+
+        assertThat(sut.getAll(List.of(1, 2, 3)), is(Map.of(1, "1", 2, "2", 3, "3")));
+        assertThat(loads.get(), is(3));
+    }
+
+    @Test
+    void itShouldThrowExceptionsLikeGuava() {
+        LoadingCache<Integer, String> sut = CaffeineLoadingCache.<Integer, String>builder()
+                .loader(new CacheLoader<>() {
+                    @Override
+                    public String load(Integer key) throws IOException {
+                        throw new IOException("node not reachable");
+                    }
+                })
+                .build();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> sut.get(1));
+        assertThat(e.getCause(), is(instanceOf(IOException.class)));
+    }
+
+    @Test
+    void itShouldRejectNullValuesLikeGuava() {
+        LoadingCache<Integer, String> sut = CaffeineLoadingCache.<Integer, String>builder()
+                .loader(new CacheLoader<>() {
+                    @Override
+                    public String load(Integer key) {
+                        return null;
+                    }
+                })
+                .build();
+
+        assertThrows(InvalidCacheLoadException.class, () -> sut.get(1));
+        assertThrows(InvalidCacheLoadException.class, () -> sut.getAll(List.of(1, 2)));
+    }
+
+    @Test
+    void itShouldRejectIncompleteBulkLoadsLikeGuava() {
+        LoadingCache<Integer, String> sut = CaffeineLoadingCache.<Integer, String>builder()
+                .loader(new CacheLoader<>() {
+                    @Override
+                    public String load(Integer key) {
+                        return key.toString();
+                    }
+
+                    @Override
+                    public Map<Integer, String> loadAll(Iterable<? extends Integer> keys) {
+                        return Map.of(1, "1");
+                    }
+                })
+                .build();
+
+        assertThrows(InvalidCacheLoadException.class, () -> sut.getAll(List.of(1, 2)));
+    }
+
+    @Test
+    void itShouldNotLoadEntriesOneByOneIfBulkLoadFails() {
+        AtomicInteger loads = new AtomicInteger();
+
+        LoadingCache<Integer, String> sut = CaffeineLoadingCache.<Integer, String>builder()
+                .loader(new CacheLoader<>() {
+                    @Override
+                    public String load(Integer key) {
+                        loads.incrementAndGet();
+                        return key.toString();
+                    }
+
+                    @Override
+                    public Map<Integer, String> loadAll(Iterable<? extends Integer> keys) {
+                        throw new UnsupportedOperationException("not a missing bulk load implementation");
+                    }
+                })
+                .build();
+
+        UncheckedExecutionException e = assertThrows(UncheckedExecutionException.class, () -> sut.getAll(List.of(1, 2)));
+        assertThat(e.getCause(), is(instanceOf(UnsupportedOperationException.class)));
+        assertThat(loads.get(), is(0));
+    }
+}
@@ -0,0 +1,121 @@
+package org.tbk.bitcoin.jsonrpc.cache;
+
+import com.google.common.cache.CacheLoader;
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.params.RegTestParams;
+import org.bitcoinj.script.ScriptBuilder;
+import org.bitcoinj.script.ScriptOpCodes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class DiskCacheLoaderTest {
+    private static final NetworkParameters params = RegTestParams.get();
+
+    private final Map<Sha256Hash, Transaction> transactions = new HashMap<>();
+
+    // keys requested from the delegate - bulk loads are recorded as a whole
+    private final List<Object> delegateLoads = new ArrayList<>();
+
+    @TempDir
+    Path directory;
+
+    private SegmentStore store;
+
+    private DiskCacheLoader<Transaction> sut;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        for (int i = 1; i <= 3; i++) {
+            Transaction tx = transaction(i);
+            transactions.put(tx.getTxId(), tx);
+        }
+
+        store = SegmentStore.open(directory, 1024);
+        sut = DiskCacheLoader.transactions(new CacheLoader<>() {
+            @Override
+            public Transaction load(Sha256Hash key) {
+                delegateLoads.add(key);
+                return transactions.get(key);
+            }
+
+            @Override
+            public Map<Sha256Hash, Transaction> loadAll(Iterable<? extends Sha256Hash> keys) {
+                List<Sha256Hash> keyList = new ArrayList<>();
+                keys.forEach(keyList::add);
+                delegateLoads.add(keyList);
+
+                Map<Sha256Hash, Transaction> result = new HashMap<>();
+                keyList.forEach(key -> result.put(key, transactions.get(key)));
+                return result;
+            }
+        }, store, params);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+    }
+
+    @Test
+    void itShouldWriteValuesLoadedByTheDelegateThrough() throws Exception {
+        Transaction tx = transaction(1);
+
+        assertThat(sut.load(tx.getTxId()), is(tx));
+        assertThat(delegateLoads, is(List.of(tx.getTxId())));
+        assertThat(store.contains(tx.getTxId()), is(true));
+    }
+
+    @Test
+    void itShouldServeStoredValuesWithoutAskingTheDelegate() throws Exception {
+        Transaction tx = transaction(1);
+        store.put(tx.getTxId(), tx.bitcoinSerialize());
+
+        Transaction loaded = sut.load(tx.getTxId());
+
+        assertThat(loaded.getTxId(), is(tx.getTxId()));
+        assertThat(delegateLoads.isEmpty(), is(true));
+    }
+
+    @Test
+    void itShouldBulkLoadOnlyValuesMissingInTheStore() throws Exception {
+        Transaction stored = transaction(1);
+        Transaction missing1 = transaction(2);
+        Transaction missing2 = transaction(3);
+        store.put(stored.getTxId(), stored.bitcoinSerialize());
+
+        Map<Sha256Hash, Transaction> loaded = sut.loadAll(List.of(stored.getTxId(), missing1.getTxId(), missing2.getTxId()));
+
+        assertThat(loaded.size(), is(3));
+        assertThat(loaded.get(stored.getTxId()).getTxId(), is(stored.getTxId()));
+        assertThat(loaded.get(missing1.getTxId()), is(missing1));
+        assertThat(loaded.get(missing2.getTxId()), is(missing2));
+
+        // a single bulk load of the missing keys - which are written through
+        assertThat(delegateLoads, is(List.of(List.of(missing1.getTxId(), missing2.getTxId()))));
+        assertThat(store.contains(missing1.getTxId()), is(true));
+        assertThat(store.contains(missing2.getTxId()), is(true));
+        assertThat(store.size(), is(3));
+    }
+
+    private static Transaction transaction(int outputValue) {
+        Transaction tx = new Transaction(params);
+        tx.addInput(Sha256Hash.ZERO_HASH, 0, new ScriptBuilder().build());
+        tx.addOutput(Coin.valueOf(outputValue), new ScriptBuilder().op(ScriptOpCodes.OP_TRUE).build());
+        return tx;
+    }
+}
@@ -0,0 +1,272 @@
+package org.tbk.bitcoin.jsonrpc.cache;
+
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.core.Utils;
+import org.bitcoinj.params.RegTestParams;
+import org.bitcoinj.script.ScriptBuilder;
+import org.bitcoinj.script.ScriptOpCodes;
+import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tbk.bitcoin.jsonrpc.test.BitcoinNodeStub;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MempoolMirrorTest {
+    private static final NetworkParameters params = RegTestParams.get();
+
+    // every transaction pays 1000 sat for 100 vbytes
+    private static final Map<String, Object> mempoolEntry = Map.of(
+            "vsize", 100,
+            "time", 1600000000,
+            "ancestorcount", 1,
+            "ancestorsize", 100,
+            "fees", Map.of("base", 0.00001000, "ancestor", 0.00001000),
+            "depends", List.of()
+    );
+
+    // the content of the node's mempool
+    private final Map<Sha256Hash, Transaction> mempool = new ConcurrentHashMap<>();
+
+    // if set, "getrawmempool" requests wait for this latch after taking their snapshot
+    private volatile CountDownLatch rawMempoolLatch;
+
+    private final CountDownLatch rawMempoolRequested = new CountDownLatch(1);
+
+    // if set, transaction lookups fail like on a node loading its block index
+    private volatile boolean warmingUp;
+
+    private BitcoinNodeStub node;
+
+    private BitcoinClient client;
+
+    private MempoolMirror sut;
+
+    @BeforeEach
+    void setUp() {
+        node = BitcoinNodeStub.builder()
+                .rpcHandler(this::handle)
+                .start();
+
+        client = new BitcoinClient(node.rpcConfig(params));
+
+        // not started - updates are triggered manually
+        sut = MempoolMirror.builder()
+                .client(client)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        sut.close();
+        client.close();
+        node.close();
+    }
+
+    @Test
+    void itShouldFetchEntriesOfNewTransactions() throws IOException {
+        Transaction tx = addToMempool(spending(Sha256Hash.of(new byte[]{0}), 1));
+
+        sut.onTransaction(tx);
+        assertThat(sut.contains(tx.getTxId()), is(true));
+        assertThat(sut.getPendingCount(), is(1));
+        assertThat(sut.getEntry(tx.getTxId()).isPresent(), is(false));
+
+        sut.refreshPending();
+        assertThat(sut.getPendingCount(), is(0));
+        assertThat(sut.size(), is(1));
+
+        MempoolMirror.Entry entry = sut.getEntry(tx.getTxId()).orElseThrow();
+        assertThat(entry.getFee(), is(1000L));
+        assertThat(entry.getFeeRate(), is(10d));
+    }
+
+    @Test
+    void itShouldRemoveReplacedAndConfirmedTransactions() throws IOException {
+        Sha256Hash prevTxId = Sha256Hash.of(new byte[]{0});
+        Transaction original = addToMempool(spending(prevTxId, 1));
+        Transaction replacement = addToMempool(spending(prevTxId, 2));
+
+        sut.onTransaction(original);
+        sut.refreshPending();
+        assertThat(sut.contains(original.getTxId()), is(true));
+
+        sut.onTransaction(replacement);
+        assertThat(sut.contains(original.getTxId()), is(false));
+        assertThat(sut.contains(replacement.getTxId()), is(true));
+
+        sut.refreshPending();
+        assertThat(sut.size(), is(1));
+
+        sut.onBlock(block(replacement));
+        assertThat(sut.contains(replacement.getTxId()), is(false));
+        assertThat(sut.size(), is(0));
+    }
+
+    @Test
+    void itShouldDetectReplacementsOfBootstrappedTransactions() throws IOException {
+        Sha256Hash prevTxId = Sha256Hash.of(new byte[]{0});
+        Transaction original = addToMempool(spending(prevTxId, 1));
+
+        sut.bootstrap();
+        assertThat(sut.size(), is(1));
+        assertThat(sut.getPendingCount(), is(0));
+
+        // fetches the spent outpoints of the bootstrapped entry
+        sut.refreshPending();
+
+        Transaction replacement = spending(prevTxId, 2);
+        sut.onTransaction(replacement);
+        assertThat(sut.contains(original.getTxId()), is(false));
+        assertThat(sut.contains(replacement.getTxId()), is(true));
+    }
+
+    @Test
+    void itShouldDetectConflictsOfBootstrappedTransactionsWithConfirmedOnes() throws IOException {
+        Sha256Hash prevTxId = Sha256Hash.of(new byte[]{0});
+        Transaction original = addToMempool(spending(prevTxId, 1));
+
+        sut.bootstrap();
+        sut.refreshPending();
+        assertThat(sut.contains(original.getTxId()), is(true));
+
+        sut.onBlock(block(spending(prevTxId, 2)));
+        assertThat(sut.contains(original.getTxId()), is(false));
+        assertThat(sut.size(), is(0));
+    }
+
+    @Test
+    void itShouldKeepEntriesAddedDuringBootstrap() throws Exception {
+        Transaction bootstrapped = addToMempool(spending(Sha256Hash.of(new byte[]{0}), 1));
+
+        rawMempoolLatch = new CountDownLatch(1);
+        CompletableFuture<Void> bootstrap = CompletableFuture.runAsync(() -> {
+            try {
+                sut.bootstrap();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(rawMempoolRequested.await(10, TimeUnit.SECONDS), is(true));
+
+        // not part of the snapshot the bootstrap is waiting for
+        Transaction received = addToMempool(spending(Sha256Hash.of(new byte[]{1}), 1));
+        sut.onTransaction(received);
+        sut.refreshPending();
+        assertThat(sut.size(), is(1));
+
+        rawMempoolLatch.countDown();
+        bootstrap.get(10, TimeUnit.SECONDS);
+
+        assertThat(sut.contains(bootstrapped.getTxId()), is(true));
+        assertThat(sut.contains(received.getTxId()), is(true));
+        assertThat(sut.size(), is(2));
+    }
+
+    @Test
+    void itShouldRemoveEvictedAndQueueMissingEntriesOnResync() throws IOException {
+        Transaction evicted = addToMempool(spending(Sha256Hash.of(new byte[]{0}), 1));
+        Transaction kept = addToMempool(spending(Sha256Hash.of(new byte[]{1}), 1));
+
+        sut.bootstrap();
+        sut.refreshPending();
+        assertThat(sut.size(), is(2));
+
+        mempool.remove(evicted.getTxId());
+        Transaction missed = addToMempool(spending(Sha256Hash.of(new byte[]{2}), 1));
+
+        sut.resync();
+        assertThat(sut.contains(evicted.getTxId()), is(false));
+        assertThat(sut.contains(kept.getTxId()), is(true));
+        assertThat(sut.contains(missed.getTxId()), is(true));
+        assertThat(sut.getPendingCount(), is(1));
+
+        sut.refreshPending();
+        assertThat(sut.getPendingCount(), is(0));
+        assertThat(sut.size(), is(2));
+    }
+
+    @Test
+    void itShouldKeepPendingTransactionsIfTheNodeCannotAnswer() throws IOException {
+        Transaction tx = addToMempool(spending(Sha256Hash.of(new byte[]{0}), 1));
+        sut.onTransaction(tx);
+
+        warmingUp = true;
+        assertThrows(IOException.class, () -> sut.refreshPending());
+        assertThat(sut.contains(tx.getTxId()), is(true));
+        assertThat(sut.getPendingCount(), is(1));
+
+        warmingUp = false;
+        sut.refreshPending();
+        assertThat(sut.getPendingCount(), is(0));
+        assertThat(sut.getEntry(tx.getTxId()).isPresent(), is(true));
+    }
+
+    private Transaction addToMempool(Transaction tx) {
+        mempool.put(tx.getTxId(), tx);
+        return tx;
+    }
+
+    private Object handle(BitcoinNodeStub.RpcRequest request) {
+        switch (request.method()) {
+            case "getrawmempool" -> {
+                Map<String, Object> snapshot = new HashMap<>();
+                mempool.keySet().forEach(txId -> snapshot.put(txId.toString(), mempoolEntry));
+
+                rawMempoolRequested.countDown();
+                CountDownLatch latch = rawMempoolLatch;
+                if (latch != null) {
+                    try {
+                        latch.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                boolean verbose = !request.params().isEmpty() && Boolean.TRUE.equals(request.params().get(0));
+                return verbose ? snapshot : List.copyOf(snapshot.keySet());
+            }
+            case "getmempoolentry", "getrawtransaction" -> {
+                if (warmingUp) {
+                    throw new BitcoinNodeStub.RpcError(-28, "Loading block index...");
+                }
+                Transaction tx = mempool.get(Sha256Hash.wrap(request.stringParam(0)));
+                if (tx == null) {
+                    throw new BitcoinNodeStub.RpcError(-5, "Transaction not in mempool");
+                }
+                return "getmempoolentry".equals(request.method())
+                        ? mempoolEntry
+                        : Utils.HEX.encode(tx.bitcoinSerialize());
+            }
+            default -> throw new IllegalArgumentException("Unexpected method " + request.method());
+        }
+    }
+
+    private static Transaction spending(Sha256Hash prevTxId, long outputValue) {
+        Transaction tx = new Transaction(params);
+        tx.addInput(prevTxId, 0, new ScriptBuilder().build());
+        tx.addOutput(Coin.valueOf(outputValue), new ScriptBuilder().op(ScriptOpCodes.OP_TRUE).build());
+        return tx;
+    }
+
+    private static Block block(Transaction tx) {
+        return new Block(params, Block.BLOCK_VERSION_BIP66, Sha256Hash.ZERO_HASH, Sha256Hash.ZERO_HASH,
+                1600000000L, Block.EASIEST_DIFFICULTY_TARGET, 0, List.of(tx));
+    }
+}
@@ -0,0 +1,123 @@
+package org.tbk.bitcoin.jsonrpc.cache;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.bitcoinj.core.Sha256Hash;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NegativeCacheTest {
+    private static final Sha256Hash unknownKey = Sha256Hash.of(new byte[]{0});
+
+    private static final Sha256Hash otherUnknownKey = Sha256Hash.of(new byte[]{1});
+
+    private static final Sha256Hash knownKey = Sha256Hash.of(new byte[]{2});
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final NegativeCache sut = NegativeCache.builder()
+            .name("test")
+            .timeToLive(Duration.ofMinutes(1))
+            .build();
+
+    private final LoadingCache<Sha256Hash, String> cache = CacheBuilder.newBuilder()
+            .build(sut.wrap(new CacheLoader<Sha256Hash, String>() {
+                @Override
+                public String load(Sha256Hash key) throws EntryNotFoundException {
+                    loads.incrementAndGet();
+                    throw new EntryNotFoundException(key, "not found", null);
+                }
+            }));
+
+    @Test
+    void itShouldRememberUnknownKeys() {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> cache.get(unknownKey));
+        assertThat(e.getCause(), is(instanceOf(EntryNotFoundException.class)));
+        assertThat(loads.get(), is(1));
+
+        e = assertThrows(ExecutionException.class, () -> cache.get(unknownKey));
+        assertThat(e.getCause(), is(instanceOf(EntryNotFoundException.class)));
+        assertThat(loads.get(), is(1));
+
+        assertThrows(ExecutionException.class, () -> cache.getAll(List.of(unknownKey)));
+        assertThat(loads.get(), is(1));
+
+        assertThat(sut.asCache().stats().hitCount(), is(2L));
+        assertThat(sut.asCache().stats().missCount(), is(1L));
+    }
+
+    @Test
+    void itShouldRememberEveryUnknownKeyOfABulkLoad() {
+        AtomicInteger bulkLoads = new AtomicInteger();
+        LoadingCache<Sha256Hash, String> bulkCache = CacheBuilder.newBuilder()
+                .build(sut.wrap(new CacheLoader<Sha256Hash, String>() {
+                    @Override
+                    public String load(Sha256Hash key) {
+                        throw new IllegalStateException("entries must be loaded in bulk");
+                    }
+
+                    @Override
+                    public Map<Sha256Hash, String> loadAll(Iterable<? extends Sha256Hash> keys) throws EntryNotFoundException {
+                        bulkLoads.incrementAndGet();
+                        throw new EntryNotFoundException(List.of(unknownKey, otherUnknownKey), "not found", null);
+                    }
+                }));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> bulkCache.getAll(List.of(knownKey, unknownKey, otherUnknownKey)));
+        assertThat(e.getCause(), is(instanceOf(EntryNotFoundException.class)));
+        assertThat(bulkLoads.get(), is(1));
+
+        assertThat(sut.asCache().asMap().keySet(), is(Set.of(unknownKey, otherUnknownKey)));
+    }
+
+    @Test
+    void itShouldLoadKnownKeysOfABulkLoadContainingRememberedKeys() throws ExecutionException {
+        LoadingCache<Sha256Hash, String> bulkCache = CacheBuilder.newBuilder()
+                .build(sut.wrap(new CacheLoader<Sha256Hash, String>() {
+                    @Override
+                    public String load(Sha256Hash key) throws EntryNotFoundException {
+                        loads.incrementAndGet();
+                        if (!knownKey.equals(key)) {
+                            throw new EntryNotFoundException(key, "not found", null);
+                        }
+                        return "value";
+                    }
+
+                    @Override
+                    public Map<Sha256Hash, String> loadAll(Iterable<? extends Sha256Hash> keys) {
+                        throw new IllegalStateException("remembered keys must not be loaded in bulk");
+                    }
+                }));
+
+        assertThrows(ExecutionException.class, () -> bulkCache.get(unknownKey));
+        assertThat(loads.get(), is(1));
+
+        assertThrows(ExecutionException.class, () -> bulkCache.getAll(List.of(knownKey, unknownKey)));
+        assertThat(loads.get(), is(2));
+
+        assertThat(bulkCache.getIfPresent(knownKey), is("value"));
+    }
+
+    @Test
+    void itShouldForgetInvalidatedKeys() {
+        assertThrows(ExecutionException.class, () -> cache.get(unknownKey));
+        assertThat(loads.get(), is(1));
+
+        sut.invalidate(unknownKey);
+
+        assertThrows(ExecutionException.class, () -> cache.get(unknownKey));
+        assertThat(loads.get(), is(2));
+    }
+}
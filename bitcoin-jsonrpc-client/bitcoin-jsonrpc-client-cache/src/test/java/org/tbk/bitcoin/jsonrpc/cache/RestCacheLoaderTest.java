@@ -0,0 +1,128 @@
+package org.tbk.bitcoin.jsonrpc.cache;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.params.MainNetParams;
+import org.bitcoinj.params.RegTestParams;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tbk.bitcoin.jsonrpc.BitcoinRestClient;
+import org.tbk.bitcoin.jsonrpc.test.BitcoinNodeStub;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class RestCacheLoaderTest {
+    private static final NetworkParameters params = RegTestParams.get();
+
+    // served via REST
+    private static final Block restBlock = params.getGenesisBlock();
+
+    // only known to the JSON-RPC delegate
+    private static final Block rpcBlock = MainNetParams.get().getGenesisBlock();
+
+    private final List<Sha256Hash> delegateLoads = new ArrayList<>();
+
+    private final List<List<Sha256Hash>> delegateBulkLoads = new ArrayList<>();
+
+    private BitcoinNodeStub node;
+
+    @BeforeEach
+    void setUp() {
+        String restBlockPath = "/rest/block/" + restBlock.getHash() + ".bin";
+
+        node = BitcoinNodeStub.builder()
+                .restHandler(path -> restBlockPath.equals(path) ? restBlock.bitcoinSerialize() : null)
+                .start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        node.close();
+    }
+
+    @Test
+    void itShouldFallBackToTheDelegateIfAnEntryCannotBeFetchedViaRest() throws ExecutionException {
+        LoadingCache<Sha256Hash, Block> sut = CacheBuilder.newBuilder()
+                .build(RestCacheLoader.blocks(restClient(), delegate(false)));
+
+        assertThat(sut.get(restBlock.getHash()).getHash(), is(restBlock.getHash()));
+        assertThat(delegateLoads.isEmpty(), is(true));
+
+        assertThat(sut.get(rpcBlock.getHash()).getHash(), is(rpcBlock.getHash()));
+        assertThat(delegateLoads, is(List.of(rpcBlock.getHash())));
+        assertThat(node.getRestRequestCount(), is(2));
+    }
+
+    @Test
+    void itShouldPassBulkLoadsToTheDelegate() throws ExecutionException {
+        LoadingCache<Sha256Hash, Block> sut = CacheBuilder.newBuilder()
+                .build(RestCacheLoader.blocks(restClient(), delegate(true)));
+
+        Map<Sha256Hash, Block> blocks = sut.getAll(List.of(restBlock.getHash(), rpcBlock.getHash()));
+
+        assertThat(blocks.size(), is(2));
+        assertThat(delegateBulkLoads, is(List.of(List.of(restBlock.getHash(), rpcBlock.getHash()))));
+        assertThat(node.getRestRequestCount(), is(0));
+    }
+
+    @Test
+    void itShouldLoadEntriesOneByOneIfTheDelegateDoesNotSupportBulkLoads() throws ExecutionException {
+        LoadingCache<Sha256Hash, Block> sut = CacheBuilder.newBuilder()
+                .build(RestCacheLoader.blocks(restClient(), delegate(false)));
+
+        Map<Sha256Hash, Block> blocks = sut.getAll(List.of(restBlock.getHash(), rpcBlock.getHash()));
+
+        assertThat(blocks.size(), is(2));
+        assertThat(delegateBulkLoads.isEmpty(), is(true));
+        assertThat(delegateLoads, is(List.of(rpcBlock.getHash())));
+        assertThat(node.getRestRequestCount(), is(2));
+    }
+
+    private BitcoinRestClient restClient() {
+        return BitcoinRestClient.builder()
+                .rpcConfig(node.rpcConfig(params))
+                .build();
+    }
+
+    private CacheLoader<Sha256Hash, Block> delegate(boolean supportsBulkLoads) {
+        Map<Sha256Hash, Block> blocks = Map.of(
+                restBlock.getHash(), restBlock,
+                rpcBlock.getHash(), rpcBlock
+        );
+
+        return new CacheLoader<>() {
+            @Override
+            public Block load(Sha256Hash key) {
+                delegateLoads.add(key);
+                return blocks.get(key);
+            }
+
+            @Override
+            public Map<Sha256Hash, Block> loadAll(Iterable<? extends Sha256Hash> keys) throws Exception {
+                if (!supportsBulkLoads) {
+                    return super.loadAll(keys);
+                }
+
+                List<Sha256Hash> keyList = new ArrayList<>();
+                keys.forEach(keyList::add);
+                delegateBulkLoads.add(keyList);
+
+                Map<Sha256Hash, Block> result = new HashMap<>();
+                keyList.forEach(key -> result.put(key, blocks.get(key)));
+                return result;
+            }
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package org.tbk.bitcoin.jsonrpc.cache;
+
+import org.bitcoinj.core.Sha256Hash;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SegmentStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void itShouldStoreAndReadValues() throws IOException {
+        try (SegmentStore sut = SegmentStore.open(directory, 16)) {
+            assertThat(sut.put(hash("a"), bytes("0123456789")), is(true));
+            assertThat(sut.put(hash("a"), bytes("ignored")), is(false));
+            // does not fit into the first segment anymore
+            assertThat(sut.put(hash("b"), bytes("abcdefghij")), is(true));
+            // exceeds the segment size
+            assertThat(sut.put(hash("c"), bytes("abcdefghijklmnopq")), is(false));
+
+            assertThat(sut.size(), is(2));
+            assertThat(sut.get(hash("a")).map(SegmentStoreTest::string).orElseThrow(), is("0123456789"));
+            assertThat(sut.get(hash("b")).map(SegmentStoreTest::string).orElseThrow(), is("abcdefghij"));
+            assertThat(sut.get(hash("c")).isPresent(), is(false));
+        }
+    }
+
+    @Test
+    void itShouldRestoreValuesAfterReopening() throws IOException {
+        try (SegmentStore sut = SegmentStore.open(directory, 16)) {
+            sut.put(hash("a"), bytes("0123456789"));
+            sut.put(hash("b"), bytes("abc"));
+        }
+
+        try (SegmentStore sut = SegmentStore.open(directory, 16)) {
+            assertThat(sut.size(), is(2));
+            assertThat(sut.get(hash("a")).map(SegmentStoreTest::string).orElseThrow(), is("0123456789"));
+
+            // appends to the last segment behind the existing values
+            sut.put(hash("c"), bytes("def"));
+            assertThat(sut.get(hash("b")).map(SegmentStoreTest::string).orElseThrow(), is("abc"));
+            assertThat(sut.get(hash("c")).map(SegmentStoreTest::string).orElseThrow(), is("def"));
+        }
+    }
+
+    @Test
+    void itShouldRefuseToOpenStoreWithDifferentSegmentSize() throws IOException {
+        try (SegmentStore sut = SegmentStore.open(directory, 16)) {
+            sut.put(hash("a"), bytes("0123456789"));
+        }
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> SegmentStore.open(directory, 32));
+        assertThat(e.getMessage(), containsString("segment size of 16 bytes"));
+
+        // still readable with the original segment size
+        try (SegmentStore sut = SegmentStore.open(directory, 16)) {
+            assertThat(sut.get(hash("a")).map(SegmentStoreTest::string).orElseThrow(), is("0123456789"));
+        }
+    }
+
+    private static Sha256Hash hash(String value) {
+        return Sha256Hash.of(bytes(value));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,284 @@
+package org.tbk.bitcoin.jsonrpc;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Executes calls of a {@link BitcoinClient} asynchronously with a bounded number of calls in flight.
+ *
+ * <p>bitcoind only processes a limited number of requests in parallel ({@code -rpcthreads}) and answers
+ * with HTTP 503 as soon as its work queue ({@code -rpcworkqueue}) is full. This client keeps at most
+ * {@code maxConcurrentRequests} calls in flight and queues all others locally. A call that waited longer
+ * than {@code maxQueueWait} for a permit fails with a {@link TimeoutException} without ever being sent.
+ * Calls exceeding {@code maxQueueSize} are rejected immediately with a {@link RejectedExecutionException}.
+ */
+@Slf4j
+public final class BitcoinJsonRpcAsyncClient implements AutoCloseable {
+    private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 4;
+
+    private static final int DEFAULT_MAX_QUEUE_SIZE = 10_000;
+
+    private static final Duration DEFAULT_MAX_QUEUE_WAIT = Duration.ofSeconds(30);
+
+    @FunctionalInterface
+    public interface Call<T> {
+        T apply(BitcoinClient client) throws IOException;
+    }
+
+    private final BitcoinClient client;
+
+    private final int maxConcurrentRequests;
+
+    private final Duration maxQueueWait;
+
+    private final ThreadPoolExecutor executor;
+
+    private final ScheduledThreadPoolExecutor timeoutScheduler;
+
+    private final AtomicInteger inFlightCount = new AtomicInteger();
+
+    private final LongAdder startedCount = new LongAdder();
+
+    private final LongAdder failedCount = new LongAdder();
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private final LongAdder queueTimeoutCount = new LongAdder();
+
+    private final LongAdder totalQueueWaitNanos = new LongAdder();
+
+    @Builder
+    private BitcoinJsonRpcAsyncClient(BitcoinClient client,
+                                      Integer maxConcurrentRequests,
+                                      Integer maxQueueSize,
+                                      Duration maxQueueWait) {
+        requireNonNull(client, "'client' must not be null");
+        checkArgument(maxConcurrentRequests == null || maxConcurrentRequests > 0,
+                "'maxConcurrentRequests' must be positive");
+        checkArgument(maxQueueSize == null || maxQueueSize > 0,
+                "'maxQueueSize' must be positive");
+        checkArgument(maxQueueWait == null || (!maxQueueWait.isNegative() && !maxQueueWait.isZero()),
+                "'maxQueueWait' must be positive");
+
+        this.client = client;
+        this.maxConcurrentRequests = Optional.ofNullable(maxConcurrentRequests).orElse(DEFAULT_MAX_CONCURRENT_REQUESTS);
+        this.maxQueueWait = Optional.ofNullable(maxQueueWait).orElse(DEFAULT_MAX_QUEUE_WAIT);
+
+        this.executor = new ThreadPoolExecutor(this.maxConcurrentRequests, this.maxConcurrentRequests,
+                0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(Optional.ofNullable(maxQueueSize).orElse(DEFAULT_MAX_QUEUE_SIZE)),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("bitcoin-jsonrpc-async-%d")
+                        .setDaemon(true)
+                        .build());
+
+        this.timeoutScheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder()
+                .setNameFormat("bitcoin-jsonrpc-async-timeout-%d")
+                .setDaemon(true)
+                .build());
+        this.timeoutScheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Queues the given call for execution.
+     *
+     * <p>Cancelling the returned future removes a call from the queue if it has not been started yet.
+     * Calls already in flight are always run to completion.
+     *
+     * @param call the call to execute with the underlying {@link BitcoinClient}
+     * @return a future completing with the result of the call
+     */
+    public <T> CompletableFuture<T> call(Call<T> call) {
+        requireNonNull(call, "'call' must not be null");
+
+        QueuedCall<T> queuedCall = new QueuedCall<>(call);
+        try {
+            // scheduled before the call is queued - a worker picking it up immediately must be able to cancel it
+            queuedCall.timeout = timeoutScheduler.schedule(queuedCall::onQueueTimeout,
+                    maxQueueWait.toNanos(), TimeUnit.NANOSECONDS);
+            executor.execute(queuedCall);
+        } catch (RejectedExecutionException e) {
+            queuedCall.cancelTimeout();
+            rejectedCount.increment();
+            queuedCall.future.completeExceptionally(e);
+            return queuedCall.future;
+        }
+
+        queuedCall.future.whenComplete((result, e) -> {
+            if (queuedCall.future.isCancelled() && queuedCall.claim()) {
+                queuedCall.cancelTimeout();
+                executor.remove(queuedCall);
+            }
+        });
+
+        return queuedCall.future;
+    }
+
+    /**
+     * Same as {@link #call(Call)} but deferred until subscription.
+     * Cancelling the subscription cancels the call if it is still queued.
+     */
+    public <T> Mono<T> mono(Call<T> call) {
+        requireNonNull(call, "'call' must not be null");
+        return Mono.fromFuture(() -> call(call));
+    }
+
+    /**
+     * Sends a single JSON-RPC request asynchronously, e.g. {@code send("getblockcount")}.
+     */
+    public <R> CompletableFuture<R> send(String method, Object... params) {
+        return call(it -> it.send(method, params));
+    }
+
+    public BitcoinClient getClient() {
+        return client;
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public Duration getMaxQueueWait() {
+        return maxQueueWait;
+    }
+
+    public int getInFlightCount() {
+        return inFlightCount.get();
+    }
+
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    public long getStartedCount() {
+        return startedCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public long getQueueTimeoutCount() {
+        return queueTimeoutCount.sum();
+    }
+
+    /**
+     * Returns the sum of the time all started calls had to wait for a permit.
+     */
+    public long getTotalQueueWaitNanos() {
+        return totalQueueWaitNanos.sum();
+    }
+
+    // visible for testing
+    int getScheduledTimeoutCount() {
+        return timeoutScheduler.getQueue().size();
+    }
+
+    /**
+     * Stops accepting new calls and fails all calls that have not been started yet.
+     * Calls in flight are not interrupted.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        timeoutScheduler.shutdownNow();
+
+        List<Runnable> pending = new ArrayList<>();
+        executor.getQueue().drainTo(pending);
+        for (Runnable runnable : pending) {
+            if (runnable instanceof QueuedCall<?> queuedCall && queuedCall.claim()) {
+                queuedCall.future.completeExceptionally(new CancellationException("Client has been closed"));
+            }
+        }
+
+        log.debug("Closed async bitcoin jsonrpc client - failed {} pending calls", pending.size());
+    }
+
+    private final class QueuedCall<T> implements Runnable {
+        private final Call<T> call;
+
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private final AtomicBoolean claimed = new AtomicBoolean(false);
+
+        private final long enqueuedNanos = System.nanoTime();
+
+        private volatile ScheduledFuture<?> timeout;
+
+        private QueuedCall(Call<T> call) {
+            this.call = call;
+        }
+
+        /**
+         * Exactly one party wins: the worker starting the call, the queue timeout or a cancellation.
+         */
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        private void cancelTimeout() {
+            ScheduledFuture<?> currentTimeout = timeout;
+            if (currentTimeout != null) {
+                currentTimeout.cancel(false);
+            }
+        }
+
+        private void onQueueTimeout() {
+            if (claim()) {
+                queueTimeoutCount.increment();
+                executor.remove(this);
+                future.completeExceptionally(new TimeoutException("Call has not been started within %s"
+                        .formatted(maxQueueWait)));
+            }
+        }
+
+        @Override
+        public void run() {
+            if (!claim()) {
+                return;
+            }
+
+            cancelTimeout();
+
+            totalQueueWaitNanos.add(System.nanoTime() - enqueuedNanos);
+            startedCount.increment();
+            inFlightCount.incrementAndGet();
+            try {
+                future.complete(call.apply(client));
+            } catch (Throwable e) {
+                failedCount.increment();
+                future.completeExceptionally(e);
+            } finally {
+                inFlightCount.decrementAndGet();
+            }
+        }
+    }
+}
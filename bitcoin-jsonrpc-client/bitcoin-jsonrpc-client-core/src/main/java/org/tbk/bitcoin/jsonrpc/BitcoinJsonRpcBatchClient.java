@@ -0,0 +1,187 @@
+package org.tbk.bitcoin.jsonrpc;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.consensusj.bitcoin.jsonrpc.RpcConfig;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Sends multiple JSON-RPC requests to bitcoind within a single HTTP round-trip.
+ *
+ * <p>{@link org.consensusj.bitcoin.jsonrpc.BitcoinClient} sends one HTTP request per call.
+ * bitcoind also accepts a JSON array of requests and answers with an array of responses,
+ * which is what this client makes use of. Errors of single requests do not fail the whole batch -
+ * they are reported in the corresponding {@link Response}.
+ */
+@Slf4j
+public final class BitcoinJsonRpcBatchClient {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final TypeReference<List<Map<String, Object>>> responseListType = new TypeReference<>() {
+    };
+
+    private static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI uri;
+
+    private final String authorizationHeaderValue;
+
+    private final HttpClient httpClient;
+
+    private final Duration requestTimeout;
+
+    @Builder
+    private BitcoinJsonRpcBatchClient(RpcConfig rpcConfig, HttpClient httpClient, Duration requestTimeout) {
+        requireNonNull(rpcConfig, "'rpcConfig' must not be null");
+        checkArgument(requestTimeout == null || (!requestTimeout.isNegative() && !requestTimeout.isZero()),
+                "'requestTimeout' must be positive");
+
+        this.uri = requireNonNull(rpcConfig.getURI());
+        this.authorizationHeaderValue = Optional.ofNullable(rpcConfig.getUsername())
+                .map(username -> username + ":" + Optional.ofNullable(rpcConfig.getPassword()).orElse(""))
+                .map(credentials -> "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)))
+                .orElse(null);
+        this.httpClient = Optional.ofNullable(httpClient).orElseGet(HttpClient::newHttpClient);
+        this.requestTimeout = Optional.ofNullable(requestTimeout).orElse(DEFAULT_REQUEST_TIMEOUT);
+    }
+
+    /**
+     * Sends all given requests as a single batch.
+     *
+     * @param requests the requests to send
+     * @return the responses in the same order as the given requests
+     * @throws IOException if the batch could not be sent or the server did not answer with a valid batch response
+     */
+    public List<Response> send(List<Request> requests) throws IOException {
+        if (requests.isEmpty()) {
+            return ImmutableList.of();
+        }
+
+        List<Map<String, Object>> body = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            Request request = requests.get(i);
+            body.add(ImmutableMap.of(
+                    "jsonrpc", "1.0",
+                    "id", String.valueOf(i),
+                    "method", request.getMethod(),
+                    "params", request.getParams()
+            ));
+        }
+
+        HttpRequest.Builder httpRequestBuilder = HttpRequest.newBuilder(uri)
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+
+        if (authorizationHeaderValue != null) {
+            httpRequestBuilder.header("Authorization", authorizationHeaderValue);
+        }
+
+        log.trace("Sending batch of {} jsonrpc requests to {}", requests.size(), uri);
+
+        HttpResponse<byte[]> httpResponse;
+        try {
+            httpResponse = httpClient.send(httpRequestBuilder.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while sending batch request to " + uri);
+        }
+
+        if (httpResponse.statusCode() != 200) {
+            throw new IOException("Unexpected status code %d while sending batch request to %s"
+                    .formatted(httpResponse.statusCode(), uri));
+        }
+
+        List<Map<String, Object>> rawResponses = objectMapper.readValue(httpResponse.body(), responseListType);
+
+        // the order of responses is not guaranteed by the specification - match them by id
+        Map<String, Map<String, Object>> rawResponsesById = new HashMap<>(rawResponses.size());
+        for (Map<String, Object> rawResponse : rawResponses) {
+            rawResponsesById.put(String.valueOf(rawResponse.get("id")), rawResponse);
+        }
+
+        ImmutableList.Builder<Response> responses = ImmutableList.builderWithExpectedSize(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            Map<String, Object> rawResponse = rawResponsesById.get(String.valueOf(i));
+            if (rawResponse == null) {
+                throw new IOException("Missing response for request with id %d in batch response from %s".formatted(i, uri));
+            }
+            responses.add(toResponse(rawResponse));
+        }
+        return responses.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Response toResponse(Map<String, Object> rawResponse) {
+        ResponseError error = Optional.ofNullable(rawResponse.get("error"))
+                .map(val -> (Map<String, Object>) val)
+                .map(val -> new ResponseError(
+                        Optional.ofNullable((Number) val.get("code")).map(Number::intValue).orElse(0),
+                        String.valueOf(val.get("message"))
+                ))
+                .orElse(null);
+
+        return new Response(rawResponse.get("result"), error);
+    }
+
+    @Value
+    public static class Request {
+        @NonNull
+        String method;
+
+        @NonNull
+        List<Object> params;
+
+        public static Request of(String method, Object... params) {
+            return new Request(method, ImmutableList.copyOf(params));
+        }
+    }
+
+    @Value
+    public static class Response {
+        /**
+         * The plain result as deserialized by jackson, e.g. a {@link Map}, {@link List}, {@link String} or {@link Number}.
+         */
+        Object result;
+
+        ResponseError error;
+
+        public boolean isError() {
+            return error != null;
+        }
+
+        public Optional<ResponseError> getError() {
+            return Optional.ofNullable(error);
+        }
+    }
+
+    @Value
+    public static class ResponseError {
+        int code;
+
+        String message;
+    }
+}
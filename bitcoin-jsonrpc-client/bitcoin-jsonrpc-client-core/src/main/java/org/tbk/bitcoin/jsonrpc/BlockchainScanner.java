@@ -0,0 +1,160 @@
+package org.tbk.bitcoin.jsonrpc;
+
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.bitcoinj.core.Block;
+import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Emits the blocks of a height range in order while fetching up to {@code parallelism} blocks concurrently.
+ *
+ * <p>Blocks are fetched on demand - a slow subscriber slows down fetching instead of buffering the chain in memory.
+ * If a {@link ScanCheckpoint} is given, scans start behind the last checkpoint. A block counts as processed when the
+ * next block is emitted or the scan completes, i.e. after a synchronous subscriber has processed it. The checkpoint
+ * is saved every {@code checkpointInterval} processed blocks and whenever a scan completes, fails or is cancelled,
+ * so a crash repeats at most {@code checkpointInterval} blocks.
+ */
+@Slf4j
+public final class BlockchainScanner implements AutoCloseable {
+    private static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    private static final int DEFAULT_CHECKPOINT_INTERVAL = 100;
+
+    /**
+     * Loads the block at a given height of the active chain, e.g. via a cache.
+     */
+    @FunctionalInterface
+    public interface BlockSource {
+        Block getBlock(int height) throws Exception;
+    }
+
+    private final BitcoinClient client;
+
+    private final BlockSource blockSource;
+
+    private final int parallelism;
+
+    private final ScanCheckpoint checkpoint;
+
+    private final int checkpointInterval;
+
+    private final Scheduler scheduler;
+
+    @Builder
+    private BlockchainScanner(BitcoinClient client,
+                              BlockSource blockSource,
+                              Integer parallelism,
+                              ScanCheckpoint checkpoint,
+                              Integer checkpointInterval) {
+        checkArgument(parallelism == null || parallelism > 0, "'parallelism' must be positive");
+        checkArgument(checkpointInterval == null || checkpointInterval > 0, "'checkpointInterval' must be positive");
+
+        this.client = requireNonNull(client, "'client' must not be null");
+        this.blockSource = Optional.ofNullable(blockSource)
+                .orElseGet(() -> height -> client.getBlock(client.getBlockHash(height)));
+        this.parallelism = Optional.ofNullable(parallelism).orElse(DEFAULT_PARALLELISM);
+        this.checkpoint = checkpoint;
+        this.checkpointInterval = Optional.ofNullable(checkpointInterval).orElse(DEFAULT_CHECKPOINT_INTERVAL);
+        this.scheduler = Schedulers.newBoundedElastic(this.parallelism, Integer.MAX_VALUE, "blockchain-scanner");
+    }
+
+    /**
+     * Emits all blocks from {@code fromHeight} to {@code toHeight} (both inclusive).
+     */
+    public Flux<Block> scan(int fromHeight, int toHeight) {
+        checkArgument(fromHeight >= 0, "'fromHeight' must not be negative");
+        checkArgument(fromHeight <= toHeight, "'fromHeight' must not be greater than 'toHeight'");
+
+        return Flux.defer(() -> {
+            int startHeight = resumeHeight(fromHeight);
+            return startHeight > toHeight ? Flux.empty() : scanRange(startHeight, toHeight);
+        });
+    }
+
+    /**
+     * Emits all blocks from {@code fromHeight} up to the current tip and keeps emitting new blocks afterwards.
+     *
+     * <p>Every item of {@code newBlockNotifications} (e.g. a zeromq {@code hashblock} or {@code rawblock} stream)
+     * triggers a scan from the last emitted height to the current tip, so no block is skipped even if
+     * notifications are lost. Reorgs are not signaled - blocks replacing already emitted heights are not emitted.
+     */
+    public Flux<Block> scanAndFollow(int fromHeight, Publisher<?> newBlockNotifications) {
+        checkArgument(fromHeight >= 0, "'fromHeight' must not be negative");
+        requireNonNull(newBlockNotifications, "'newBlockNotifications' must not be null");
+
+        return Flux.defer(() -> {
+            AtomicInteger nextHeight = new AtomicInteger(resumeHeight(fromHeight));
+
+            // the initial trigger scans up to the current tip - notifications arriving meanwhile collapse into one
+            Flux<Object> triggers = Flux.<Object>just(fromHeight)
+                    .concatWith(Flux.from(newBlockNotifications))
+                    .onBackpressureLatest();
+
+            return triggers.concatMap(trigger -> Mono.fromCallable(client::getBlockCount)
+                    .subscribeOn(scheduler)
+                    .flatMapMany(tip -> nextHeight.get() > tip
+                            ? Flux.<Block>empty()
+                            : scanRange(nextHeight.get(), tip).doOnNext(block -> nextHeight.incrementAndGet())), 1);
+        });
+    }
+
+    @Override
+    public void close() {
+        scheduler.dispose();
+    }
+
+    private Flux<Block> scanRange(int fromHeight, int toHeight) {
+        log.debug("Scanning blocks {} to {}", fromHeight, toHeight);
+
+        AtomicInteger lastEmittedHeight = new AtomicInteger(-1);
+        AtomicInteger processedHeight = new AtomicInteger(-1);
+        AtomicInteger savedHeight = new AtomicInteger(fromHeight - 1);
+
+        return Flux.range(fromHeight, toHeight - fromHeight + 1)
+                .flatMapSequential(height -> Mono.fromCallable(() -> Tuples.of(height, blockSource.getBlock(height)))
+                        .subscribeOn(scheduler), parallelism, parallelism)
+                .doOnNext(heightAndBlock -> {
+                    int previous = lastEmittedHeight.getAndSet(heightAndBlock.getT1());
+                    if (previous >= 0) {
+                        processedHeight.set(previous);
+                        if (previous - savedHeight.get() >= checkpointInterval) {
+                            saveCheckpoint(savedHeight, previous);
+                        }
+                    }
+                })
+                .doOnComplete(() -> saveCheckpoint(savedHeight, lastEmittedHeight.get()))
+                .doOnError(e -> saveCheckpoint(savedHeight, processedHeight.get()))
+                .doOnCancel(() -> saveCheckpoint(savedHeight, processedHeight.get()))
+                .map(Tuple2::getT2);
+    }
+
+    private int resumeHeight(int fromHeight) {
+        if (checkpoint == null) {
+            return fromHeight;
+        }
+        return checkpoint.load().stream()
+                .map(height -> Math.max(fromHeight, height + 1))
+                .findFirst()
+                .orElse(fromHeight);
+    }
+
+    private void saveCheckpoint(AtomicInteger savedHeight, int height) {
+        if (checkpoint != null && height > savedHeight.get()) {
+            checkpoint.save(height);
+            savedHeight.set(height);
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package org.tbk.bitcoin.jsonrpc;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
+import org.consensusj.bitcoin.jsonrpc.RpcConfig;
+import org.consensusj.jsonrpc.JsonRpcRequest;
+import org.consensusj.jsonrpc.JsonRpcResponse;
+import org.consensusj.jsonrpc.JsonRpcStatusException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.util.concurrent.MoreExecutors.shutdownAndAwaitTermination;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A client distributing requests over multiple bitcoind nodes serving the same chain.
+ *
+ * <p>Read requests are sent to the healthy node with the least outstanding requests and are retried on
+ * another node if the connection fails. Methods in {@code stickyMethods} (wallet calls and other calls that
+ * depend on or modify the state of a single node) are always sent to the primary node and never retried.
+ * Nodes are created with the given {@code clientFactory}, so e.g. request metrics are recorded per node.
+ * Without a {@code clientFactory}, requests to the primary node are sent over the connection of this client.
+ *
+ * <p>A node is ejected if a connection to it fails or it reports to be warming up (e.g. while reindexing)
+ * {@code maxConsecutiveErrors} times in a row (until
+ * {@code ejectionDuration} has passed) or if its chain tip lags more than {@code maxTipLag} blocks behind
+ * the best known tip. Tips are checked every {@code healthCheckInterval}. If no node is healthy,
+ * requests are distributed over all nodes.
+ */
+@Slf4j
+public final class LoadBalancingBitcoinClient extends BitcoinClient {
+    private static final Duration DEFAULT_HEALTH_CHECK_INTERVAL = Duration.ofSeconds(10);
+
+    private static final int DEFAULT_MAX_TIP_LAG = 2;
+
+    private static final int DEFAULT_MAX_CONSECUTIVE_ERRORS = 3;
+
+    private static final Duration DEFAULT_EJECTION_DURATION = Duration.ofSeconds(30);
+
+    private static final JavaType BLOCK_COUNT_TYPE = TypeFactory.defaultInstance().constructType(Integer.class);
+
+    // returned by bitcoind while loading the block index, e.g. during a reindex
+    private static final int RPC_IN_WARMUP = -28;
+
+    public static final Set<String> DEFAULT_STICKY_METHODS = ImmutableSet.of(
+            // wallet
+            "abandontransaction", "abortrescan", "addmultisigaddress", "backupwallet", "bumpfee", "createwallet",
+            "dumpprivkey", "dumpwallet", "encryptwallet", "getaddressesbylabel", "getaddressinfo", "getbalance",
+            "getbalances", "getnewaddress", "getrawchangeaddress", "getreceivedbyaddress", "getreceivedbylabel",
+            "gettransaction", "getunconfirmedbalance", "getwalletinfo", "importaddress", "importdescriptors",
+            "importmulti", "importprivkey", "importprunedfunds", "importpubkey", "importwallet", "keypoolrefill",
+            "listaddressgroupings", "listdescriptors", "listlabels", "listlockunspent", "listreceivedbyaddress",
+            "listreceivedbylabel", "listsinceblock", "listtransactions", "listunspent", "listwalletdir",
+            "listwallets", "loadwallet", "lockunspent", "psbtbumpfee", "removeprunedfunds", "rescanblockchain",
+            "send", "sendall", "sendmany", "sendtoaddress", "sethdseed", "setlabel", "settxfee", "setwalletflag",
+            "signmessage", "signrawtransactionwithwallet", "unloadwallet", "upgradewallet",
+            "walletcreatefundedpsbt", "walletlock", "walletpassphrase", "walletpassphrasechange",
+            "walletprocesspsbt",
+            // mining
+            "generateblock", "generatetoaddress", "generatetodescriptor", "getblocktemplate", "submitblock",
+            "submitheader", "prioritisetransaction",
+            // chain and mempool state
+            "invalidateblock", "reconsiderblock", "preciousblock", "pruneblockchain", "savemempool",
+            "importmempool", "dumptxoutset", "loadtxoutset", "scantxoutset",
+            // node control
+            "addnode", "disconnectnode", "setban", "clearbanned", "setnetworkactive", "setmocktime",
+            "mockscheduler", "logging", "stop"
+    );
+
+    private final List<Node> nodes;
+
+    private final Node primary;
+
+    private final Set<String> stickyMethods;
+
+    private final int maxTipLag;
+
+    private final int maxConsecutiveErrors;
+
+    private final Duration ejectionDuration;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicInteger roundRobin = new AtomicInteger();
+
+    @Builder
+    private LoadBalancingBitcoinClient(RpcConfig primary,
+                                       List<RpcConfig> replicas,
+                                       BitcoinJsonRpcClientFactory clientFactory,
+                                       Set<String> stickyMethods,
+                                       Duration healthCheckInterval,
+                                       Integer maxTipLag,
+                                       Integer maxConsecutiveErrors,
+                                       Duration ejectionDuration) {
+        super(requireNonNull(primary, "'primary' must not be null"));
+        checkArgument(healthCheckInterval == null || (!healthCheckInterval.isNegative() && !healthCheckInterval.isZero()),
+                "'healthCheckInterval' must be positive");
+        checkArgument(maxTipLag == null || maxTipLag >= 0, "'maxTipLag' must not be negative");
+        checkArgument(maxConsecutiveErrors == null || maxConsecutiveErrors > 0, "'maxConsecutiveErrors' must be positive");
+        checkArgument(ejectionDuration == null || !ejectionDuration.isNegative(), "'ejectionDuration' must not be negative");
+
+        BitcoinJsonRpcClientFactory nodeClientFactory = Optional.ofNullable(clientFactory)
+                .orElseGet(BitcoinJsonRpcClientFactoryImpl::new);
+
+        List<Node> allNodes = new ArrayList<>();
+        // the connection of this client is used for the primary node unless nodes need to be created by the factory
+        allNodes.add(clientFactory == null
+                ? new Node(getServerURI(), LoadBalancingBitcoinClient.super::sendRequestForResponse, null)
+                : new Node(nodeClientFactory.create(primary)));
+        Optional.ofNullable(replicas).orElse(List.of()).stream()
+                .map(nodeClientFactory::create)
+                .map(Node::new)
+                .forEach(allNodes::add);
+
+        this.nodes = ImmutableList.copyOf(allNodes);
+        this.primary = this.nodes.get(0);
+        this.stickyMethods = ImmutableSet.copyOf(Optional.ofNullable(stickyMethods).orElse(DEFAULT_STICKY_METHODS));
+        this.maxTipLag = Optional.ofNullable(maxTipLag).orElse(DEFAULT_MAX_TIP_LAG);
+        this.maxConsecutiveErrors = Optional.ofNullable(maxConsecutiveErrors).orElse(DEFAULT_MAX_CONSECUTIVE_ERRORS);
+        this.ejectionDuration = Optional.ofNullable(ejectionDuration).orElse(DEFAULT_EJECTION_DURATION);
+
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder()
+                .setNameFormat("bitcoin-jsonrpc-health-%d")
+                .setDaemon(true)
+                .build());
+        executor.setRemoveOnCancelPolicy(true);
+        this.scheduler = executor;
+
+        if (this.nodes.size() > 1) {
+            long intervalMillis = Optional.ofNullable(healthCheckInterval).orElse(DEFAULT_HEALTH_CHECK_INTERVAL).toMillis();
+            // until the first health check, every node is considered to be in sync
+            this.scheduler.scheduleWithFixedDelay(this::checkHealth, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public List<URI> getNodeUris() {
+        return nodes.stream().map(Node::getServerURI).collect(ImmutableList.toImmutableList());
+    }
+
+    public List<URI> getHealthyNodeUris() {
+        long now = System.nanoTime();
+        return nodes.stream()
+                .filter(node -> node.isHealthy(now))
+                .map(Node::getServerURI)
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    @Override
+    public <R> JsonRpcResponse<R> sendRequestForResponse(JsonRpcRequest request, JavaType responseType) throws IOException, JsonRpcStatusException {
+        if (stickyMethods.contains(request.getMethod())) {
+            return primary.sendToNode(request, responseType);
+        }
+
+        IOException lastError = null;
+        List<Node> tried = new ArrayList<>(nodes.size());
+        for (int attempt = 0; attempt < nodes.size(); attempt++) {
+            Node node = selectNode(tried);
+            tried.add(node);
+            try {
+                return node.sendToNode(request, responseType);
+            } catch (JsonRpcStatusException e) {
+                if (e.jsonRpcCode != RPC_IN_WARMUP) {
+                    // the node answered - the request itself failed
+                    throw e;
+                }
+                log.debug("Node {} is warming up - trying next node: {}", node.getServerURI(), e.getMessage());
+                lastError = e;
+            } catch (IOException e) {
+                log.debug("Request '{}' to {} failed - trying next node: {}", request.getMethod(), node.getServerURI(), e.getMessage());
+                lastError = e;
+            }
+        }
+        throw requireNonNull(lastError);
+    }
+
+    @Override
+    public void close() {
+        boolean executorShutdownSuccessful = shutdownAndAwaitTermination(scheduler, Duration.ofSeconds(10));
+        if (!executorShutdownSuccessful) {
+            log.warn("unclean shutdown of executor service");
+        }
+
+        for (Node node : nodes) {
+            try {
+                node.close();
+            } catch (Exception e) {
+                log.warn("Error while closing client for {}: {}", node.getServerURI(), e.getMessage());
+            }
+        }
+
+        try {
+            super.close();
+        } catch (Exception e) {
+            log.warn("Error while closing client: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Fetches the chain tip of every node and marks nodes lagging behind the best tip as unhealthy.
+     */
+    synchronized void checkHealth() {
+        try {
+            int bestTip = -1;
+            for (Node node : nodes) {
+                try {
+                    node.tip = node.getBlockCount();
+                    bestTip = Math.max(bestTip, node.tip);
+                } catch (IOException | RuntimeException e) {
+                    log.debug("Health check of {} failed: {}", node.getServerURI(), e.getMessage());
+                    node.tip = -1;
+                    node.onConnectionError();
+                }
+            }
+
+            for (Node node : nodes) {
+                boolean lagging = node.tip < 0 || bestTip - node.tip > maxTipLag;
+                if (lagging != node.lagging) {
+                    log.info("Node {} is {} (tip {}, best tip {})", node.getServerURI(),
+                            lagging ? "lagging behind" : "in sync again", node.tip, bestTip);
+                }
+                node.lagging = lagging;
+            }
+        } catch (RuntimeException e) {
+            // an exception would cancel all subsequent health checks
+            log.warn("Error while checking health of nodes: {}", e.getMessage());
+        }
+    }
+
+    private Node selectNode(List<Node> excluded) {
+        long now = System.nanoTime();
+
+        List<Node> candidates = nodes.stream()
+                .filter(node -> !excluded.contains(node))
+                .filter(node -> node.isHealthy(now))
+                .toList();
+        if (candidates.isEmpty()) {
+            candidates = nodes.stream()
+                    .filter(node -> !excluded.contains(node))
+                    .toList();
+        }
+
+        // start at a rotating offset, so nodes with the same number of outstanding requests take turns
+        int offset = Math.floorMod(roundRobin.getAndIncrement(), candidates.size());
+        Node selected = candidates.get(offset);
+        for (int i = 1; i < candidates.size(); i++) {
+            Node candidate = candidates.get((offset + i) % candidates.size());
+            if (candidate.outstanding.get() < selected.outstanding.get()) {
+                selected = candidate;
+            }
+        }
+        return selected;
+    }
+
+    @FunctionalInterface
+    private interface Transport {
+        <R> JsonRpcResponse<R> send(JsonRpcRequest request, JavaType responseType) throws IOException, JsonRpcStatusException;
+    }
+
+    private final class Node {
+
+        private final URI serverUri;
+
+        private final Transport transport;
+
+        // null if the connection is owned by this client
+        private final AutoCloseable connection;
+
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        private final AtomicInteger consecutiveErrors = new AtomicInteger();
+
+        private volatile long ejectedUntilNanos;
+
+        private volatile boolean ejected;
+
+        private volatile boolean lagging;
+
+        private volatile int tip = -1;
+
+        Node(BitcoinClient client) {
+            this(client.getServerURI(), client::sendRequestForResponse, client);
+        }
+
+        Node(URI serverUri, Transport transport, AutoCloseable connection) {
+            this.serverUri = requireNonNull(serverUri);
+            this.transport = requireNonNull(transport);
+            this.connection = connection;
+        }
+
+        URI getServerURI() {
+            return serverUri;
+        }
+
+        int getBlockCount() throws IOException {
+            JsonRpcResponse<Integer> response = transport.send(new JsonRpcRequest("getblockcount", List.of()), BLOCK_COUNT_TYPE);
+            return response.getResult();
+        }
+
+        void close() throws Exception {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+
+        <R> JsonRpcResponse<R> sendToNode(JsonRpcRequest request, JavaType responseType) throws IOException, JsonRpcStatusException {
+            outstanding.incrementAndGet();
+            try {
+                JsonRpcResponse<R> response = transport.send(request, responseType);
+                consecutiveErrors.set(0);
+                ejected = false;
+                return response;
+            } catch (JsonRpcStatusException e) {
+                // a node warming up cannot answer any request - it is treated like an unreachable node
+                if (e.jsonRpcCode == RPC_IN_WARMUP) {
+                    onConnectionError();
+                } else {
+                    consecutiveErrors.set(0);
+                    ejected = false;
+                }
+                throw e;
+            } catch (IOException e) {
+                onConnectionError();
+                throw e;
+            } finally {
+                outstanding.decrementAndGet();
+            }
+        }
+
+        void onConnectionError() {
+            if (consecutiveErrors.incrementAndGet() >= maxConsecutiveErrors) {
+                if (!ejected) {
+                    log.warn("Ejecting node {} for {} after {} consecutive errors", getServerURI(), ejectionDuration, consecutiveErrors.get());
+                }
+                ejectedUntilNanos = System.nanoTime() + ejectionDuration.toNanos();
+                ejected = true;
+            }
+        }
+
+        boolean isHealthy(long nowNanos) {
+            // an ejected node is tried again once the ejection has expired
+            boolean ejectionActive = ejected && nowNanos - ejectedUntilNanos < 0;
+            return !ejectionActive && !lagging;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.tbk.bitcoin.jsonrpc;
+
+import com.fasterxml.jackson.databind.JavaType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
+import org.consensusj.bitcoin.jsonrpc.RpcConfig;
+import org.consensusj.jsonrpc.JsonRpcRequest;
+import org.consensusj.jsonrpc.JsonRpcResponse;
+import org.consensusj.jsonrpc.JsonRpcStatusException;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Creates clients recording the latency, errors and number of in-flight requests of every RPC method.
+ *
+ * <p>Meters are tagged with the name of the RPC method:
+ * <ul>
+ *     <li>{@code bitcoin.jsonrpc.requests} - timer of all requests, additionally tagged by {@code outcome}</li>
+ *     <li>{@code bitcoin.jsonrpc.requests.errors} - counter of failed requests, additionally tagged by {@code exception}</li>
+ *     <li>{@code bitcoin.jsonrpc.requests.in.flight} - gauge of requests waiting for a response</li>
+ * </ul>
+ */
+public final class MeteredBitcoinJsonRpcClientFactory implements BitcoinJsonRpcClientFactory {
+
+    private final MeterRegistry registry;
+
+    private final Iterable<Tag> tags;
+
+    public MeteredBitcoinJsonRpcClientFactory(MeterRegistry registry) {
+        this(registry, Tags.empty());
+    }
+
+    public MeteredBitcoinJsonRpcClientFactory(MeterRegistry registry, Iterable<Tag> tags) {
+        this.registry = requireNonNull(registry);
+        this.tags = requireNonNull(tags);
+    }
+
+    @Override
+    public BitcoinClient create(RpcConfig config) {
+        Iterable<Tag> clientTags = Tags.concat(tags, "network", config.getNetParams().getId());
+        return new MeteredBitcoinClient(config, registry, clientTags);
+    }
+
+    private static final class MeteredBitcoinClient extends BitcoinClient {
+
+        private final MeterRegistry registry;
+
+        private final Iterable<Tag> tags;
+
+        private final ConcurrentMap<String, AtomicInteger> inFlightByMethod = new ConcurrentHashMap<>();
+
+        MeteredBitcoinClient(RpcConfig config, MeterRegistry registry, Iterable<Tag> tags) {
+            super(config);
+            this.registry = registry;
+            this.tags = tags;
+        }
+
+        // every typed and untyped call of the client ends up here - public, as it must not reduce visibility
+        @Override
+        public <R> JsonRpcResponse<R> sendRequestForResponse(JsonRpcRequest request, JavaType responseType) throws IOException, JsonRpcStatusException {
+            String method = request.getMethod();
+            AtomicInteger inFlight = inFlightByMethod.computeIfAbsent(method, this::registerInFlightGauge);
+
+            Timer.Sample sample = Timer.start(registry);
+            inFlight.incrementAndGet();
+            try {
+                JsonRpcResponse<R> response = super.sendRequestForResponse(request, responseType);
+                sample.stop(timer(method, "success"));
+                return response;
+            } catch (IOException | RuntimeException e) {
+                sample.stop(timer(method, "error"));
+                Counter.builder("bitcoin.jsonrpc.requests.errors")
+                        .tags(tags).tag("method", method).tag("exception", e.getClass().getSimpleName())
+                        .description("Number of failed requests")
+                        .register(registry)
+                        .increment();
+                throw e;
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+
+        private Timer timer(String method, String outcome) {
+            return Timer.builder("bitcoin.jsonrpc.requests")
+                    .tags(tags).tag("method", method).tag("outcome", outcome)
+                    .description("Duration of requests")
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(registry);
+        }
+
+        private AtomicInteger registerInFlightGauge(String method) {
+            AtomicInteger inFlight = new AtomicInteger();
+            Gauge.builder("bitcoin.jsonrpc.requests.in.flight", inFlight, AtomicInteger::get)
+                    .tags(tags).tag("method", method)
+                    .description("Number of requests waiting for a response")
+                    .register(registry);
+            return inFlight;
+        }
+    }
+}
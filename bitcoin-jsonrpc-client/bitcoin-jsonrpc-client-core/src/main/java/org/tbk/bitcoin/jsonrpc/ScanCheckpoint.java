@@ -0,0 +1,68 @@
+package org.tbk.bitcoin.jsonrpc;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.OptionalInt;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stores the height of the last block a {@link BlockchainScanner} has delivered, so an interrupted scan
+ * can be resumed from the next height.
+ */
+public interface ScanCheckpoint {
+
+    OptionalInt load();
+
+    void save(int height);
+
+    static ScanCheckpoint inMemory() {
+        AtomicInteger checkpoint = new AtomicInteger(-1);
+
+        return new ScanCheckpoint() {
+            @Override
+            public OptionalInt load() {
+                int height = checkpoint.get();
+                return height < 0 ? OptionalInt.empty() : OptionalInt.of(height);
+            }
+
+            @Override
+            public void save(int height) {
+                checkpoint.set(height);
+            }
+        };
+    }
+
+    /**
+     * A checkpoint persisted as plain text in the given file. The file is replaced atomically on every save.
+     */
+    static ScanCheckpoint ofFile(Path file) {
+        return new ScanCheckpoint() {
+            @Override
+            public OptionalInt load() {
+                if (!Files.exists(file)) {
+                    return OptionalInt.empty();
+                }
+                try {
+                    return OptionalInt.of(Integer.parseInt(Files.readString(file, StandardCharsets.UTF_8).trim()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Error while reading checkpoint from " + file, e);
+                }
+            }
+
+            @Override
+            public void save(int height) {
+                try {
+                    Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+                    Files.writeString(tempFile, Integer.toString(height), StandardCharsets.UTF_8);
+                    Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Error while writing checkpoint to " + file, e);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,163 @@
+package org.tbk.bitcoin.jsonrpc;
+
+import org.bitcoinj.params.RegTestParams;
+import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
+import org.consensusj.bitcoin.jsonrpc.RpcConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BitcoinJsonRpcAsyncClientTest {
+
+    private static final BitcoinClient client = new BitcoinClient(new RpcConfig(RegTestParams.get(),
+            URI.create("http://localhost:18443"), "test", "test"));
+
+    private final List<BitcoinJsonRpcAsyncClient> clients = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        clients.forEach(BitcoinJsonRpcAsyncClient::close);
+    }
+
+    @Test
+    void itShouldLimitConcurrentCalls() throws Exception {
+        BitcoinJsonRpcAsyncClient sut = create(2, 100, Duration.ofSeconds(10));
+
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int value = i;
+            futures.add(sut.call(it -> {
+                maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    concurrent.decrementAndGet();
+                }
+                return value;
+            }));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            assertThat(futures.get(i).get(10, TimeUnit.SECONDS), is(i));
+        }
+
+        assertThat(maxConcurrent.get(), lessThanOrEqualTo(2));
+        assertThat(sut.getStartedCount(), is(20L));
+        assertThat(sut.getInFlightCount(), is(0));
+    }
+
+    @Test
+    void itShouldCancelQueueTimeoutsOfStartedCalls() throws Exception {
+        BitcoinJsonRpcAsyncClient sut = create(4, 1000, Duration.ofSeconds(30));
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            int value = i;
+            futures.add(sut.call(it -> value));
+        }
+        for (CompletableFuture<Integer> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+
+        assertThat(sut.getStartedCount(), is(500L));
+        assertThat(sut.getScheduledTimeoutCount(), is(0));
+    }
+
+    @Test
+    void itShouldFailCallsWaitingTooLong() throws Exception {
+        BitcoinJsonRpcAsyncClient sut = create(1, 100, Duration.ofMillis(50));
+
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> blocking = sut.call(it -> await(release));
+        CompletableFuture<Boolean> waiting = sut.call(it -> true);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> waiting.get(10, TimeUnit.SECONDS));
+        assertThat(e.getCause(), instanceOf(TimeoutException.class));
+        assertThat(sut.getQueueTimeoutCount(), is(1L));
+        assertThat(sut.getQueuedCount(), is(0));
+
+        release.countDown();
+        assertThat(blocking.get(10, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    void itShouldRejectCallsIfQueueIsFull() throws Exception {
+        BitcoinJsonRpcAsyncClient sut = create(1, 1, Duration.ofSeconds(10));
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Boolean> blocking = sut.call(it -> {
+            started.countDown();
+            return await(release);
+        });
+        started.await(10, TimeUnit.SECONDS);
+
+        CompletableFuture<Boolean> queued = sut.call(it -> true);
+        CompletableFuture<Boolean> rejected = sut.call(it -> true);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(10, TimeUnit.SECONDS));
+        assertThat(e.getCause(), instanceOf(RejectedExecutionException.class));
+        assertThat(sut.getRejectedCount(), is(1L));
+
+        release.countDown();
+        assertThat(blocking.get(10, TimeUnit.SECONDS), is(true));
+        assertThat(queued.get(10, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    void itShouldPropagateErrors() {
+        BitcoinJsonRpcAsyncClient sut = create(1, 1, Duration.ofSeconds(10));
+
+        Boolean result = sut.<Boolean>mono(it -> {
+                    throw new IOException("test");
+                })
+                .onErrorReturn(IOException.class, false)
+                .block(Duration.ofSeconds(10));
+
+        assertThat(result, is(false));
+        assertThat(sut.getFailedCount(), is(1L));
+    }
+
+    private BitcoinJsonRpcAsyncClient create(int maxConcurrentRequests, int maxQueueSize, Duration maxQueueWait) {
+        BitcoinJsonRpcAsyncClient asyncClient = BitcoinJsonRpcAsyncClient.builder()
+                .client(client)
+                .maxConcurrentRequests(maxConcurrentRequests)
+                .maxQueueSize(maxQueueSize)
+                .maxQueueWait(maxQueueWait)
+                .build();
+        clients.add(asyncClient);
+        return asyncClient;
+    }
+
+    private static boolean await(CountDownLatch latch) throws IOException {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.tbk.bitcoin.jsonrpc;
+
+import org.bitcoinj.core.Block;
+import org.bitcoinj.core.NetworkParameters;
+import org.bitcoinj.core.Sha256Hash;
+import org.bitcoinj.core.Transaction;
+import org.bitcoinj.params.RegTestParams;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tbk.bitcoin.jsonrpc.test.BitcoinNodeStub;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BitcoinRestClientTest {
+    private static final NetworkParameters params = RegTestParams.get();
+
+    private static final Block genesisBlock = params.getGenesisBlock();
+
+    private static final Transaction coinbase = genesisBlock.getTransactions().get(0);
+
+    private BitcoinNodeStub node;
+
+    private BitcoinRestClient sut;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, byte[]> fixtures = Map.of(
+                "/rest/block/" + genesisBlock.getHash() + ".bin", genesisBlock.bitcoinSerialize(),
+                "/rest/tx/" + coinbase.getTxId() + ".bin", coinbase.bitcoinSerialize(),
+                "/rest/headers/" + genesisBlock.getHash() + ".bin", genesisBlock.cloneAsHeader().bitcoinSerialize()
+        );
+
+        node = BitcoinNodeStub.builder()
+                .restHandler(fixtures::get)
+                .start();
+
+        sut = BitcoinRestClient.builder()
+                .rpcConfig(node.rpcConfig(params))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        node.close();
+    }
+
+    @Test
+    void itShouldFetchBlock() throws IOException {
+        Block block = sut.getBlock(genesisBlock.getHash());
+
+        assertThat(block.getHash(), is(genesisBlock.getHash()));
+        assertThat(block.getTransactions(), hasSize(1));
+    }
+
+    @Test
+    void itShouldFetchTransaction() throws IOException {
+        Transaction tx = sut.getTransaction(coinbase.getTxId());
+
+        assertThat(tx.getTxId(), is(coinbase.getTxId()));
+    }
+
+    @Test
+    void itShouldFetchHeaders() throws IOException {
+        List<Block> headers = sut.getBlockHeaders(genesisBlock.getHash(), 10);
+
+        assertThat(headers, hasSize(1));
+        assertThat(headers.get(0).getHash(), is(genesisBlock.getHash()));
+    }
+
+    @Test
+    void itShouldFailOnUnknownBlock() {
+        IOException e = assertThrows(IOException.class, () -> sut.getBlock(Sha256Hash.ZERO_HASH));
+
+        assertThat(e.getMessage(), containsString("404"));
+    }
+}
@@ -0,0 +1,181 @@
+package org.tbk.bitcoin.jsonrpc;
+
+import org.bitcoinj.core.Block;
+import org.bitcoinj.params.RegTestParams;
+import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tbk.bitcoin.jsonrpc.test.BitcoinNodeStub;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class BlockchainScannerTest {
+
+    // the height reported by "getblockcount"
+    private volatile int tipHeight;
+
+    private BitcoinNodeStub node;
+
+    private BitcoinClient client;
+
+    // remembers the height each block instance has been created for
+    private final Map<Block, Integer> heights = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    private final BlockchainScanner.BlockSource blockSource = height -> {
+        Thread.sleep(ThreadLocalRandom.current().nextInt(10));
+
+        Block block = RegTestParams.get().getGenesisBlock().cloneAsHeader();
+        heights.put(block, height);
+        return block;
+    };
+
+    private BlockchainScanner sut;
+
+    @BeforeEach
+    void setUp() {
+        // answers "getblockcount" requests only
+        node = BitcoinNodeStub.builder()
+                .rpcHandler(request -> tipHeight)
+                .start();
+
+        client = new BitcoinClient(node.rpcConfig(RegTestParams.get()));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (sut != null) {
+            sut.close();
+        }
+        client.close();
+        node.close();
+    }
+
+    @Test
+    void itShouldEmitBlocksInOrder() {
+        sut = BlockchainScanner.builder()
+                .client(client)
+                .blockSource(blockSource)
+                .parallelism(4)
+                .build();
+
+        List<Integer> scannedHeights = sut.scan(10, 49)
+                .map(heights::get)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+
+        assertThat(scannedHeights, is(List.of(10, 11, 12, 13, 14, 15, 16, 17, 18, 19,
+                20, 21, 22, 23, 24, 25, 26, 27, 28, 29,
+                30, 31, 32, 33, 34, 35, 36, 37, 38, 39,
+                40, 41, 42, 43, 44, 45, 46, 47, 48, 49)));
+    }
+
+    @Test
+    void itShouldResumeFromCheckpoint() {
+        ScanCheckpoint checkpoint = ScanCheckpoint.inMemory();
+
+        sut = BlockchainScanner.builder()
+                .client(client)
+                .blockSource(blockSource)
+                .parallelism(2)
+                .checkpoint(checkpoint)
+                .build();
+
+        List<Integer> firstRun = sut.scan(0, 9)
+                .take(5)
+                .map(heights::get)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+
+        assertThat(firstRun, is(List.of(0, 1, 2, 3, 4)));
+        // the last block has not been acknowledged by requesting the next one
+        assertThat(checkpoint.load().orElseThrow(), is(3));
+
+        List<Integer> secondRun = sut.scan(0, 9)
+                .map(heights::get)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+
+        assertThat(secondRun, is(List.of(4, 5, 6, 7, 8, 9)));
+        assertThat(checkpoint.load().orElseThrow(), is(9));
+    }
+
+    @Test
+    void itShouldSaveCheckpointsInIntervals() {
+        List<Integer> savedHeights = Collections.synchronizedList(new ArrayList<>());
+        ScanCheckpoint checkpoint = ScanCheckpoint.inMemory();
+
+        sut = BlockchainScanner.builder()
+                .client(client)
+                .blockSource(blockSource)
+                .parallelism(4)
+                .checkpoint(new ScanCheckpoint() {
+                    @Override
+                    public OptionalInt load() {
+                        return checkpoint.load();
+                    }
+
+                    @Override
+                    public void save(int height) {
+                        savedHeights.add(height);
+                        checkpoint.save(height);
+                    }
+                })
+                .checkpointInterval(10)
+                .build();
+
+        sut.scan(0, 49).blockLast(Duration.ofSeconds(30));
+
+        assertThat(savedHeights, is(List.of(9, 19, 29, 39, 49)));
+    }
+
+    @Test
+    void itShouldFollowNewBlocks() throws Exception {
+        ScanCheckpoint checkpoint = ScanCheckpoint.inMemory();
+        Sinks.Many<String> newBlockNotifications = Sinks.many().unicast().onBackpressureBuffer();
+        CountDownLatch initialScanDone = new CountDownLatch(1);
+
+        sut = BlockchainScanner.builder()
+                .client(client)
+                .blockSource(blockSource)
+                .parallelism(2)
+                .checkpoint(checkpoint)
+                .build();
+
+        tipHeight = 4;
+
+        CompletableFuture<List<Integer>> scannedHeights = sut.scanAndFollow(2, newBlockNotifications.asFlux())
+                .map(heights::get)
+                .doOnNext(height -> {
+                    if (height == 4) {
+                        initialScanDone.countDown();
+                    }
+                })
+                .take(6)
+                .collectList()
+                .toFuture();
+
+        assertThat(initialScanDone.await(30, TimeUnit.SECONDS), is(true));
+
+        tipHeight = 7;
+        newBlockNotifications.tryEmitNext("block");
+
+        assertThat(scannedHeights.get(30, TimeUnit.SECONDS), is(List.of(2, 3, 4, 5, 6, 7)));
+        // the last block has not been acknowledged by requesting the next one
+        assertThat(checkpoint.load().orElseThrow(), is(6));
+    }
+}
@@ -0,0 +1,182 @@
+package org.tbk.bitcoin.jsonrpc;
+
+import org.bitcoinj.params.RegTestParams;
+import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
+import org.consensusj.bitcoin.jsonrpc.RpcConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tbk.bitcoin.jsonrpc.test.BitcoinNodeStub;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+class LoadBalancingBitcoinClientTest {
+    private StubNode primaryNode;
+
+    private StubNode replicaNode;
+
+    private LoadBalancingBitcoinClient sut;
+
+    @BeforeEach
+    void setUp() {
+        primaryNode = new StubNode();
+        replicaNode = new StubNode();
+
+        sut = LoadBalancingBitcoinClient.builder()
+                .primary(primaryNode.rpcConfig())
+                .replicas(List.of(replicaNode.rpcConfig()))
+                .healthCheckInterval(Duration.ofHours(1))
+                .maxTipLag(2)
+                .maxConsecutiveErrors(1)
+                .ejectionDuration(Duration.ofHours(1))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sut.close();
+        primaryNode.stop();
+        replicaNode.stop();
+    }
+
+    @Test
+    void itShouldDistributeReadRequests() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            sut.getBlockCount();
+        }
+
+        assertThat(primaryNode.hits("getblockcount"), is(greaterThan(0)));
+        assertThat(replicaNode.hits("getblockcount"), is(greaterThan(0)));
+    }
+
+    @Test
+    void itShouldSendWalletRequestsToPrimary() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            sut.send("getnewaddress");
+        }
+
+        assertThat(primaryNode.hits("getnewaddress"), is(10));
+        assertThat(replicaNode.hits("getnewaddress"), is(0));
+    }
+
+    @Test
+    void itShouldSendNodeStateMutatingRequestsToPrimary() throws IOException {
+        for (String method : List.of("invalidateblock", "reconsiderblock", "preciousblock", "savemempool", "getblocktemplate")) {
+            for (int i = 0; i < 5; i++) {
+                sut.send(method);
+            }
+
+            assertThat(primaryNode.hits(method), is(5));
+            assertThat(replicaNode.hits(method), is(0));
+        }
+    }
+
+    @Test
+    void itShouldFailOverFromNodeWarmingUp() throws IOException {
+        replicaNode.errorCode = -28;
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(sut.getBlockCount(), is(100));
+        }
+
+        // ejected after the first failed request
+        assertThat(replicaNode.hits("getblockcount"), is(1));
+        assertThat(primaryNode.hits("getblockcount"), is(10));
+        assertThat(sut.getHealthyNodeUris(), is(List.of(primaryNode.uri())));
+    }
+
+    @Test
+    void itShouldCreateNodesWithClientFactory() {
+        List<URI> createdClientUris = new CopyOnWriteArrayList<>();
+        BitcoinJsonRpcClientFactory clientFactory = config -> {
+            createdClientUris.add(config.getURI());
+            return new BitcoinClient(config);
+        };
+
+        try (LoadBalancingBitcoinClient client = LoadBalancingBitcoinClient.builder()
+                .primary(primaryNode.rpcConfig())
+                .replicas(List.of(replicaNode.rpcConfig()))
+                .clientFactory(clientFactory)
+                .build()) {
+            assertThat(new ArrayList<>(createdClientUris), is(client.getNodeUris()));
+        }
+    }
+
+    @Test
+    void itShouldFailOverToHealthyNode() throws IOException {
+        replicaNode.stop();
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(sut.getBlockCount(), is(100));
+        }
+
+        assertThat(primaryNode.hits("getblockcount"), is(10));
+        assertThat(sut.getHealthyNodeUris(), is(List.of(primaryNode.uri())));
+    }
+
+    @Test
+    void itShouldEjectLaggingNode() throws IOException {
+        replicaNode.tip.set(90);
+
+        sut.checkHealth();
+        assertThat(sut.getHealthyNodeUris(), is(List.of(primaryNode.uri())));
+
+        int primaryHitsBefore = primaryNode.hits("getblockcount");
+        for (int i = 0; i < 10; i++) {
+            assertThat(sut.getBlockCount(), is(100));
+        }
+        assertThat(primaryNode.hits("getblockcount") - primaryHitsBefore, is(10));
+
+        replicaNode.tip.set(99);
+
+        sut.checkHealth();
+        assertThat(sut.getHealthyNodeUris(), is(List.of(primaryNode.uri(), replicaNode.uri())));
+    }
+
+    private static final class StubNode {
+        private final BitcoinNodeStub node;
+
+        private final AtomicInteger tip = new AtomicInteger(100);
+
+        // if set, every request is answered with this error code
+        private volatile Integer errorCode;
+
+        StubNode() {
+            node = BitcoinNodeStub.builder()
+                    .rpcHandler(request -> {
+                        Integer error = errorCode;
+                        if (error != null) {
+                            throw new BitcoinNodeStub.RpcError(error, "Loading block index...");
+                        }
+                        return "getblockcount".equals(request.method()) ? tip.get() : "result";
+                    })
+                    .start();
+        }
+
+        URI uri() {
+            return node.getUri();
+        }
+
+        RpcConfig rpcConfig() {
+            return node.rpcConfig(RegTestParams.get());
+        }
+
+        int hits(String method) {
+            return node.getRequestCount(method);
+        }
+
+        void stop() {
+            node.close();
+        }
+    }
+}
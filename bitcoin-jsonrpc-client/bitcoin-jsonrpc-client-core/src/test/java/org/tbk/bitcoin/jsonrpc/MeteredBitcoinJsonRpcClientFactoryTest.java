@@ -0,0 +1,77 @@
+package org.tbk.bitcoin.jsonrpc;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bitcoinj.params.RegTestParams;
+import org.consensusj.bitcoin.jsonrpc.BitcoinClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.tbk.bitcoin.jsonrpc.test.BitcoinNodeStub;
+
+import java.io.IOException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MeteredBitcoinJsonRpcClientFactoryTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private BitcoinNodeStub node;
+
+    private BitcoinClient sut;
+
+    @BeforeEach
+    void setUp() {
+        node = BitcoinNodeStub.builder()
+                .rpcHandler(request -> 42)
+                .start();
+
+        sut = new MeteredBitcoinJsonRpcClientFactory(registry)
+                .create(node.rpcConfig(RegTestParams.get()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        node.close();
+    }
+
+    @Test
+    void itShouldRecordRequestsByMethod() throws IOException {
+        assertThat(sut.getBlockCount(), is(42));
+        assertThat(sut.getBlockCount(), is(42));
+
+        Timer timer = registry.get("bitcoin.jsonrpc.requests")
+                .tag("method", "getblockcount")
+                .tag("outcome", "success")
+                .timer();
+        assertThat(timer.count(), is(2L));
+
+        double inFlight = registry.get("bitcoin.jsonrpc.requests.in.flight")
+                .tag("method", "getblockcount")
+                .gauge()
+                .value();
+        assertThat(inFlight, is(0d));
+    }
+
+    @Test
+    void itShouldRecordErrorsByMethod() {
+        node.setStatusCode(500);
+
+        assertThrows(IOException.class, () -> sut.getBlockCount());
+
+        Timer timer = registry.get("bitcoin.jsonrpc.requests")
+                .tag("method", "getblockcount")
+                .tag("outcome", "error")
+                .timer();
+        assertThat(timer.count(), is(1L));
+
+        double errors = registry.get("bitcoin.jsonrpc.requests.errors")
+                .tag("method", "getblockcount")
+                .counter()
+                .count();
+        assertThat(errors, is(1d));
+    }
+}
@@ -0,0 +1,234 @@
+package org.tbk.bitcoin.jsonrpc.test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Builder;
+import org.bitcoinj.core.NetworkParameters;
+import org.consensusj.bitcoin.jsonrpc.RpcConfig;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bitcoin node stub for tests. JSON-RPC requests - single and batched - are answered with the results
+ * of an {@link RpcHandler}, REST requests below {@code /rest/} with the resources of a {@link RestHandler}.
+ *
+ * <p>Responses of a batch are returned in reverse order - clients must match them to their requests by id.
+ * Requests are handled concurrently, so handlers may block without stalling other requests.
+ */
+public final class BitcoinNodeStub implements AutoCloseable {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private static final TypeReference<Map<String, Object>> requestType = new TypeReference<>() {
+    };
+
+    @FunctionalInterface
+    public interface RpcHandler {
+        /**
+         * Returns the result of the given request - throw an {@link RpcError} to answer with an error instead.
+         */
+        Object handle(RpcRequest request) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface RestHandler {
+        /**
+         * Returns the body of the resource at the given path - or {@code null} if it does not exist.
+         */
+        byte[] handle(String path) throws Exception;
+    }
+
+    public record RpcRequest(Object id, String method, List<Object> params) {
+
+        public String stringParam(int index) {
+            return String.valueOf(params.get(index));
+        }
+
+        public int intParam(int index) {
+            return ((Number) params.get(index)).intValue();
+        }
+    }
+
+    public static final class RpcError extends RuntimeException {
+        private final int code;
+
+        public RpcError(int code, String message) {
+            super(message);
+            this.code = code;
+        }
+
+        public int getCode() {
+            return code;
+        }
+    }
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private final RpcHandler rpcHandler;
+
+    private final RestHandler restHandler;
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private final Map<String, AtomicInteger> requestsByMethod = new ConcurrentHashMap<>();
+
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger singleRequestCount = new AtomicInteger();
+
+    private final AtomicInteger restRequestCount = new AtomicInteger();
+
+    // if set, every response is sent with this status code
+    private volatile Integer statusCode;
+
+    @Builder(buildMethodName = "start")
+    private BitcoinNodeStub(RpcHandler rpcHandler, RestHandler restHandler) {
+        this.rpcHandler = Optional.ofNullable(rpcHandler).orElse(request -> {
+            throw new RpcError(-32601, "Method not found");
+        });
+        this.restHandler = Optional.ofNullable(restHandler).orElse(path -> null);
+
+        this.executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setNameFormat("bitcoin-node-stub-%d")
+                .setDaemon(true)
+                .build());
+
+        try {
+            this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error while creating node stub", e);
+        }
+        server.setExecutor(executor);
+        server.createContext("/", this::handleRpc);
+        server.createContext("/rest/", this::handleRest);
+        server.start();
+    }
+
+    public URI getUri() {
+        return URI.create("http://localhost:" + server.getAddress().getPort());
+    }
+
+    public RpcConfig rpcConfig(NetworkParameters params) {
+        return new RpcConfig(params, getUri(), "test", "test");
+    }
+
+    /**
+     * Sends every following response with the given status code - or the default one if {@code null}.
+     */
+    public void setStatusCode(Integer statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    public int getRequestCount(String method) {
+        return Optional.ofNullable(requestsByMethod.get(method)).map(AtomicInteger::get).orElse(0);
+    }
+
+    public List<Integer> getBatchSizes() {
+        return List.copyOf(batchSizes);
+    }
+
+    public int getSingleRequestCount() {
+        return singleRequestCount.get();
+    }
+
+    public int getRestRequestCount() {
+        return restRequestCount.get();
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    private void handleRpc(HttpExchange exchange) throws IOException {
+        JsonNode requestBody = mapper.readTree(exchange.getRequestBody());
+
+        Object response;
+        if (requestBody.isArray()) {
+            batchSizes.add(requestBody.size());
+
+            List<Map<String, Object>> responses = new ArrayList<>();
+            for (int i = requestBody.size() - 1; i >= 0; i--) {
+                responses.add(toResponse(mapper.convertValue(requestBody.get(i), requestType)));
+            }
+            response = responses;
+        } else {
+            singleRequestCount.incrementAndGet();
+            response = toResponse(mapper.convertValue(requestBody, requestType));
+        }
+
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        send(exchange, 200, mapper.writeValueAsBytes(response));
+    }
+
+    private void handleRest(HttpExchange exchange) throws IOException {
+        restRequestCount.incrementAndGet();
+
+        byte[] body;
+        try {
+            body = restHandler.handle(exchange.getRequestURI().getPath());
+        } catch (Exception e) {
+            send(exchange, 500, String.valueOf(e.getMessage()).getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        if (body == null) {
+            send(exchange, 404, "not found".getBytes(StandardCharsets.UTF_8));
+        } else {
+            send(exchange, 200, body);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> toResponse(Map<String, Object> request) {
+        String method = String.valueOf(request.get("method"));
+        List<Object> params = Optional.ofNullable((List<Object>) request.get("params")).orElse(List.of());
+        requestsByMethod.computeIfAbsent(method, it -> new AtomicInteger()).incrementAndGet();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("jsonrpc", "2.0");
+        response.put("id", request.get("id"));
+        try {
+            response.put("result", rpcHandler.handle(new RpcRequest(request.get("id"), method, params)));
+            response.put("error", null);
+        } catch (RpcError e) {
+            response.put("result", null);
+            response.put("error", Map.of("code", e.getCode(), "message", e.getMessage()));
+        } catch (Exception e) {
+            response.put("result", null);
+            response.put("error", Map.of("code", -32603, "message", String.valueOf(e.getMessage())));
+        }
+        return response;
+    }
+
+    private void send(HttpExchange exchange, int defaultStatusCode, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(Optional.ofNullable(statusCode).orElse(defaultStatusCode), body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+}